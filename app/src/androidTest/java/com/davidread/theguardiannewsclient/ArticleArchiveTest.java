@@ -0,0 +1,216 @@
+package com.davidread.theguardiannewsclient;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented test for the {@link ArticleArchive}. The benchmark appends articles to a fresh
+ * archive in pages of 50, scans them, and opens the archive again, logging the throughput of each
+ * step. It runs with 10,000 articles so the suite stays quick; pass {@code -e recordCount 1000000}
+ * for the full benchmark. The retention test checks that the oldest segments are dropped once the
+ * archive outgrows its size limit, and the search and export tests check what they return for an
+ * article archived twice.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ArticleArchiveTest {
+
+    private static final String LOG_TAG_NAME = ArticleArchiveTest.class.getSimpleName();
+    private static final int PAGE_SIZE = 50;
+    private static final String DEFAULT_RECORD_COUNT = "10000";
+
+    @Test
+    public void appendAndScanArticles() throws ExecutionException, InterruptedException {
+        Context appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        int recordCount = Integer.parseInt(arguments.getString("recordCount", DEFAULT_RECORD_COUNT));
+        File directory = new File(appContext.getCacheDir(), "article_archive_test");
+        deleteDirectory(directory);
+        try {
+            ArticleArchive articleArchive = new ArticleArchive(directory, ArticleArchive.UNLIMITED_BYTES, ArticleArchive.MAX_SEGMENT_BYTES);
+            long startNanos = SystemClock.elapsedRealtimeNanos();
+            appendArticles(articleArchive, recordCount);
+            logThroughput("append", recordCount, startNanos);
+
+            startNanos = SystemClock.elapsedRealtimeNanos();
+            long scannedCount = articleArchive.scan(new ArticleArchive.RecordVisitor() {
+                @Override
+                public boolean visit(ArticleArchive.Record record) {
+                    return true;
+                }
+            });
+            logThroughput("scan", scannedCount, startNanos);
+            assertEquals(recordCount, scannedCount);
+
+            startNanos = SystemClock.elapsedRealtimeNanos();
+            ArticleArchive reopenedArticleArchive = new ArticleArchive(directory, ArticleArchive.UNLIMITED_BYTES, ArticleArchive.MAX_SEGMENT_BYTES);
+            assertEquals(recordCount, reopenedArticleArchive.size());
+            logThroughput("open", recordCount, startNanos);
+            assertEquals(newArticle(recordCount - 1).getTitle(), reopenedArticleArchive.get(newArticle(recordCount - 1).getId()).getTitle());
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    @Test
+    public void dropsOldestSegmentsBeyondSizeLimit() throws ExecutionException, InterruptedException {
+        Context appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        File directory = new File(appContext.getCacheDir(), "article_archive_retention_test");
+        deleteDirectory(directory);
+        try {
+            // Records take over 150 bytes, so this fills more than four segments against a limit of two.
+            int maxSegmentBytes = 64 * 1024;
+            long maxBytes = 2L * maxSegmentBytes;
+            int recordCount = 4 * maxSegmentBytes / 150;
+            ArticleArchive articleArchive = new ArticleArchive(directory, maxBytes, maxSegmentBytes);
+            appendArticles(articleArchive, recordCount);
+
+            long directoryBytes = 0;
+            for (File file : directory.listFiles()) {
+                directoryBytes += file.length();
+            }
+            assertTrue(directoryBytes + " bytes on disk", directoryBytes <= maxBytes);
+            assertTrue(articleArchive.size() < recordCount);
+            assertNull(articleArchive.get(newArticle(0).getId()));
+            assertEquals(newArticle(recordCount - 1).getTitle(), articleArchive.get(newArticle(recordCount - 1).getId()).getTitle());
+
+            // The index must agree with the records left on disk, also after opening again.
+            long scannedCount = articleArchive.scan(new ArticleArchive.RecordVisitor() {
+                @Override
+                public boolean visit(ArticleArchive.Record record) {
+                    return true;
+                }
+            });
+            assertEquals(articleArchive.size(), scannedCount);
+            assertEquals(articleArchive.size(), new ArticleArchive(directory, maxBytes, maxSegmentBytes).size());
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    @Test
+    public void searchMatchesLatestTitles() throws ExecutionException, InterruptedException {
+        File directory = new File(InstrumentationRegistry.getInstrumentation().getTargetContext().getCacheDir(), "article_archive_search_test");
+        deleteDirectory(directory);
+        try {
+            ArticleArchive articleArchive = newArchiveWithRetitledArticle(directory);
+
+            List<Article> articles = articleArchive.search("CLIMATE talks", 10);
+            assertEquals(1, articles.size());
+            assertEquals(newArticle(7).getId(), articles.get(0).getId());
+
+            // Article 7 no longer matches its old title, and results keep the order of the archive.
+            articles = articleArchive.search("headline of article 1", 100);
+            assertEquals(11, articles.size());
+            assertEquals(newArticle(1).getId(), articles.get(0).getId());
+            assertEquals(newArticle(19).getId(), articles.get(10).getId());
+            articles = articleArchive.search("headline of article 7", 100);
+            assertEquals(10, articles.size());
+            assertEquals(newArticle(70).getId(), articles.get(0).getId());
+            assertEquals(3, articleArchive.search("headline", 3).size());
+            assertTrue(articleArchive.search("headline", 0).isEmpty());
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    @Test
+    public void exportWritesLatestRecordOfEveryArticle() throws ExecutionException, InterruptedException, IOException, JSONException {
+        File directory = new File(InstrumentationRegistry.getInstrumentation().getTargetContext().getCacheDir(), "article_archive_export_test");
+        deleteDirectory(directory);
+        try {
+            ArticleArchive articleArchive = newArchiveWithRetitledArticle(directory);
+            StringWriter writer = new StringWriter();
+            assertEquals(100, articleArchive.export(writer));
+
+            String[] lines = writer.toString().split("\n");
+            assertEquals(100, lines.length);
+            Map<String, JSONObject> jsonObjects = new HashMap<>();
+            for (String line : lines) {
+                JSONObject jsonObject = new JSONObject(line);
+                jsonObjects.put(jsonObject.getString("id"), jsonObject);
+            }
+            JSONObject retitled = jsonObjects.get(newArticle(7).getId());
+            assertEquals("Climate talks resume", retitled.getString("webTitle"));
+            assertEquals("Author 7", retitled.getJSONArray("contributors").getString(0));
+            assertEquals(newArticle(8).getUrl(), jsonObjects.get(newArticle(8).getId()).getString("webUrl"));
+            assertTrue(retitled.getLong("archivedAt") > 0);
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    /**
+     * Returns an archive in the given directory holding articles 0 to 99, the seventh of which was
+     * archived again with a new title.
+     */
+    private static ArticleArchive newArchiveWithRetitledArticle(File directory) throws ExecutionException, InterruptedException {
+        ArticleArchive articleArchive = new ArticleArchive(directory, ArticleArchive.UNLIMITED_BYTES, ArticleArchive.MAX_SEGMENT_BYTES);
+        appendArticles(articleArchive, 100);
+        Article article = newArticle(7);
+        articleArchive.append(Collections.singletonList(new Article(article.getId(), "Climate talks resume",
+                article.getAuthors(), article.getSectionName(), article.getDatePublished(), article.getUrl(),
+                article.getThumbnailUrl()))).get();
+        return articleArchive;
+    }
+
+    /**
+     * Appends the given number of articles in pages and waits for the last page to be written.
+     */
+    private static void appendArticles(ArticleArchive articleArchive, int recordCount) throws ExecutionException, InterruptedException {
+        Future<?> lastAppend = null;
+        for (int pageStart = 0; pageStart < recordCount; pageStart += PAGE_SIZE) {
+            List<Article> articles = new ArrayList<>(PAGE_SIZE);
+            for (int i = pageStart; i < Math.min(recordCount, pageStart + PAGE_SIZE); i++) {
+                articles.add(newArticle(i));
+            }
+            lastAppend = articleArchive.append(articles);
+        }
+        lastAppend.get();
+    }
+
+    private static Article newArticle(int index) {
+        return new Article("world/2026/oct/18/article-" + index, "Headline of article " + index,
+                new String[]{"Author " + index % 100}, "World news", "2026-10-18T10:00:00Z",
+                "https://www.theguardian.com/world/2026/oct/18/article-" + index,
+                "https://media.guim.co.uk/" + index + "/500.jpg");
+    }
+
+    private static void logThroughput(String step, long recordCount, long startNanos) {
+        double seconds = (SystemClock.elapsedRealtimeNanos() - startNanos) / 1e9;
+        Log.i(LOG_TAG_NAME, String.format(Locale.US, "%s %d records in %.2f s, %.0f records/s", step, recordCount, seconds, recordCount / seconds));
+    }
+
+    private static void deleteDirectory(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+}
@@ -0,0 +1,108 @@
+package com.davidread.theguardiannewsclient;
+
+import android.content.Context;
+import android.os.Bundle;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+/**
+ * Instrumented load test, which replays article pages concurrently through {@link ArticleLoader}
+ * on any device, connected or not. By default, the fixture set in the replay_fixtures assets
+ * directory of the test is replayed: the first five pages of the newest articles, with a time to
+ * headers and chunk pacing of a mobile connection. The replay fails if there are no fixtures.
+ * <p>
+ * To replay pages recorded on a device instead, record with {@code -e record true} and replay with
+ * {@code -e recorded true}. Recorded fixtures live in the replay_fixtures directory of the app
+ * and can be moved into the assets with adb. Optional {@code -e latencyScale},
+ * {@code -e maxBytesPerSecond}, {@code -e loadCount}, and {@code -e concurrency} arguments shape
+ * the replay.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ArticleLoaderReplayTest {
+
+    private static final String ORDER_BY = "newest";
+    private static final String SEARCH_TERM = "";
+    private static final int PAGE_SIZE = 20;
+    private static final int PAGE_COUNT = 5;
+
+    @Test
+    public void recordArticlePages() {
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        assumeTrue(Boolean.parseBoolean(arguments.getString("record")));
+
+        Context appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        HttpTransport previousHttpTransport = GuardianApiClient.getHttpTransport();
+        RecordingTransport recordingTransport = new RecordingTransport(previousHttpTransport, getFixtureDirectory(appContext));
+        GuardianApiClient.setHttpTransport(recordingTransport);
+        try {
+            for (int pageIndex = 1; pageIndex <= PAGE_COUNT; pageIndex++) {
+                ArticlePage articlePage = new ArticleLoader(appContext, ORDER_BY, pageIndex, PAGE_SIZE, SEARCH_TERM).loadInBackground();
+                assertFalse(articlePage.getArticles().isEmpty());
+            }
+        } finally {
+            GuardianApiClient.setHttpTransport(previousHttpTransport);
+        }
+    }
+
+    @Test
+    public void replayArticlePagesConcurrently() throws InterruptedException, IOException {
+        Context appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        File fixtureDirectory = Boolean.parseBoolean(arguments.getString("recorded"))
+                ? getFixtureDirectory(appContext)
+                : copyAssetFixtures(InstrumentationRegistry.getInstrumentation().getContext(), appContext);
+        ReplayTransport replayTransport = new ReplayTransport(fixtureDirectory,
+                Float.parseFloat(arguments.getString("latencyScale", "1")),
+                Long.parseLong(arguments.getString("maxBytesPerSecond", "0")));
+        assertTrue("No fixtures in " + fixtureDirectory, replayTransport.getFixtureCount() > 0);
+
+        ReplayLoadRunner.Report report = ReplayLoadRunner.run(appContext, replayTransport, ORDER_BY, SEARCH_TERM, PAGE_SIZE, PAGE_COUNT,
+                Integer.parseInt(arguments.getString("loadCount", "100")),
+                Integer.parseInt(arguments.getString("concurrency", "4")));
+        assertEquals(0, report.getFailedLoadCount());
+    }
+
+    private static File getFixtureDirectory(Context context) {
+        return new File(context.getFilesDir(), ReplayTransport.FIXTURE_DIRECTORY_NAME);
+    }
+
+    /**
+     * Copies the fixtures in the assets of the test into a fresh directory of the app, since a
+     * {@link ReplayTransport} reads them from files, and returns that directory.
+     */
+    private static File copyAssetFixtures(Context testContext, Context appContext) throws IOException {
+        File fixtureDirectory = new File(appContext.getCacheDir(), ReplayTransport.FIXTURE_DIRECTORY_NAME);
+        File[] staleFiles = fixtureDirectory.listFiles();
+        if (staleFiles != null) {
+            for (File staleFile : staleFiles) {
+                staleFile.delete();
+            }
+        }
+        fixtureDirectory.mkdirs();
+        String[] names = testContext.getAssets().list(ReplayTransport.FIXTURE_DIRECTORY_NAME);
+        for (String name : names == null ? new String[0] : names) {
+            try (InputStream inputStream = testContext.getAssets().open(ReplayTransport.FIXTURE_DIRECTORY_NAME + "/" + name);
+                 OutputStream outputStream = new FileOutputStream(new File(fixtureDirectory, name))) {
+                byte[] buffer = new byte[8192];
+                int count;
+                while ((count = inputStream.read(buffer)) != -1) {
+                    outputStream.write(buffer, 0, count);
+                }
+            }
+        }
+        return fixtureDirectory;
+    }
+}
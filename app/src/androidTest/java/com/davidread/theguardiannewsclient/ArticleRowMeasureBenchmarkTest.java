@@ -0,0 +1,128 @@
+package com.davidread.theguardiannewsclient;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented benchmark, which binds the texts of a different article to a row and then measures
+ * and lays it out, once for the {@link TextView} based {@code list_item_article} layout and once
+ * for {@link ArticleRowView}, and logs the time per row. The thumbnail is shown in both, like on
+ * an unmetered connection.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ArticleRowMeasureBenchmarkTest {
+
+    private static final String LOG_TAG_NAME = ArticleRowMeasureBenchmarkTest.class.getSimpleName();
+    private static final int WARM_UP_ROW_COUNT = 500;
+    private static final int MEASURED_ROW_COUNT = 2000;
+
+    private Instrumentation instrumentation;
+    private Context themedContext;
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        themedContext = new ContextThemeWrapper(instrumentation.getTargetContext(), R.style.Theme_NewsFeed);
+    }
+
+    @Test
+    public void flatRowMeasuresAndLaysOutFaster() {
+        final double[][] result = new double[2][];
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                FrameLayout parent = new FrameLayout(themedContext);
+                final View articleView = LayoutInflater.from(themedContext).inflate(R.layout.list_item_article, parent, false);
+                final TextView titleTextView = articleView.findViewById(R.id.title_text_view);
+                final TextView authorsTextView = articleView.findViewById(R.id.authors_text_view);
+                final TextView sectionNameTextView = articleView.findViewById(R.id.section_name_text_view);
+                final TextView datePublishedTextView = articleView.findViewById(R.id.date_published_text_view);
+                articleView.findViewById(R.id.thumbnail_image_view).setVisibility(View.VISIBLE);
+                result[0] = measureRows(articleView, new Binder() {
+                    @Override
+                    public void bind(int rowIndex) {
+                        titleTextView.setText(getTitle(rowIndex));
+                        authorsTextView.setText(getAuthors(rowIndex));
+                        sectionNameTextView.setText(getSectionName(rowIndex));
+                        datePublishedTextView.setText(getDatePublished(rowIndex));
+                    }
+                });
+
+                final ArticleRowView articleRowView = (ArticleRowView) LayoutInflater.from(themedContext).inflate(R.layout.list_item_article_row, parent, false);
+                articleRowView.getThumbnailImageView().setVisibility(View.VISIBLE);
+                result[1] = measureRows(articleRowView, new Binder() {
+                    @Override
+                    public void bind(int rowIndex) {
+                        articleRowView.setTexts(getTitle(rowIndex), getAuthors(rowIndex), getSectionName(rowIndex), getDatePublished(rowIndex));
+                    }
+                });
+            }
+        });
+
+        Log.i(LOG_TAG_NAME, String.format(Locale.US,
+                "%d rows: list_item_article p50 %.1f us p90 %.1f us, ArticleRowView p50 %.1f us p90 %.1f us",
+                MEASURED_ROW_COUNT, result[0][0], result[0][1], result[1][0], result[1][1]));
+        assertTrue("ArticleRowView p50 " + result[1][0] + " us, list_item_article p50 " + result[0][0] + " us",
+                result[1][0] <= result[0][0]);
+    }
+
+    /**
+     * Binds, measures at the screen width, and lays out the given row for every row index, and
+     * returns the p50 and p90 microseconds per row of the measured rows.
+     */
+    private double[] measureRows(View rowView, Binder binder) {
+        int width = themedContext.getResources().getDisplayMetrics().widthPixels;
+        int widthMeasureSpec = View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY);
+        int heightMeasureSpec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+        long[] rowNanos = new long[MEASURED_ROW_COUNT];
+        for (int rowIndex = 0; rowIndex < WARM_UP_ROW_COUNT + MEASURED_ROW_COUNT; rowIndex++) {
+            long startNanos = System.nanoTime();
+            binder.bind(rowIndex);
+            rowView.measure(widthMeasureSpec, heightMeasureSpec);
+            rowView.layout(0, 0, rowView.getMeasuredWidth(), rowView.getMeasuredHeight());
+            if (rowIndex >= WARM_UP_ROW_COUNT) {
+                rowNanos[rowIndex - WARM_UP_ROW_COUNT] = System.nanoTime() - startNanos;
+            }
+        }
+        Arrays.sort(rowNanos);
+        return new double[]{rowNanos[MEASURED_ROW_COUNT / 2] / 1e3, rowNanos[MEASURED_ROW_COUNT * 9 / 10] / 1e3};
+    }
+
+    private static String getTitle(int rowIndex) {
+        return "Headline number " + rowIndex + (rowIndex % 3 == 0 ? " that runs long enough to wrap onto a second line of the row" : "");
+    }
+
+    private static String getAuthors(int rowIndex) {
+        return "By Contributor " + rowIndex % 50 + (rowIndex % 2 == 0 ? " and Contributor " + rowIndex % 31 : "");
+    }
+
+    private static String getSectionName(int rowIndex) {
+        return "Section " + rowIndex % 20;
+    }
+
+    private static String getDatePublished(int rowIndex) {
+        return "Jan " + (1 + rowIndex % 28) + ", 2024";
+    }
+
+    private interface Binder {
+        void bind(int rowIndex);
+    }
+}
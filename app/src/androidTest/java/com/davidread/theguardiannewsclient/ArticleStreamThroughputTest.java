@@ -0,0 +1,165 @@
+package com.davidread.theguardiannewsclient;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented benchmark of {@link ArticleJsonStreamParser} on its own and of an
+ * {@link ArticleStream} pulling pages from a {@link StandInTransport}. Throughput is logged; the
+ * assertions check that every article arrives once and that pages are only fetched on demand.
+ * Requests to the {@link StandInTransport} do not count against the API quota, so the
+ * throughput is not capped by its per second limit.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ArticleStreamThroughputTest {
+
+    private static final String LOG_TAG_NAME = ArticleStreamThroughputTest.class.getSimpleName();
+
+    /**
+     * int representing how many articles each page holds, the most the API serves per page.
+     */
+    private static final int PAGE_SIZE = 200;
+
+    /**
+     * int representing how many articles the stand-in result set holds.
+     */
+    private static final int TOTAL_RESULT_COUNT = 2000;
+
+    /**
+     * int representing how many articles a subscriber asks for at a time.
+     */
+    private static final int DEMAND_BATCH_SIZE = 50;
+
+    private Context appContext;
+    private HttpTransport previousHttpTransport;
+    private StandInTransport standInTransport;
+
+    @Before
+    public void setUp() {
+        appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        previousHttpTransport = GuardianApiClient.getHttpTransport();
+        standInTransport = new StandInTransport(TOTAL_RESULT_COUNT, 0, 0);
+        GuardianApiClient.setHttpTransport(standInTransport);
+        LoadingProfileOverride.set(LoadingProfile.UNMETERED);
+    }
+
+    @After
+    public void tearDown() {
+        LoadingProfileOverride.set(null);
+        GuardianApiClient.setHttpTransport(previousHttpTransport);
+    }
+
+    @Test
+    public void parseGeneratedPages() throws IOException {
+        String json = StandInTransport.buildSearchResponse(1, PAGE_SIZE, TOTAL_RESULT_COUNT, null);
+        int iterations = 50;
+        final AtomicInteger parsedCount = new AtomicInteger();
+        ArticleJsonStreamParser.OnArticleParsedListener listener = new ArticleJsonStreamParser.OnArticleParsedListener() {
+            @Override
+            public void onArticleParsed(Article article) {
+                parsedCount.incrementAndGet();
+            }
+        };
+
+        // Warm up before timing.
+        for (int i = 0; i < 5; i++) {
+            ArticleJsonStreamParser.parse(new StringReader(json), null, listener);
+        }
+        parsedCount.set(0);
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < iterations; i++) {
+            ArticlePage articlePage = ArticleJsonStreamParser.parse(new StringReader(json), null, listener);
+            assertEquals(PAGE_SIZE, articlePage.getArticles().size());
+        }
+        double seconds = (SystemClock.elapsedRealtimeNanos() - startNanos) / 1e9;
+        long bytes = (long) json.getBytes(StandardCharsets.UTF_8).length * iterations;
+        Log.i(LOG_TAG_NAME, String.format(Locale.US, "parser: %d articles in %.3f s, %.0f articles/s, %.1f MB/s",
+                parsedCount.get(), seconds, parsedCount.get() / seconds, bytes / seconds / 1e6));
+        assertEquals(PAGE_SIZE * iterations, parsedCount.get());
+    }
+
+    @Test
+    public void streamWholeResultSetOnDemand() throws InterruptedException {
+        final Set<String> ids = new HashSet<>();
+        final CountDownLatch completedLatch = new CountDownLatch(1);
+        final AtomicInteger errorCount = new AtomicInteger();
+        final ArticleStream[] articleStream = new ArticleStream[1];
+        articleStream[0] = new ArticleStream(appContext, "newest", "", null, PAGE_SIZE, ApiQuotaManager.Priority.FOREGROUND, new ArticleStream.Subscriber() {
+            @Override
+            public void onNext(Article article) {
+                ids.add(article.getId());
+                if (ids.size() % DEMAND_BATCH_SIZE == 0) {
+                    articleStream[0].request(DEMAND_BATCH_SIZE);
+                }
+            }
+
+            @Override
+            public void onComplete() {
+                completedLatch.countDown();
+            }
+
+            @Override
+            public void onError() {
+                errorCount.incrementAndGet();
+                completedLatch.countDown();
+            }
+        });
+
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        articleStream[0].request(DEMAND_BATCH_SIZE);
+        assertTrue("Stream did not complete", completedLatch.await(60, TimeUnit.SECONDS));
+        double seconds = (SystemClock.elapsedRealtimeNanos() - startNanos) / 1e9;
+        Log.i(LOG_TAG_NAME, String.format(Locale.US, "stream: %d articles in %d pages in %.3f s, %.0f articles/s, %.1f MB/s",
+                ids.size(), standInTransport.getSearchRequestCount(), seconds, ids.size() / seconds,
+                standInTransport.getServedBytes() / seconds / 1e6));
+        assertEquals(0, errorCount.get());
+        assertEquals(TOTAL_RESULT_COUNT, ids.size());
+        assertEquals(TOTAL_RESULT_COUNT / PAGE_SIZE, standInTransport.getSearchRequestCount());
+    }
+
+    @Test
+    public void streamStopsFetchingWithoutDemand() {
+        final AtomicInteger deliveredCount = new AtomicInteger();
+        ArticleStream articleStream = new ArticleStream(appContext, "newest", "", null, PAGE_SIZE, ApiQuotaManager.Priority.FOREGROUND, new ArticleStream.Subscriber() {
+            @Override
+            public void onNext(Article article) {
+                deliveredCount.incrementAndGet();
+            }
+
+            @Override
+            public void onComplete() {
+            }
+
+            @Override
+            public void onError() {
+            }
+        });
+
+        articleStream.request(PAGE_SIZE + 10);
+        SystemClock.sleep(2000);
+        assertEquals(PAGE_SIZE + 10, deliveredCount.get());
+        assertEquals(2, standInTransport.getSearchRequestCount());
+        articleStream.cancel();
+    }
+}
@@ -0,0 +1,183 @@
+package com.davidread.theguardiannewsclient;
+
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented benchmark of opening already-seen articles from the compressed body cache of
+ * {@link ArticleBodyRepository}. Body texts are stored in a {@link DiskLruCache}, which is then
+ * opened anew like after a process restart. It logs the median, 95th percentile and slowest open
+ * of every body, first one at a time and then from several threads at once while another thread
+ * keeps replacing entries. Runs with 200 bodies unless given a {@code -e bodyCount} argument.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DiskLruCacheBenchmarkTest {
+
+    private static final String LOG_TAG_NAME = DiskLruCacheBenchmarkTest.class.getSimpleName();
+
+    /**
+     * long representing the byte budget of the cache, the same as the body text cache of
+     * {@link ArticleBodyRepository}.
+     */
+    private static final long MAX_CACHE_SIZE_BYTES = 10 * 1024 * 1024;
+
+    /**
+     * long representing the most milliseconds the median open of a cached body may take.
+     */
+    private static final long MAX_MEDIAN_OPEN_MILLIS = 10;
+
+    /**
+     * int representing how many threads open bodies at the same time.
+     */
+    private static final int READER_THREAD_COUNT = 4;
+
+    private File directory;
+
+    @Before
+    public void setUp() {
+        directory = new File(InstrumentationRegistry.getInstrumentation().getTargetContext().getCacheDir(), LOG_TAG_NAME);
+        deleteDirectory();
+    }
+
+    @After
+    public void tearDown() {
+        deleteDirectory();
+    }
+
+    @Test
+    public void openCachedBodies() throws InterruptedException {
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        final int bodyCount = Integer.parseInt(arguments.getString("bodyCount", "200"));
+        Random random = new Random(27);
+        final String[] bodies = new String[bodyCount];
+        final String[] replacedBodies = new String[bodyCount];
+        DiskLruCache writtenCache = new DiskLruCache(directory, MAX_CACHE_SIZE_BYTES);
+        for (int i = 0; i < bodyCount; i++) {
+            bodies[i] = buildBody(random);
+            replacedBodies[i] = buildBody(random);
+            writtenCache.putCompressedString(getId(i), bodies[i]);
+        }
+
+        // Open every body one at a time from a cache indexed anew.
+        final DiskLruCache diskLruCache = new DiskLruCache(directory, MAX_CACHE_SIZE_BYTES);
+        long[] openNanos = new long[bodyCount];
+        for (int i = 0; i < bodyCount; i++) {
+            long startNanos = SystemClock.elapsedRealtimeNanos();
+            String body = diskLruCache.getCompressedString(getId(i));
+            openNanos[i] = SystemClock.elapsedRealtimeNanos() - startNanos;
+            assertEquals(bodies[i], body);
+        }
+        Log.i(LOG_TAG_NAME, "Sequential " + summarize(openNanos));
+
+        // Open every body from several threads while another thread replaces entries.
+        final long[][] concurrentOpenNanos = new long[READER_THREAD_COUNT][bodyCount];
+        final AtomicInteger mismatchCount = new AtomicInteger();
+        final AtomicBoolean reading = new AtomicBoolean(true);
+        Thread writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; reading.get(); i = (i + 1) % bodyCount) {
+                    diskLruCache.putCompressedString(getId(i), replacedBodies[i]);
+                }
+            }
+        });
+        Thread[] readerThreads = new Thread[READER_THREAD_COUNT];
+        for (int thread = 0; thread < READER_THREAD_COUNT; thread++) {
+            final long[] threadOpenNanos = concurrentOpenNanos[thread];
+            final int offset = thread * bodyCount / READER_THREAD_COUNT;
+            readerThreads[thread] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < bodyCount; j++) {
+                        int i = (offset + j) % bodyCount;
+                        long startNanos = SystemClock.elapsedRealtimeNanos();
+                        String body = diskLruCache.getCompressedString(getId(i));
+                        threadOpenNanos[j] = SystemClock.elapsedRealtimeNanos() - startNanos;
+                        if (!bodies[i].equals(body) && !replacedBodies[i].equals(body)) {
+                            mismatchCount.incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+        writerThread.start();
+        for (Thread readerThread : readerThreads) {
+            readerThread.start();
+        }
+        for (Thread readerThread : readerThreads) {
+            readerThread.join();
+        }
+        reading.set(false);
+        writerThread.join();
+
+        long[] allConcurrentOpenNanos = new long[READER_THREAD_COUNT * bodyCount];
+        for (int thread = 0; thread < READER_THREAD_COUNT; thread++) {
+            System.arraycopy(concurrentOpenNanos[thread], 0, allConcurrentOpenNanos, thread * bodyCount, bodyCount);
+        }
+        Log.i(LOG_TAG_NAME, READER_THREAD_COUNT + " readers and a writer " + summarize(allConcurrentOpenNanos));
+
+        assertEquals("Bodies read incomplete or from another entry", 0, mismatchCount.get());
+        long medianOpenMillis = getPercentile(openNanos, 50) / 1000000;
+        assertTrue("Median open took " + medianOpenMillis + " ms", medianOpenMillis <= MAX_MEDIAN_OPEN_MILLIS);
+    }
+
+    /**
+     * Returns a body text of about 5 to 15 KB of words, the size of a typical news article.
+     */
+    private static String buildBody(Random random) {
+        String[] words = {"climate", "election", "market", "energy", "court", "league", "council", "housing", "budget", "storm", "talks", "ruling", "study", "the", "of", "and", "a", "to", "in"};
+        int length = 5000 + random.nextInt(10000);
+        StringBuilder body = new StringBuilder(length + 16);
+        while (body.length() < length) {
+            body.append(words[random.nextInt(words.length)]).append(random.nextInt(20) == 0 ? ". " : " ");
+        }
+        return body.toString();
+    }
+
+    private static String getId(int index) {
+        return "world/2026/oct/18/article-" + index;
+    }
+
+    /**
+     * Returns the median, 95th percentile and slowest of the given open times.
+     */
+    private static String summarize(long[] openNanos) {
+        return String.format(Locale.US, "open of %d bodies: median %.2f ms, 95th percentile %.2f ms, max %.2f ms",
+                openNanos.length, getPercentile(openNanos, 50) / 1e6, getPercentile(openNanos, 95) / 1e6,
+                getPercentile(openNanos, 100) / 1e6);
+    }
+
+    private static long getPercentile(long[] values, int percentile) {
+        long[] sortedValues = values.clone();
+        Arrays.sort(sortedValues);
+        return sortedValues[Math.min(sortedValues.length - 1, sortedValues.length * percentile / 100)];
+    }
+
+    private void deleteDirectory() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+}
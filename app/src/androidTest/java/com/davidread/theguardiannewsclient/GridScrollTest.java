@@ -0,0 +1,199 @@
+package com.davidread.theguardiannewsclient;
+
+import android.app.Instrumentation;
+import android.graphics.Color;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.ViewGroup;
+
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented test, which scrolls a grid of generated articles set up like the feed of
+ * {@link MainActivity} with one to four columns, a fixed distance per frame, and logs the time
+ * each frame spent scrolling and how many view holders were created and bound. The assertions
+ * check that wider grids bind each newly shown article about once and do not keep inflating views
+ * once the pool is warm.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GridScrollTest {
+
+    private static final String LOG_TAG_NAME = GridScrollTest.class.getSimpleName();
+    private static final int ARTICLE_COUNT = 2000;
+    private static final int MAX_COLUMN_COUNT = 4;
+
+    /**
+     * int representing how many frames are scrolled before and while measuring.
+     */
+    private static final int WARM_UP_FRAME_COUNT = 30;
+    private static final int MEASURED_FRAME_COUNT = 120;
+
+    /**
+     * float dp scrolled per frame, about a brisk fling.
+     */
+    private static final float SCROLL_DP_PER_FRAME = 24;
+
+    private Instrumentation instrumentation;
+    private HttpTransport previousHttpTransport;
+    private List<Article> articles;
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        previousHttpTransport = GuardianApiClient.getHttpTransport();
+        GuardianApiClient.setHttpTransport(new StandInTransport(0, 0, 0));
+        articles = new ArrayList<>(ARTICLE_COUNT);
+        for (int articleIndex = 0; articleIndex < ARTICLE_COUNT; articleIndex++) {
+            articles.add(new Article("world/2024/jan/01/article-" + articleIndex, "Article headline number " + articleIndex,
+                    new String[]{"Contributor " + articleIndex % 50}, "Section " + articleIndex % 20,
+                    "2024-01-01T00:00:00Z", "https://www.theguardian.com/" + articleIndex, ""));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        GuardianApiClient.setHttpTransport(previousHttpTransport);
+    }
+
+    @Test
+    public void bindsStayFlatFromOneToFourColumns() throws InterruptedException {
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            for (int columnCount = 1; columnCount <= MAX_COLUMN_COUNT; columnCount++) {
+                Result result = scroll(scenario, columnCount);
+                Log.i(LOG_TAG_NAME, result.toString());
+
+                assertTrue(result.revealedArticleCount > 0);
+                assertTrue("Created " + result.createdViewHolderCount + " view holders while scrolling " + columnCount + " columns",
+                        result.createdViewHolderCount <= 2 * columnCount);
+                assertTrue("Bound " + result.boundArticleCount + " articles to show " + result.revealedArticleCount + " in " + columnCount + " columns",
+                        result.boundArticleCount <= result.revealedArticleCount * 1.25 + 2 * columnCount);
+            }
+        }
+    }
+
+    /**
+     * Shows the generated articles in a grid of the given number of columns on top of the feed,
+     * scrolls it frame by frame, and returns the measurements of the measured frames.
+     */
+    private Result scroll(ActivityScenario<MainActivity> scenario, final int columnCount) throws InterruptedException {
+        final RecyclerView[] recyclerView = new RecyclerView[1];
+        final ArticleAdapter[] articleAdapter = new ArticleAdapter[1];
+        scenario.onActivity(new ActivityScenario.ActivityAction<MainActivity>() {
+            @Override
+            public void perform(MainActivity activity) {
+                articleAdapter[0] = new ArticleAdapter(activity);
+                articleAdapter[0].setThumbnailsEnabled(false);
+                articleAdapter[0].setArticles(new ArrayList<>(articles));
+                recyclerView[0] = new RecyclerView(activity);
+                recyclerView[0].setBackgroundColor(Color.WHITE);
+                recyclerView[0].setHasFixedSize(true);
+                ArticleAdapter.configureGridRecycling(recyclerView[0], columnCount);
+                recyclerView[0].setAdapter(articleAdapter[0]);
+                recyclerView[0].setLayoutManager(articleAdapter[0].createGridLayoutManager(activity, columnCount));
+                ViewGroup contentView = activity.findViewById(android.R.id.content);
+                contentView.addView(recyclerView[0], new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+            }
+        });
+        instrumentation.waitForIdleSync();
+
+        final int scrollPixelsPerFrame = Math.round(SCROLL_DP_PER_FRAME
+                * instrumentation.getTargetContext().getResources().getDisplayMetrics().density);
+        final Result result = new Result();
+        result.columnCount = columnCount;
+        final long[] scrollNanos = new long[MEASURED_FRAME_COUNT];
+        final long[] frameIntervalNanos = new long[MEASURED_FRAME_COUNT];
+        final CountDownLatch scrolledLatch = new CountDownLatch(1);
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+                    private int frame;
+                    private long lastFrameTimeNanos;
+                    private long createdViewHolderCountBefore;
+                    private long boundArticleCountBefore;
+                    private int lastVisiblePositionBefore;
+
+                    @Override
+                    public void doFrame(long frameTimeNanos) {
+                        GridLayoutManager layoutManager = (GridLayoutManager) recyclerView[0].getLayoutManager();
+                        int measuredFrame = frame - WARM_UP_FRAME_COUNT;
+                        if (measuredFrame == 0) {
+                            createdViewHolderCountBefore = articleAdapter[0].getCreatedViewHolderCount();
+                            boundArticleCountBefore = articleAdapter[0].getBoundArticleCount();
+                            lastVisiblePositionBefore = layoutManager.findLastVisibleItemPosition();
+                        }
+                        if (measuredFrame == MEASURED_FRAME_COUNT) {
+                            result.createdViewHolderCount = articleAdapter[0].getCreatedViewHolderCount() - createdViewHolderCountBefore;
+                            result.boundArticleCount = articleAdapter[0].getBoundArticleCount() - boundArticleCountBefore;
+                            result.revealedArticleCount = layoutManager.findLastVisibleItemPosition() - lastVisiblePositionBefore;
+                            scrolledLatch.countDown();
+                            return;
+                        }
+                        long startNanos = System.nanoTime();
+                        recyclerView[0].scrollBy(0, scrollPixelsPerFrame);
+                        if (measuredFrame >= 0) {
+                            scrollNanos[measuredFrame] = System.nanoTime() - startNanos;
+                            frameIntervalNanos[measuredFrame] = frameTimeNanos - lastFrameTimeNanos;
+                        }
+                        lastFrameTimeNanos = frameTimeNanos;
+                        frame++;
+                        Choreographer.getInstance().postFrameCallback(this);
+                    }
+                });
+            }
+        });
+        assertTrue("Scrolling did not finish", scrolledLatch.await(30, TimeUnit.SECONDS));
+
+        Arrays.sort(scrollNanos);
+        Arrays.sort(frameIntervalNanos);
+        result.p50ScrollMillis = scrollNanos[MEASURED_FRAME_COUNT / 2] / 1e6;
+        result.p90ScrollMillis = scrollNanos[MEASURED_FRAME_COUNT * 9 / 10] / 1e6;
+        result.p90FrameIntervalMillis = frameIntervalNanos[MEASURED_FRAME_COUNT * 9 / 10] / 1e6;
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                ((ViewGroup) recyclerView[0].getParent()).removeView(recyclerView[0]);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Measurements of scrolling a grid with one column count.
+     */
+    private static class Result {
+        int columnCount;
+        long createdViewHolderCount;
+        long boundArticleCount;
+        int revealedArticleCount;
+        double p50ScrollMillis;
+        double p90ScrollMillis;
+        double p90FrameIntervalMillis;
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "%d columns: %d articles shown, %d bound (%.2f per article), %d view holders created, scroll work p50 %.2f ms p90 %.2f ms, frame interval p90 %.1f ms",
+                    columnCount, revealedArticleCount, boundArticleCount, (double) boundArticleCount / Math.max(1, revealedArticleCount),
+                    createdViewHolderCount, p50ScrollMillis, p90ScrollMillis, p90FrameIntervalMillis);
+        }
+    }
+}
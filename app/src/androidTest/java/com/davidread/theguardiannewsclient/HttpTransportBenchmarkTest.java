@@ -0,0 +1,226 @@
+package com.davidread.theguardiannewsclient;
+
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocketFactory;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.tls.HandshakeCertificates;
+import okhttp3.tls.HeldCertificate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented benchmark, which loads article pages concurrently from a local HTTPS server through
+ * {@link UrlConnectionTransport} and {@link OkHttpTransport} and logs the latency percentiles,
+ * the throughput, and how many connections each engine opened. The server offers HTTP/2 and
+ * HTTP/1.1 and answers after a fixed delay, standing in for the round trip to the API. Runs with
+ * 64 loads 8 at a time unless given {@code -e loadCount} and {@code -e concurrency} arguments.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HttpTransportBenchmarkTest {
+
+    private static final String LOG_TAG_NAME = HttpTransportBenchmarkTest.class.getSimpleName();
+    private static final int PAGE_SIZE = 50;
+    private static final int TOTAL_RESULT_COUNT = 5000;
+    private static final long HEADERS_DELAY_MILLIS = 60;
+    private static final int TIMEOUT_MILLIS = 30000;
+
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private MockWebServer mockWebServer;
+    private HandshakeCertificates clientCertificates;
+    private SSLSocketFactory previousSslSocketFactory;
+
+    @Before
+    public void setUp() throws IOException {
+        HeldCertificate localhostCertificate = new HeldCertificate.Builder()
+                .addSubjectAlternativeName("localhost")
+                .build();
+        HandshakeCertificates serverCertificates = new HandshakeCertificates.Builder()
+                .heldCertificate(localhostCertificate)
+                .build();
+        clientCertificates = new HandshakeCertificates.Builder()
+                .addTrustedCertificate(localhostCertificate.certificate())
+                .build();
+
+        mockWebServer = new MockWebServer();
+        mockWebServer.useHttps(serverCertificates.sslSocketFactory(), false);
+        mockWebServer.setProtocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1));
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (request.getSequenceNumber() == 0) {
+                    connectionCount.incrementAndGet();
+                }
+                String page = request.getRequestUrl().queryParameter("page");
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setHeadersDelay(HEADERS_DELAY_MILLIS, TimeUnit.MILLISECONDS)
+                        .setBody(StandInTransport.buildSearchResponse(page == null ? 1 : Integer.parseInt(page), PAGE_SIZE, TOTAL_RESULT_COUNT, null));
+            }
+        });
+        mockWebServer.start();
+
+        previousSslSocketFactory = HttpsURLConnection.getDefaultSSLSocketFactory();
+        HttpsURLConnection.setDefaultSSLSocketFactory(clientCertificates.sslSocketFactory());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        HttpsURLConnection.setDefaultSSLSocketFactory(previousSslSocketFactory);
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    public void compareTransportsUnderConcurrentPageLoads() throws Exception {
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        int loadCount = Integer.parseInt(arguments.getString("loadCount", "64"));
+        int concurrency = Integer.parseInt(arguments.getString("concurrency", "8"));
+
+        OkHttpClient okHttpClient = new OkHttpClient.Builder()
+                .sslSocketFactory(clientCertificates.sslSocketFactory(), clientCertificates.trustManager())
+                .build();
+        Report urlConnectionReport = run(new UrlConnectionTransport(), loadCount, concurrency);
+        Report okHttpReport = run(new OkHttpTransport(okHttpClient), loadCount, concurrency);
+        Log.i(LOG_TAG_NAME, UrlConnectionTransport.NAME + ": " + urlConnectionReport);
+        Log.i(LOG_TAG_NAME, OkHttpTransport.NAME + ": " + okHttpReport);
+
+        assertEquals(0, urlConnectionReport.failedLoadCount);
+        assertEquals(0, okHttpReport.failedLoadCount);
+    }
+
+    /**
+     * Loads the given number of pages through the given {@link HttpTransport}, the given number at
+     * a time, after one warm up load, and returns the measurements.
+     */
+    private Report run(final HttpTransport httpTransport, int loadCount, int concurrency) throws InterruptedException, ExecutionException {
+        int connectionCountBefore = connectionCount.get();
+        ExecutorService executorService = Executors.newFixedThreadPool(concurrency);
+        try {
+            executorService.submit(newLoad(httpTransport, 1)).get();
+            List<Future<Long>> futures = new ArrayList<>(loadCount);
+            long startNanos = SystemClock.elapsedRealtimeNanos();
+            for (int i = 0; i < loadCount; i++) {
+                futures.add(executorService.submit(newLoad(httpTransport, 1 + i % (TOTAL_RESULT_COUNT / PAGE_SIZE))));
+            }
+            Report report = new Report();
+            List<Long> latenciesMillis = new ArrayList<>(loadCount);
+            for (Future<Long> future : futures) {
+                long result = future.get();
+                long bytes = result >> 32;
+                if (bytes < 0) {
+                    report.failedLoadCount++;
+                } else {
+                    report.bytes += bytes;
+                    latenciesMillis.add(result & 0xffffffffL);
+                }
+            }
+            report.seconds = (SystemClock.elapsedRealtimeNanos() - startNanos) / 1e9;
+            report.loadCount = loadCount;
+            report.concurrency = concurrency;
+            report.connectionCount = connectionCount.get() - connectionCountBefore;
+            Collections.sort(latenciesMillis);
+            report.p50Millis = percentile(latenciesMillis, 50);
+            report.p90Millis = percentile(latenciesMillis, 90);
+            report.p99Millis = percentile(latenciesMillis, 99);
+            return report;
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns a load of the given page that reads the whole body. Its result packs the body size
+     * in the high 32 bits, or -1 if the load failed, and the latency in milliseconds in the low
+     * 32 bits.
+     */
+    private Callable<Long> newLoad(final HttpTransport httpTransport, final int pageIndex) {
+        return new Callable<Long>() {
+            @Override
+            public Long call() throws Exception {
+                URL url = mockWebServer.url("/search?page=" + pageIndex + "&page-size=" + PAGE_SIZE).url();
+                long startMillis = SystemClock.elapsedRealtime();
+                long bytes = 0;
+                try (HttpTransport.Response response = httpTransport.execute(url, TIMEOUT_MILLIS, TIMEOUT_MILLIS, null)) {
+                    if (response.getCode() != 200) {
+                        bytes = -1;
+                    } else {
+                        InputStream inputStream = response.getBody();
+                        byte[] buffer = new byte[8192];
+                        int count;
+                        while ((count = inputStream.read(buffer)) != -1) {
+                            bytes += count;
+                        }
+                    }
+                } catch (IOException e) {
+                    Log.e(LOG_TAG_NAME, "Load failed", e);
+                    bytes = -1;
+                }
+                return (bytes << 32) | (SystemClock.elapsedRealtime() - startMillis);
+            }
+        };
+    }
+
+    private static long percentile(List<Long> sortedValues, int percentile) {
+        if (sortedValues.isEmpty()) {
+            return -1;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sortedValues.size()) - 1;
+        return sortedValues.get(Math.max(0, Math.min(sortedValues.size() - 1, index)));
+    }
+
+    /**
+     * Measurements of one {@link HttpTransport}.
+     */
+    private static class Report {
+        int loadCount;
+        int concurrency;
+        int failedLoadCount;
+        int connectionCount;
+        long bytes;
+        double seconds;
+        long p50Millis;
+        long p90Millis;
+        long p99Millis;
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "%d loads %d at a time in %.2f s, %.1f loads/s, %.2f MB/s, latency p50 %d ms p90 %d ms p99 %d ms, %d connections, %d failed",
+                    loadCount, concurrency, seconds, loadCount / seconds, bytes / seconds / 1e6,
+                    p50Millis, p90Millis, p99Millis, connectionCount, failedLoadCount);
+        }
+    }
+}
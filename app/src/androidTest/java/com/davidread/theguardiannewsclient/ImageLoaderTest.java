@@ -0,0 +1,207 @@
+package com.davidread.theguardiannewsclient;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented test, which loads the image fixtures in the thumbnails assets directory through
+ * {@link ImageLoader} from a {@link StandInTransport}, so it runs offline. Every run uses fresh
+ * URLs, since the disk cache outlives the test.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ImageLoaderTest {
+
+    private static final String LOG_TAG_NAME = ImageLoaderTest.class.getSimpleName();
+
+    /**
+     * int size in pixels of the {@link ImageView} objects the fixtures are loaded into.
+     */
+    private static final int TARGET_SIZE_PX = 100;
+
+    private Instrumentation instrumentation;
+    private Context appContext;
+    private HttpTransport previousHttpTransport;
+    private String urlPrefix;
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        appContext = instrumentation.getTargetContext();
+        previousHttpTransport = GuardianApiClient.getHttpTransport();
+        LoadingProfileOverride.set(LoadingProfile.UNMETERED);
+        urlPrefix = "https://media.guim.co.uk/image-loader-test/" + System.currentTimeMillis() + "/";
+    }
+
+    @After
+    public void tearDown() {
+        LoadingProfileOverride.set(null);
+        GuardianApiClient.setHttpTransport(previousHttpTransport);
+    }
+
+    @Test
+    public void decodesDownsampledAndServesRepeatsFromTheCaches() throws IOException {
+        StandInTransport standInTransport = installTransport(0);
+        String url = urlPrefix + "large.png";
+
+        // A 1000x600 image shown at 100x100 is decoded at a sample size of 4.
+        ImageView imageView = newImageView();
+        load(url, imageView);
+        Bitmap bitmap = waitForBitmap(imageView);
+        assertEquals(250, bitmap.getWidth());
+        assertEquals(150, bitmap.getHeight());
+        assertEquals(1, standInTransport.getImageRequestCount());
+
+        // The same image at the same size is shown right away from the memory cache.
+        ImageView memoryHitImageView = newImageView();
+        load(url, memoryHitImageView);
+        assertSame(bitmap, getBitmap(memoryHitImageView));
+        assertEquals(1, standInTransport.getImageRequestCount());
+
+        // Without the memory cache, it comes from the disk cache.
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                ImageLoader.getInstance(appContext).clearMemory();
+            }
+        });
+        ImageView diskHitImageView = newImageView();
+        load(url, diskHitImageView);
+        waitForBitmap(diskHitImageView);
+        assertEquals(1, standInTransport.getImageRequestCount());
+
+        Log.i(LOG_TAG_NAME, ImageLoader.getInstance(appContext).getStatsSummary());
+    }
+
+    @Test
+    public void clearingAnImageViewCancelsItsRequest() throws IOException {
+        StandInTransport standInTransport = installTransport(1000);
+        ImageView imageView = newImageView();
+        load(urlPrefix + "small.png", imageView);
+        waitForImageRequests(standInTransport, 1);
+        clear(imageView);
+
+        SystemClock.sleep(1500);
+        assertEquals(1, standInTransport.getCanceledRequestCount());
+        assertNull(getBitmap(imageView));
+    }
+
+    @Test
+    public void invalidImagesAreNotShown() throws IOException {
+        StandInTransport standInTransport = installTransport(0);
+        ImageView imageView = newImageView();
+        load(urlPrefix + "not_an_image.png", imageView);
+        waitForImageRequests(standInTransport, 1);
+
+        SystemClock.sleep(500);
+        assertNull(getBitmap(imageView));
+    }
+
+    private StandInTransport installTransport(long headersDelayMillis) throws IOException {
+        StandInTransport standInTransport = new StandInTransport(0, headersDelayMillis, 0);
+        Context testContext = instrumentation.getContext();
+        for (String name : testContext.getAssets().list("thumbnails")) {
+            standInTransport.putImage(urlPrefix + name, readAsset(testContext, "thumbnails/" + name));
+        }
+        GuardianApiClient.setHttpTransport(standInTransport);
+        return standInTransport;
+    }
+
+    private static byte[] readAsset(Context context, String path) throws IOException {
+        try (InputStream inputStream = context.getAssets().open(path)) {
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = inputStream.read(buffer)) != -1) {
+                byteArrayOutputStream.write(buffer, 0, count);
+            }
+            return byteArrayOutputStream.toByteArray();
+        }
+    }
+
+    private ImageView newImageView() {
+        final AtomicReference<ImageView> imageView = new AtomicReference<>();
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                ImageView newImageView = new ImageView(appContext);
+                newImageView.setLayoutParams(new ViewGroup.LayoutParams(TARGET_SIZE_PX, TARGET_SIZE_PX));
+                imageView.set(newImageView);
+            }
+        });
+        return imageView.get();
+    }
+
+    private void load(final String url, final ImageView imageView) {
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                ImageLoader.getInstance(appContext).load(url, imageView);
+            }
+        });
+    }
+
+    private void clear(final ImageView imageView) {
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                ImageLoader.getInstance(appContext).clear(imageView);
+            }
+        });
+    }
+
+    private Bitmap getBitmap(final ImageView imageView) {
+        final AtomicReference<Bitmap> bitmap = new AtomicReference<>();
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                Drawable drawable = imageView.getDrawable();
+                if (drawable instanceof BitmapDrawable) {
+                    bitmap.set(((BitmapDrawable) drawable).getBitmap());
+                }
+            }
+        });
+        return bitmap.get();
+    }
+
+    private Bitmap waitForBitmap(ImageView imageView) {
+        long deadlineMillis = SystemClock.elapsedRealtime() + 5000;
+        while (true) {
+            Bitmap bitmap = getBitmap(imageView);
+            if (bitmap != null) {
+                return bitmap;
+            }
+            assertTrue("Timed out waiting for the image", SystemClock.elapsedRealtime() < deadlineMillis);
+            SystemClock.sleep(10);
+        }
+    }
+
+    private static void waitForImageRequests(StandInTransport standInTransport, int count) {
+        long deadlineMillis = SystemClock.elapsedRealtime() + 5000;
+        while (standInTransport.getImageRequestCount() < count) {
+            assertTrue("Timed out waiting for the image request", SystemClock.elapsedRealtime() < deadlineMillis);
+            SystemClock.sleep(10);
+        }
+    }
+}
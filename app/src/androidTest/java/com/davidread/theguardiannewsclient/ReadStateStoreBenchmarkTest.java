@@ -0,0 +1,180 @@
+package com.davidread.theguardiannewsclient;
+
+import android.app.Instrumentation;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented benchmark of {@link ReadStateStore} holding a million read ids. The sorted file is
+ * written up front in the format the store merges into, so the run does not have to open a million
+ * articles first. It logs the load time, the heap held per million ids, and the lookup times of
+ * read and unread ids. Runs with a million ids unless given a {@code -e readIdCount} argument.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ReadStateStoreBenchmarkTest {
+
+    private static final String LOG_TAG_NAME = ReadStateStoreBenchmarkTest.class.getSimpleName();
+
+    /**
+     * long most heap bytes the store may hold per million ids.
+     */
+    private static final long MAX_HEAP_BYTES_PER_MILLION_IDS = 3000000;
+
+    /**
+     * int representing how many read and how many unread ids are looked up while timing.
+     */
+    private static final int TIMED_LOOKUP_COUNT = 100000;
+
+    private Instrumentation instrumentation;
+    private File directory;
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        directory = new File(instrumentation.getTargetContext().getCacheDir(), LOG_TAG_NAME);
+        deleteDirectory();
+        assertTrue(directory.mkdirs());
+    }
+
+    @After
+    public void tearDown() {
+        deleteDirectory();
+    }
+
+    @Test
+    public void lookUpAmongAMillionReadIds() throws IOException, InterruptedException {
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        final int readIdCount = Integer.parseInt(arguments.getString("readIdCount", "1000000"));
+        writeSortedFile(readIdCount);
+
+        final CountDownLatch loadedLatch = new CountDownLatch(1);
+        final ReadStateStore[] readStateStore = new ReadStateStore[1];
+        long loadStartMillis = SystemClock.elapsedRealtime();
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                readStateStore[0] = new ReadStateStore(directory);
+                readStateStore[0].addOnReadStateChangedListener(new ReadStateStore.OnReadStateChangedListener() {
+                    @Override
+                    public void onReadStateChanged() {
+                        loadedLatch.countDown();
+                    }
+                });
+            }
+        });
+        assertTrue("Store did not load", loadedLatch.await(30, TimeUnit.SECONDS));
+        long loadMillis = SystemClock.elapsedRealtime() - loadStartMillis;
+
+        // Time lookups of pre-built ids on the main thread, like binding rows does, then check
+        // every id.
+        final String[] timedReadIds = new String[Math.min(readIdCount, TIMED_LOOKUP_COUNT)];
+        final String[] timedUnreadIds = new String[timedReadIds.length];
+        for (int i = 0; i < timedReadIds.length; i++) {
+            timedReadIds[i] = getReadId(i * (readIdCount / timedReadIds.length));
+            timedUnreadIds[i] = getUnreadId(i);
+        }
+        final long[] result = new long[4];
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                long startNanos = SystemClock.elapsedRealtimeNanos();
+                for (String id : timedReadIds) {
+                    readStateStore[0].isRead(id);
+                }
+                result[0] = SystemClock.elapsedRealtimeNanos() - startNanos;
+                startNanos = SystemClock.elapsedRealtimeNanos();
+                for (String id : timedUnreadIds) {
+                    readStateStore[0].isRead(id);
+                }
+                result[1] = SystemClock.elapsedRealtimeNanos() - startNanos;
+                for (int i = 0; i < readIdCount; i++) {
+                    if (readStateStore[0].isRead(getReadId(i))) {
+                        result[2]++;
+                    }
+                    if (readStateStore[0].isRead(getUnreadId(i))) {
+                        result[3]++;
+                    }
+                }
+            }
+        });
+
+        final long[] size = new long[2];
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                size[0] = readStateStore[0].getCount();
+                size[1] = readStateStore[0].getHeapBytes();
+            }
+        });
+        long heapBytesPerMillionIds = size[1] * 1000000 / readIdCount;
+        Log.i(LOG_TAG_NAME, String.format(Locale.US,
+                "%d ids: load %d ms, heap %d bytes (%d per million ids), mapped %d bytes, read lookup %.0f ns, unread lookup %.0f ns",
+                size[0], loadMillis, size[1], heapBytesPerMillionIds, 8L * readIdCount,
+                (double) result[0] / timedReadIds.length, (double) result[1] / timedUnreadIds.length));
+
+        assertEquals(readIdCount, size[0]);
+        assertEquals(readIdCount, result[2]);
+        assertEquals(0, result[3]);
+        assertTrue("Heap per million ids is " + heapBytesPerMillionIds + " bytes",
+                heapBytesPerMillionIds <= MAX_HEAP_BYTES_PER_MILLION_IDS);
+    }
+
+    /**
+     * Writes the hashes of the given number of read ids to the sorted file of the store, sorted
+     * and without duplicates.
+     */
+    private void writeSortedFile(int readIdCount) throws IOException {
+        long[] hashes = new long[readIdCount];
+        for (int i = 0; i < readIdCount; i++) {
+            hashes[i] = ReadStateStore.hash(getReadId(i));
+        }
+        Arrays.sort(hashes);
+        try (DataOutputStream dataOutputStream = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(new File(directory, "read_state.bin"))))) {
+            for (int i = 0; i < hashes.length; i++) {
+                if (i == 0 || hashes[i] != hashes[i - 1]) {
+                    dataOutputStream.writeLong(hashes[i]);
+                }
+            }
+        }
+    }
+
+    private static String getReadId(int index) {
+        return "world/2024/jan/01/read-article-" + index;
+    }
+
+    private static String getUnreadId(int index) {
+        return "world/2024/jan/01/unread-article-" + index;
+    }
+
+    private void deleteDirectory() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+}
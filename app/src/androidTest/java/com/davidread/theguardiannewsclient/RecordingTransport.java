@@ -0,0 +1,375 @@
+package com.davidread.theguardiannewsclient;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.core.os.CancellationSignal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link RecordingTransport} is an {@link HttpTransport} that performs requests through another
+ * {@link HttpTransport} and records each response to a fixture file a {@link ReplayTransport} can
+ * serve later: the status code, the headers callers read, the time to headers, the body in the
+ * chunks it arrived in with the delay before each, and the error the request ended with. Requests
+ * that are canceled, or whose body is not read to the end, are not recorded.
+ */
+public class RecordingTransport implements HttpTransport {
+
+    /**
+     * {@link String} log tag name for {@link RecordingTransport}.
+     */
+    public static final String LOG_TAG_NAME = RecordingTransport.class.getSimpleName();
+
+    /**
+     * {@link String} array of the response headers recorded, which are the ones
+     * {@link GuardianApiClient} reads.
+     */
+    private static final String[] RECORDED_HEADER_NAMES = {"Content-Type", "Retry-After"};
+
+    /**
+     * {@link HttpTransport} requests are performed with.
+     */
+    private final HttpTransport delegate;
+
+    /**
+     * {@link File} directory fixtures are written to.
+     */
+    private final File fixtureDirectory;
+
+    /**
+     * {@link AtomicInteger} counters reported by {@link RecordingTransport#getStatsSummary()}.
+     */
+    private final AtomicInteger recordedCount;
+    private final AtomicInteger skippedCount;
+
+    /**
+     * Constructs a new {@link RecordingTransport} object.
+     *
+     * @param delegate         {@link HttpTransport} requests are performed with.
+     * @param fixtureDirectory {@link File} directory fixtures are written to. It is created if it
+     *                         does not exist.
+     */
+    public RecordingTransport(HttpTransport delegate, File fixtureDirectory) {
+        this.delegate = delegate;
+        this.fixtureDirectory = fixtureDirectory;
+        this.recordedCount = new AtomicInteger();
+        this.skippedCount = new AtomicInteger();
+        fixtureDirectory.mkdirs();
+    }
+
+    /**
+     * Performs the request through the delegate and records its response once its body was read
+     * to the end or the request failed.
+     */
+    @Override
+    public Response execute(URL url, int connectTimeoutMillis, int readTimeoutMillis, @Nullable CancellationSignal cancellationSignal) throws IOException {
+        String key = ReplayTransport.getFixtureKey(url);
+        long startMillis = SystemClock.elapsedRealtime();
+        Response response;
+        try {
+            response = delegate.execute(url, connectTimeoutMillis, readTimeoutMillis, cancellationSignal);
+        } catch (IOException e) {
+            if (cancellationSignal == null || !cancellationSignal.isCanceled()) {
+                record(new ReplayTransport.Fixture(key, -1, SystemClock.elapsedRealtime() - startMillis,
+                        Collections.<String, String>emptyMap(), new long[0], Collections.<byte[]>emptyList(), String.valueOf(e)));
+            }
+            throw e;
+        }
+        return new RecordingResponse(key, response, SystemClock.elapsedRealtime() - startMillis, cancellationSignal);
+    }
+
+    /**
+     * Preconnects through the delegate. Nothing is recorded since no response is read.
+     */
+    @Override
+    public void preconnect(URL url, int connectTimeoutMillis) throws IOException {
+        delegate.preconnect(url, connectTimeoutMillis);
+    }
+
+    /**
+     * Returns whether the requests of the delegate count against the quota, which they do when
+     * recording from the network.
+     */
+    @Override
+    public boolean countsAgainstApiQuota() {
+        return delegate.countsAgainstApiQuota();
+    }
+
+    /**
+     * Returns the {@link HttpTransport} requests are performed with.
+     */
+    public HttpTransport getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Returns a one line summary of the responses this transport recorded.
+     *
+     * @return {@link String} summary of the recorded responses.
+     */
+    public String getStatsSummary() {
+        return String.format(Locale.US, "recorded %d, skipped %d, directory %s",
+                recordedCount.get(), skippedCount.get(), fixtureDirectory);
+    }
+
+    /**
+     * Writes the given {@link ReplayTransport.Fixture} to the fixture directory. Failing to do so
+     * is logged but does not fail the request.
+     *
+     * @param fixture {@link ReplayTransport.Fixture} to write.
+     */
+    private void record(ReplayTransport.Fixture fixture) {
+        try {
+            fixture.write(fixtureDirectory);
+            recordedCount.incrementAndGet();
+        } catch (IOException e) {
+            Log.e(LOG_TAG_NAME, "Error recording " + fixture.getKey(), e);
+        }
+    }
+
+    /**
+     * {@link RecordingResponse} is the {@link HttpTransport.Response} of a recorded request. It
+     * hands out a body that records what is read from it.
+     */
+    private class RecordingResponse implements Response {
+
+        /**
+         * {@link String} key of the request.
+         */
+        private final String key;
+
+        /**
+         * {@link HttpTransport.Response} of the delegate.
+         */
+        private final Response response;
+
+        /**
+         * long milliseconds from the start of the request until headers were received.
+         */
+        private final long headersMillis;
+
+        /**
+         * {@link CancellationSignal} of the request, or null if it cannot be canceled.
+         */
+        private final CancellationSignal cancellationSignal;
+
+        /**
+         * {@link RecordingInputStream} handed out as the body, or null if the body was not read.
+         */
+        private RecordingInputStream body;
+
+        /**
+         * Constructs a new {@link RecordingResponse} object.
+         *
+         * @param key                {@link String} key of the request.
+         * @param response           {@link HttpTransport.Response} of the delegate.
+         * @param headersMillis      long milliseconds until headers were received.
+         * @param cancellationSignal {@link CancellationSignal} of the request. May be null.
+         */
+        RecordingResponse(String key, Response response, long headersMillis, @Nullable CancellationSignal cancellationSignal) {
+            this.key = key;
+            this.response = response;
+            this.headersMillis = headersMillis;
+            this.cancellationSignal = cancellationSignal;
+        }
+
+        @Override
+        public int getCode() {
+            return response.getCode();
+        }
+
+        @Nullable
+        @Override
+        public String getHeader(String name) {
+            return response.getHeader(name);
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new RecordingInputStream(response.getBody());
+            }
+            return body;
+        }
+
+        /**
+         * Closes the response of the delegate. A response whose body was never read, e.g. one
+         * with an error status code, is recorded without a body.
+         */
+        @Override
+        public void close() throws IOException {
+            if (body == null && (cancellationSignal == null || !cancellationSignal.isCanceled())) {
+                record(newFixture(headersMillis, new long[0], Collections.<byte[]>emptyList(), null));
+            } else if (body != null && !body.finished) {
+                skippedCount.incrementAndGet();
+            }
+            response.close();
+        }
+
+        /**
+         * Returns a {@link ReplayTransport.Fixture} of this response with the given body.
+         *
+         * @param headersMillis     long milliseconds until headers were received.
+         * @param chunkDelaysMillis long array of milliseconds waited before each chunk.
+         * @param chunks            {@link List} of byte arrays holding the body.
+         * @param errorMessage      {@link String} message of the error the body ended with, or
+         *                          null if it was read to the end.
+         * @return {@link ReplayTransport.Fixture} to record.
+         */
+        private ReplayTransport.Fixture newFixture(long headersMillis, long[] chunkDelaysMillis, List<byte[]> chunks, @Nullable String errorMessage) {
+            Map<String, String> headers = new HashMap<>();
+            for (String name : RECORDED_HEADER_NAMES) {
+                String value = response.getHeader(name);
+                if (value != null) {
+                    headers.put(name, value);
+                }
+            }
+            return new ReplayTransport.Fixture(key, response.getCode(), headersMillis, headers, chunkDelaysMillis, chunks, errorMessage);
+        }
+
+        /**
+         * {@link RecordingInputStream} keeps a copy of every byte read from the body together with
+         * when it arrived. Reads that follow each other within the same millisecond are merged
+         * into one chunk. The response is recorded once the body ended or failed.
+         */
+        private class RecordingInputStream extends FilterInputStream {
+
+            /**
+             * {@link List} of chunks read so far, each with its delay in
+             * {@link RecordingInputStream#chunkDelaysMillis}.
+             */
+            private final List<byte[]> chunks;
+
+            /**
+             * {@link List} of milliseconds waited before each chunk arrived.
+             */
+            private final List<Long> chunkDelaysMillis;
+
+            /**
+             * {@link ByteArrayOutputStream} collecting the chunk being read.
+             */
+            private final ByteArrayOutputStream currentChunk;
+
+            /**
+             * long milliseconds since boot when the previous read returned.
+             */
+            private long lastReadMillis;
+
+            /**
+             * boolean indicating whether the body ended or failed and was recorded.
+             */
+            boolean finished;
+
+            /**
+             * Constructs a new {@link RecordingInputStream} object.
+             *
+             * @param inputStream {@link InputStream} of the body of the delegate.
+             */
+            RecordingInputStream(InputStream inputStream) {
+                super(inputStream);
+                this.chunks = new ArrayList<>();
+                this.chunkDelaysMillis = new ArrayList<>();
+                this.currentChunk = new ByteArrayOutputStream();
+                this.lastReadMillis = SystemClock.elapsedRealtime();
+            }
+
+            @Override
+            public int read() throws IOException {
+                byte[] buffer = new byte[1];
+                return read(buffer, 0, 1) < 0 ? -1 : buffer[0] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int read;
+                try {
+                    read = super.read(buffer, offset, length);
+                } catch (IOException e) {
+                    finish(String.valueOf(e));
+                    throw e;
+                }
+                if (read <= 0) {
+                    if (read < 0) {
+                        finish(null);
+                    }
+                    return read;
+                }
+                long nowMillis = SystemClock.elapsedRealtime();
+                if (nowMillis > lastReadMillis || chunkDelaysMillis.isEmpty()) {
+                    flushChunk();
+                    chunkDelaysMillis.add(nowMillis - lastReadMillis);
+                }
+                currentChunk.write(buffer, offset, read);
+                lastReadMillis = nowMillis;
+                return read;
+            }
+
+            @Override
+            public long skip(long count) throws IOException {
+                byte[] buffer = new byte[8192];
+                long skipped = 0;
+                while (skipped < count) {
+                    int read = read(buffer, 0, (int) Math.min(buffer.length, count - skipped));
+                    if (read < 0) {
+                        break;
+                    }
+                    skipped += read;
+                }
+                return skipped;
+            }
+
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+
+            /**
+             * Moves the chunk being read to the list of chunks.
+             */
+            private void flushChunk() {
+                if (currentChunk.size() > 0) {
+                    chunks.add(currentChunk.toByteArray());
+                    currentChunk.reset();
+                }
+            }
+
+            /**
+             * Records the response once the body ended or failed. Nothing is recorded if the
+             * request was canceled.
+             *
+             * @param errorMessage {@link String} message of the error the body ended with, or null
+             *                     if it was read to the end.
+             */
+            private void finish(@Nullable String errorMessage) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                if (cancellationSignal != null && cancellationSignal.isCanceled()) {
+                    skippedCount.incrementAndGet();
+                    return;
+                }
+                flushChunk();
+                long[] delays = new long[chunkDelaysMillis.size()];
+                for (int i = 0; i < delays.length; i++) {
+                    delays[i] = chunkDelaysMillis.get(i);
+                }
+                record(newFixture(headersMillis, delays, chunks, errorMessage));
+            }
+        }
+    }
+}
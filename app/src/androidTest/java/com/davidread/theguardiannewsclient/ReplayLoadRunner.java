@@ -0,0 +1,202 @@
+package com.davidread.theguardiannewsclient;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * {@link ReplayLoadRunner} is a utility class that drives {@link ArticleLoader} loads concurrently
+ * against a {@link ReplayTransport} and reports their throughput and latency. While it runs, the
+ * {@link ReplayTransport} serves every request and the {@link NetworkMonitor} reports an unmetered
+ * connection, so it works on a device without one. Requests go through the page cache like in
+ * the app, but skip the {@link ApiQuotaManager}, since replayed requests neither reach the API nor
+ * should be held to its call limits. The throughput and latency are thus those of the loading
+ * pipeline.
+ */
+public final class ReplayLoadRunner {
+
+    /**
+     * {@link String} log tag name for {@link ReplayLoadRunner}.
+     */
+    public static final String LOG_TAG_NAME = ReplayLoadRunner.class.getSimpleName();
+
+    /**
+     * Private constructor since {@link ReplayLoadRunner} only has static members.
+     */
+    private ReplayLoadRunner() {
+    }
+
+    /**
+     * Runs the given number of {@link ArticleLoader} loads on the given number of threads, cycling
+     * through the pages of the feed, and returns how they performed. The {@link HttpTransport} and
+     * {@link LoadingProfile} in use before are restored afterwards. Must be called on a worker
+     * thread.
+     *
+     * @param context         {@link Context} the loaders are constructed with.
+     * @param replayTransport {@link ReplayTransport} serving the requests.
+     * @param orderBy         {@link String} order by setting of the feed.
+     * @param searchTerm      {@link String} search term setting of the feed.
+     * @param pageSize        int representing how many articles are requested per page.
+     * @param pageCount       int representing how many pages of the feed are cycled through.
+     * @param loadCount       int representing how many loads are run in total.
+     * @param concurrency     int representing how many loads run at the same time.
+     * @return {@link Report} of the run.
+     */
+    public static Report run(Context context, ReplayTransport replayTransport, final String orderBy, final String searchTerm, final int pageSize, int pageCount, int loadCount, int concurrency) throws InterruptedException {
+        final Context applicationContext = context.getApplicationContext();
+        HttpTransport previousHttpTransport = GuardianApiClient.getHttpTransport();
+        GuardianApiClient.setHttpTransport(replayTransport);
+        LoadingProfileOverride.set(LoadingProfile.UNMETERED);
+        ExecutorService executorService = Executors.newFixedThreadPool(concurrency);
+        try {
+            // Submit every load at once, so that the pool keeps the given number of them running.
+            List<Future<Long>> futures = new ArrayList<>(loadCount);
+            long startNanos = SystemClock.elapsedRealtimeNanos();
+            for (int i = 0; i < loadCount; i++) {
+                final int pageIndex = i % pageCount + 1;
+                futures.add(executorService.submit(new Callable<Long>() {
+                    @Override
+                    public Long call() {
+                        long loadStartNanos = SystemClock.elapsedRealtimeNanos();
+                        ArticlePage articlePage = new ArticleLoader(applicationContext, orderBy, pageIndex, pageSize, searchTerm).loadInBackground();
+                        long latencyNanos = SystemClock.elapsedRealtimeNanos() - loadStartNanos;
+                        return articlePage == null || articlePage.getArticles().isEmpty() ? -latencyNanos - 1 : latencyNanos;
+                    }
+                }));
+            }
+
+            // Collect the latencies, where a negative one marks a load that came back empty.
+            long[] latenciesNanos = new long[loadCount];
+            int failedLoadCount = 0;
+            for (int i = 0; i < loadCount; i++) {
+                long latencyNanos;
+                try {
+                    latencyNanos = futures.get(i).get();
+                } catch (ExecutionException e) {
+                    Log.e(LOG_TAG_NAME, "Error running a load", e.getCause());
+                    latencyNanos = -1;
+                }
+                if (latencyNanos < 0) {
+                    failedLoadCount++;
+                    latencyNanos = -latencyNanos - 1;
+                }
+                latenciesNanos[i] = latencyNanos;
+            }
+            Report report = new Report(loadCount, failedLoadCount, concurrency, SystemClock.elapsedRealtimeNanos() - startNanos, latenciesNanos);
+            Log.i(LOG_TAG_NAME, report.getSummary());
+            Log.i(LOG_TAG_NAME, replayTransport.getStatsSummary());
+            return report;
+        } finally {
+            executorService.shutdownNow();
+            LoadingProfileOverride.set(null);
+            GuardianApiClient.setHttpTransport(previousHttpTransport);
+        }
+    }
+
+    /**
+     * {@link Report} is a model class for the outcome of a {@link ReplayLoadRunner} run.
+     */
+    public static class Report {
+
+        /**
+         * int representing how many loads were run.
+         */
+        private final int loadCount;
+
+        /**
+         * int representing how many loads came back without articles.
+         */
+        private final int failedLoadCount;
+
+        /**
+         * int representing how many loads ran at the same time.
+         */
+        private final int concurrency;
+
+        /**
+         * long nanoseconds from the first load starting until the last one finished.
+         */
+        private final long elapsedNanos;
+
+        /**
+         * long array of the nanoseconds each load took, sorted in ascending order.
+         */
+        private final long[] sortedLatenciesNanos;
+
+        /**
+         * Constructs a new {@link Report} object.
+         *
+         * @param loadCount       int representing how many loads were run.
+         * @param failedLoadCount int representing how many loads came back without articles.
+         * @param concurrency     int representing how many loads ran at the same time.
+         * @param elapsedNanos    long nanoseconds the whole run took.
+         * @param latenciesNanos  long array of the nanoseconds each load took.
+         */
+        Report(int loadCount, int failedLoadCount, int concurrency, long elapsedNanos, long[] latenciesNanos) {
+            this.loadCount = loadCount;
+            this.failedLoadCount = failedLoadCount;
+            this.concurrency = concurrency;
+            this.elapsedNanos = elapsedNanos;
+            this.sortedLatenciesNanos = latenciesNanos.clone();
+            Arrays.sort(sortedLatenciesNanos);
+        }
+
+        /**
+         * Returns how many loads were run.
+         */
+        public int getLoadCount() {
+            return loadCount;
+        }
+
+        /**
+         * Returns how many loads came back without articles.
+         */
+        public int getFailedLoadCount() {
+            return failedLoadCount;
+        }
+
+        /**
+         * Returns how many loads finished per second over the whole run.
+         */
+        public double getLoadsPerSecond() {
+            return elapsedNanos == 0 ? 0 : loadCount * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * Returns the latency below which the given share of the loads finished.
+         *
+         * @param percentile double share of the loads between 0 and 100.
+         * @return double milliseconds, or 0 if no load was run.
+         */
+        public double getLatencyMillis(double percentile) {
+            if (sortedLatenciesNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100 * sortedLatenciesNanos.length) - 1;
+            index = Math.max(0, Math.min(index, sortedLatenciesNanos.length - 1));
+            return sortedLatenciesNanos[index] / 1e6;
+        }
+
+        /**
+         * Returns a one line summary of the run.
+         *
+         * @return {@link String} summary of the run.
+         */
+        public String getSummary() {
+            return String.format(Locale.US,
+                    "loads %d (failed %d) on %d threads in %.0f ms, %.1f loads/s, p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, max %.1f ms",
+                    loadCount, failedLoadCount, concurrency, elapsedNanos / 1e6, getLoadsPerSecond(),
+                    getLatencyMillis(50), getLatencyMillis(90), getLatencyMillis(99), getLatencyMillis(100));
+        }
+    }
+}
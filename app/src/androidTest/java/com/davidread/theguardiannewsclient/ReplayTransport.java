@@ -0,0 +1,639 @@
+package com.davidread.theguardiannewsclient;
+
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.core.os.CancellationSignal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link ReplayTransport} is an {@link HttpTransport} that serves the responses recorded by a
+ * {@link RecordingTransport} instead of going to the network, so loads can be repeated on a device
+ * without a connection. Each response is served with the time to headers, the pacing of the body,
+ * and the error it was recorded with, optionally scaled or capped to a given bandwidth. Requests
+ * without a recorded response get a 404.
+ */
+public class ReplayTransport implements HttpTransport {
+
+    /**
+     * {@link String} log tag name for {@link ReplayTransport}.
+     */
+    public static final String LOG_TAG_NAME = ReplayTransport.class.getSimpleName();
+
+    /**
+     * {@link String} name of the directory inside the files directory fixtures are recorded to by
+     * default.
+     */
+    public static final String FIXTURE_DIRECTORY_NAME = "replay_fixtures";
+
+    /**
+     * {@link String} name of the query parameter left out of fixture keys, so that fixtures do not
+     * hold the API key and replay with any key.
+     */
+    private static final String API_KEY_PARAMETER_NAME = "api-key";
+
+    /**
+     * {@link String} file name extension of fixture files.
+     */
+    static final String FIXTURE_FILE_EXTENSION = ".fixture";
+
+    /**
+     * int HTTP response code of requests without a recorded response.
+     */
+    private static final int HTTP_NOT_FOUND = 404;
+
+    /**
+     * long milliseconds between checks for cancellation while a delay is replayed.
+     */
+    private static final long CANCELLATION_POLL_MILLIS = 20;
+
+    /**
+     * {@link Map} of recorded {@link Fixture} objects keyed by {@link Fixture#getKey()}.
+     */
+    private final Map<String, Fixture> fixtures;
+
+    /**
+     * float factor every recorded delay is multiplied with. 1 replays the original latency, 0
+     * serves responses as fast as possible.
+     */
+    private final float latencyScale;
+
+    /**
+     * long maximum number of body bytes served per second, or 0 to keep the recorded pacing only.
+     */
+    private final long maxBytesPerSecond;
+
+    /**
+     * {@link AtomicInteger} counters reported by {@link ReplayTransport#getStatsSummary()}.
+     */
+    private final AtomicInteger servedCount;
+    private final AtomicInteger missedCount;
+    private final AtomicInteger failedCount;
+
+    /**
+     * Constructs a new {@link ReplayTransport} object serving the fixtures of the given directory.
+     * Must be called on a worker thread since it reads every fixture.
+     *
+     * @param fixtureDirectory  {@link File} directory a {@link RecordingTransport} recorded to.
+     * @param latencyScale      float factor every recorded delay is multiplied with.
+     * @param maxBytesPerSecond long maximum number of body bytes served per second, or 0 to keep
+     *                          the recorded pacing only.
+     */
+    public ReplayTransport(File fixtureDirectory, float latencyScale, long maxBytesPerSecond) {
+        this.fixtures = readFixtures(fixtureDirectory);
+        this.latencyScale = latencyScale;
+        this.maxBytesPerSecond = maxBytesPerSecond;
+        this.servedCount = new AtomicInteger();
+        this.missedCount = new AtomicInteger();
+        this.failedCount = new AtomicInteger();
+    }
+
+    /**
+     * Serves the recorded response of the given {@link URL} after its recorded time to headers.
+     * A recorded error is thrown instead, and a delay longer than the timeouts ends with a
+     * {@link SocketTimeoutException} like a real connection would.
+     */
+    @Override
+    public Response execute(URL url, int connectTimeoutMillis, int readTimeoutMillis, @Nullable CancellationSignal cancellationSignal) throws IOException {
+        Fixture fixture = fixtures.get(getFixtureKey(url));
+        if (fixture == null) {
+            missedCount.incrementAndGet();
+            Log.w(LOG_TAG_NAME, "No recorded response for " + getFixtureKey(url));
+            return new ReplayResponse(HTTP_NOT_FOUND, Collections.<String, String>emptyMap(), new ByteArrayInputStream(new byte[0]));
+        }
+
+        long headersMillis = scale(fixture.getHeadersMillis());
+        long timeoutMillis = (long) connectTimeoutMillis + readTimeoutMillis;
+        if (headersMillis > timeoutMillis) {
+            pause(timeoutMillis, cancellationSignal);
+            failedCount.incrementAndGet();
+            throw new SocketTimeoutException("Replayed time to headers exceeds the timeouts");
+        }
+        pause(headersMillis, cancellationSignal);
+        if (fixture.getCode() < 0) {
+            failedCount.incrementAndGet();
+            throw new IOException(fixture.getErrorMessage());
+        }
+        servedCount.incrementAndGet();
+        return new ReplayResponse(fixture.getCode(), fixture.getHeaders(), new ReplayInputStream(fixture, readTimeoutMillis, cancellationSignal));
+    }
+
+    /**
+     * Does nothing since there is no connection to open.
+     */
+    @Override
+    public void preconnect(URL url, int connectTimeoutMillis) {
+    }
+
+    /**
+     * Returns false since replayed requests never reach The Guardian API.
+     */
+    @Override
+    public boolean countsAgainstApiQuota() {
+        return false;
+    }
+
+    /**
+     * Returns the number of responses this transport can serve.
+     */
+    public int getFixtureCount() {
+        return fixtures.size();
+    }
+
+    /**
+     * Returns a one line summary of the requests this transport served.
+     *
+     * @return {@link String} summary of the replayed requests.
+     */
+    public String getStatsSummary() {
+        return String.format(Locale.US,
+                "fixtures %d, latency scale %.2f, max %d bytes/s, served %d, missed %d, failed %d",
+                fixtures.size(), latencyScale, maxBytesPerSecond,
+                servedCount.get(), missedCount.get(), failedCount.get());
+    }
+
+    /**
+     * Returns the key a response to the given {@link URL} is recorded under: the {@link URL}
+     * without its API key.
+     *
+     * @param url {@link URL} of the request.
+     * @return {@link String} key of the request.
+     */
+    static String getFixtureKey(URL url) {
+        Uri uri = Uri.parse(url.toString());
+        Uri.Builder uriBuilder = uri.buildUpon().clearQuery();
+        for (String name : uri.getQueryParameterNames()) {
+            if (API_KEY_PARAMETER_NAME.equals(name)) {
+                continue;
+            }
+            for (String value : uri.getQueryParameters(name)) {
+                uriBuilder.appendQueryParameter(name, value);
+            }
+        }
+        return uriBuilder.build().toString();
+    }
+
+    /**
+     * Returns the name of the file the response with the given key is recorded in.
+     *
+     * @param key {@link String} key of the response.
+     * @return {@link String} file name derived from a hash of the key.
+     */
+    static String getFixtureFileName(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes("UTF-8"));
+            StringBuilder stringBuilder = new StringBuilder();
+            for (byte b : digest) {
+                stringBuilder.append(String.format(Locale.US, "%02x", b));
+            }
+            return stringBuilder.append(FIXTURE_FILE_EXTENSION).toString();
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+
+    /**
+     * Reads every fixture of the given directory. Unreadable fixtures are skipped.
+     *
+     * @param fixtureDirectory {@link File} directory to read.
+     * @return {@link Map} of {@link Fixture} objects keyed by {@link Fixture#getKey()}.
+     */
+    private static Map<String, Fixture> readFixtures(File fixtureDirectory) {
+        Map<String, Fixture> fixtures = new HashMap<>();
+        File[] files = fixtureDirectory.listFiles();
+        if (files == null) {
+            return fixtures;
+        }
+        for (File file : files) {
+            if (!file.getName().endsWith(FIXTURE_FILE_EXTENSION)) {
+                continue;
+            }
+            try {
+                Fixture fixture = Fixture.read(file);
+                fixtures.put(fixture.getKey(), fixture);
+            } catch (IOException e) {
+                Log.e(LOG_TAG_NAME, "Error reading fixture " + file.getName(), e);
+            }
+        }
+        return fixtures;
+    }
+
+    /**
+     * Returns the given recorded delay multiplied with the latency scale.
+     *
+     * @param millis long recorded milliseconds.
+     * @return long milliseconds to replay.
+     */
+    private long scale(long millis) {
+        return (long) (millis * latencyScale);
+    }
+
+    /**
+     * Sleeps for the given time, throwing as soon as the request is canceled.
+     *
+     * @param millis             long milliseconds to sleep.
+     * @param cancellationSignal {@link CancellationSignal} of the request. May be null.
+     */
+    private static void pause(long millis, @Nullable CancellationSignal cancellationSignal) throws IOException {
+        long deadlineMillis = SystemClock.elapsedRealtime() + millis;
+        long remainingMillis = millis;
+        while (remainingMillis > 0) {
+            throwIfCanceled(cancellationSignal);
+            try {
+                Thread.sleep(Math.min(remainingMillis, CANCELLATION_POLL_MILLIS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while replaying a delay");
+            }
+            remainingMillis = deadlineMillis - SystemClock.elapsedRealtime();
+        }
+        throwIfCanceled(cancellationSignal);
+    }
+
+    /**
+     * Throws an {@link IOException} if the request is canceled, like a real transport whose
+     * connection was aborted.
+     *
+     * @param cancellationSignal {@link CancellationSignal} of the request. May be null.
+     */
+    private static void throwIfCanceled(@Nullable CancellationSignal cancellationSignal) throws IOException {
+        if (cancellationSignal != null && cancellationSignal.isCanceled()) {
+            throw new IOException("Canceled");
+        }
+    }
+
+    /**
+     * {@link Fixture} is a model class for a recorded response: its status code, the headers
+     * callers read, the time to headers, the body split into the chunks it arrived in together
+     * with the delay before each, and the error the request ended with.
+     */
+    static class Fixture {
+
+        /**
+         * int version of the fixture file format.
+         */
+        private static final int FORMAT_VERSION = 1;
+
+        /**
+         * {@link String} key of the request, see {@link ReplayTransport#getFixtureKey(URL)}.
+         */
+        private final String key;
+
+        /**
+         * int HTTP status code, or -1 if the request failed before headers were received.
+         */
+        private final int code;
+
+        /**
+         * long milliseconds from the start of the request until headers were received.
+         */
+        private final long headersMillis;
+
+        /**
+         * {@link Map} of recorded header values keyed by header name.
+         */
+        private final Map<String, String> headers;
+
+        /**
+         * long array of milliseconds waited before each chunk of the body arrived.
+         */
+        private final long[] chunkDelaysMillis;
+
+        /**
+         * {@link List} of byte arrays holding the body in the chunks it arrived in.
+         */
+        private final List<byte[]> chunks;
+
+        /**
+         * {@link String} message of the error the request ended with, or null if it succeeded.
+         */
+        private final String errorMessage;
+
+        /**
+         * Constructs a new {@link Fixture} object.
+         *
+         * @param key               {@link String} key of the request.
+         * @param code              int HTTP status code, or -1 if the request failed before
+         *                          headers were received.
+         * @param headersMillis     long milliseconds until headers were received.
+         * @param headers           {@link Map} of recorded header values keyed by header name.
+         * @param chunkDelaysMillis long array of milliseconds waited before each chunk.
+         * @param chunks            {@link List} of byte arrays holding the body.
+         * @param errorMessage      {@link String} message of the error the request ended with,
+         *                          or null if it succeeded.
+         */
+        Fixture(String key, int code, long headersMillis, Map<String, String> headers, long[] chunkDelaysMillis, List<byte[]> chunks, @Nullable String errorMessage) {
+            this.key = key;
+            this.code = code;
+            this.headersMillis = headersMillis;
+            this.headers = headers;
+            this.chunkDelaysMillis = chunkDelaysMillis;
+            this.chunks = chunks;
+            this.errorMessage = errorMessage;
+        }
+
+        /**
+         * Returns a {@link Fixture} read from the given file.
+         *
+         * @param file {@link File} written by {@link Fixture#write(File)}.
+         * @return {@link Fixture} object.
+         */
+        static Fixture read(File file) throws IOException {
+            try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (inputStream.readInt() != FORMAT_VERSION) {
+                    throw new IOException("Unknown fixture format");
+                }
+                String key = inputStream.readUTF();
+                int code = inputStream.readInt();
+                long headersMillis = inputStream.readLong();
+                int headerCount = inputStream.readInt();
+                Map<String, String> headers = new HashMap<>();
+                for (int i = 0; i < headerCount; i++) {
+                    headers.put(inputStream.readUTF(), inputStream.readUTF());
+                }
+                int chunkCount = inputStream.readInt();
+                long[] chunkDelaysMillis = new long[chunkCount];
+                List<byte[]> chunks = new ArrayList<>(chunkCount);
+                for (int i = 0; i < chunkCount; i++) {
+                    chunkDelaysMillis[i] = inputStream.readLong();
+                    byte[] chunk = new byte[inputStream.readInt()];
+                    inputStream.readFully(chunk);
+                    chunks.add(chunk);
+                }
+                String errorMessage = inputStream.readBoolean() ? inputStream.readUTF() : null;
+                return new Fixture(key, code, headersMillis, headers, chunkDelaysMillis, chunks, errorMessage);
+            }
+        }
+
+        /**
+         * Writes this fixture to the given directory, replacing an earlier recording of the same
+         * request. It is written to a temporary file first, so readers never see half of it.
+         *
+         * @param fixtureDirectory {@link File} directory to write to.
+         */
+        void write(File fixtureDirectory) throws IOException {
+            File file = new File(fixtureDirectory, getFixtureFileName(key));
+            File temporaryFile = File.createTempFile(file.getName(), ".tmp", fixtureDirectory);
+            try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+                outputStream.writeInt(FORMAT_VERSION);
+                outputStream.writeUTF(key);
+                outputStream.writeInt(code);
+                outputStream.writeLong(headersMillis);
+                outputStream.writeInt(headers.size());
+                for (Map.Entry<String, String> header : headers.entrySet()) {
+                    outputStream.writeUTF(header.getKey());
+                    outputStream.writeUTF(header.getValue());
+                }
+                outputStream.writeInt(chunks.size());
+                for (int i = 0; i < chunks.size(); i++) {
+                    outputStream.writeLong(chunkDelaysMillis[i]);
+                    outputStream.writeInt(chunks.get(i).length);
+                    outputStream.write(chunks.get(i));
+                }
+                outputStream.writeBoolean(errorMessage != null);
+                if (errorMessage != null) {
+                    outputStream.writeUTF(errorMessage);
+                }
+            }
+            if (!temporaryFile.renameTo(file)) {
+                temporaryFile.delete();
+                throw new IOException("Could not move fixture into place");
+            }
+        }
+
+        /**
+         * Returns the key of the request.
+         */
+        String getKey() {
+            return key;
+        }
+
+        /**
+         * Returns the HTTP status code, or -1 if the request failed before headers were received.
+         */
+        int getCode() {
+            return code;
+        }
+
+        /**
+         * Returns the milliseconds from the start of the request until headers were received.
+         */
+        long getHeadersMillis() {
+            return headersMillis;
+        }
+
+        /**
+         * Returns the recorded header values keyed by header name.
+         */
+        Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        /**
+         * Returns the number of chunks the body arrived in.
+         */
+        int getChunkCount() {
+            return chunks.size();
+        }
+
+        /**
+         * Returns the milliseconds waited before the chunk at the given index arrived.
+         */
+        long getChunkDelayMillis(int index) {
+            return chunkDelaysMillis[index];
+        }
+
+        /**
+         * Returns the chunk at the given index.
+         */
+        byte[] getChunk(int index) {
+            return chunks.get(index);
+        }
+
+        /**
+         * Returns the message of the error the request ended with, or null if it succeeded.
+         */
+        @Nullable
+        String getErrorMessage() {
+            return errorMessage;
+        }
+    }
+
+    /**
+     * {@link ReplayResponse} is the {@link HttpTransport.Response} of a replayed request.
+     */
+    private static class ReplayResponse implements Response {
+
+        /**
+         * int HTTP status code of the response.
+         */
+        private final int code;
+
+        /**
+         * {@link Map} of header values keyed by header name.
+         */
+        private final Map<String, String> headers;
+
+        /**
+         * {@link InputStream} of the body.
+         */
+        private final InputStream body;
+
+        /**
+         * Constructs a new {@link ReplayResponse} object.
+         *
+         * @param code    int HTTP status code of the response.
+         * @param headers {@link Map} of header values keyed by header name.
+         * @param body    {@link InputStream} of the body.
+         */
+        ReplayResponse(int code, Map<String, String> headers, InputStream body) {
+            this.code = code;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        @Override
+        public int getCode() {
+            return code;
+        }
+
+        /**
+         * Returns the value of the given header, ignoring the case of its name like HTTP does.
+         */
+        @Nullable
+        @Override
+        public String getHeader(String name) {
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                if (header.getKey().equalsIgnoreCase(name)) {
+                    return header.getValue();
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() throws IOException {
+            body.close();
+        }
+    }
+
+    /**
+     * {@link ReplayInputStream} serves the body of a {@link Fixture} chunk by chunk, waiting the
+     * recorded delay before each chunk, or longer if the bandwidth is capped. It ends with the
+     * recorded error, if any.
+     */
+    private class ReplayInputStream extends InputStream {
+
+        /**
+         * {@link Fixture} whose body is served.
+         */
+        private final Fixture fixture;
+
+        /**
+         * int milliseconds a chunk may be delayed before the read times out.
+         */
+        private final int readTimeoutMillis;
+
+        /**
+         * {@link CancellationSignal} of the request, or null if it cannot be canceled.
+         */
+        private final CancellationSignal cancellationSignal;
+
+        /**
+         * int index of the chunk being served.
+         */
+        private int chunkIndex;
+
+        /**
+         * int offset of the next byte to serve within the current chunk.
+         */
+        private int chunkOffset;
+
+        /**
+         * Constructs a new {@link ReplayInputStream} object.
+         *
+         * @param fixture            {@link Fixture} whose body is served.
+         * @param readTimeoutMillis  int milliseconds a chunk may be delayed at most.
+         * @param cancellationSignal {@link CancellationSignal} of the request. May be null.
+         */
+        ReplayInputStream(Fixture fixture, int readTimeoutMillis, @Nullable CancellationSignal cancellationSignal) {
+            this.fixture = fixture;
+            this.readTimeoutMillis = readTimeoutMillis;
+            this.cancellationSignal = cancellationSignal;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] buffer = new byte[1];
+            return read(buffer, 0, 1) < 0 ? -1 : buffer[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            throwIfCanceled(cancellationSignal);
+            if (chunkIndex >= fixture.getChunkCount()) {
+                if (fixture.getErrorMessage() != null) {
+                    failedCount.incrementAndGet();
+                    throw new IOException(fixture.getErrorMessage());
+                }
+                return -1;
+            }
+
+            // Wait for the chunk to arrive before serving its first byte.
+            byte[] chunk = fixture.getChunk(chunkIndex);
+            if (chunkOffset == 0) {
+                long delayMillis = scale(fixture.getChunkDelayMillis(chunkIndex));
+                if (maxBytesPerSecond > 0) {
+                    delayMillis = Math.max(delayMillis, chunk.length * 1000L / maxBytesPerSecond);
+                }
+                if (delayMillis > readTimeoutMillis) {
+                    pause(readTimeoutMillis, cancellationSignal);
+                    failedCount.incrementAndGet();
+                    throw new SocketTimeoutException("Replayed chunk delay exceeds the read timeout");
+                }
+                pause(delayMillis, cancellationSignal);
+            }
+
+            int count = Math.min(length, chunk.length - chunkOffset);
+            System.arraycopy(chunk, chunkOffset, buffer, offset, count);
+            chunkOffset += count;
+            if (chunkOffset == chunk.length) {
+                chunkIndex++;
+                chunkOffset = 0;
+            }
+            return count;
+        }
+    }
+}
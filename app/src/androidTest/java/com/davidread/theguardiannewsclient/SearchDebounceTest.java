@@ -0,0 +1,163 @@
+package com.davidread.theguardiannewsclient;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.os.SystemClock;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.appcompat.widget.SearchView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented test, which types words into the inline {@link SearchView} of {@link MainActivity}
+ * one character at a time against a {@link StandInTransport} and counts the API calls made per
+ * typed word. The UI is driven through {@link ActivityScenario#onActivity} rather than Espresso,
+ * since Espresso would wait for the running loads before each keystroke.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SearchDebounceTest {
+
+    private static final List<String> WORDS = Arrays.asList("climate", "election", "football");
+
+    /**
+     * long milliseconds between two keystrokes, a brisk but ordinary typing speed.
+     */
+    private static final long KEYSTROKE_MILLIS = 120;
+
+    /**
+     * long milliseconds each stand-in response takes, long enough for the next word to be typed
+     * while the previous search is still in flight.
+     */
+    private static final long HEADERS_DELAY_MILLIS = 3000;
+
+    private Instrumentation instrumentation;
+    private HttpTransport previousHttpTransport;
+    private StandInTransport standInTransport;
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        final Context appContext = instrumentation.getTargetContext();
+        previousHttpTransport = GuardianApiClient.getHttpTransport();
+        standInTransport = new StandInTransport(200, HEADERS_DELAY_MILLIS, 0);
+        GuardianApiClient.setHttpTransport(standInTransport);
+        LoadingProfileOverride.set(LoadingProfile.UNMETERED);
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SettingsRepository.getInstance(appContext).setSearchTerm("");
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        final Context appContext = instrumentation.getTargetContext();
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SettingsRepository.getInstance(appContext).setSearchTerm("");
+            }
+        });
+        LoadingProfileOverride.set(null);
+        GuardianApiClient.setHttpTransport(previousHttpTransport);
+    }
+
+    @Test
+    public void typingWordsMakesOneSearchPerWord() {
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            waitForFirstPageSearches(1);
+            scenario.onActivity(new ActivityScenario.ActivityAction<MainActivity>() {
+                @Override
+                public void perform(MainActivity activity) {
+                    activity.findViewById(R.id.action_search).performClick();
+                }
+            });
+
+            for (int i = 0; i < WORDS.size(); i++) {
+                String word = WORDS.get(i);
+                int canceledCountBefore = standInTransport.getCanceledRequestCount();
+                for (int length = 1; length <= word.length(); length++) {
+                    setQuery(scenario, word.substring(0, length));
+                    if (length == 1) {
+                        // The search still in flight for the previous word is stale as soon as
+                        // the query changes, well before the debounce delay runs out.
+                        assertTrue("Search for the previous word was not canceled on the first keystroke",
+                                waitForCanceledRequests(canceledCountBefore + 1, 300));
+                    }
+                    SystemClock.sleep(KEYSTROKE_MILLIS);
+                }
+                waitForFirstPageSearches(i + 2);
+            }
+            SystemClock.sleep(1000);
+
+            List<String> firstPageSearchTerms = standInTransport.getFirstPageSearchTerms();
+            for (String searchTerm : firstPageSearchTerms) {
+                assertTrue("Searched for a partial word: " + searchTerm, searchTerm.isEmpty() || WORDS.contains(searchTerm));
+            }
+            for (String word : WORDS) {
+                assertEquals("Searches for " + word, 1, Collections.frequency(firstPageSearchTerms, word));
+            }
+        }
+    }
+
+    private void setQuery(ActivityScenario<MainActivity> scenario, final String query) {
+        scenario.onActivity(new ActivityScenario.ActivityAction<MainActivity>() {
+            @Override
+            public void perform(MainActivity activity) {
+                SearchView searchView = findSearchView(activity.getWindow().getDecorView());
+                assertNotNull("Inline search view is not expanded", searchView);
+                searchView.setQuery(query, false);
+            }
+        });
+    }
+
+    private static SearchView findSearchView(View view) {
+        if (view instanceof SearchView) {
+            return (SearchView) view;
+        }
+        if (view instanceof ViewGroup) {
+            ViewGroup viewGroup = (ViewGroup) view;
+            for (int i = 0; i < viewGroup.getChildCount(); i++) {
+                SearchView searchView = findSearchView(viewGroup.getChildAt(i));
+                if (searchView != null) {
+                    return searchView;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void waitForFirstPageSearches(int count) {
+        long deadlineMillis = SystemClock.elapsedRealtime() + 10000;
+        while (standInTransport.getFirstPageSearchTerms().size() < count) {
+            assertTrue("Timed out waiting for search " + count, SystemClock.elapsedRealtime() < deadlineMillis);
+            SystemClock.sleep(10);
+        }
+    }
+
+    private boolean waitForCanceledRequests(int count, long timeoutMillis) {
+        long deadlineMillis = SystemClock.elapsedRealtime() + timeoutMillis;
+        while (standInTransport.getCanceledRequestCount() < count) {
+            if (SystemClock.elapsedRealtime() >= deadlineMillis) {
+                return false;
+            }
+            SystemClock.sleep(10);
+        }
+        return true;
+    }
+}
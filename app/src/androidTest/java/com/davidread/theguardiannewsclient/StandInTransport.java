@@ -0,0 +1,283 @@
+package com.davidread.theguardiannewsclient;
+
+import android.net.Uri;
+import android.os.SystemClock;
+
+import androidx.annotation.Nullable;
+import androidx.core.os.CancellationSignal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link HttpTransport} standing in for The Guardian API in instrumented tests. It generates
+ * content search responses for any query, with a configurable delay before the headers and an
+ * optional bandwidth limit on the body, serves image fixtures for thumbnail URLs, and counts
+ * what was requested and what was canceled. Nothing touches the network.
+ */
+class StandInTransport implements HttpTransport {
+
+    /**
+     * long milliseconds the body reading loop sleeps while waiting for the bandwidth limit, which
+     * is also how often it checks for cancellation.
+     */
+    private static final long POLL_MILLIS = 10;
+
+    private final int totalResultCount;
+    private final long headersDelayMillis;
+    private final long bytesPerSecond;
+    private final Map<String, byte[]> images = new HashMap<>();
+    private final List<String> searchTerms = Collections.synchronizedList(new ArrayList<String>());
+    private final List<String> firstPageSearchTerms = Collections.synchronizedList(new ArrayList<String>());
+    private final AtomicInteger searchRequestCount = new AtomicInteger();
+    private final AtomicInteger imageRequestCount = new AtomicInteger();
+    private final AtomicInteger canceledRequestCount = new AtomicInteger();
+    private final AtomicLong servedBytes = new AtomicLong();
+
+    /**
+     * Constructs a new {@link StandInTransport} object.
+     *
+     * @param totalResultCount   int representing how many results every search has in total.
+     * @param headersDelayMillis long milliseconds waited before the headers of each response.
+     * @param bytesPerSecond     long maximum bytes per second each body is served at, or 0 for no
+     *                           limit.
+     */
+    StandInTransport(int totalResultCount, long headersDelayMillis, long bytesPerSecond) {
+        this.totalResultCount = totalResultCount;
+        this.headersDelayMillis = headersDelayMillis;
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * Serves the given bytes for requests to the given thumbnail URL.
+     */
+    void putImage(String url, byte[] bytes) {
+        images.put(url, bytes);
+    }
+
+    @Override
+    public Response execute(URL url, int connectTimeoutMillis, int readTimeoutMillis, @Nullable CancellationSignal cancellationSignal) throws IOException {
+        Uri uri = Uri.parse(url.toString());
+        byte[] body;
+        if ("/search".equals(uri.getPath())) {
+            searchRequestCount.incrementAndGet();
+            String searchTerm = uri.getQueryParameter("q");
+            int pageIndex = parseInt(uri.getQueryParameter("page"), 1);
+            searchTerms.add(searchTerm == null ? "" : searchTerm);
+            if (pageIndex == 1) {
+                firstPageSearchTerms.add(searchTerm == null ? "" : searchTerm);
+            }
+            body = buildSearchResponse(pageIndex,
+                    parseInt(uri.getQueryParameter("page-size"), 10), totalResultCount, searchTerm)
+                    .getBytes(StandardCharsets.UTF_8);
+        } else {
+            imageRequestCount.incrementAndGet();
+            body = images.get(url.toString());
+        }
+        sleepUnlessCanceled(headersDelayMillis, cancellationSignal);
+        return new StandInResponse(body, cancellationSignal);
+    }
+
+    @Override
+    public void preconnect(URL url, int connectTimeoutMillis) {
+    }
+
+    @Override
+    public boolean countsAgainstApiQuota() {
+        return false;
+    }
+
+    int getSearchRequestCount() {
+        return searchRequestCount.get();
+    }
+
+    int getImageRequestCount() {
+        return imageRequestCount.get();
+    }
+
+    int getCanceledRequestCount() {
+        return canceledRequestCount.get();
+    }
+
+    long getServedBytes() {
+        return servedBytes.get();
+    }
+
+    /**
+     * Returns the search terms of every search request so far, in the order they were made.
+     */
+    List<String> getSearchTerms() {
+        synchronized (searchTerms) {
+            return new ArrayList<>(searchTerms);
+        }
+    }
+
+    /**
+     * Returns the search terms of every request for the first page of a search so far, in the
+     * order they were made. Each entry stands for one search the app started.
+     */
+    List<String> getFirstPageSearchTerms() {
+        synchronized (firstPageSearchTerms) {
+            return new ArrayList<>(firstPageSearchTerms);
+        }
+    }
+
+    /**
+     * Returns a content search response in the format of The Guardian API, holding the results of
+     * the given page of a result set of the given size.
+     *
+     * @param pageIndex        int index of the page, starting at 1.
+     * @param pageSize         int representing how many results each page holds.
+     * @param totalResultCount int representing how many results the whole result set holds.
+     * @param searchTerm       {@link String} the results are made up for. May be null.
+     * @return {@link String} JSON response.
+     */
+    static String buildSearchResponse(int pageIndex, int pageSize, int totalResultCount, @Nullable String searchTerm) {
+        int pageCount = (totalResultCount + pageSize - 1) / pageSize;
+        int firstResult = (pageIndex - 1) * pageSize;
+        int resultCount = Math.max(0, Math.min(pageSize, totalResultCount - firstResult));
+        String term = searchTerm == null || searchTerm.isEmpty() ? "news" : searchTerm;
+        StringBuilder json = new StringBuilder(1024 + resultCount * 900);
+        json.append("{\"response\":{\"status\":\"ok\",\"userTier\":\"developer\",\"total\":").append(totalResultCount)
+                .append(",\"startIndex\":").append(firstResult + 1)
+                .append(",\"pageSize\":").append(pageSize)
+                .append(",\"currentPage\":").append(pageIndex)
+                .append(",\"pages\":").append(pageCount)
+                .append(",\"orderBy\":\"newest\",\"results\":[");
+        for (int i = 0; i < resultCount; i++) {
+            int result = firstResult + i;
+            String id = String.format(Locale.US, "world/2026/oct/%02d/%s-story-%d", 1 + result % 28, term.replace(' ', '-'), result);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"").append(id)
+                    .append("\",\"type\":\"article\",\"sectionId\":\"world\",\"sectionName\":\"World news\"")
+                    .append(",\"webPublicationDate\":\"2026-10-").append(String.format(Locale.US, "%02d", 1 + result % 28)).append("T08:30:00Z\"")
+                    .append(",\"webTitle\":\"Story ").append(result).append(" about ").append(term)
+                    .append(": what the latest figures say and what happens next\"")
+                    .append(",\"webUrl\":\"https://www.theguardian.com/").append(id)
+                    .append("\",\"apiUrl\":\"https://content.guardianapis.com/").append(id)
+                    .append("\",\"fields\":{\"thumbnail\":\"https://media.guim.co.uk/stand-in/").append(result % 20).append("/500.jpg\"}")
+                    .append(",\"tags\":[{\"id\":\"profile/reporter-").append(result % 40)
+                    .append("\",\"type\":\"contributor\",\"webTitle\":\"Reporter ").append(result % 40)
+                    .append("\",\"webUrl\":\"https://www.theguardian.com/profile/reporter-").append(result % 40)
+                    .append("\",\"apiUrl\":\"https://content.guardianapis.com/profile/reporter-").append(result % 40)
+                    .append("\",\"firstName\":\"Reporter\",\"lastName\":\"").append(result % 40).append("\"}]")
+                    .append(",\"isHosted\":false,\"pillarId\":\"pillar/news\",\"pillarName\":\"News\"}");
+        }
+        return json.append("]}}").toString();
+    }
+
+    private static int parseInt(@Nullable String value, int defaultValue) {
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private void sleepUnlessCanceled(long millis, @Nullable CancellationSignal cancellationSignal) throws IOException {
+        long deadlineMillis = SystemClock.elapsedRealtime() + millis;
+        while (true) {
+            if (cancellationSignal != null && cancellationSignal.isCanceled()) {
+                canceledRequestCount.incrementAndGet();
+                throw new InterruptedIOException("Canceled");
+            }
+            long remainingMillis = deadlineMillis - SystemClock.elapsedRealtime();
+            if (remainingMillis <= 0) {
+                return;
+            }
+            SystemClock.sleep(Math.min(POLL_MILLIS, remainingMillis));
+        }
+    }
+
+    /**
+     * {@link HttpTransport.Response} serving a generated body, at most at the bandwidth limit.
+     */
+    private class StandInResponse implements Response {
+
+        private final byte[] body;
+        private final CancellationSignal cancellationSignal;
+
+        StandInResponse(@Nullable byte[] body, @Nullable CancellationSignal cancellationSignal) {
+            this.body = body;
+            this.cancellationSignal = cancellationSignal;
+        }
+
+        @Override
+        public int getCode() {
+            return body == null ? 404 : 200;
+        }
+
+        @Nullable
+        @Override
+        public String getHeader(String name) {
+            return "Content-Type".equalsIgnoreCase(name) && body != null ? "application/json" : null;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ThrottledInputStream(body == null ? new byte[0] : body);
+        }
+
+        @Override
+        public void close() {
+        }
+
+        /**
+         * {@link InputStream} that hands out the body no faster than the bandwidth limit and fails
+         * as soon as the request is canceled.
+         */
+        private class ThrottledInputStream extends InputStream {
+
+            private final byte[] bytes;
+            private final long startMillis = SystemClock.elapsedRealtime();
+            private int position;
+
+            ThrottledInputStream(byte[] bytes) {
+                this.bytes = bytes;
+            }
+
+            @Override
+            public int read() throws IOException {
+                byte[] buffer = new byte[1];
+                return read(buffer, 0, 1) < 0 ? -1 : buffer[0] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (position == bytes.length) {
+                    return -1;
+                }
+                int allowed = Math.min(length, bytes.length - position);
+                while (true) {
+                    sleepUnlessCanceled(0, cancellationSignal);
+                    if (bytesPerSecond <= 0) {
+                        break;
+                    }
+                    long allowedBytes = (SystemClock.elapsedRealtime() - startMillis) * bytesPerSecond / 1000 - position;
+                    if (allowedBytes > 0) {
+                        allowed = (int) Math.min(allowed, allowedBytes);
+                        break;
+                    }
+                    sleepUnlessCanceled(POLL_MILLIS, cancellationSignal);
+                }
+                System.arraycopy(bytes, position, buffer, offset, allowed);
+                position += allowed;
+                servedBytes.addAndGet(allowed);
+                return allowed;
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.davidread.theguardiannewsclient;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.preference.PreferenceManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented test, which launches {@link MainActivity} against a {@link StandInTransport}
+ * throttled to a slow mobile connection, once with progressive loading and once without, and
+ * measures when the first article row is on screen and when the whole first page is.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TimeToFirstRowTest {
+
+    private static final String LOG_TAG_NAME = TimeToFirstRowTest.class.getSimpleName();
+
+    /**
+     * long maximum bytes per second the stand-in serves each body at, so a page of the unmetered
+     * profile takes about two seconds to download.
+     */
+    private static final long BYTES_PER_SECOND = 20000;
+
+    /**
+     * long milliseconds the stand-in waits before the headers of each response.
+     */
+    private static final long HEADERS_DELAY_MILLIS = 150;
+
+    private Instrumentation instrumentation;
+    private SharedPreferences sharedPreferences;
+    private String progressiveLoadingKey;
+    private boolean previousProgressiveLoading;
+    private HttpTransport previousHttpTransport;
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        Context appContext = instrumentation.getTargetContext();
+        sharedPreferences = PreferenceManager.getDefaultSharedPreferences(appContext);
+        progressiveLoadingKey = appContext.getString(R.string.progressive_loading_key);
+        previousProgressiveLoading = sharedPreferences.getBoolean(progressiveLoadingKey,
+                appContext.getResources().getBoolean(R.bool.progressive_loading_default_value));
+        previousHttpTransport = GuardianApiClient.getHttpTransport();
+        LoadingProfileOverride.set(LoadingProfile.UNMETERED);
+    }
+
+    @After
+    public void tearDown() {
+        sharedPreferences.edit().putBoolean(progressiveLoadingKey, previousProgressiveLoading).commit();
+        LoadingProfileOverride.set(null);
+        GuardianApiClient.setHttpTransport(previousHttpTransport);
+    }
+
+    @Test
+    public void progressiveLoadingShowsFirstRowEarly() {
+        long[] wholePageLoad = measureFirstPage(false);
+        long[] progressiveLoad = measureFirstPage(true);
+        int pageBytes = StandInTransport.buildSearchResponse(1, LoadingProfile.UNMETERED.getPageSize(), 500, null)
+                .getBytes(StandardCharsets.UTF_8).length;
+        Log.i(LOG_TAG_NAME, String.format(Locale.US,
+                "%d byte page at %d bytes/s: whole page first row %d ms, full page %d ms; progressive first row %d ms, full page %d ms",
+                pageBytes, BYTES_PER_SECOND, wholePageLoad[0], wholePageLoad[1], progressiveLoad[0], progressiveLoad[1]));
+
+        assertTrue("Progressive first row took " + progressiveLoad[0] + " ms, whole page " + wholePageLoad[0] + " ms",
+                progressiveLoad[0] * 2 < wholePageLoad[0]);
+    }
+
+    /**
+     * Launches {@link MainActivity} with a fresh {@link StandInTransport} and returns the
+     * milliseconds from the launch until the first article row and until a whole page of rows
+     * was laid out.
+     */
+    private long[] measureFirstPage(boolean progressiveLoading) {
+        sharedPreferences.edit().putBoolean(progressiveLoadingKey, progressiveLoading).commit();
+        GuardianApiClient.setHttpTransport(new StandInTransport(500, HEADERS_DELAY_MILLIS, BYTES_PER_SECOND));
+
+        final long[] result = new long[]{-1, -1};
+        long startMillis = SystemClock.elapsedRealtime();
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            final RecyclerView[] recyclerView = new RecyclerView[1];
+            scenario.onActivity(new ActivityScenario.ActivityAction<MainActivity>() {
+                @Override
+                public void perform(MainActivity activity) {
+                    recyclerView[0] = activity.findViewById(R.id.article_recycler_view);
+                }
+            });
+            final int pageSize = LoadingProfile.UNMETERED.getPageSize();
+            final int[] state = new int[2];
+            long deadlineMillis = startMillis + 20000;
+            while (result[1] < 0) {
+                assertTrue("Timed out waiting for the first page", SystemClock.elapsedRealtime() < deadlineMillis);
+                instrumentation.runOnMainSync(new Runnable() {
+                    @Override
+                    public void run() {
+                        ArticleAdapter articleAdapter = (ArticleAdapter) recyclerView[0].getAdapter();
+                        state[0] = 0;
+                        for (int i = 0; i < recyclerView[0].getChildCount(); i++) {
+                            RecyclerView.ViewHolder viewHolder = recyclerView[0].getChildViewHolder(recyclerView[0].getChildAt(i));
+                            if (ArticleAdapter.isArticleViewType(viewHolder.getItemViewType())) {
+                                state[0]++;
+                            }
+                        }
+                        state[1] = articleAdapter == null ? 0 : articleAdapter.getArticles().size();
+                    }
+                });
+                long elapsedMillis = SystemClock.elapsedRealtime() - startMillis;
+                if (result[0] < 0 && state[0] > 0) {
+                    result[0] = elapsedMillis;
+                }
+                if (state[1] >= pageSize) {
+                    result[1] = elapsedMillis;
+                }
+                SystemClock.sleep(5);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,118 @@
+package com.davidread.theguardiannewsclient;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.preference.PreferenceManager;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented test, which changes the order by setting while the first page of the feed is still
+ * downloading from a throttled {@link StandInTransport}, and measures the bytes and CPU time
+ * {@link LoadMetrics} accounts to the aborted load.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WastedWorkTest {
+
+    private static final String LOG_TAG_NAME = WastedWorkTest.class.getSimpleName();
+
+    /**
+     * long maximum bytes per second the stand-in serves each body at, so a page of the unmetered
+     * profile takes a few seconds to download.
+     */
+    private static final long BYTES_PER_SECOND = 15000;
+
+    private Context appContext;
+    private SharedPreferences sharedPreferences;
+    private String orderByKey;
+    private String previousOrderBy;
+    private HttpTransport previousHttpTransport;
+    private StandInTransport standInTransport;
+
+    @Before
+    public void setUp() {
+        appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        sharedPreferences = PreferenceManager.getDefaultSharedPreferences(appContext);
+        orderByKey = appContext.getString(R.string.order_by_key);
+        previousOrderBy = sharedPreferences.getString(orderByKey, null);
+        sharedPreferences.edit().putString(orderByKey, appContext.getString(R.string.order_by_newest_value)).commit();
+        previousHttpTransport = GuardianApiClient.getHttpTransport();
+        standInTransport = new StandInTransport(500, 0, BYTES_PER_SECOND);
+        GuardianApiClient.setHttpTransport(standInTransport);
+        LoadingProfileOverride.set(LoadingProfile.UNMETERED);
+    }
+
+    @After
+    public void tearDown() {
+        sharedPreferences.edit().putString(orderByKey, previousOrderBy).commit();
+        LoadingProfileOverride.set(null);
+        GuardianApiClient.setHttpTransport(previousHttpTransport);
+    }
+
+    @Test
+    public void changingSettingsMidLoadAbortsTheLoad() {
+        long abortedRequestsBefore = LoadMetrics.getAbortedRequestCount();
+        long abortedLoadsBefore = LoadMetrics.getAbortedLoadCount();
+        long wastedBytesBefore = LoadMetrics.getWastedBytes();
+        long wastedCpuMillisBefore = LoadMetrics.getWastedCpuMillis();
+        int pageBytes = StandInTransport.buildSearchResponse(1, LoadingProfile.UNMETERED.getPageSize(), 500, null)
+                .getBytes(StandardCharsets.UTF_8).length;
+
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            // Change the setting once about a fifth of the first page arrived.
+            waitFor(new Condition() {
+                @Override
+                public boolean isMet() {
+                    return standInTransport.getServedBytes() >= pageBytes / 5;
+                }
+            });
+            sharedPreferences.edit().putString(orderByKey, appContext.getString(R.string.order_by_relevance_value)).commit();
+
+            // Wait for the request of the old generation to be canceled and the new one to start.
+            waitFor(new Condition() {
+                @Override
+                public boolean isMet() {
+                    return standInTransport.getCanceledRequestCount() >= 1
+                            && standInTransport.getFirstPageSearchTerms().size() >= 2
+                            && LoadMetrics.getAbortedLoadCount() > abortedLoadsBefore;
+                }
+            });
+        }
+
+        long wastedBytes = LoadMetrics.getWastedBytes() - wastedBytesBefore;
+        long wastedCpuMillis = LoadMetrics.getWastedCpuMillis() - wastedCpuMillisBefore;
+        Log.i(LOG_TAG_NAME, String.format(Locale.US, "aborted requests %d, aborted loads %d, wasted bytes %d of %d, wasted cpu %d ms",
+                LoadMetrics.getAbortedRequestCount() - abortedRequestsBefore, LoadMetrics.getAbortedLoadCount() - abortedLoadsBefore,
+                wastedBytes, pageBytes, wastedCpuMillis));
+        assertTrue(LoadMetrics.getAbortedRequestCount() > abortedRequestsBefore);
+        assertTrue("Nothing was read before the abort", wastedBytes > 0);
+        assertTrue("The aborted request kept reading: " + wastedBytes + " bytes", wastedBytes < pageBytes);
+        assertTrue(wastedCpuMillis >= 0);
+    }
+
+    private interface Condition {
+        boolean isMet();
+    }
+
+    private static void waitFor(Condition condition) {
+        long deadlineMillis = SystemClock.elapsedRealtime() + 15000;
+        while (!condition.isMet()) {
+            assertTrue("Timed out", SystemClock.elapsedRealtime() < deadlineMillis);
+            SystemClock.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.davidread.theguardiannewsclient;
+
+import androidx.annotation.Nullable;
+
+/**
+ * {@link LoadingProfileOverride} lets instrumented tests make every {@link NetworkMonitor} report
+ * a given {@link LoadingProfile} no matter which network is active, e.g. so that requests reach a
+ * transport standing in for The Guardian API on a device without a connection. It only exists in
+ * debug builds; release builds use a stand-in that never overrides anything.
+ */
+public final class LoadingProfileOverride {
+
+    /**
+     * {@link LoadingProfile} reported instead of the one matching the active network, or null if
+     * the active network decides.
+     */
+    private static volatile LoadingProfile loadingProfile;
+
+    /**
+     * Private constructor since {@link LoadingProfileOverride} only has static members.
+     */
+    private LoadingProfileOverride() {
+    }
+
+    /**
+     * Returns the {@link LoadingProfile} reported instead of the one matching the active network.
+     *
+     * @return {@link LoadingProfile} override, or null if the active network decides.
+     */
+    @Nullable
+    static LoadingProfile get() {
+        return loadingProfile;
+    }
+
+    /**
+     * Makes every {@link NetworkMonitor} report the given {@link LoadingProfile}. Listeners are
+     * not notified, since only requests read the override.
+     *
+     * @param newLoadingProfile {@link LoadingProfile} to report, or null to report the one
+     *                          matching the active network again.
+     */
+    public static void set(@Nullable LoadingProfile newLoadingProfile) {
+        loadingProfile = newLoadingProfile;
+    }
+}
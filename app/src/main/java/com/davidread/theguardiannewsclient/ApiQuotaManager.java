@@ -0,0 +1,332 @@
+package com.davidread.theguardiannewsclient;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.core.os.CancellationSignal;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ApiQuotaManager} keeps requests to The Guardian API within the call limits of the API
+ * key. Every request must acquire a permit first. Permits are handed out by a token bucket that
+ * enforces the per second limit, and each permit is counted against a daily quota that is
+ * persisted in {@link SharedPreferences} so it survives process restarts. When the budget runs low,
+ * {@link Priority#BACKGROUND} requests are shed so the remaining budget is kept for
+ * {@link Priority#FOREGROUND} requests.
+ */
+public class ApiQuotaManager {
+
+    /**
+     * {@link String} log tag name for {@link ApiQuotaManager}.
+     */
+    public static final String LOG_TAG_NAME = ApiQuotaManager.class.getSimpleName();
+
+    /**
+     * int representing how many requests the API key may make per second.
+     */
+    public static final int CALLS_PER_SECOND = 12;
+
+    /**
+     * int representing how many requests the API key may make per day.
+     */
+    public static final int CALLS_PER_DAY = 5000;
+
+    /**
+     * int representing how many tokens must be left in the bucket for a
+     * {@link Priority#BACKGROUND} request to be granted.
+     */
+    private static final int BACKGROUND_TOKEN_RESERVE = CALLS_PER_SECOND / 2;
+
+    /**
+     * int representing how much of the daily quota is reserved for {@link Priority#FOREGROUND}
+     * requests.
+     */
+    private static final int BACKGROUND_DAILY_RESERVE = CALLS_PER_DAY / 10;
+
+    /**
+     * long representing the longest a {@link Priority#FOREGROUND} request waits for a token
+     * before it is rejected.
+     */
+    private static final long MAX_FOREGROUND_WAIT_MILLIS = 5000;
+
+    /**
+     * long representing how long requests are held back after the server throttled a request
+     * without saying for how long.
+     */
+    private static final long DEFAULT_THROTTLE_BACKOFF_MILLIS = 2000;
+
+    /**
+     * {@link String} constants for the {@link SharedPreferences} file the daily quota is
+     * persisted in.
+     */
+    private static final String PREFERENCES_NAME = "api_quota";
+    private static final String QUOTA_DAY_KEY = "quota_day";
+    private static final String QUOTA_USED_KEY = "quota_used";
+
+    /**
+     * {@link ApiQuotaManager} instance shared across the app.
+     */
+    private static volatile ApiQuotaManager instance;
+
+    /**
+     * {@link SharedPreferences} the daily quota is persisted in.
+     */
+    private final SharedPreferences sharedPreferences;
+
+    /**
+     * double representing how many tokens are currently in the bucket.
+     */
+    private double tokens;
+
+    /**
+     * long representing the elapsed realtime in milliseconds the bucket was last refilled at.
+     */
+    private long lastRefillMillis;
+
+    /**
+     * long representing the day since the epoch in UTC the daily quota is counted for.
+     */
+    private long quotaDay;
+
+    /**
+     * int representing how many requests were made on the quota day.
+     */
+    private int quotaUsed;
+
+    /**
+     * long representing the elapsed realtime in milliseconds until which the server asked for no
+     * more requests.
+     */
+    private long throttledUntilMillis;
+
+    /**
+     * long counters reported by {@link ApiQuotaManager#getStatsSummary()}.
+     */
+    private long grantedCount;
+    private long waitedCount;
+    private long shedCount;
+    private long rejectedCount;
+    private long serverThrottledCount;
+
+    /**
+     * Constructs a new {@link ApiQuotaManager} object and restores the daily quota.
+     *
+     * @param context {@link Context} for accessing {@link SharedPreferences}.
+     */
+    private ApiQuotaManager(Context context) {
+        this.sharedPreferences = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        this.tokens = CALLS_PER_SECOND;
+        this.lastRefillMillis = SystemClock.elapsedRealtime();
+        this.quotaDay = sharedPreferences.getLong(QUOTA_DAY_KEY, getCurrentDay());
+        this.quotaUsed = sharedPreferences.getInt(QUOTA_USED_KEY, 0);
+        this.throttledUntilMillis = 0;
+    }
+
+    /**
+     * Returns the {@link ApiQuotaManager} instance shared across the app.
+     *
+     * @param context {@link Context} for accessing {@link SharedPreferences}.
+     * @return {@link ApiQuotaManager} instance shared across the app.
+     */
+    public static ApiQuotaManager getInstance(Context context) {
+        if (instance == null) {
+            synchronized (ApiQuotaManager.class) {
+                if (instance == null) {
+                    instance = new ApiQuotaManager(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Acquires a permit for a single request. {@link Priority#FOREGROUND} requests wait for a
+     * token while the bucket is empty. {@link Priority#BACKGROUND} requests never wait and are shed
+     * whenever the bucket or the daily quota runs low.
+     *
+     * @param priority           {@link Priority} of the request.
+     * @param cancellationSignal {@link CancellationSignal} that stops waiting as soon as it is
+     *                           canceled. May be null.
+     * @return Whether the request may be made.
+     */
+    public boolean acquire(Priority priority, @Nullable CancellationSignal cancellationSignal) {
+        if (priority == Priority.BACKGROUND || cancellationSignal == null) {
+            return acquireLocked(priority, cancellationSignal);
+        }
+
+        // Wake the waiting thread when the request is canceled. The listener is set and removed
+        // without holding the lock, since removing it waits for a cancel in progress, which in
+        // turn waits for the lock.
+        cancellationSignal.setOnCancelListener(new CancellationSignal.OnCancelListener() {
+            @Override
+            public void onCancel() {
+                synchronized (ApiQuotaManager.this) {
+                    ApiQuotaManager.this.notifyAll();
+                }
+            }
+        });
+        try {
+            return acquireLocked(priority, cancellationSignal);
+        } finally {
+            cancellationSignal.setOnCancelListener(null);
+        }
+    }
+
+    /**
+     * Acquires a permit for a single request as described by
+     * {@link ApiQuotaManager#acquire(Priority, CancellationSignal)}, waiting in {@link #wait(long)}
+     * while the bucket is empty.
+     *
+     * @param priority           {@link Priority} of the request.
+     * @param cancellationSignal {@link CancellationSignal} that stops waiting when canceled. May be
+     *                           null.
+     * @return Whether the request may be made.
+     */
+    private synchronized boolean acquireLocked(Priority priority, @Nullable CancellationSignal cancellationSignal) {
+        rollOverDay();
+        int remainingDailyQuota = CALLS_PER_DAY - quotaUsed;
+        if (remainingDailyQuota <= 0) {
+            rejectedCount++;
+            Log.w(LOG_TAG_NAME, "Daily quota of " + CALLS_PER_DAY + " requests is used up");
+            return false;
+        }
+
+        if (priority == Priority.BACKGROUND) {
+            refill();
+            if (remainingDailyQuota <= BACKGROUND_DAILY_RESERVE || tokens < BACKGROUND_TOKEN_RESERVE + 1
+                    || SystemClock.elapsedRealtime() < throttledUntilMillis) {
+                shedCount++;
+                return false;
+            }
+        } else {
+            long deadlineMillis = SystemClock.elapsedRealtime() + MAX_FOREGROUND_WAIT_MILLIS;
+            boolean waited = false;
+            while (true) {
+                refill();
+                long nowMillis = SystemClock.elapsedRealtime();
+                long waitMillis;
+                if (nowMillis < throttledUntilMillis) {
+                    waitMillis = throttledUntilMillis - nowMillis;
+                } else if (tokens < 1) {
+                    waitMillis = (long) Math.ceil((1 - tokens) * 1000 / CALLS_PER_SECOND);
+                } else {
+                    break;
+                }
+                if (cancellationSignal != null && cancellationSignal.isCanceled()) {
+                    return false;
+                }
+                if (nowMillis + waitMillis > deadlineMillis) {
+                    rejectedCount++;
+                    return false;
+                }
+                waited = true;
+                try {
+                    wait(Math.max(1, waitMillis));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            if (waited) {
+                waitedCount++;
+            }
+        }
+
+        tokens -= 1;
+        quotaUsed++;
+        grantedCount++;
+        sharedPreferences.edit()
+                .putLong(QUOTA_DAY_KEY, quotaDay)
+                .putInt(QUOTA_USED_KEY, quotaUsed)
+                .apply();
+        return true;
+    }
+
+    /**
+     * Records that the server rejected a request with HTTP 429. No request is granted until the
+     * given delay has passed.
+     *
+     * @param retryAfterSeconds long number of seconds the server asked to wait, or a negative
+     *                          number if the server did not say.
+     */
+    public synchronized void onServerThrottled(long retryAfterSeconds) {
+        serverThrottledCount++;
+        long backoffMillis = retryAfterSeconds >= 0 ? TimeUnit.SECONDS.toMillis(retryAfterSeconds) : DEFAULT_THROTTLE_BACKOFF_MILLIS;
+        throttledUntilMillis = Math.max(throttledUntilMillis, SystemClock.elapsedRealtime() + backoffMillis);
+        tokens = 0;
+        Log.w(LOG_TAG_NAME, "Server throttled a request, backing off for " + backoffMillis + " ms");
+    }
+
+    /**
+     * Returns how many requests are left in today's quota.
+     *
+     * @return int representing how many requests are left in today's quota.
+     */
+    public synchronized int getRemainingDailyQuota() {
+        rollOverDay();
+        return Math.max(0, CALLS_PER_DAY - quotaUsed);
+    }
+
+    /**
+     * Returns a one line summary of the remaining budget and throttle events.
+     *
+     * @return {@link String} summary of the quota counters.
+     */
+    public synchronized String getStatsSummary() {
+        rollOverDay();
+        return String.format(Locale.US,
+                "daily remaining %d/%d, granted %d, waited %d, shed %d, rejected %d, server throttled %d",
+                Math.max(0, CALLS_PER_DAY - quotaUsed), CALLS_PER_DAY, grantedCount, waitedCount,
+                shedCount, rejectedCount, serverThrottledCount);
+    }
+
+    /**
+     * Writes {@link ApiQuotaManager#getStatsSummary()} to the log.
+     */
+    public void logStats() {
+        Log.i(LOG_TAG_NAME, getStatsSummary());
+    }
+
+    /**
+     * Adds the tokens that accumulated since the last refill, up to the bucket capacity.
+     */
+    private void refill() {
+        long nowMillis = SystemClock.elapsedRealtime();
+        tokens = Math.min(CALLS_PER_SECOND, tokens + (nowMillis - lastRefillMillis) * CALLS_PER_SECOND / 1000.0);
+        lastRefillMillis = nowMillis;
+    }
+
+    /**
+     * Resets the daily quota once a new UTC day has started.
+     */
+    private void rollOverDay() {
+        long currentDay = getCurrentDay();
+        if (currentDay != quotaDay) {
+            quotaDay = currentDay;
+            quotaUsed = 0;
+        }
+    }
+
+    /**
+     * Returns the current day since the epoch in UTC.
+     *
+     * @return long representing the current day since the epoch.
+     */
+    private static long getCurrentDay() {
+        return TimeUnit.MILLISECONDS.toDays(System.currentTimeMillis());
+    }
+
+    /**
+     * {@link Priority} of a request. {@link Priority#FOREGROUND} requests are made because the
+     * user is waiting for them, while {@link Priority#BACKGROUND} requests only warm up caches.
+     */
+    public enum Priority {
+        FOREGROUND,
+        BACKGROUND
+    }
+}
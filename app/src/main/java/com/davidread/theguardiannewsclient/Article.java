@@ -3,10 +3,14 @@ package com.davidread.theguardiannewsclient;
 import android.os.Parcel;
 import android.os.Parcelable;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
 /**
  * {@link Article} is a model class for an article listing. It implements the {@link Parcelable}
  * interface so that {@link java.util.ArrayList} of {@link Article} objects may be passed inside
- * {@link android.os.Bundle} objects.
+ * {@link android.os.Bundle} objects. Apart from the id, its fields are kept encoded in one compact
+ * byte array and only decoded when first read.
  */
 public class Article implements Parcelable {
 
@@ -27,45 +31,93 @@ public class Article implements Parcelable {
     };
 
     /**
-     * {@link String} representing the title of the article.
+     * int indices of the fields encoded in {@link Article#fields}, in the order they are encoded.
+     * The authors follow the last of them, preceded by their count.
      */
-    private final String title;
+    static final int TITLE_FIELD = 0;
+    static final int SECTION_NAME_FIELD = 1;
+    static final int DATE_PUBLISHED_FIELD = 2;
+    static final int URL_FIELD = 3;
+    static final int THUMBNAIL_URL_FIELD = 4;
+    static final int AUTHORS_FIELD = 5;
 
     /**
-     * {@link String} array representing the author(s) of the article.
+     * {@link String} representing the id of the article within The Guardian API. Unlike the other
+     * fields it is kept decoded, since every loaded article is looked up by its id.
      */
-    private final String[] authors;
+    private final String id;
 
     /**
-     * {@link String} representing the name of the section the article is from.
+     * byte array holding every field but the id as UTF-8, each preceded by its length as a
+     * varint. Fields are only decoded into {@link String} objects the first time they are read,
+     * e.g. when the article is bound or clicked, since most loaded articles never are.
      */
-    private final String sectionName;
+    private final byte[] fields;
 
     /**
-     * {@link String} representing the date the article was published.
+     * {@link String} representing the title of the article, or null until it is decoded.
      */
-    private final String datePublished;
+    private String title;
 
     /**
-     * {@link String} representing a URL that points to the article online.
+     * {@link String} array representing the author(s) of the article, or null until it is decoded.
      */
-    private final String url;
+    private String[] authors;
 
     /**
-     * Constructs a new {@link Article} object.
+     * {@link String} representing the name of the section the article is from, or null until it
+     * is decoded.
+     */
+    private String sectionName;
+
+    /**
+     * {@link String} representing the date the article was published, or null until it is
+     * decoded.
+     */
+    private String datePublished;
+
+    /**
+     * {@link String} representing a URL that points to the article online, or null until it is
+     * decoded.
+     */
+    private String url;
+
+    /**
+     * {@link String} representing a URL that points to a thumbnail image of the article, or null
+     * until it is decoded. It is the empty string if the article has no thumbnail.
+     */
+    private String thumbnailUrl;
+
+    /**
+     * Constructs a new {@link Article} object. Every field but the id is encoded into a single
+     * byte array right away, so the given {@link String} objects can be collected.
      *
+     * @param id            {@link String} representing the id of the article within The Guardian
+     *                      API.
      * @param title         {@link String} representing the title of the article.
-     * @param authors        {@link String} array representing the author(s) of the article.
+     * @param authors       {@link String} array representing the author(s) of the article.
      * @param sectionName   {@link String} representing the name of the section the article is from.
      * @param datePublished {@link String} representing the date the article was published.
      * @param url           {@link String} representing a URL that points to the article online.
+     * @param thumbnailUrl  {@link String} representing a URL that points to a thumbnail image of
+     *                      the article.
      */
-    public Article(String title, String[] authors, String sectionName, String datePublished, String url) {
-        this.title = title;
-        this.authors = authors;
-        this.sectionName = sectionName;
-        this.datePublished = datePublished;
-        this.url = url;
+    public Article(String id, String title, String[] authors, String sectionName, String datePublished, String url, String thumbnailUrl) {
+        this.id = id;
+        this.fields = encodeFields(title, sectionName, datePublished, url, thumbnailUrl, authors);
+    }
+
+    /**
+     * Constructs a new {@link Article} object from fields already encoded, e.g. by a
+     * {@link FieldsEncoder} while parsing or by another {@link Article} read back from the
+     * {@link ArticleArchive}.
+     *
+     * @param id     {@link String} representing the id of the article within The Guardian API.
+     * @param fields byte array in the layout of {@link Article#getEncodedFields()}.
+     */
+    Article(String id, byte[] fields) {
+        this.id = id;
+        this.fields = fields;
     }
 
     /**
@@ -75,11 +127,17 @@ public class Article implements Parcelable {
      *           object to be constructed.
      */
     protected Article(Parcel in) {
-        title = in.readString();
-        authors = in.createStringArray();
-        sectionName = in.readString();
-        datePublished = in.readString();
-        url = in.readString();
+        id = in.readString();
+        fields = in.createByteArray();
+    }
+
+    /**
+     * Returns a {@link String} representing the id of the article within The Guardian API.
+     *
+     * @return {@link String} representing the id of the article within The Guardian API.
+     */
+    public String getId() {
+        return id;
     }
 
     /**
@@ -88,6 +146,9 @@ public class Article implements Parcelable {
      * @return {@link String} representing the title of the article.
      */
     public String getTitle() {
+        if (title == null) {
+            title = decodeField(TITLE_FIELD);
+        }
         return title;
     }
 
@@ -97,6 +158,9 @@ public class Article implements Parcelable {
      * @return {@link String} array representing the author(s) of the article.
      */
     public String[] getAuthors() {
+        if (authors == null) {
+            authors = decodeAuthors();
+        }
         return authors;
     }
 
@@ -106,6 +170,9 @@ public class Article implements Parcelable {
      * @return {@link String} representing the name of the section the article is from.
      */
     public String getSectionName() {
+        if (sectionName == null) {
+            sectionName = decodeSectionName();
+        }
         return sectionName;
     }
 
@@ -115,6 +182,9 @@ public class Article implements Parcelable {
      * @return {@link String} representing the date the article was published.
      */
     public String getDatePublished() {
+        if (datePublished == null) {
+            datePublished = decodeField(DATE_PUBLISHED_FIELD);
+        }
         return datePublished;
     }
 
@@ -124,9 +194,273 @@ public class Article implements Parcelable {
      * @return {@link String} representing a URL that points to the article online.
      */
     public String getUrl() {
+        if (url == null) {
+            url = decodeField(URL_FIELD);
+        }
         return url;
     }
 
+    /**
+     * Returns a {@link String} representing a URL that points to a thumbnail image of the article.
+     *
+     * @return {@link String} representing a URL that points to a thumbnail image of the article,
+     * or the empty string if the article has no thumbnail.
+     */
+    public String getThumbnailUrl() {
+        if (thumbnailUrl == null) {
+            thumbnailUrl = decodeField(THUMBNAIL_URL_FIELD);
+        }
+        return thumbnailUrl;
+    }
+
+    /**
+     * Returns every field but the id in the encoding described at {@link Article#fields}. The
+     * array is shared, so it must not be modified.
+     *
+     * @return byte array holding the encoded fields.
+     */
+    byte[] getEncodedFields() {
+        return fields;
+    }
+
+    /**
+     * Returns the name of the section the article is from without keeping it decoded, for
+     * indexes that visit every loaded article but keep their own copy of each distinct name.
+     *
+     * @return {@link String} representing the name of the section the article is from.
+     */
+    String decodeSectionName() {
+        String decoded = sectionName;
+        return decoded != null ? decoded : decodeField(SECTION_NAME_FIELD);
+    }
+
+    /**
+     * Returns the author(s) of the article without keeping them decoded, like
+     * {@link Article#decodeSectionName()}.
+     *
+     * @return {@link String} array representing the author(s) of the article.
+     */
+    String[] decodeAuthors() {
+        String[] decoded = authors;
+        if (decoded != null) {
+            return decoded;
+        }
+        int position = skipFields(AUTHORS_FIELD);
+        int authorCount = readVarint(fields, position);
+        position += getVarintSize(authorCount);
+        decoded = new String[authorCount];
+        for (int i = 0; i < authorCount; i++) {
+            int length = readVarint(fields, position);
+            position += getVarintSize(length);
+            decoded[i] = new String(fields, position, length, StandardCharsets.UTF_8);
+            position += length;
+        }
+        return decoded;
+    }
+
+    /**
+     * Returns an estimate of how many bytes of heap this {@link Article} object occupies, counting
+     * the encoded fields, two bytes per character of every decoded {@link String}, and a fixed
+     * overhead per object.
+     *
+     * @return long estimated size in bytes.
+     */
+    public long estimateSizeBytes() {
+        long sizeBytes = fields.length + 2L * id.length() + 40L * 3;
+        sizeBytes += estimateSizeBytes(title) + estimateSizeBytes(sectionName) + estimateSizeBytes(datePublished)
+                + estimateSizeBytes(url) + estimateSizeBytes(thumbnailUrl);
+        String[] decodedAuthors = authors;
+        if (decodedAuthors != null) {
+            sizeBytes += 40;
+            for (String author : decodedAuthors) {
+                sizeBytes += estimateSizeBytes(author);
+            }
+        }
+        return sizeBytes;
+    }
+
+    /**
+     * Returns an estimate of how many bytes of heap a decoded {@link String} occupies.
+     *
+     * @param value {@link String} to estimate, or null if it is not decoded.
+     * @return long estimated size in bytes, or 0 for null.
+     */
+    private static long estimateSizeBytes(String value) {
+        return value == null ? 0 : 2L * value.length() + 40;
+    }
+
+    /**
+     * Decodes the field at the given index of {@link Article#fields}.
+     *
+     * @param field int index of the field, e.g. {@link Article#TITLE_FIELD}.
+     * @return {@link String} value of the field.
+     */
+    private String decodeField(int field) {
+        int position = skipFields(field);
+        int length = readVarint(fields, position);
+        position += getVarintSize(length);
+        return new String(fields, position, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the position of the field at the given index of {@link Article#fields}.
+     *
+     * @param field int index of the field.
+     * @return int position of the length of the field.
+     */
+    private int skipFields(int field) {
+        int position = 0;
+        for (int i = 0; i < field; i++) {
+            int length = readVarint(fields, position);
+            position += getVarintSize(length) + length;
+        }
+        return position;
+    }
+
+    /**
+     * Encodes the given fields into a byte array of the layout described at
+     * {@link Article#fields}. Characters are encoded straight into the array, so no intermediate
+     * byte array is allocated per field.
+     *
+     * @return byte array holding the encoded fields.
+     */
+    private static byte[] encodeFields(String title, String sectionName, String datePublished, String url, String thumbnailUrl, String[] authors) {
+        String[] values = new String[AUTHORS_FIELD + authors.length];
+        values[TITLE_FIELD] = title;
+        values[SECTION_NAME_FIELD] = sectionName;
+        values[DATE_PUBLISHED_FIELD] = datePublished;
+        values[URL_FIELD] = url;
+        values[THUMBNAIL_URL_FIELD] = thumbnailUrl;
+        System.arraycopy(authors, 0, values, AUTHORS_FIELD, authors.length);
+
+        // Size the array exactly before encoding into it.
+        int size = getVarintSize(authors.length);
+        for (String value : values) {
+            int length = getUtf8Length(value);
+            size += getVarintSize(length) + length;
+        }
+        byte[] buffer = new byte[size];
+        int position = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (i == AUTHORS_FIELD) {
+                position = writeVarint(buffer, position, authors.length);
+            }
+            position = writeVarint(buffer, position, getUtf8Length(values[i]));
+            position = writeUtf8(buffer, position, values[i]);
+        }
+        if (values.length == AUTHORS_FIELD) {
+            writeVarint(buffer, position, 0);
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns how many bytes the given {@link CharSequence} occupies as UTF-8.
+     *
+     * @param value {@link CharSequence} to measure.
+     * @return int length in bytes.
+     */
+    private static int getUtf8Length(CharSequence value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Writes the given {@link CharSequence} as UTF-8. Unpaired surrogates take three bytes and
+     * decode to a replacement character.
+     *
+     * @param buffer   byte array to write to.
+     * @param position int position to write at.
+     * @param value    {@link CharSequence} to write.
+     * @return int position after the written bytes.
+     */
+    private static int writeUtf8(byte[] buffer, int position, CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xc0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xf0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3f));
+            } else {
+                buffer[position++] = (byte) (0xe0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                buffer[position++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Returns how many bytes the given non-negative int occupies as a varint.
+     *
+     * @param value int to measure.
+     * @return int length in bytes.
+     */
+    private static int getVarintSize(int value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Writes the given non-negative int as a varint: seven bits per byte, lowest first, with the
+     * high bit set on every byte but the last.
+     *
+     * @param buffer   byte array to write to.
+     * @param position int position to write at.
+     * @param value    int to write.
+     * @return int position after the written bytes.
+     */
+    private static int writeVarint(byte[] buffer, int position, int value) {
+        while ((value & ~0x7f) != 0) {
+            buffer[position++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    /**
+     * Reads a varint written by {@link Article#writeVarint(byte[], int, int)}.
+     *
+     * @param buffer   byte array to read from.
+     * @param position int position to read at.
+     * @return int value read.
+     */
+    private static int readVarint(byte[] buffer, int position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer[position++];
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
     /**
      * Returns an int that describes the type of objects contained in this {@link Parcelable}
      * instance.
@@ -147,10 +481,150 @@ public class Article implements Parcelable {
      */
     @Override
     public void writeToParcel(Parcel dest, int flags) {
-        dest.writeString(title);
-        dest.writeStringArray(authors);
-        dest.writeString(sectionName);
-        dest.writeString(datePublished);
-        dest.writeString(url);
+        dest.writeString(id);
+        dest.writeByteArray(fields);
+    }
+
+    /**
+     * {@link FieldsEncoder} packs the fields of one {@link Article} at a time into the layout
+     * described at {@link Article#fields}, straight from the chars a parser decoded them into,
+     * so no {@link String} is created for them. Fields may be set in any order; missing ones are
+     * empty, and the authors are a single empty one unless {@link FieldsEncoder#clearAuthors()}
+     * was called. One encoder is reused for every result of a response.
+     */
+    static final class FieldsEncoder {
+
+        /**
+         * byte array the fields are encoded into as UTF-8 while they are set, and how many of its
+         * bytes are used.
+         */
+        private byte[] scratch = new byte[1024];
+        private int scratchLength;
+
+        /**
+         * int arrays of where each field but the authors starts within
+         * {@link FieldsEncoder#scratch} and how many bytes it takes, 0 if it was not set.
+         */
+        private final int[] fieldStarts = new int[AUTHORS_FIELD];
+        private final int[] fieldLengths = new int[AUTHORS_FIELD];
+
+        /**
+         * int arrays of where each author starts within {@link FieldsEncoder#scratch} and how many
+         * bytes it takes, and how many authors there are, or -1 for the single empty author of a
+         * result without tags.
+         */
+        private int[] authorStarts = new int[4];
+        private int[] authorLengths = new int[4];
+        private int authorCount;
+
+        /**
+         * Constructs a new {@link FieldsEncoder} object ready for the first article.
+         */
+        FieldsEncoder() {
+            reset();
+        }
+
+        /**
+         * Clears the fields of the previous article.
+         */
+        void reset() {
+            scratchLength = 0;
+            Arrays.fill(fieldLengths, 0);
+            authorCount = -1;
+        }
+
+        /**
+         * Sets the field at the given index.
+         *
+         * @param field int index of the field, e.g. {@link Article#TITLE_FIELD}.
+         * @param value {@link CharSequence} value of the field. It is copied.
+         */
+        void setField(int field, CharSequence value) {
+            fieldStarts[field] = scratchLength;
+            fieldLengths[field] = append(value);
+        }
+
+        /**
+         * Drops the single empty author, for a result that lists its authors.
+         */
+        void clearAuthors() {
+            authorCount = 0;
+        }
+
+        /**
+         * Adds an author after the ones added before.
+         *
+         * @param author {@link CharSequence} name of the author. It is copied.
+         */
+        void addAuthor(CharSequence author) {
+            if (authorCount < 0) {
+                authorCount = 0;
+            }
+            if (authorCount == authorStarts.length) {
+                authorStarts = Arrays.copyOf(authorStarts, authorCount * 2);
+                authorLengths = Arrays.copyOf(authorLengths, authorCount * 2);
+            }
+            authorStarts[authorCount] = scratchLength;
+            authorLengths[authorCount] = append(author);
+            authorCount++;
+        }
+
+        /**
+         * Returns the fields set since the last reset as an exactly sized byte array.
+         *
+         * @return byte array holding the encoded fields.
+         */
+        byte[] encode() {
+            int encodedAuthorCount = authorCount < 0 ? 1 : authorCount;
+            int size = getVarintSize(encodedAuthorCount);
+            for (int field = 0; field < AUTHORS_FIELD; field++) {
+                size += getVarintSize(fieldLengths[field]) + fieldLengths[field];
+            }
+            for (int i = 0; i < authorCount; i++) {
+                size += getVarintSize(authorLengths[i]) + authorLengths[i];
+            }
+            if (authorCount < 0) {
+                size += getVarintSize(0);
+            }
+
+            byte[] fields = new byte[size];
+            int position = 0;
+            for (int field = 0; field < AUTHORS_FIELD; field++) {
+                position = copy(fields, position, fieldStarts[field], fieldLengths[field]);
+            }
+            position = writeVarint(fields, position, encodedAuthorCount);
+            if (authorCount < 0) {
+                writeVarint(fields, position, 0);
+            }
+            for (int i = 0; i < authorCount; i++) {
+                position = copy(fields, position, authorStarts[i], authorLengths[i]);
+            }
+            return fields;
+        }
+
+        /**
+         * Appends the given value to {@link FieldsEncoder#scratch} as UTF-8, growing it if needed.
+         *
+         * @return int length of the value in bytes.
+         */
+        private int append(CharSequence value) {
+            int length = getUtf8Length(value);
+            if (scratchLength + length > scratch.length) {
+                scratch = Arrays.copyOf(scratch, Math.max(scratch.length * 2, scratchLength + length));
+            }
+            scratchLength = writeUtf8(scratch, scratchLength, value);
+            return length;
+        }
+
+        /**
+         * Copies a value from {@link FieldsEncoder#scratch}, preceded by its length.
+         *
+         * @return int position after the copied bytes.
+         */
+        private int copy(byte[] fields, int position, int start, int length) {
+            position = writeVarint(fields, position, length);
+            System.arraycopy(scratch, start, fields, position, length);
+            return position + length;
+        }
     }
 }
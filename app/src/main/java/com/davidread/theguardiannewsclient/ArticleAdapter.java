@@ -5,23 +5,32 @@ import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Locale;
 import java.util.TimeZone;
 
 /**
  * {@link ArticleAdapter} is an adapter class that provides a binding from a {@link List} of
  * {@link Article} objects to views that are displayed within a {@link RecyclerView}. It also
- * allows a single footer view to be shown below the adapted {@link Article} objects.
+ * allows a single footer view to be shown below the adapted {@link Article} objects. Null elements
+ * of the adapted {@link List}, e.g. unloaded pages of a {@link SparseArticleList}, are shown as
+ * placeholder views. Articles the {@link ReadStateStore} knows as read are dimmed. Read articles may
+ * be hidden and the articles may be filtered by a section or contributor facet through an index of
+ * visible positions, so the adapted {@link List} itself is never copied.
  */
 public class ArticleAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
 
@@ -38,12 +47,48 @@ public class ArticleAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
     public static final int VIEW_TYPE_LOADING = 1;
     public static final int VIEW_TYPE_ERROR = 2;
     public static final int VIEW_TYPE_END_OF_LIST = 3;
+    public static final int VIEW_TYPE_PLACEHOLDER = 4;
+    public static final int VIEW_TYPE_ARTICLE_ROW = 5;
+
+    /**
+     * float representing the opacity of the content of read {@link Article} views.
+     */
+    private static final float READ_ARTICLE_ALPHA = 0.5f;
+
+    /**
+     * int representing how many rows of {@link Article} views a {@link RecyclerView.RecycledViewPool}
+     * created by {@link ArticleAdapter#createRecycledViewPool(int)} holds.
+     */
+    private static final int RECYCLED_ARTICLE_ROW_COUNT = 3;
+
+    /**
+     * int representing how many rows of {@link Article} views scrolled off screen are kept bound
+     * by {@link ArticleAdapter#configureGridRecycling(RecyclerView, int)}, so that scrolling back
+     * by a little does not rebind them.
+     */
+    private static final int ITEM_VIEW_CACHE_ROW_COUNT = 2;
+
+    /**
+     * int representing how many rows of a grid the {@link RecyclerView} prefetches in the scroll
+     * direction. Prefetched views are kept in the item view cache on top of its size.
+     */
+    private static final int PREFETCHED_ROW_COUNT = 1;
 
     /**
      * {@link Context} for accessing string resources.
      */
     private final Context context;
 
+    /**
+     * {@link ImageLoader} for loading article thumbnails into the adapted views.
+     */
+    private final ImageLoader imageLoader;
+
+    /**
+     * {@link ReadStateStore} telling which {@link Article} objects were opened.
+     */
+    private final ReadStateStore readStateStore;
+
     /**
      * {@link List} of {@link Article} objects being adapted.
      */
@@ -64,6 +109,56 @@ public class ArticleAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
      */
     private boolean endOfListViewVisible;
 
+    /**
+     * Boolean representing whether thumbnails are loaded into the adapted views.
+     */
+    private boolean thumbnailsEnabled;
+
+    /**
+     * Boolean representing whether {@link Article} objects are shown in a flattened
+     * {@link ArticleRowView} rather than the list_item_article layout.
+     */
+    private boolean flatRowsEnabled;
+
+    /**
+     * Boolean representing whether read {@link Article} objects are hidden. Hiding does not apply
+     * to a {@link SparseArticleList}, whose positions must match the result set.
+     */
+    private boolean hideRead;
+
+    /**
+     * int array holding, in its first visibleCount elements, the indices within articles of the
+     * {@link Article} objects shown while read ones are hidden.
+     */
+    private int[] visibleIndices;
+    private int visibleCount;
+
+    /**
+     * {@link ArticleFacetIndex} counting the sections and contributors of the adapted
+     * {@link Article} objects. It is kept empty for a {@link SparseArticleList}.
+     */
+    private final ArticleFacetIndex facetIndex;
+
+    /**
+     * int type and {@link String} value of the facet the shown {@link Article} objects must match,
+     * or a null value if they are not filtered by a facet.
+     */
+    private int facetFilterType;
+    private String facetFilterValue;
+
+    /**
+     * long counters reported by {@link ArticleAdapter#getStatsSummary()}. Only accessed on the
+     * main thread.
+     */
+    private long createdViewHolderCount;
+    private long boundArticleCount;
+
+    /**
+     * long estimated size in bytes of the adapted {@link Article} objects, kept up to date as
+     * they are added and removed. Not used for a {@link SparseArticleList}, which keeps its own.
+     */
+    private long articleSizeBytes;
+
     /**
      * Constructs a new {@link ArticleAdapter} object.
      *
@@ -71,10 +166,15 @@ public class ArticleAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
      */
     public ArticleAdapter(Context context) {
         this.context = context;
+        this.imageLoader = ImageLoader.getInstance(context);
+        this.readStateStore = ReadStateStore.getInstance(context);
         this.articles = new ArrayList<>();
+        this.visibleIndices = new int[0];
+        this.facetIndex = new ArticleFacetIndex();
         this.loadingViewVisible = false;
         this.errorViewVisible = false;
         this.endOfListViewVisible = false;
+        this.thumbnailsEnabled = true;
     }
 
     /**
@@ -89,9 +189,13 @@ public class ArticleAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
     @NonNull
     @Override
     public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        createdViewHolderCount++;
         if (viewType == VIEW_TYPE_ARTICLE) {
             View itemView = LayoutInflater.from(parent.getContext()).inflate(R.layout.list_item_article, parent, false);
             return new ArticleViewHolder(itemView);
+        } else if (viewType == VIEW_TYPE_ARTICLE_ROW) {
+            View itemView = LayoutInflater.from(parent.getContext()).inflate(R.layout.list_item_article_row, parent, false);
+            return new ArticleRowViewHolder(itemView);
         } else if (viewType == VIEW_TYPE_LOADING) {
             View itemView = LayoutInflater.from(parent.getContext()).inflate(R.layout.list_item_loading, parent, false);
             return new FooterViewHolder(itemView);
@@ -101,6 +205,9 @@ public class ArticleAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
         } else if (viewType == VIEW_TYPE_END_OF_LIST) {
             View itemView = LayoutInflater.from(parent.getContext()).inflate(R.layout.list_item_end_of_list, parent, false);
             return new FooterViewHolder(itemView);
+        } else if (viewType == VIEW_TYPE_PLACEHOLDER) {
+            View itemView = LayoutInflater.from(parent.getContext()).inflate(R.layout.list_item_placeholder, parent, false);
+            return new FooterViewHolder(itemView);
         } else {
             return new FooterViewHolder(new View(parent.getContext()));
         }
@@ -118,11 +225,56 @@ public class ArticleAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
         if (holder instanceof ArticleViewHolder) {
             ArticleViewHolder articleViewHolder = (ArticleViewHolder) holder;
-            Article article = articles.get(position);
+            Article article = getArticle(position);
+            boundArticleCount++;
+            articleViewHolder.setRead(readStateStore.isRead(article.getId()));
             articleViewHolder.getTitleTextView().setText(article.getTitle());
-            articleViewHolder.getAuthorsTextView().setText(getFormattedAuthorsString(article.getAuthors()));
+            articleViewHolder.getAuthorsTextView().setText(getFormattedAuthorsString(context, article.getAuthors()));
             articleViewHolder.getSectionNameTextView().setText(article.getSectionName());
             articleViewHolder.getDatePublishedTextView().setText(getFormattedDatePublishedString(article.getDatePublished()));
+            bindThumbnail(articleViewHolder.getThumbnailImageView(), article);
+        } else if (holder instanceof ArticleRowViewHolder) {
+            ArticleRowView articleRowView = ((ArticleRowViewHolder) holder).getArticleRowView();
+            Article article = getArticle(position);
+            boundArticleCount++;
+            articleRowView.setContentAlpha(readStateStore.isRead(article.getId()) ? READ_ARTICLE_ALPHA : 1f);
+            articleRowView.setTexts(article.getTitle(), getFormattedAuthorsString(context, article.getAuthors()), article.getSectionName(), getFormattedDatePublishedString(article.getDatePublished()));
+            bindThumbnail(articleRowView.getThumbnailImageView(), article);
+        }
+    }
+
+    /**
+     * Loads the thumbnail of an {@link Article} into the given {@link ImageView}, or hides the
+     * {@link ImageView} if the {@link Article} has no thumbnail or thumbnails are disabled.
+     *
+     * @param thumbnailImageView {@link ImageView} to load the thumbnail into.
+     * @param article            {@link Article} whose thumbnail is loaded.
+     */
+    private void bindThumbnail(ImageView thumbnailImageView, Article article) {
+        String thumbnailUrl = article.getThumbnailUrl();
+        if (!thumbnailsEnabled || thumbnailUrl == null || thumbnailUrl.isEmpty()) {
+            imageLoader.clear(thumbnailImageView);
+            thumbnailImageView.setVisibility(View.GONE);
+        } else {
+            thumbnailImageView.setVisibility(View.VISIBLE);
+            imageLoader.load(thumbnailUrl, thumbnailImageView);
+        }
+    }
+
+    /**
+     * Called when a {@link RecyclerView.ViewHolder} is recycled. The thumbnail request of an
+     * {@link ArticleViewHolder} is canceled so that it never shows the image of a previous
+     * {@link Article} object.
+     *
+     * @param holder {@link RecyclerView.ViewHolder} being recycled.
+     */
+    @Override
+    public void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
+        super.onViewRecycled(holder);
+        if (holder instanceof ArticleViewHolder) {
+            imageLoader.clear(((ArticleViewHolder) holder).getThumbnailImageView());
+        } else if (holder instanceof ArticleRowViewHolder) {
+            imageLoader.clear(((ArticleRowViewHolder) holder).getArticleRowView().getThumbnailImageView());
         }
     }
 
@@ -134,7 +286,7 @@ public class ArticleAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
      */
     @Override
     public int getItemCount() {
-        int itemCount = articles.size();
+        int itemCount = getArticleCount();
         if (loadingViewVisible || errorViewVisible || endOfListViewVisible) {
             itemCount++;
         }
@@ -149,8 +301,11 @@ public class ArticleAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
      */
     @Override
     public int getItemViewType(int position) {
-        if (position < articles.size()) {
-            return VIEW_TYPE_ARTICLE;
+        if (position < getArticleCount()) {
+            if (getArticle(position) == null) {
+                return VIEW_TYPE_PLACEHOLDER;
+            }
+            return flatRowsEnabled ? VIEW_TYPE_ARTICLE_ROW : VIEW_TYPE_ARTICLE;
         } else if (loadingViewVisible) {
             return VIEW_TYPE_LOADING;
         } else if (errorViewVisible) {
@@ -169,11 +324,12 @@ public class ArticleAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
      * @return {@link Article} object given its adapter position index.
      */
     public Article getArticle(int position) {
-        return articles.get(position);
+        return articles.get(isFiltering() ? visibleIndices[position] : position);
     }
 
     /**
-     * Returns the {@link List} of {@link Article} objects stored in the adapter.
+     * Returns the {@link List} of {@link Article} objects stored in the adapter, including hidden
+     * ones.
      *
      * @return {@link List} of {@link Article} objects stored in the adapter.
      */
@@ -181,6 +337,19 @@ public class ArticleAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
         return articles;
     }
 
+    /**
+     * Returns an estimate of how many bytes of heap the adapted {@link Article} objects occupy,
+     * without visiting them.
+     *
+     * @return long estimated size in bytes.
+     */
+    public long estimateArticleSizeBytes() {
+        if (articles instanceof SparseArticleList) {
+            return ((SparseArticleList) articles).estimateSizeBytes();
+        }
+        return articleSizeBytes;
+    }
+
     /**
      * Adds a {@link List} of {@link Article} objects to the end of the {@link List} of objects
      * being adapted.
@@ -188,16 +357,185 @@ public class ArticleAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
      * @param newArticles {@link List} of new {@link Article} objects to be adapted.
      */
     public void addAllArticles(List<Article> newArticles) {
+        int positionStart = getArticleCount();
+        int firstNewIndex = articles.size();
         articles.addAll(newArticles);
-        notifyItemRangeInserted(getItemCount(), newArticles.size());
+        articleSizeBytes += estimateSizeBytes(newArticles);
+        updateFacetIndex();
+        if (isFiltering()) {
+            appendVisibleIndices(firstNewIndex);
+        }
+        notifyItemRangeInserted(positionStart, getArticleCount() - positionStart);
+    }
+
+    /**
+     * Removes the given number of {@link Article} objects from the end of the {@link List} of
+     * objects being adapted.
+     *
+     * @param count int number of {@link Article} objects to remove.
+     */
+    public void removeLastArticles(int count) {
+        int articleCount = getArticleCount();
+        List<Article> removedArticles = articles.subList(articles.size() - count, articles.size());
+        articleSizeBytes -= estimateSizeBytes(removedArticles);
+        removedArticles.clear();
+        facetIndex.truncate(articles.size());
+        if (isFiltering()) {
+            rebuildVisibleIndices();
+        }
+        notifyItemRangeRemoved(getArticleCount(), articleCount - getArticleCount());
+    }
+
+    /**
+     * Replaces the {@link List} of objects being adapted, e.g. with a {@link SparseArticleList}.
+     * The facet filter is cleared.
+     *
+     * @param newArticles {@link List} of {@link Article} objects to be adapted. It may contain
+     *                    null elements, which are shown as placeholder views.
+     */
+    public void setArticles(List<Article> newArticles) {
+        articles = newArticles;
+        articleSizeBytes = newArticles instanceof SparseArticleList ? 0 : estimateSizeBytes(newArticles);
+        facetFilterValue = null;
+        facetIndex.clear();
+        updateFacetIndex();
+        rebuildVisibleIndices();
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Sets whether read {@link Article} objects are hidden.
+     *
+     * @param hideRead Boolean representing whether read {@link Article} objects are hidden.
+     */
+    public void setHideRead(boolean hideRead) {
+        if (this.hideRead == hideRead) {
+            return;
+        }
+        this.hideRead = hideRead;
+        rebuildVisibleIndices();
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Shows only the {@link Article} objects matching the given facet. Only the indices recorded
+     * for the facet are visited, so applying a filter does not depend on how many
+     * {@link Article} objects are loaded. Has no effect on a {@link SparseArticleList}.
+     *
+     * @param type  int type of the facet, either {@link ArticleFacetIndex#TYPE_SECTION} or
+     *              {@link ArticleFacetIndex#TYPE_CONTRIBUTOR}.
+     * @param value {@link String} section or contributor name, or null to show every
+     *              {@link Article}.
+     */
+    public void setFacetFilter(int type, @Nullable String value) {
+        facetFilterType = type;
+        facetFilterValue = value;
+        rebuildVisibleIndices();
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Returns the type of the facet the shown {@link Article} objects must match.
+     */
+    public int getFacetFilterType() {
+        return facetFilterType;
+    }
+
+    /**
+     * Returns the section or contributor name the shown {@link Article} objects must match, or
+     * null if they are not filtered by a facet.
+     */
+    @Nullable
+    public String getFacetFilterValue() {
+        return facetFilterValue;
+    }
+
+    /**
+     * Returns the {@link ArticleFacetIndex} counting the sections and contributors of the adapted
+     * {@link Article} objects.
+     */
+    public ArticleFacetIndex getFacetIndex() {
+        return facetIndex;
+    }
+
+    /**
+     * Rebinds the {@link Article} views in and around the given visible range after read states
+     * changed. On either side, as many positions are rebound as the item view cache and the
+     * prefetched row can hold, since those views are shown again without being rebound. Views
+     * further away are bound with the current read state once they scroll into view. If read
+     * {@link Article} objects are hidden, the ones read in the meantime are removed as well.
+     *
+     * @param firstVisiblePosition int position of the first visible item, or
+     *                             {@link RecyclerView#NO_POSITION} if nothing is visible.
+     * @param lastVisiblePosition  int position of the last visible item.
+     * @param columnCount          int number of columns of the grid.
+     */
+    public void refreshReadState(int firstVisiblePosition, int lastVisiblePosition, int columnCount) {
+        if (isFiltering()) {
+            int[] oldVisibleIndices = Arrays.copyOf(visibleIndices, visibleCount);
+            rebuildVisibleIndices();
+            dispatchVisibleIndexChanges(oldVisibleIndices);
+        }
+        if (firstVisiblePosition == RecyclerView.NO_POSITION) {
+            return;
+        }
+        int rebindMargin = columnCount * (ITEM_VIEW_CACHE_ROW_COUNT + PREFETCHED_ROW_COUNT);
+        int fromPosition = Math.max(0, firstVisiblePosition - rebindMargin);
+        int toPosition = Math.min(getArticleCount() - 1, lastVisiblePosition + rebindMargin);
+        if (fromPosition <= toPosition) {
+            notifyItemRangeChanged(fromPosition, toPosition - fromPosition + 1);
+        }
+    }
+
+    /**
+     * Sets whether thumbnails are loaded into the adapted views and rebinds the {@link Article}
+     * views if it changed.
+     *
+     * @param thumbnailsEnabled Boolean representing whether thumbnails are loaded.
+     */
+    public void setThumbnailsEnabled(boolean thumbnailsEnabled) {
+        if (this.thumbnailsEnabled == thumbnailsEnabled) {
+            return;
+        }
+        this.thumbnailsEnabled = thumbnailsEnabled;
+        notifyItemRangeChanged(0, getArticleCount());
+    }
+
+    /**
+     * Sets whether {@link Article} objects are shown in a flattened {@link ArticleRowView} and
+     * rebinds the {@link Article} views if it changed.
+     *
+     * @param flatRowsEnabled Boolean representing whether {@link ArticleRowView} objects are used.
+     */
+    public void setFlatRowsEnabled(boolean flatRowsEnabled) {
+        if (this.flatRowsEnabled == flatRowsEnabled) {
+            return;
+        }
+        this.flatRowsEnabled = flatRowsEnabled;
+        notifyItemRangeChanged(0, getArticleCount());
+    }
+
+    /**
+     * Returns whether the given view type shows an {@link Article}, either in the
+     * list_item_article layout or in an {@link ArticleRowView}.
+     *
+     * @param viewType int view type returned by {@link ArticleAdapter#getItemViewType(int)}.
+     * @return Whether the view type shows an {@link Article}.
+     */
+    public static boolean isArticleViewType(int viewType) {
+        return viewType == VIEW_TYPE_ARTICLE || viewType == VIEW_TYPE_ARTICLE_ROW;
     }
 
     /**
      * Resets the {@link List} of objects being adapted.
      */
     public void resetArticles() {
-        int articlesItemCount = articles.size();
+        int articlesItemCount = getArticleCount();
         articles = new ArrayList<>();
+        articleSizeBytes = 0;
+        visibleCount = 0;
+        facetIndex.clear();
+        facetFilterValue = null;
         notifyItemRangeRemoved(0, articlesItemCount);
     }
 
@@ -241,15 +579,246 @@ public class ArticleAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
         }
     }
 
+    /**
+     * Returns whether the view type at the given position spans every column of a grid. Footer
+     * views do, while {@link Article} and placeholder views take a single column.
+     *
+     * @param position int position index in the adapter.
+     * @return Whether the view spans every column.
+     */
+    public boolean isFullSpan(int position) {
+        int viewType = getItemViewType(position);
+        return !isArticleViewType(viewType) && viewType != VIEW_TYPE_PLACEHOLDER;
+    }
+
+    /**
+     * Returns a {@link String} summarizing how many view holders were created and how many
+     * {@link Article} views were bound.
+     *
+     * @return {@link String} summarizing view holder creations and binds.
+     */
+    public String getStatsSummary() {
+        return String.format(Locale.US, "View holders created %d, article binds %d", createdViewHolderCount, boundArticleCount);
+    }
+
+    /**
+     * Logs how many view holders were created and how many {@link Article} views were bound.
+     */
+    public void logStats() {
+        Log.i(LOG_TAG_NAME, getStatsSummary());
+    }
+
+    /**
+     * Returns how many view holders were created.
+     */
+    long getCreatedViewHolderCount() {
+        return createdViewHolderCount;
+    }
+
+    /**
+     * Returns how many {@link Article} views were bound.
+     */
+    long getBoundArticleCount() {
+        return boundArticleCount;
+    }
+
+    /**
+     * Returns a new {@link GridLayoutManager} with the given number of columns, in which footer
+     * views span every column. While scrolling, the {@link GridLayoutManager} prefetches the next
+     * row by itself; the initial prefetch count covers the same
+     * {@link ArticleAdapter#PREFETCHED_ROW_COUNT} rows for when the grid is nested in another
+     * scrolling list and comes into view.
+     *
+     * @param context     {@link Context} of the {@link RecyclerView}.
+     * @param columnCount int number of columns of the grid.
+     * @return A new {@link GridLayoutManager}.
+     */
+    public GridLayoutManager createGridLayoutManager(Context context, final int columnCount) {
+        GridLayoutManager layoutManager = new GridLayoutManager(context, columnCount);
+        GridLayoutManager.SpanSizeLookup spanSizeLookup = new GridLayoutManager.SpanSizeLookup() {
+            @Override
+            public int getSpanSize(int position) {
+                return isFullSpan(position) ? columnCount : 1;
+            }
+        };
+        spanSizeLookup.setSpanIndexCacheEnabled(true);
+        layoutManager.setSpanSizeLookup(spanSizeLookup);
+        layoutManager.setInitialPrefetchItemCount(columnCount * PREFETCHED_ROW_COUNT);
+        return layoutManager;
+    }
+
+    /**
+     * Sizes the view pool and the item view cache of the given {@link RecyclerView} for a grid
+     * with the given number of columns.
+     *
+     * @param recyclerView {@link RecyclerView} showing the grid.
+     * @param columnCount  int number of columns of the grid.
+     */
+    public static void configureGridRecycling(RecyclerView recyclerView, int columnCount) {
+        recyclerView.setRecycledViewPool(createRecycledViewPool(columnCount));
+        recyclerView.setItemViewCacheSize(columnCount * ITEM_VIEW_CACHE_ROW_COUNT);
+    }
+
+    /**
+     * Returns a new {@link RecyclerView.RecycledViewPool} sized for a grid with the given number
+     * of columns. Scrolling by a row recycles a view per column at once, so the default of five
+     * pooled views per type would make wide grids inflate new {@link Article} views while flinging.
+     *
+     * @param columnCount int number of columns of the grid.
+     * @return A new {@link RecyclerView.RecycledViewPool}.
+     */
+    public static RecyclerView.RecycledViewPool createRecycledViewPool(int columnCount) {
+        RecyclerView.RecycledViewPool recycledViewPool = new RecyclerView.RecycledViewPool();
+        recycledViewPool.setMaxRecycledViews(VIEW_TYPE_ARTICLE, columnCount * RECYCLED_ARTICLE_ROW_COUNT);
+        recycledViewPool.setMaxRecycledViews(VIEW_TYPE_ARTICLE_ROW, columnCount * RECYCLED_ARTICLE_ROW_COUNT);
+        recycledViewPool.setMaxRecycledViews(VIEW_TYPE_PLACEHOLDER, columnCount * RECYCLED_ARTICLE_ROW_COUNT);
+        return recycledViewPool;
+    }
+
+    /**
+     * Returns whether read {@link Article} objects are currently hidden or a facet filter is
+     * applied through the index of visible positions.
+     */
+    private boolean isFiltering() {
+        return (hideRead || facetFilterValue != null) && !(articles instanceof SparseArticleList);
+    }
+
+    /**
+     * Indexes the facets of the {@link Article} objects appended since the last update.
+     */
+    private void updateFacetIndex() {
+        if (!(articles instanceof SparseArticleList)) {
+            facetIndex.update(articles);
+        }
+    }
+
+    /**
+     * Returns the estimated size in bytes of the given {@link Article} objects.
+     */
+    private static long estimateSizeBytes(List<Article> articles) {
+        long sizeBytes = 0;
+        for (Article article : articles) {
+            sizeBytes += article.estimateSizeBytes();
+        }
+        return sizeBytes;
+    }
+
+    /**
+     * Returns how many {@link Article} objects are shown, not counting the footer view.
+     */
+    private int getArticleCount() {
+        return isFiltering() ? visibleCount : articles.size();
+    }
+
+    /**
+     * Rebuilds the index of visible positions from scratch.
+     */
+    private void rebuildVisibleIndices() {
+        visibleCount = 0;
+        if (isFiltering()) {
+            appendVisibleIndices(0);
+        }
+    }
+
+    /**
+     * Notifies the removals and insertions that turn the given index of visible positions into
+     * the current one. Both hold ascending indices within articles, so a single merge finds them,
+     * and neighbouring changes are notified as one range.
+     *
+     * @param oldVisibleIndices int array holding the index of visible positions before it was
+     *                          rebuilt.
+     */
+    private void dispatchVisibleIndexChanges(int[] oldVisibleIndices) {
+        int oldRank = 0;
+        int newRank = 0;
+        int removedCount = 0;
+        int insertedCount = 0;
+        while (oldRank < oldVisibleIndices.length || newRank < visibleCount) {
+            boolean removed = newRank == visibleCount
+                    || (oldRank < oldVisibleIndices.length && oldVisibleIndices[oldRank] < visibleIndices[newRank]);
+            boolean inserted = !removed && (oldRank == oldVisibleIndices.length || visibleIndices[newRank] < oldVisibleIndices[oldRank]);
+            if (removed) {
+                if (insertedCount > 0) {
+                    notifyItemRangeInserted(newRank - insertedCount, insertedCount);
+                    insertedCount = 0;
+                }
+                removedCount++;
+                oldRank++;
+                continue;
+            }
+            if (removedCount > 0) {
+                notifyItemRangeRemoved(newRank, removedCount);
+                removedCount = 0;
+            }
+            if (inserted) {
+                insertedCount++;
+                newRank++;
+                continue;
+            }
+            if (insertedCount > 0) {
+                notifyItemRangeInserted(newRank - insertedCount, insertedCount);
+                insertedCount = 0;
+            }
+            oldRank++;
+            newRank++;
+        }
+        if (removedCount > 0) {
+            notifyItemRangeRemoved(newRank, removedCount);
+        }
+        if (insertedCount > 0) {
+            notifyItemRangeInserted(newRank - insertedCount, insertedCount);
+        }
+    }
+
+    /**
+     * Appends the indices of the {@link Article} objects that pass the filters from the given
+     * index on to the index of visible positions. With a facet filter, only the indices recorded
+     * for the facet are visited.
+     *
+     * @param fromIndex int index within articles to start at.
+     */
+    private void appendVisibleIndices(int fromIndex) {
+        if (visibleIndices.length < articles.size()) {
+            visibleIndices = Arrays.copyOf(visibleIndices, Math.max(articles.size(), visibleIndices.length * 2));
+        }
+        if (facetFilterValue == null) {
+            for (int articleIndex = fromIndex; articleIndex < articles.size(); articleIndex++) {
+                appendVisibleIndexIfUnhidden(articleIndex);
+            }
+            return;
+        }
+        ArticleFacetIndex.Facet facet = facetIndex.getFacet(facetFilterType, facetFilterValue);
+        if (facet == null) {
+            return;
+        }
+        for (int rank = facet.getFirstRankFrom(fromIndex); rank < facet.getCount(); rank++) {
+            appendVisibleIndexIfUnhidden(facet.getIndex(rank));
+        }
+    }
+
+    /**
+     * Appends the given index to the index of visible positions unless its {@link Article} is
+     * read and read {@link Article} objects are hidden.
+     *
+     * @param articleIndex int index within articles.
+     */
+    private void appendVisibleIndexIfUnhidden(int articleIndex) {
+        Article article = articles.get(articleIndex);
+        if (!hideRead || article == null || !readStateStore.isRead(article.getId())) {
+            visibleIndices[visibleCount++] = articleIndex;
+        }
+    }
+
     /**
      * Returns a {@link String} containing a formatted version of an authors {@link String} array.
      * This format simply presents the items of the array in a comma delimited list. If no
      * authors are in the array, an unknown author string is returned.
      *
+     * @param context {@link Context} for accessing string resources.
      * @param authors {@link String} array from a {@link Article} object.
      * @return {@link String} containing a formatted version of an authors {@link String} array.
      */
-    private String getFormattedAuthorsString(String[] authors) {
+    public static String getFormattedAuthorsString(Context context, String[] authors) {
 
         if (authors.length == 0) {
             return context.getString(R.string.unknown_author_label);
@@ -275,7 +844,7 @@ public class ArticleAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
      * @return {@link String} containing the date following the device's preferred date format and
      * in the device's time zone.
      */
-    private String getFormattedDatePublishedString(String unformattedString) {
+    public static String getFormattedDatePublishedString(String unformattedString) {
 
         // Parse a Date object from the unformatted string.
         Date date = null;
@@ -324,6 +893,11 @@ public class ArticleAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
          */
         private final TextView datePublishedTextView;
 
+        /**
+         * {@link ImageView} to hold the thumbnail of an article.
+         */
+        private final ImageView thumbnailImageView;
+
         /**
          * Constructs a new {@link ArticleViewHolder}.
          *
@@ -335,6 +909,7 @@ public class ArticleAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
             authorsTextView = itemView.findViewById(R.id.authors_text_view);
             sectionNameTextView = itemView.findViewById(R.id.section_name_text_view);
             datePublishedTextView = itemView.findViewById(R.id.date_published_text_view);
+            thumbnailImageView = itemView.findViewById(R.id.thumbnail_image_view);
         }
 
         /**
@@ -364,6 +939,57 @@ public class ArticleAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
         public TextView getDatePublishedTextView() {
             return datePublishedTextView;
         }
+
+        /**
+         * Returns the {@link ImageView} holding the thumbnail of an article.
+         */
+        public ImageView getThumbnailImageView() {
+            return thumbnailImageView;
+        }
+
+        /**
+         * Dims the content of the view if the article was read. The children are dimmed rather
+         * than the item view, whose alpha is animated by the item animator.
+         *
+         * @param read Whether the article was read.
+         */
+        public void setRead(boolean read) {
+            float alpha = read ? READ_ARTICLE_ALPHA : 1f;
+            titleTextView.setAlpha(alpha);
+            authorsTextView.setAlpha(alpha);
+            sectionNameTextView.setAlpha(alpha);
+            datePublishedTextView.setAlpha(alpha);
+            thumbnailImageView.setAlpha(alpha);
+        }
+    }
+
+    /**
+     * {@link ArticleRowViewHolder} is a model class that describes a single flattened article item
+     * view and metadata about its place within a {@link RecyclerView}.
+     */
+    private static class ArticleRowViewHolder extends RecyclerView.ViewHolder {
+
+        /**
+         * {@link ArticleRowView} drawing the article.
+         */
+        private final ArticleRowView articleRowView;
+
+        /**
+         * Constructs a new {@link ArticleRowViewHolder}.
+         *
+         * @param itemView {@link ArticleRowView} to be held in the {@link ArticleRowViewHolder}.
+         */
+        public ArticleRowViewHolder(@NonNull View itemView) {
+            super(itemView);
+            articleRowView = (ArticleRowView) itemView;
+        }
+
+        /**
+         * Returns the {@link ArticleRowView} drawing the article.
+         */
+        public ArticleRowView getArticleRowView() {
+            return articleRowView;
+        }
     }
 
     /**
@@ -0,0 +1,1325 @@
+package com.davidread.theguardiannewsclient;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * {@link ArticleArchive} keeps a local history of every {@link Article} the app loaded, meant to
+ * grow to millions of articles. Articles are appended to segment files of at most
+ * {@link ArticleArchive#MAX_SEGMENT_BYTES} bytes, each a header followed by records of the form:
+ * <ul>
+ *     <li>int length of the rest of the record,</li>
+ *     <li>long time the article was archived, in milliseconds since the epoch,</li>
+ *     <li>varint length and UTF-8 bytes of the id,</li>
+ *     <li>the fields of the {@link Article} as encoded by {@link Article#getEncodedFields()}.</li>
+ * </ul>
+ * Segments are only ever appended to and are read through memory mapping. An article is archived
+ * again only if its fields changed, which supersedes the earlier record. An in-memory index maps
+ * the 64 bit hash of each id to its latest record; it is rebuilt by scanning the segments when the
+ * archive opens. Sealed segments in which superseded records pile up are compacted in the
+ * background. The archive of the app keeps every article; an archive constructed with a size
+ * limit drops its oldest segments once it outgrows it. Writes, opening, compaction, and dropping
+ * run on a single worker thread; lookups, scans, and exports may be called from any worker thread.
+ */
+public class ArticleArchive {
+
+    /**
+     * {@link String} log tag name for {@link ArticleArchive}.
+     */
+    public static final String LOG_TAG_NAME = ArticleArchive.class.getSimpleName();
+
+    /**
+     * {@link String} name of the directory inside the files directory holding the segments.
+     */
+    private static final String DIRECTORY_NAME = "article_archive";
+
+    /**
+     * {@link String} prefix and suffix of segment file names, between which the segment number is
+     * written.
+     */
+    private static final String SEGMENT_FILE_PREFIX = "segment-";
+    private static final String SEGMENT_FILE_SUFFIX = ".dat";
+
+    /**
+     * int written at the start of every segment, followed by the format version.
+     */
+    private static final int SEGMENT_MAGIC = 0x41524348;
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * int representing how many bytes the segment header occupies.
+     */
+    private static final int SEGMENT_HEADER_BYTES = 8;
+
+    /**
+     * int representing how many bytes the length and time of a record occupy before its id.
+     */
+    private static final int RECORD_HEADER_BYTES = 12;
+
+    /**
+     * int representing how many bytes a segment may grow to before a new one is started.
+     */
+    static final int MAX_SEGMENT_BYTES = 16 * 1024 * 1024;
+
+    /**
+     * long size limit under which no segment is ever dropped, used by the archive of the app.
+     */
+    static final long UNLIMITED_BYTES = Long.MAX_VALUE;
+
+    /**
+     * int representing how many bytes of records are written to a segment at once.
+     */
+    private static final int WRITE_BUFFER_BYTES = 256 * 1024;
+
+    /**
+     * double share of a sealed segment taken by superseded records above which it is compacted.
+     */
+    private static final double COMPACTION_GARBAGE_RATIO = 0.3;
+
+    /**
+     * int initial number of slots of the id index. It must be a power of two.
+     */
+    private static final int INITIAL_INDEX_CAPACITY = 1024;
+
+    /**
+     * long marking an empty slot of the id index. Hashes equal to it are stored as 1 instead.
+     */
+    private static final long EMPTY_SLOT = 0;
+
+    /**
+     * {@link ArticleArchive} instance shared across the app.
+     */
+    private static ArticleArchive instance;
+
+    /**
+     * {@link File} directory holding the segments.
+     */
+    private final File directory;
+
+    /**
+     * long representing how many bytes the segments may take on disk before the oldest ones are
+     * dropped.
+     */
+    private final long maxBytes;
+
+    /**
+     * int representing how many bytes a segment may grow to before a new one is started.
+     */
+    private final int maxSegmentBytes;
+
+    /**
+     * {@link ExecutorService} that opens, appends to, and compacts the archive on a single worker
+     * thread.
+     */
+    private final ExecutorService executorService;
+
+    /**
+     * {@link Future} completed once the archive is open.
+     */
+    private final Future<?> openFuture;
+
+    /**
+     * {@link ByteBuffer} records are collected in before they are written. Only used on the
+     * worker thread.
+     */
+    private final ByteBuffer writeBuffer;
+
+    /**
+     * {@link List} of {@link Segment} objects in the order they were started, the last of which is
+     * appended to. Guarded by this archive.
+     */
+    private final List<Segment> segments;
+
+    /**
+     * long arrays forming the id index: an open addressing hash table of id hashes and the
+     * location of the latest record of each id, see {@link ArticleArchive#getLocation(int, int)}.
+     * Guarded by this archive, and only modified on the worker thread.
+     */
+    private long[] indexHashes;
+    private long[] indexLocations;
+
+    /**
+     * int representing how many ids the index holds.
+     */
+    private int indexSize;
+
+    /**
+     * boolean indicating whether a compaction is queued on the worker thread.
+     */
+    private boolean compactionQueued;
+
+    /**
+     * int representing how many scans are running. Compacted segments are not swapped in
+     * meanwhile, so that scans do not miss records moved by a compaction.
+     */
+    private int runningScanCount;
+
+    /**
+     * long counters reported by {@link ArticleArchive#getStatsSummary()}. Guarded by this
+     * archive.
+     */
+    private long appendedCount;
+    private long unchangedCount;
+    private long compactedSegmentCount;
+    private long reclaimedBytes;
+    private long droppedSegmentCount;
+    private long droppedBytes;
+    private long openMillis;
+
+    /**
+     * Constructs a new {@link ArticleArchive} object and starts opening it on its worker thread.
+     *
+     * @param directory       {@link File} directory holding the segments. It is created if it
+     *                        does not exist.
+     * @param maxBytes        long representing how many bytes the segments may take on disk before
+     *                        the oldest ones are dropped, or
+     *                        {@link ArticleArchive#UNLIMITED_BYTES} to keep every article.
+     * @param maxSegmentBytes int representing how many bytes a segment may grow to before a new
+     *                        one is started, usually {@link ArticleArchive#MAX_SEGMENT_BYTES}.
+     */
+    ArticleArchive(final File directory, long maxBytes, int maxSegmentBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.executorService = Executors.newSingleThreadExecutor();
+        this.writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+        this.segments = new ArrayList<>();
+        this.indexHashes = new long[INITIAL_INDEX_CAPACITY];
+        this.indexLocations = new long[INITIAL_INDEX_CAPACITY];
+        this.openFuture = executorService.submit(new Runnable() {
+            @Override
+            public void run() {
+                open();
+            }
+        });
+    }
+
+    /**
+     * Returns the {@link ArticleArchive} instance shared across the app.
+     *
+     * @param context {@link Context} for accessing the files directory.
+     * @return {@link ArticleArchive} instance shared across the app.
+     */
+    public static synchronized ArticleArchive getInstance(Context context) {
+        if (instance == null) {
+            instance = new ArticleArchive(new File(context.getApplicationContext().getFilesDir(), DIRECTORY_NAME), UNLIMITED_BYTES, MAX_SEGMENT_BYTES);
+        }
+        return instance;
+    }
+
+    /**
+     * Archives the given {@link Article} objects on the worker thread. Articles already archived
+     * with the same fields are skipped; changed ones supersede their earlier record.
+     *
+     * @param articles {@link List} of {@link Article} objects to archive.
+     * @return {@link Future} completed once the articles are archived.
+     */
+    public Future<?> append(List<Article> articles) {
+        final List<Article> articlesCopy = new ArrayList<>(articles);
+        final long archivedAtMillis = System.currentTimeMillis();
+        return executorService.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    appendOnWorkerThread(articlesCopy, archivedAtMillis);
+                } catch (IOException e) {
+                    Log.e(LOG_TAG_NAME, "Error appending to the archive", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the latest archived version of the {@link Article} with the given id. Must be called
+     * on a worker thread since it waits for the archive to open.
+     *
+     * @param id {@link String} id of the article.
+     * @return {@link Article} object, or null if the article was never archived.
+     */
+    @Nullable
+    public Article get(String id) {
+        awaitOpen();
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        synchronized (this) {
+            int slot = findSlot(hash(ByteBuffer.wrap(idBytes), 0, idBytes.length), ByteBuffer.wrap(idBytes), 0, idBytes.length);
+            if (indexHashes[slot] == EMPTY_SLOT) {
+                return null;
+            }
+            long location = indexLocations[slot];
+            ByteBuffer buffer = getSegment(getSegmentNumber(location)).getBuffer();
+            return readArticle(buffer, getOffset(location));
+        }
+    }
+
+    /**
+     * Visits the latest record of every archived article, in the order they were archived. The
+     * segments are walked sequentially through their mappings; superseded records are skipped.
+     * Records archived while the scan runs are not visited. Must be called on a worker thread.
+     *
+     * @param visitor {@link RecordVisitor} invoked for every record.
+     * @return long number of visited records.
+     */
+    public long scan(RecordVisitor visitor) {
+        awaitOpen();
+
+        // Take a snapshot of the segments, so that appending and compacting can go on meanwhile.
+        List<Segment> segmentsSnapshot;
+        List<ByteBuffer> buffers = new ArrayList<>();
+        synchronized (this) {
+            segmentsSnapshot = new ArrayList<>(segments);
+            for (Segment segment : segmentsSnapshot) {
+                buffers.add(segment.getBuffer());
+            }
+            runningScanCount++;
+        }
+
+        Record record = new Record();
+        long visitedCount = 0;
+        try {
+            for (int segmentIndex = 0; segmentIndex < segmentsSnapshot.size(); segmentIndex++) {
+                Segment segment = segmentsSnapshot.get(segmentIndex);
+                ByteBuffer buffer = buffers.get(segmentIndex);
+                int offset = SEGMENT_HEADER_BYTES;
+                while (offset < buffer.limit()) {
+                    int recordBytes = 4 + buffer.getInt(offset);
+                    if (isLatestRecord(segment.number, buffer, offset)) {
+                        record.set(buffer, offset);
+                        visitedCount++;
+                        if (!visitor.visit(record)) {
+                            return visitedCount;
+                        }
+                    }
+                    offset += recordBytes;
+                }
+            }
+            return visitedCount;
+        } finally {
+            synchronized (this) {
+                runningScanCount--;
+            }
+        }
+    }
+
+    /**
+     * Returns the latest archived articles whose title contains the given text, ignoring the case
+     * of ASCII letters. Titles are matched on their encoded bytes, so only matching records are
+     * decoded. Must be called on a worker thread.
+     *
+     * @param query      {@link String} text to search for.
+     * @param maxResults int maximum number of articles returned.
+     * @return {@link List} of matching {@link Article} objects in the order they were archived.
+     */
+    public List<Article> search(String query, final int maxResults) {
+        final byte[] queryBytes = query.toLowerCase(Locale.US).getBytes(StandardCharsets.UTF_8);
+        final List<Article> results = new ArrayList<>();
+        if (maxResults <= 0) {
+            return results;
+        }
+        scan(new RecordVisitor() {
+            @Override
+            public boolean visit(Record record) {
+                if (record.titleContains(queryBytes)) {
+                    results.add(record.toArticle());
+                }
+                return results.size() < maxResults;
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Writes the latest record of every archived article to the given {@link Writer} as one JSON
+     * object per line, in the order they were archived. Must be called on a worker thread.
+     *
+     * @param writer {@link Writer} to write to. It is not closed.
+     * @return long number of exported articles.
+     */
+    public long export(final Writer writer) throws IOException {
+        final IOException[] writeException = new IOException[1];
+        long exportedCount = scan(new RecordVisitor() {
+            @Override
+            public boolean visit(Record record) {
+                Article article = record.toArticle();
+                try {
+                    JSONObject jsonObject = new JSONObject();
+                    jsonObject.put("id", article.getId());
+                    jsonObject.put("archivedAt", record.getArchivedAtMillis());
+                    jsonObject.put("webTitle", article.getTitle());
+                    jsonObject.put("sectionName", article.getSectionName());
+                    jsonObject.put("webPublicationDate", article.getDatePublished());
+                    jsonObject.put("webUrl", article.getUrl());
+                    jsonObject.put("thumbnail", article.getThumbnailUrl());
+                    jsonObject.put("contributors", new JSONArray(Arrays.asList(article.getAuthors())));
+                    writer.write(jsonObject.toString());
+                    writer.write('\n');
+                    return true;
+                } catch (JSONException e) {
+                    Log.e(LOG_TAG_NAME, "Error exporting " + article.getId(), e);
+                    return true;
+                } catch (IOException e) {
+                    writeException[0] = e;
+                    return false;
+                }
+            }
+        });
+        if (writeException[0] != null) {
+            throw writeException[0];
+        }
+        return exportedCount;
+    }
+
+    /**
+     * Returns the number of archived articles, counting each id once. Must be called on a worker
+     * thread since it waits for the archive to open.
+     */
+    public int size() {
+        awaitOpen();
+        synchronized (this) {
+            return indexSize;
+        }
+    }
+
+    /**
+     * Returns a one line summary of the archive: its size on disk and in the index, and what was
+     * appended, compacted, and dropped since it opened. Does not wait for the archive to open.
+     *
+     * @return {@link String} summary of the archive.
+     */
+    public String getStatsSummary() {
+        if (!openFuture.isDone()) {
+            return "opening";
+        }
+        synchronized (this) {
+            long segmentBytes = 0;
+            long liveBytes = 0;
+            for (Segment segment : segments) {
+                segmentBytes += segment.size;
+                liveBytes += segment.liveBytes;
+            }
+            return String.format(Locale.US,
+                    "articles %d, segments %d, %d KB on disk (%d KB live), index %d KB, appended %d, unchanged %d, compacted segments %d (%d KB reclaimed), dropped segments %d (%d KB), opened in %d ms",
+                    indexSize, segments.size(), segmentBytes / 1024, liveBytes / 1024,
+                    16L * indexHashes.length / 1024, appendedCount, unchangedCount,
+                    compactedSegmentCount, reclaimedBytes / 1024, droppedSegmentCount, droppedBytes / 1024, openMillis);
+        }
+    }
+
+    /**
+     * Writes {@link ArticleArchive#getStatsSummary()} to the log.
+     */
+    public void logStats() {
+        Log.i(LOG_TAG_NAME, getStatsSummary());
+    }
+
+    /**
+     * Opens every segment of the directory in order and rebuilds the id index by scanning them. A
+     * record cut off by the process dying mid-write is dropped from the end of its segment.
+     * Starts the first segment if there is none.
+     */
+    private void open() {
+        long startMillis = System.currentTimeMillis();
+        directory.mkdirs();
+        File[] files = directory.listFiles();
+        List<File> segmentFiles = new ArrayList<>();
+        if (files != null) {
+            for (File file : files) {
+                if (getSegmentNumber(file) >= 0) {
+                    segmentFiles.add(file);
+                }
+            }
+        }
+        Collections.sort(segmentFiles, new Comparator<File>() {
+            @Override
+            public int compare(File file1, File file2) {
+                return Integer.compare(getSegmentNumber(file1), getSegmentNumber(file2));
+            }
+        });
+
+        synchronized (this) {
+            for (File file : segmentFiles) {
+                try {
+                    Segment segment = Segment.open(file, getSegmentNumber(file));
+                    if (segment == null) {
+                        Log.e(LOG_TAG_NAME, "Skipping segment with an unknown format " + file.getName());
+                        continue;
+                    }
+                    segments.add(segment);
+                    indexSegment(segment);
+                } catch (IOException e) {
+                    Log.e(LOG_TAG_NAME, "Error opening segment " + file.getName(), e);
+                }
+            }
+            try {
+                if (segments.isEmpty()) {
+                    segments.add(Segment.create(getSegmentFile(0), 0));
+                }
+            } catch (IOException e) {
+                Log.e(LOG_TAG_NAME, "Error starting the first segment", e);
+            }
+            dropOldestSegmentsIfNeeded();
+            openMillis = System.currentTimeMillis() - startMillis;
+        }
+    }
+
+    /**
+     * Adds every record of the given {@link Segment} to the index and truncates a record cut off
+     * at its end.
+     *
+     * @param segment {@link Segment} to index.
+     */
+    private void indexSegment(Segment segment) throws IOException {
+        ByteBuffer buffer = segment.getBuffer();
+        int offset = SEGMENT_HEADER_BYTES;
+        while (offset + RECORD_HEADER_BYTES <= segment.size) {
+            int length = buffer.getInt(offset);
+            if (length <= RECORD_HEADER_BYTES - 4 || offset + 4L + length > segment.size) {
+                break;
+            }
+            putLatestRecord(segment, buffer, offset);
+            offset += 4 + length;
+        }
+        if (offset != segment.size) {
+            Log.w(LOG_TAG_NAME, "Dropping " + (segment.size - offset) + " bytes cut off at the end of " + segment.file.getName());
+            segment.truncate(offset);
+        }
+    }
+
+    /**
+     * Appends the given {@link Article} objects to the last segment, starting a new segment when
+     * it is full, and queues a compaction if a sealed segment needs one. Runs on the worker thread.
+     *
+     * @param articles         {@link List} of {@link Article} objects to archive.
+     * @param archivedAtMillis long time they were archived, in milliseconds since the epoch.
+     */
+    private void appendOnWorkerThread(List<Article> articles, long archivedAtMillis) throws IOException {
+        synchronized (this) {
+            if (segments.isEmpty()) {
+                return;
+            }
+            for (Article article : articles) {
+                byte[] idBytes = article.getId().getBytes(StandardCharsets.UTF_8);
+                byte[] fields = article.getEncodedFields();
+
+                // Skip articles whose latest record holds the same fields.
+                ByteBuffer idBuffer = ByteBuffer.wrap(idBytes);
+                int slot = findSlot(hash(idBuffer, 0, idBytes.length), idBuffer, 0, idBytes.length);
+                if (indexHashes[slot] != EMPTY_SLOT && hasFields(indexLocations[slot], fields)) {
+                    unchangedCount++;
+                    continue;
+                }
+
+                // Start a new segment once the record does not fit anymore.
+                int recordBytes = RECORD_HEADER_BYTES + getVarintSize(idBytes.length) + idBytes.length + fields.length;
+                Segment segment = segments.get(segments.size() - 1);
+                if (segment.size + writeBuffer.position() + recordBytes > maxSegmentBytes && segment.size + writeBuffer.position() > SEGMENT_HEADER_BYTES) {
+                    flushWriteBuffer(segment);
+                    segment.seal();
+                    segment = Segment.create(getSegmentFile(segment.number + 1), segment.number + 1);
+                    segments.add(segment);
+                }
+                if (writeBuffer.remaining() < recordBytes) {
+                    flushWriteBuffer(segment);
+                }
+                ByteBuffer target = writeBuffer.remaining() >= recordBytes ? writeBuffer : ByteBuffer.allocate(recordBytes);
+                target.putInt(recordBytes - 4);
+                target.putLong(archivedAtMillis);
+                putVarint(target, idBytes.length);
+                target.put(idBytes);
+                target.put(fields);
+                if (target != writeBuffer) {
+                    target.flip();
+                    segment.write(target);
+                    putLatestRecord(segment, segment.getBuffer(), segment.size - recordBytes);
+                }
+                appendedCount++;
+            }
+            flushWriteBuffer(segments.get(segments.size() - 1));
+            dropOldestSegmentsIfNeeded();
+            queueCompactionIfNeeded();
+        }
+    }
+
+    /**
+     * Writes the records collected in the write buffer to the given {@link Segment} and adds them
+     * to the index.
+     *
+     * @param segment {@link Segment} the records belong to.
+     */
+    private void flushWriteBuffer(Segment segment) throws IOException {
+        if (writeBuffer.position() == 0) {
+            return;
+        }
+        int firstOffset = segment.size;
+        writeBuffer.flip();
+        segment.write(writeBuffer);
+        writeBuffer.clear();
+        ByteBuffer buffer = segment.getBuffer();
+        int offset = firstOffset;
+        while (offset < segment.size) {
+            putLatestRecord(segment, buffer, offset);
+            offset += 4 + buffer.getInt(offset);
+        }
+    }
+
+    /**
+     * Drops the oldest segments, along with the index entries of their latest records, while the
+     * segments take more than {@link ArticleArchive#maxBytes} on disk. The segment appended to is
+     * never dropped. Like compaction, nothing is dropped while a scan is running; the next append
+     * tries again. Runs on the worker thread.
+     */
+    private void dropOldestSegmentsIfNeeded() {
+        long segmentBytes = 0;
+        for (Segment segment : segments) {
+            segmentBytes += segment.size;
+        }
+        while (segmentBytes > maxBytes && segments.size() > 1 && runningScanCount == 0) {
+            Segment segment = segments.get(0);
+            ByteBuffer buffer = segment.getBuffer();
+            int offset = SEGMENT_HEADER_BYTES;
+            while (offset < segment.size) {
+                int slot = findLatestRecordSlot(segment.number, buffer, offset);
+                if (slot >= 0) {
+                    removeSlot(slot);
+                }
+                offset += 4 + buffer.getInt(offset);
+            }
+            segmentBytes -= segment.size;
+            droppedSegmentCount++;
+            droppedBytes += segment.size;
+            segment.close();
+            segment.file.delete();
+            segments.remove(0);
+        }
+    }
+
+    /**
+     * Queues a compaction of the sealed segments on the worker thread if any of them is mostly
+     * superseded records.
+     */
+    private void queueCompactionIfNeeded() {
+        if (compactionQueued || findSegmentToCompact() == null) {
+            return;
+        }
+        compactionQueued = true;
+        executorService.execute(new Runnable() {
+            @Override
+            public void run() {
+                compact();
+            }
+        });
+    }
+
+    /**
+     * Returns a sealed {@link Segment} whose superseded records exceed
+     * {@link ArticleArchive#COMPACTION_GARBAGE_RATIO}.
+     *
+     * @return {@link Segment} to compact, or null if none needs to be.
+     */
+    @Nullable
+    private Segment findSegmentToCompact() {
+        for (int segmentIndex = 0; segmentIndex < segments.size() - 1; segmentIndex++) {
+            Segment segment = segments.get(segmentIndex);
+            long garbageBytes = segment.size - SEGMENT_HEADER_BYTES - segment.liveBytes;
+            if (garbageBytes > COMPACTION_GARBAGE_RATIO * segment.size) {
+                return segment;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Rewrites every sealed segment that needs it with only its latest records. Each segment is
+     * written to a temporary file while lookups and scans go on, then swapped in. Runs on the
+     * worker thread, so the index cannot change meanwhile; appends queued in the meantime wait.
+     * Compaction stops early if a scan is running and is queued again by the next append.
+     */
+    private void compact() {
+        boolean compacted = true;
+        while (compacted) {
+            Segment segment;
+            synchronized (this) {
+                segment = findSegmentToCompact();
+                if (segment == null) {
+                    break;
+                }
+            }
+            try {
+                compacted = compactSegment(segment);
+            } catch (IOException e) {
+                Log.e(LOG_TAG_NAME, "Error compacting " + segment.file.getName(), e);
+                compacted = false;
+            }
+        }
+        synchronized (this) {
+            compactionQueued = false;
+        }
+    }
+
+    /**
+     * Rewrites the given sealed {@link Segment} with only its latest records and moves the index
+     * entries of those records to their new offsets. A segment without any is deleted.
+     *
+     * @param segment {@link Segment} to compact.
+     * @return boolean indicating whether the segment was compacted, which it is not while a scan
+     * is running.
+     */
+    private boolean compactSegment(Segment segment) throws IOException {
+        ByteBuffer buffer;
+        synchronized (this) {
+            buffer = segment.getBuffer();
+        }
+
+        // Copy the latest records to a temporary segment, remembering the index slots to move.
+        File temporaryFile = new File(directory, segment.file.getName() + ".tmp");
+        temporaryFile.delete();
+        Segment compactedSegment = Segment.create(temporaryFile, segment.number);
+        List<int[]> movedSlots = new ArrayList<>();
+        ByteBuffer copyBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+        int offset = SEGMENT_HEADER_BYTES;
+        while (offset < segment.size) {
+            int recordBytes = 4 + buffer.getInt(offset);
+            int slot = findLatestRecordSlot(segment.number, buffer, offset);
+            if (slot >= 0) {
+                if (copyBuffer.remaining() < recordBytes) {
+                    copyBuffer.flip();
+                    compactedSegment.write(copyBuffer);
+                    copyBuffer.clear();
+                }
+                ByteBuffer record = buffer.duplicate();
+                record.limit(offset + recordBytes).position(offset);
+                if (recordBytes > copyBuffer.capacity()) {
+                    compactedSegment.write(record);
+                    movedSlots.add(new int[]{slot, compactedSegment.size - recordBytes});
+                } else {
+                    movedSlots.add(new int[]{slot, compactedSegment.size + copyBuffer.position()});
+                    copyBuffer.put(record);
+                }
+            }
+            offset += recordBytes;
+        }
+        copyBuffer.flip();
+        compactedSegment.write(copyBuffer);
+        compactedSegment.seal();
+
+        // Swap the compacted segment in and point the index at the moved records.
+        synchronized (this) {
+            if (runningScanCount > 0) {
+                compactedSegment.close();
+                temporaryFile.delete();
+                return false;
+            }
+            int segmentIndex = segments.indexOf(segment);
+            reclaimedBytes += segment.size - compactedSegment.size;
+            compactedSegmentCount++;
+            segment.close();
+            if (movedSlots.isEmpty()) {
+                compactedSegment.close();
+                temporaryFile.delete();
+                segment.file.delete();
+                segments.remove(segmentIndex);
+                return true;
+            }
+            if (!temporaryFile.renameTo(segment.file)) {
+                throw new IOException("Could not move the compacted segment into place");
+            }
+            compactedSegment.file = segment.file;
+            compactedSegment.liveBytes = compactedSegment.size - SEGMENT_HEADER_BYTES;
+            segments.set(segmentIndex, compactedSegment);
+            for (int[] movedSlot : movedSlots) {
+                indexLocations[movedSlot[0]] = getLocation(segment.number, movedSlot[1]);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Adds the record at the given offset to the index as the latest record of its id, and moves
+     * the live bytes of a record it supersedes to the garbage of that record's segment.
+     *
+     * @param segment {@link Segment} holding the record.
+     * @param buffer  {@link ByteBuffer} mapping the segment.
+     * @param offset  int offset of the record.
+     */
+    private void putLatestRecord(Segment segment, ByteBuffer buffer, int offset) {
+        int idLength = readVarint(buffer, offset + RECORD_HEADER_BYTES);
+        int idOffset = offset + RECORD_HEADER_BYTES + getVarintSize(idLength);
+        long hash = hash(buffer, idOffset, idLength);
+        int slot = findSlot(hash, buffer, idOffset, idLength);
+        int recordBytes = 4 + buffer.getInt(offset);
+        if (indexHashes[slot] == EMPTY_SLOT) {
+            indexHashes[slot] = hash;
+            indexSize++;
+        } else {
+            long previousLocation = indexLocations[slot];
+            Segment previousSegment = getSegment(getSegmentNumber(previousLocation));
+            previousSegment.liveBytes -= 4 + previousSegment.getBuffer().getInt(getOffset(previousLocation));
+        }
+        indexLocations[slot] = getLocation(segment.number, offset);
+        segment.liveBytes += recordBytes;
+        if (indexSize * 4 >= indexHashes.length * 3) {
+            growIndex();
+        }
+    }
+
+    /**
+     * Returns whether the record at the given offset is the latest record of its id.
+     *
+     * @param segmentNumber int number of the segment holding the record.
+     * @param buffer        {@link ByteBuffer} mapping the segment.
+     * @param offset        int offset of the record.
+     * @return boolean indicating whether the index points at the record.
+     */
+    private synchronized boolean isLatestRecord(int segmentNumber, ByteBuffer buffer, int offset) {
+        return findLatestRecordSlot(segmentNumber, buffer, offset) >= 0;
+    }
+
+    /**
+     * Returns the index slot pointing at the record at the given offset.
+     *
+     * @param segmentNumber int number of the segment holding the record.
+     * @param buffer        {@link ByteBuffer} mapping the segment.
+     * @param offset        int offset of the record.
+     * @return int slot, or -1 if the record is superseded.
+     */
+    private synchronized int findLatestRecordSlot(int segmentNumber, ByteBuffer buffer, int offset) {
+        int idLength = readVarint(buffer, offset + RECORD_HEADER_BYTES);
+        int idOffset = offset + RECORD_HEADER_BYTES + getVarintSize(idLength);
+        int slot = findSlot(hash(buffer, idOffset, idLength), buffer, idOffset, idLength);
+        return indexHashes[slot] != EMPTY_SLOT && indexLocations[slot] == getLocation(segmentNumber, offset) ? slot : -1;
+    }
+
+    /**
+     * Returns the index slot of the given id: the slot holding it, or the empty slot it would be
+     * stored in. Slots whose hash matches are only taken once the id of their record matches as
+     * well, so colliding hashes do not mix up articles.
+     *
+     * @param hash     long hash of the id, see {@link ArticleArchive#hash(ByteBuffer, int, int)}.
+     * @param idBuffer {@link ByteBuffer} holding the UTF-8 bytes of the id.
+     * @param idOffset int offset of the id.
+     * @param idLength int length of the id in bytes.
+     * @return int slot of the id.
+     */
+    private int findSlot(long hash, ByteBuffer idBuffer, int idOffset, int idLength) {
+        int mask = indexHashes.length - 1;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (indexHashes[slot] != EMPTY_SLOT) {
+            if (indexHashes[slot] == hash && hasId(indexLocations[slot], idBuffer, idOffset, idLength)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the number of index slots, keeping every entry.
+     */
+    private void growIndex() {
+        long[] oldHashes = indexHashes;
+        long[] oldLocations = indexLocations;
+        indexHashes = new long[oldHashes.length * 2];
+        indexLocations = new long[oldLocations.length * 2];
+        int mask = indexHashes.length - 1;
+        for (int oldSlot = 0; oldSlot < oldHashes.length; oldSlot++) {
+            long hash = oldHashes[oldSlot];
+            if (hash == EMPTY_SLOT) {
+                continue;
+            }
+            int slot = (int) (hash ^ (hash >>> 32)) & mask;
+            while (indexHashes[slot] != EMPTY_SLOT) {
+                slot = (slot + 1) & mask;
+            }
+            indexHashes[slot] = hash;
+            indexLocations[slot] = oldLocations[oldSlot];
+        }
+    }
+
+    /**
+     * Empties the given index slot and shifts back the entries probed past it, so every remaining
+     * id is still found from its home slot.
+     *
+     * @param slot int slot to empty.
+     */
+    private void removeSlot(int slot) {
+        int mask = indexHashes.length - 1;
+        indexHashes[slot] = EMPTY_SLOT;
+        indexSize--;
+        int next = (slot + 1) & mask;
+        while (indexHashes[next] != EMPTY_SLOT) {
+            long hash = indexHashes[next];
+            int home = (int) (hash ^ (hash >>> 32)) & mask;
+
+            // Move the entry into the hole if the hole lies between its home slot and its slot.
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                indexHashes[slot] = hash;
+                indexLocations[slot] = indexLocations[next];
+                indexHashes[next] = EMPTY_SLOT;
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+    }
+
+    /**
+     * Returns whether the record at the given location has the given id.
+     */
+    private boolean hasId(long location, ByteBuffer idBuffer, int idOffset, int idLength) {
+        ByteBuffer buffer = getSegment(getSegmentNumber(location)).getBuffer();
+        int offset = getOffset(location);
+        if (readVarint(buffer, offset + RECORD_HEADER_BYTES) != idLength) {
+            return false;
+        }
+        int recordIdOffset = offset + RECORD_HEADER_BYTES + getVarintSize(idLength);
+        for (int i = 0; i < idLength; i++) {
+            if (buffer.get(recordIdOffset + i) != idBuffer.get(idOffset + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the record at the given location holds the given encoded fields.
+     */
+    private boolean hasFields(long location, byte[] fields) {
+        ByteBuffer buffer = getSegment(getSegmentNumber(location)).getBuffer();
+        int offset = getOffset(location);
+        int idLength = readVarint(buffer, offset + RECORD_HEADER_BYTES);
+        int fieldsOffset = offset + RECORD_HEADER_BYTES + getVarintSize(idLength) + idLength;
+        if (offset + 4 + buffer.getInt(offset) - fieldsOffset != fields.length) {
+            return false;
+        }
+        for (int i = 0; i < fields.length; i++) {
+            if (buffer.get(fieldsOffset + i) != fields[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the {@link Segment} with the given number.
+     *
+     * @param number int number of the segment.
+     * @return {@link Segment} object.
+     */
+    private Segment getSegment(int number) {
+        // Segments are numbered in order, so binary search the list, which may have gaps.
+        int low = 0;
+        int high = segments.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            Segment segment = segments.get(middle);
+            if (segment.number < number) {
+                low = middle + 1;
+            } else if (segment.number > number) {
+                high = middle - 1;
+            } else {
+                return segment;
+            }
+        }
+        throw new IllegalStateException("No segment " + number);
+    }
+
+    /**
+     * Waits for the archive to open.
+     */
+    private void awaitOpen() {
+        try {
+            openFuture.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Log.e(LOG_TAG_NAME, "Error opening the archive", e);
+        }
+    }
+
+    /**
+     * Returns the {@link Article} of the record at the given offset.
+     */
+    private static Article readArticle(ByteBuffer buffer, int offset) {
+        int idLength = readVarint(buffer, offset + RECORD_HEADER_BYTES);
+        int idOffset = offset + RECORD_HEADER_BYTES + getVarintSize(idLength);
+        int fieldsOffset = idOffset + idLength;
+        byte[] idBytes = new byte[idLength];
+        byte[] fields = new byte[offset + 4 + buffer.getInt(offset) - fieldsOffset];
+        ByteBuffer record = buffer.duplicate();
+        record.position(idOffset);
+        record.get(idBytes);
+        record.get(fields);
+        return new Article(new String(idBytes, StandardCharsets.UTF_8), fields);
+    }
+
+    /**
+     * Returns the location of a record: its segment number in the high and its offset in the low
+     * 32 bits.
+     */
+    private static long getLocation(int segmentNumber, int offset) {
+        return ((long) segmentNumber << 32) | (offset & 0xffffffffL);
+    }
+
+    /**
+     * Returns the segment number of a location.
+     */
+    private static int getSegmentNumber(long location) {
+        return (int) (location >>> 32);
+    }
+
+    /**
+     * Returns the offset of a location.
+     */
+    private static int getOffset(long location) {
+        return (int) location;
+    }
+
+    /**
+     * Returns the file of the segment with the given number.
+     *
+     * @param number int number of the segment.
+     * @return {@link File} of the segment.
+     */
+    private File getSegmentFile(int number) {
+        return new File(directory, String.format(Locale.US, "%s%08d%s", SEGMENT_FILE_PREFIX, number, SEGMENT_FILE_SUFFIX));
+    }
+
+    /**
+     * Returns the number of the segment stored in the given file.
+     *
+     * @param file {@link File} of a segment.
+     * @return int segment number, or -1 if the file is no segment.
+     */
+    private static int getSegmentNumber(File file) {
+        String name = file.getName();
+        if (!name.startsWith(SEGMENT_FILE_PREFIX) || !name.endsWith(SEGMENT_FILE_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_FILE_PREFIX.length(), name.length() - SEGMENT_FILE_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the 64 bit FNV-1a hash of the UTF-8 bytes of an id, which is never
+     * {@link ArticleArchive#EMPTY_SLOT}.
+     */
+    private static long hash(ByteBuffer buffer, int offset, int length) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = offset; i < offset + length; i++) {
+            hash ^= buffer.get(i) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash == EMPTY_SLOT ? 1 : hash;
+    }
+
+    /**
+     * Returns how many bytes the given non-negative int occupies as a varint.
+     */
+    private static int getVarintSize(int value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Writes the given non-negative int as a varint: seven bits per byte, lowest first, with the
+     * high bit set on every byte but the last.
+     */
+    private static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7f) != 0) {
+            buffer.put((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads a varint written by {@link ArticleArchive#putVarint(ByteBuffer, int)} at the given
+     * position.
+     */
+    private static int readVarint(ByteBuffer buffer, int position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get(position++);
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * {@link RecordVisitor} is invoked by {@link ArticleArchive#scan(RecordVisitor)} for every
+     * record.
+     */
+    public interface RecordVisitor {
+
+        /**
+         * Invoked for a record.
+         *
+         * @param record {@link Record} visited. It is reused for the next record, so it must not
+         *               be kept.
+         * @return boolean indicating whether the scan should go on.
+         */
+        boolean visit(Record record);
+    }
+
+    /**
+     * {@link Record} is a view of a record inside a mapped segment. Nothing is decoded until it is
+     * asked for.
+     */
+    public static class Record {
+
+        /**
+         * {@link ByteBuffer} mapping the segment of the record.
+         */
+        private ByteBuffer buffer;
+
+        /**
+         * int offset of the record.
+         */
+        private int offset;
+
+        /**
+         * Constructs a new {@link Record} object viewing nothing yet.
+         */
+        Record() {
+        }
+
+        /**
+         * Points this view at the record at the given offset.
+         */
+        void set(ByteBuffer buffer, int offset) {
+            this.buffer = buffer;
+            this.offset = offset;
+        }
+
+        /**
+         * Returns the time the record was archived, in milliseconds since the epoch.
+         */
+        public long getArchivedAtMillis() {
+            return buffer.getLong(offset + 4);
+        }
+
+        /**
+         * Returns the id of the article of the record.
+         */
+        public String getId() {
+            int idLength = readVarint(buffer, offset + RECORD_HEADER_BYTES);
+            byte[] idBytes = new byte[idLength];
+            ByteBuffer record = buffer.duplicate();
+            record.position(offset + RECORD_HEADER_BYTES + getVarintSize(idLength));
+            record.get(idBytes);
+            return new String(idBytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Returns a copy of the {@link Article} of the record, which stays valid after the scan.
+         */
+        public Article toArticle() {
+            return readArticle(buffer, offset);
+        }
+
+        /**
+         * Returns whether the title of the article contains the given bytes, ignoring the case of
+         * ASCII letters in the title.
+         *
+         * @param lowerCaseQuery byte array holding the UTF-8 bytes of the lower case query.
+         * @return boolean indicating whether the title matches.
+         */
+        boolean titleContains(byte[] lowerCaseQuery) {
+            // The title is the first of the encoded fields.
+            int idLength = readVarint(buffer, offset + RECORD_HEADER_BYTES);
+            int titleLengthOffset = offset + RECORD_HEADER_BYTES + getVarintSize(idLength) + idLength;
+            int titleLength = readVarint(buffer, titleLengthOffset);
+            int titleOffset = titleLengthOffset + getVarintSize(titleLength);
+            for (int start = titleOffset; start <= titleOffset + titleLength - lowerCaseQuery.length; start++) {
+                int i = 0;
+                while (i < lowerCaseQuery.length && toLowerCase(buffer.get(start + i)) == lowerCaseQuery[i]) {
+                    i++;
+                }
+                if (i == lowerCaseQuery.length) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the given byte with ASCII upper case letters turned to lower case.
+         */
+        private static byte toLowerCase(byte b) {
+            return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+        }
+    }
+
+    /**
+     * {@link Segment} is a segment file of the archive together with the mapping it is read
+     * through.
+     */
+    private static class Segment {
+
+        /**
+         * {@link File} of the segment.
+         */
+        File file;
+
+        /**
+         * int number of the segment, which orders it among the others.
+         */
+        final int number;
+
+        /**
+         * {@link FileChannel} records are appended through.
+         */
+        private final FileChannel fileChannel;
+
+        /**
+         * int representing how many bytes the segment holds.
+         */
+        int size;
+
+        /**
+         * long representing how many bytes of the segment are taken by records that are not
+         * superseded.
+         */
+        long liveBytes;
+
+        /**
+         * {@link MappedByteBuffer} mapping the segment, or null until it is read. It is mapped
+         * again once the segment grew past it.
+         */
+        private MappedByteBuffer mappedByteBuffer;
+
+        /**
+         * Constructs a new {@link Segment} object.
+         *
+         * @param file        {@link File} of the segment.
+         * @param number      int number of the segment.
+         * @param fileChannel {@link FileChannel} of the file, opened for reading and writing.
+         * @param size        int representing how many bytes the segment holds.
+         */
+        private Segment(File file, int number, FileChannel fileChannel, int size) {
+            this.file = file;
+            this.number = number;
+            this.fileChannel = fileChannel;
+            this.size = size;
+        }
+
+        /**
+         * Opens an existing segment.
+         *
+         * @param file   {@link File} of the segment.
+         * @param number int number of the segment.
+         * @return {@link Segment} object, or null if the file does not start with a known header.
+         */
+        @Nullable
+        static Segment open(File file, int number) throws IOException {
+            FileChannel fileChannel = new RandomAccessFile(file, "rw").getChannel();
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+            fileChannel.read(header, 0);
+            if (header.position() < SEGMENT_HEADER_BYTES || header.getInt(0) != SEGMENT_MAGIC || header.getInt(4) != FORMAT_VERSION) {
+                fileChannel.close();
+                return null;
+            }
+            return new Segment(file, number, fileChannel, (int) Math.min(fileChannel.size(), Integer.MAX_VALUE));
+        }
+
+        /**
+         * Starts a new segment in the given file, replacing its content.
+         *
+         * @param file   {@link File} of the segment.
+         * @param number int number of the segment.
+         * @return {@link Segment} object holding only the header.
+         */
+        static Segment create(File file, int number) throws IOException {
+            FileChannel fileChannel = new RandomAccessFile(file, "rw").getChannel();
+            fileChannel.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+            header.putInt(SEGMENT_MAGIC).putInt(FORMAT_VERSION).flip();
+            fileChannel.write(header, 0);
+            return new Segment(file, number, fileChannel, SEGMENT_HEADER_BYTES);
+        }
+
+        /**
+         * Appends the remaining bytes of the given {@link ByteBuffer} to the segment.
+         */
+        void write(ByteBuffer source) throws IOException {
+            while (source.hasRemaining()) {
+                size += fileChannel.write(source, size);
+            }
+        }
+
+        /**
+         * Cuts the segment off at the given size.
+         */
+        void truncate(int newSize) throws IOException {
+            fileChannel.truncate(newSize);
+            size = newSize;
+            mappedByteBuffer = null;
+        }
+
+        /**
+         * Flushes the segment to storage once nothing is appended to it anymore.
+         */
+        void seal() throws IOException {
+            fileChannel.force(false);
+        }
+
+        /**
+         * Returns a read only mapping of the segment, limited to its current size.
+         */
+        ByteBuffer getBuffer() {
+            if (mappedByteBuffer == null || mappedByteBuffer.capacity() < size) {
+                try {
+                    mappedByteBuffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Could not map " + file.getName(), e);
+                }
+            }
+            ByteBuffer buffer = mappedByteBuffer.duplicate();
+            buffer.limit(size);
+            return buffer;
+        }
+
+        /**
+         * Closes the file of the segment. Mappings handed out stay readable.
+         */
+        void close() {
+            try {
+                fileChannel.close();
+            } catch (IOException e) {
+                Log.e(LOG_TAG_NAME, "Error closing " + file.getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.davidread.theguardiannewsclient;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.os.CancellationSignal;
+import androidx.loader.content.AsyncTaskLoader;
+
+/**
+ * {@link ArticleBodyLoader} is a utility class that provides an {@link AsyncTaskLoader} for
+ * retrieving the body text of a single article through {@link ArticleBodyRepository}. Cached body
+ * texts are returned without a network request.
+ */
+public class ArticleBodyLoader extends AsyncTaskLoader<String> {
+
+    /**
+     * {@link String} id of the article whose body text is loaded.
+     */
+    private final String id;
+
+    /**
+     * {@link CancellationSignal} for the load currently running on the worker thread.
+     */
+    private CancellationSignal cancellationSignal;
+
+    /**
+     * {@link String} body text delivered by the last load.
+     */
+    private String body;
+
+    /**
+     * Constructs a new {@link ArticleBodyLoader} object.
+     *
+     * @param context {@link Context} for the superclass.
+     * @param id      {@link String} id of the article whose body text is loaded.
+     */
+    public ArticleBodyLoader(@NonNull Context context, String id) {
+        super(context);
+        this.id = id;
+    }
+
+    /**
+     * Callback method invoked directly before executing the actual load. It delivers the body text
+     * of a previous load if there is one, and calls forceLoad() otherwise.
+     */
+    @Override
+    protected void onStartLoading() {
+        super.onStartLoading();
+        if (body != null) {
+            deliverResult(body);
+        } else {
+            forceLoad();
+        }
+    }
+
+    /**
+     * Callback method invoked to perform the actual load on a worker thread and return the result.
+     * It simply returns {@link ArticleBodyRepository#getBody(String, CancellationSignal)}.
+     */
+    @Nullable
+    @Override
+    public String loadInBackground() {
+        CancellationSignal signal = new CancellationSignal();
+        synchronized (this) {
+            cancellationSignal = signal;
+        }
+        try {
+            return ArticleBodyRepository.getInstance(getContext()).getBody(id, signal);
+        } finally {
+            synchronized (this) {
+                cancellationSignal = null;
+            }
+        }
+    }
+
+    /**
+     * Callback method invoked on the main thread when the current load is canceled. It cancels the
+     * {@link CancellationSignal} of the running load, which aborts its network request.
+     */
+    @Override
+    public void cancelLoadInBackground() {
+        super.cancelLoadInBackground();
+        synchronized (this) {
+            if (cancellationSignal != null) {
+                cancellationSignal.cancel();
+            }
+        }
+    }
+
+    /**
+     * Delivers the body text to the registered listener and keeps it for later deliveries.
+     *
+     * @param data {@link String} body text, or null if it could not be loaded.
+     */
+    @Override
+    public void deliverResult(@Nullable String data) {
+        body = data;
+        super.deliverResult(data);
+    }
+}
@@ -0,0 +1,239 @@
+package com.davidread.theguardiannewsclient;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.core.os.CancellationSignal;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * {@link ArticleBodyRepository} provides the body text of articles for the in-app reader. Body
+ * texts are fetched from The Guardian API and stored GZIP compressed in a {@link DiskLruCache}, so
+ * articles that were opened or prefetched before are available instantly and offline.
+ */
+public class ArticleBodyRepository {
+
+    /**
+     * {@link String} log tag name for {@link ArticleBodyRepository}.
+     */
+    public static final String LOG_TAG_NAME = ArticleBodyRepository.class.getSimpleName();
+
+    /**
+     * {@link String} name of the directory inside the cache directory where body texts are stored.
+     */
+    private static final String CACHE_DIRECTORY_NAME = "article_bodies";
+
+    /**
+     * long representing the maximum number of compressed bytes the body text cache may occupy.
+     */
+    private static final long MAX_CACHE_SIZE_BYTES = 10 * 1024 * 1024;
+
+    /**
+     * int representing how many body texts may be prefetched at the same time.
+     */
+    private static final int PREFETCH_THREAD_COUNT = 2;
+
+    /**
+     * {@link ArticleBodyRepository} instance shared across the app.
+     */
+    private static ArticleBodyRepository instance;
+
+    /**
+     * {@link File} representing the directory where body texts are stored.
+     */
+    private final File cacheDirectory;
+
+    /**
+     * {@link Context} requests through {@link GuardianApiClient} are made with.
+     */
+    private final Context context;
+
+    /**
+     * {@link ExecutorService} that runs prefetch requests in the background.
+     */
+    private final ExecutorService prefetchExecutorService;
+
+    /**
+     * {@link Set} of article ids whose body text is currently being prefetched.
+     */
+    private final Set<String> prefetchingIds;
+
+    /**
+     * {@link DiskLruCache} where compressed body texts are stored. It is created lazily on a worker
+     * thread since it indexes the cache directory when constructed.
+     */
+    private DiskLruCache diskLruCache;
+
+    /**
+     * Constructs a new {@link ArticleBodyRepository} object.
+     *
+     * @param context {@link Context} for accessing the cache directory and making requests.
+     */
+    private ArticleBodyRepository(Context context) {
+        this.context = context;
+        this.cacheDirectory = new File(context.getCacheDir(), CACHE_DIRECTORY_NAME);
+        this.prefetchExecutorService = Executors.newFixedThreadPool(PREFETCH_THREAD_COUNT);
+        this.prefetchingIds = new HashSet<>();
+    }
+
+    /**
+     * Returns the {@link ArticleBodyRepository} instance shared across the app.
+     *
+     * @param context {@link Context} for accessing the cache directory.
+     * @return {@link ArticleBodyRepository} instance shared across the app.
+     */
+    public static synchronized ArticleBodyRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new ArticleBodyRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the cached body text of the article with the given id. Must not be called on the
+     * main thread.
+     *
+     * @param id {@link String} id of the article.
+     * @return {@link String} body text, or null if it is not cached.
+     */
+    @Nullable
+    public String getCachedBody(String id) {
+        return getDiskLruCache().getCompressedString(id);
+    }
+
+    /**
+     * Returns the body text of the article with the given id, preferring the cache over the
+     * network. Body texts fetched from the network are cached. Must not be called on the main
+     * thread.
+     *
+     * @param id                 {@link String} id of the article.
+     * @param cancellationSignal {@link CancellationSignal} that aborts the network request when
+     *                           canceled. May be null.
+     * @return {@link String} body text, or null if it could not be fetched.
+     */
+    @Nullable
+    public String getBody(String id, @Nullable CancellationSignal cancellationSignal) {
+        return getBody(id, ApiQuotaManager.Priority.FOREGROUND, cancellationSignal);
+    }
+
+    /**
+     * Returns the body text of the article with the given id, preferring the cache over the
+     * network. Body texts fetched from the network are cached. Must not be called on the main
+     * thread.
+     *
+     * @param id                 {@link String} id of the article.
+     * @param priority           {@link ApiQuotaManager.Priority} of the network request.
+     * @param cancellationSignal {@link CancellationSignal} that aborts the network request when
+     *                           canceled. May be null.
+     * @return {@link String} body text, or null if it could not be fetched.
+     */
+    @Nullable
+    private String getBody(String id, ApiQuotaManager.Priority priority, @Nullable CancellationSignal cancellationSignal) {
+        String body = getCachedBody(id);
+        if (body != null) {
+            return body;
+        }
+
+        // Perform network request.
+        String json = null;
+        try {
+            json = GuardianApiClient.getJson(context, GuardianApiClient.buildItemUrl(id, "bodyText"), priority, cancellationSignal);
+        } catch (IOException e) {
+            Log.e(LOG_TAG_NAME, "Error closing input stream", e);
+        }
+        if (json == null) {
+            return null;
+        }
+
+        // Extract the body text and cache it.
+        body = extractBodyFromJson(json);
+        if (body != null) {
+            getDiskLruCache().putCompressedString(id, body);
+        }
+        return body;
+    }
+
+    /**
+     * Fetches and caches the body texts of the given articles in the background. Articles that are
+     * already cached or being prefetched are skipped. The requests have
+     * {@link ApiQuotaManager.Priority#BACKGROUND} priority, so they are shed when the API budget
+     * runs low.
+     *
+     * @param articles {@link List} of {@link Article} objects whose body texts should be
+     *                 prefetched. Null elements are skipped.
+     */
+    public void prefetch(List<Article> articles) {
+        for (Article article : articles) {
+            // Placeholders of unloaded pages have no article to prefetch.
+            if (article == null) {
+                continue;
+            }
+            final String id = article.getId();
+            if (id == null || id.isEmpty()) {
+                continue;
+            }
+            synchronized (prefetchingIds) {
+                if (!prefetchingIds.add(id)) {
+                    continue;
+                }
+            }
+            prefetchExecutorService.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (!getDiskLruCache().contains(id)) {
+                            getBody(id, ApiQuotaManager.Priority.BACKGROUND, null);
+                        }
+                    } finally {
+                        synchronized (prefetchingIds) {
+                            prefetchingIds.remove(id);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the {@link DiskLruCache} where compressed body texts are stored, creating it first if
+     * needed.
+     *
+     * @return {@link DiskLruCache} where compressed body texts are stored.
+     */
+    private synchronized DiskLruCache getDiskLruCache() {
+        if (diskLruCache == null) {
+            diskLruCache = new DiskLruCache(cacheDirectory, MAX_CACHE_SIZE_BYTES);
+        }
+        return diskLruCache;
+    }
+
+    /**
+     * Parses the body text out of a {@link String} JSON response of a The Guardian API item
+     * request.
+     *
+     * @param json {@link String} JSON response from a The Guardian API item request.
+     * @return {@link String} body text, or null if the response has none.
+     */
+    @Nullable
+    private static String extractBodyFromJson(String json) {
+        try {
+            JSONObject rootJsonObject = new JSONObject(json);
+            JSONObject contentJsonObject = rootJsonObject.getJSONObject("response").getJSONObject("content");
+            return contentJsonObject.getJSONObject("fields").getString("bodyText");
+        } catch (JSONException e) {
+            Log.e(LOG_TAG_NAME, "Error parsing the bodyText JSON property", e);
+            return null;
+        }
+    }
+}
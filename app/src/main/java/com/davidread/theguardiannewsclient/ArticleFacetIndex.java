@@ -0,0 +1,273 @@
+package com.davidread.theguardiannewsclient;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link ArticleFacetIndex} counts the sections and contributors of a growing {@link List} of
+ * {@link Article} objects. It is updated incrementally as pages are appended, so counts never need
+ * to be recomputed over the whole list. Every {@link Facet} also keeps the ascending indices of
+ * its {@link Article} objects within the list, so a filtered view is built from the matching
+ * indices only, without scanning or copying the list.
+ */
+public class ArticleFacetIndex {
+
+    /**
+     * int types of a {@link Facet}.
+     */
+    public static final int TYPE_SECTION = 0;
+    public static final int TYPE_CONTRIBUTOR = 1;
+
+    /**
+     * int representing the initial capacity of the index array of a {@link Facet}.
+     */
+    private static final int INITIAL_FACET_CAPACITY = 16;
+
+    /**
+     * {@link Map} of section names to their {@link Facet} objects.
+     */
+    private final Map<String, Facet> sectionFacets;
+
+    /**
+     * {@link Map} of contributor names to their {@link Facet} objects.
+     */
+    private final Map<String, Facet> contributorFacets;
+
+    /**
+     * int representing how many leading elements of the list are indexed.
+     */
+    private int indexedCount;
+
+    /**
+     * Constructs a new {@link ArticleFacetIndex} object.
+     */
+    public ArticleFacetIndex() {
+        this.sectionFacets = new HashMap<>();
+        this.contributorFacets = new HashMap<>();
+    }
+
+    /**
+     * Indexes every element of the given {@link List} that is not indexed yet. Elements are
+     * expected to be appended only, so only the new tail is visited.
+     *
+     * @param articles {@link List} of {@link Article} objects being indexed. null elements are
+     *                 skipped.
+     */
+    public void update(List<Article> articles) {
+        for (int articleIndex = indexedCount; articleIndex < articles.size(); articleIndex++) {
+            Article article = articles.get(articleIndex);
+            if (article == null) {
+                continue;
+            }
+            addToFacet(sectionFacets, TYPE_SECTION, article.decodeSectionName(), articleIndex);
+            for (String contributor : article.decodeAuthors()) {
+                addToFacet(contributorFacets, TYPE_CONTRIBUTOR, contributor, articleIndex);
+            }
+        }
+        indexedCount = articles.size();
+    }
+
+    /**
+     * Drops every element at or beyond the given size from the index, e.g. after the tail of the
+     * list was removed.
+     *
+     * @param size int new size of the indexed {@link List}.
+     */
+    public void truncate(int size) {
+        if (size >= indexedCount) {
+            return;
+        }
+        truncateFacets(sectionFacets, size);
+        truncateFacets(contributorFacets, size);
+        indexedCount = size;
+    }
+
+    /**
+     * Drops every element from the index.
+     */
+    public void clear() {
+        sectionFacets.clear();
+        contributorFacets.clear();
+        indexedCount = 0;
+    }
+
+    /**
+     * Returns the {@link Facet} of the given type and value.
+     *
+     * @param type  int type of the {@link Facet}, either {@link ArticleFacetIndex#TYPE_SECTION} or
+     *              {@link ArticleFacetIndex#TYPE_CONTRIBUTOR}.
+     * @param value {@link String} section or contributor name.
+     * @return {@link Facet} object, or null if no indexed {@link Article} matches.
+     */
+    @Nullable
+    public Facet getFacet(int type, String value) {
+        return getFacetMap(type).get(value);
+    }
+
+    /**
+     * Returns every {@link Facet} of the given type, ordered by descending count and then by name.
+     *
+     * @param type int type of the {@link Facet} objects, either
+     *             {@link ArticleFacetIndex#TYPE_SECTION} or
+     *             {@link ArticleFacetIndex#TYPE_CONTRIBUTOR}.
+     * @return {@link List} of {@link Facet} objects.
+     */
+    public List<Facet> getFacets(int type) {
+        List<Facet> facets = new ArrayList<>(getFacetMap(type).values());
+        Collections.sort(facets, new Comparator<Facet>() {
+            @Override
+            public int compare(Facet facet1, Facet facet2) {
+                int countComparison = Integer.compare(facet2.count, facet1.count);
+                return countComparison != 0 ? countComparison : facet1.value.compareTo(facet2.value);
+            }
+        });
+        return facets;
+    }
+
+    /**
+     * Returns the {@link Map} holding the {@link Facet} objects of the given type.
+     */
+    private Map<String, Facet> getFacetMap(int type) {
+        return type == TYPE_CONTRIBUTOR ? contributorFacets : sectionFacets;
+    }
+
+    /**
+     * Appends an index to the {@link Facet} of the given value, creating it if needed. Empty
+     * values are not indexed.
+     */
+    private static void addToFacet(Map<String, Facet> facets, int type, String value, int articleIndex) {
+        if (value.isEmpty()) {
+            return;
+        }
+        Facet facet = facets.get(value);
+        if (facet == null) {
+            facet = new Facet(type, value);
+            facets.put(value, facet);
+        }
+        facet.add(articleIndex);
+    }
+
+    /**
+     * Drops the indices at or beyond the given size from every {@link Facet}, and removes the
+     * {@link Facet} objects left empty.
+     */
+    private static void truncateFacets(Map<String, Facet> facets, int size) {
+        Iterator<Facet> facetIterator = facets.values().iterator();
+        while (facetIterator.hasNext()) {
+            Facet facet = facetIterator.next();
+            while (facet.count > 0 && facet.indices[facet.count - 1] >= size) {
+                facet.count--;
+            }
+            if (facet.count == 0) {
+                facetIterator.remove();
+            }
+        }
+    }
+
+    /**
+     * {@link Facet} is a section or contributor name together with the ascending indices of the
+     * {@link Article} objects it applies to.
+     */
+    public static class Facet {
+
+        /**
+         * int type of this facet, either {@link ArticleFacetIndex#TYPE_SECTION} or
+         * {@link ArticleFacetIndex#TYPE_CONTRIBUTOR}.
+         */
+        private final int type;
+
+        /**
+         * {@link String} section or contributor name of this facet.
+         */
+        private final String value;
+
+        /**
+         * int array holding, in its first count elements, the ascending indices of the matching
+         * {@link Article} objects.
+         */
+        private int[] indices;
+
+        /**
+         * int representing how many {@link Article} objects match this facet.
+         */
+        private int count;
+
+        /**
+         * Constructs a new {@link Facet} object.
+         *
+         * @param type  int type of the facet.
+         * @param value {@link String} section or contributor name of the facet.
+         */
+        Facet(int type, String value) {
+            this.type = type;
+            this.value = value;
+            this.indices = new int[INITIAL_FACET_CAPACITY];
+        }
+
+        /**
+         * Returns the type of this facet.
+         */
+        public int getType() {
+            return type;
+        }
+
+        /**
+         * Returns the section or contributor name of this facet.
+         */
+        public String getValue() {
+            return value;
+        }
+
+        /**
+         * Returns how many {@link Article} objects match this facet.
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the index within the indexed {@link List} of the matching {@link Article} at
+         * the given rank.
+         *
+         * @param rank int rank among the matching {@link Article} objects, from 0 to
+         *             {@link Facet#getCount()} - 1.
+         * @return int index within the indexed {@link List}.
+         */
+        public int getIndex(int rank) {
+            return indices[rank];
+        }
+
+        /**
+         * Returns the rank of the first matching {@link Article} at or beyond the given index.
+         *
+         * @param articleIndex int index within the indexed {@link List}.
+         * @return int rank, or {@link Facet#getCount()} if no matching {@link Article} follows.
+         */
+        public int getFirstRankFrom(int articleIndex) {
+            int rank = Arrays.binarySearch(indices, 0, count, articleIndex);
+            return rank >= 0 ? rank : -rank - 1;
+        }
+
+        /**
+         * Appends an index, growing the index array if needed. An index that was just appended,
+         * e.g. for a contributor listed twice on one article, is not appended again.
+         */
+        private void add(int articleIndex) {
+            if (count > 0 && indices[count - 1] == articleIndex) {
+                return;
+            }
+            if (count == indices.length) {
+                indices = Arrays.copyOf(indices, count * 2);
+            }
+            indices[count++] = articleIndex;
+        }
+    }
+}
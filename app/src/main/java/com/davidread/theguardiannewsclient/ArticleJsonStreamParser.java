@@ -0,0 +1,226 @@
+package com.davidread.theguardiannewsclient;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.core.os.CancellationSignal;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link ArticleJsonStreamParser} is a utility class that parses a The Guardian API content search
+ * response with a {@link JsonTokenizer} while it is still being read. It does not need the whole
+ * response in memory first, and it hands every {@link Article} to an {@link OnArticleParsedListener} as soon
+ * as its JSON object has been read. Names are matched and fields are packed into the
+ * {@link Article} straight from the chars of the response, so the id is the only {@link String}
+ * created per result.
+ */
+public final class ArticleJsonStreamParser {
+
+    /**
+     * {@link String} log tag name for {@link ArticleJsonStreamParser}.
+     */
+    public static final String LOG_TAG_NAME = ArticleJsonStreamParser.class.getSimpleName();
+
+    /**
+     * Private constructor since {@link ArticleJsonStreamParser} only has static members.
+     */
+    private ArticleJsonStreamParser() {
+    }
+
+    /**
+     * {@link OnArticleParsedListener} is invoked on the parsing thread for every {@link Article}
+     * as soon as it has been parsed.
+     */
+    public interface OnArticleParsedListener {
+
+        /**
+         * Invoked when an {@link Article} has been parsed.
+         *
+         * @param article {@link Article} object that was parsed.
+         */
+        void onArticleParsed(Article article);
+    }
+
+    /**
+     * Parses a content search response read from the given {@link Reader} into an
+     * {@link ArticlePage} object. The Guardian API writes the pagination metadata before the
+     * results, so the metadata is already known when the first {@link Article} is handed to the
+     * listener. Parsing stops as soon as the given {@link CancellationSignal} is canceled.
+     *
+     * @param reader                  {@link Reader} the response is read from. It is not closed.
+     * @param cancellationSignal      {@link CancellationSignal} that stops parsing when canceled.
+     *                                May be null.
+     * @param onArticleParsedListener {@link OnArticleParsedListener} invoked for every parsed
+     *                                {@link Article}. May be null.
+     * @return {@link ArticlePage} object holding every parsed {@link Article}, or null if the
+     * response has no results JSON array, is malformed, or parsing was canceled.
+     */
+    @Nullable
+    public static ArticlePage parse(Reader reader, @Nullable CancellationSignal cancellationSignal, @Nullable OnArticleParsedListener onArticleParsedListener) throws IOException {
+        JsonTokenizer jsonTokenizer = new JsonTokenizer(reader);
+        try {
+            ArticlePage articlePage = null;
+            jsonTokenizer.beginObject();
+            while (jsonTokenizer.hasNext()) {
+                jsonTokenizer.nextName();
+                if (jsonTokenizer.isText("response")) {
+                    articlePage = parseResponse(jsonTokenizer, cancellationSignal, onArticleParsedListener);
+                    break;
+                }
+                jsonTokenizer.skipValue();
+            }
+            return articlePage;
+        } catch (IllegalStateException | NumberFormatException e) {
+            Log.e(LOG_TAG_NAME, "Error parsing the response JSON object", e);
+            return null;
+        }
+    }
+
+    /**
+     * Parses the response JSON object of a content search response.
+     *
+     * @return {@link ArticlePage} object, or null if it has no results JSON array or parsing was
+     * canceled.
+     */
+    @Nullable
+    private static ArticlePage parseResponse(JsonTokenizer jsonTokenizer, @Nullable CancellationSignal cancellationSignal, @Nullable OnArticleParsedListener onArticleParsedListener) throws IOException {
+        List<Article> articles = null;
+        int currentPage = 1;
+        int pages = -1;
+        int total = -1;
+
+        jsonTokenizer.beginObject();
+        while (jsonTokenizer.hasNext()) {
+            jsonTokenizer.nextName();
+            if (jsonTokenizer.isText("currentPage")) {
+                currentPage = jsonTokenizer.nextInt();
+            } else if (jsonTokenizer.isText("pages")) {
+                pages = jsonTokenizer.nextInt();
+            } else if (jsonTokenizer.isText("total")) {
+                total = jsonTokenizer.nextInt();
+            } else if (jsonTokenizer.isText("results")) {
+                articles = new ArrayList<>();
+                Article.FieldsEncoder fieldsEncoder = new Article.FieldsEncoder();
+                jsonTokenizer.beginArray();
+                while (jsonTokenizer.hasNext()) {
+
+                    // Stop parsing results nobody is waiting for anymore.
+                    if (cancellationSignal != null && cancellationSignal.isCanceled()) {
+                        return null;
+                    }
+
+                    Article article = parseResult(jsonTokenizer, fieldsEncoder);
+                    articles.add(article);
+                    if (onArticleParsedListener != null) {
+                        onArticleParsedListener.onArticleParsed(article);
+                    }
+                }
+                jsonTokenizer.endArray();
+            } else {
+                jsonTokenizer.skipValue();
+            }
+        }
+        jsonTokenizer.endObject();
+
+        if (articles == null) {
+            Log.e(LOG_TAG_NAME, "Error parsing the results JSON array");
+            return null;
+        }
+        return new ArticlePage(articles, currentPage, pages, total);
+    }
+
+    /**
+     * Parses a single result JSON object into an {@link Article} object. Every field but the id is
+     * packed by the given {@link Article.FieldsEncoder} straight from the chars the tokenizer
+     * decoded it into. A missing id, title, section name, publication date, URL or thumbnail
+     * falls back to an empty {@link String}, and missing tags to a single empty author.
+     *
+     * @return {@link Article} object parsed from the result.
+     */
+    private static Article parseResult(JsonTokenizer jsonTokenizer, Article.FieldsEncoder fieldsEncoder) throws IOException {
+        String id = "";
+        fieldsEncoder.reset();
+
+        jsonTokenizer.beginObject();
+        while (jsonTokenizer.hasNext()) {
+            jsonTokenizer.nextName();
+            if (jsonTokenizer.peek() == JsonTokenizer.NULL) {
+                jsonTokenizer.skipValue();
+            } else if (jsonTokenizer.isText("id")) {
+                jsonTokenizer.nextString();
+                id = jsonTokenizer.getText().toString();
+            } else if (jsonTokenizer.isText("webTitle")) {
+                jsonTokenizer.nextString();
+                fieldsEncoder.setField(Article.TITLE_FIELD, jsonTokenizer.getText());
+            } else if (jsonTokenizer.isText("sectionName")) {
+                jsonTokenizer.nextString();
+                fieldsEncoder.setField(Article.SECTION_NAME_FIELD, jsonTokenizer.getText());
+            } else if (jsonTokenizer.isText("webPublicationDate")) {
+                jsonTokenizer.nextString();
+                fieldsEncoder.setField(Article.DATE_PUBLISHED_FIELD, jsonTokenizer.getText());
+            } else if (jsonTokenizer.isText("webUrl")) {
+                jsonTokenizer.nextString();
+                fieldsEncoder.setField(Article.URL_FIELD, jsonTokenizer.getText());
+            } else if (jsonTokenizer.isText("tags")) {
+                parseTagWebTitles(jsonTokenizer, fieldsEncoder);
+            } else if (jsonTokenizer.isText("fields")) {
+                parseThumbnail(jsonTokenizer, fieldsEncoder);
+            } else {
+                jsonTokenizer.skipValue();
+            }
+        }
+        jsonTokenizer.endObject();
+
+        return new Article(id, fieldsEncoder.encode());
+    }
+
+    /**
+     * Parses the tags JSON array of a result into the web titles of its contributor tags, which
+     * are added as the authors.
+     */
+    private static void parseTagWebTitles(JsonTokenizer jsonTokenizer, Article.FieldsEncoder fieldsEncoder) throws IOException {
+        fieldsEncoder.clearAuthors();
+        jsonTokenizer.beginArray();
+        while (jsonTokenizer.hasNext()) {
+            boolean hasWebTitle = false;
+            jsonTokenizer.beginObject();
+            while (jsonTokenizer.hasNext()) {
+                jsonTokenizer.nextName();
+                if (!hasWebTitle && jsonTokenizer.isText("webTitle") && jsonTokenizer.peek() == JsonTokenizer.STRING) {
+                    jsonTokenizer.nextString();
+                    fieldsEncoder.addAuthor(jsonTokenizer.getText());
+                    hasWebTitle = true;
+                } else {
+                    jsonTokenizer.skipValue();
+                }
+            }
+            jsonTokenizer.endObject();
+            if (!hasWebTitle) {
+                fieldsEncoder.addAuthor("");
+            }
+        }
+        jsonTokenizer.endArray();
+    }
+
+    /**
+     * Parses the fields JSON object of a result into its optional thumbnail URL. A result without
+     * one keeps the empty thumbnail URL.
+     */
+    private static void parseThumbnail(JsonTokenizer jsonTokenizer, Article.FieldsEncoder fieldsEncoder) throws IOException {
+        jsonTokenizer.beginObject();
+        while (jsonTokenizer.hasNext()) {
+            jsonTokenizer.nextName();
+            if (jsonTokenizer.isText("thumbnail") && jsonTokenizer.peek() == JsonTokenizer.STRING) {
+                jsonTokenizer.nextString();
+                fieldsEncoder.setField(Article.THUMBNAIL_URL_FIELD, jsonTokenizer.getText());
+            } else {
+                jsonTokenizer.skipValue();
+            }
+        }
+        jsonTokenizer.endObject();
+    }
+}
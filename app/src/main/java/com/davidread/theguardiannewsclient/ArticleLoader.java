@@ -1,35 +1,29 @@
 package com.davidread.theguardiannewsclient;
 
 import android.content.Context;
-import android.net.Uri;
-import android.util.Log;
+import android.os.Debug;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.os.CancellationSignal;
 import androidx.loader.content.AsyncTaskLoader;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * {@link ArticleLoader} is a utility class that provides an {@link AsyncTaskLoader} for requesting
- * and retrieving data from The Guardian API. More specifically, it allows you to get article
- * listings, where you can specify how the listings are sorted, the page index for pagination, and
- * an optional query term.
+ * and retrieving data from The Guardian API through {@link GuardianApiClient}. More specifically,
+ * it allows you to get article listings, where you can specify how the listings are sorted, the
+ * page index for pagination, and an optional query term. Each load returns an {@link ArticlePage}
+ * that tells whether more pages follow. With an {@link OnArticlesParsedListener} set, the articles
+ * of the page are also handed to the main thread in small batches while the page is still
+ * downloading.
  */
-public class ArticleLoader extends AsyncTaskLoader<List<Article>> {
+public class ArticleLoader extends AsyncTaskLoader<ArticlePage> {
 
     /**
      * {@link String} log tag name for {@link ArticleLoader}.
@@ -37,9 +31,10 @@ public class ArticleLoader extends AsyncTaskLoader<List<Article>> {
     public static final String LOG_TAG_NAME = ArticleLoader.class.getSimpleName();
 
     /**
-     * {@link String} holding the key used to access The Guardian API.
+     * int representing how many parsed articles are handed to the main thread at once during a
+     * progressive load.
      */
-    private static final String THE_GUARDIAN_API_KEY = BuildConfig.THE_GUARDIAN_API_KEY;
+    private static final int PROGRESSIVE_BATCH_SIZE = 5;
 
     /**
      * {@link String} for specifying what order article listings will be returned in. Possible
@@ -48,17 +43,38 @@ public class ArticleLoader extends AsyncTaskLoader<List<Article>> {
     private final String orderBy;
 
     /**
-     * int index for specifying which page result set will be returned. Page indices start at 1 and
-     * 50 article listings are returned in each page result set.
+     * int index for specifying which page result set will be returned. Page indices start at 1.
      */
     private final int pageIndex;
 
+    /**
+     * int representing how many article listings are returned in each page result set.
+     */
+    private final int pageSize;
+
     /**
      * {@link String} for requesting article listings containing certain free text. To exclude a
      * search term from the request, simply pass this parameter as null or the empty string.
      */
     private final String searchTerm;
 
+    /**
+     * {@link CancellationSignal} for the load currently running on the worker thread. Canceling it
+     * disconnects the underlying network request so that its socket is released immediately.
+     */
+    private CancellationSignal cancellationSignal;
+
+    /**
+     * {@link Handler} for handing batches of parsed articles to the main thread.
+     */
+    private final Handler mainHandler;
+
+    /**
+     * {@link OnArticlesParsedListener} invoked with batches of parsed articles, or null if loads
+     * only deliver their complete {@link ArticlePage}.
+     */
+    private OnArticlesParsedListener onArticlesParsedListener;
+
     /**
      * Constructs a new {@link ArticleLoader} object.
      *
@@ -66,14 +82,30 @@ public class ArticleLoader extends AsyncTaskLoader<List<Article>> {
      * @param orderBy    {@link String} for specifying what order article listings will be returned
      *                   in.
      * @param pageIndex  int index for specifying which page result set will be returned.
+     * @param pageSize   int representing how many article listings are returned in each page
+     *                   result set.
      * @param searchTerm {@link String} for requesting article listings containing certain free
      *                   text.
      */
-    public ArticleLoader(@NonNull Context context, String orderBy, int pageIndex, String searchTerm) {
+    public ArticleLoader(@NonNull Context context, String orderBy, int pageIndex, int pageSize, String searchTerm) {
         super(context);
         this.pageIndex = pageIndex;
+        this.pageSize = pageSize;
         this.orderBy = orderBy;
         this.searchTerm = searchTerm;
+        this.mainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Sets the {@link OnArticlesParsedListener} that is handed batches of articles while the page
+     * is still downloading. The complete {@link ArticlePage} is still delivered when the load
+     * finishes, and it holds every article, including the ones already handed out.
+     *
+     * @param onArticlesParsedListener {@link OnArticlesParsedListener} invoked on the main thread,
+     *                                 or null to only deliver the complete {@link ArticlePage}.
+     */
+    public synchronized void setOnArticlesParsedListener(@Nullable OnArticlesParsedListener onArticlesParsedListener) {
+        this.onArticlesParsedListener = onArticlesParsedListener;
     }
 
     /**
@@ -88,233 +120,169 @@ public class ArticleLoader extends AsyncTaskLoader<List<Article>> {
 
     /**
      * Callback method invoked to perform the actual load on a worker thread and return the result.
-     * It simply returns {@link ArticleLoader#getArticlesFromTheGuardianAPI(String, int, String)}.
+     * It returns {@link ArticleLoader#getArticlePageFromTheGuardianAPI(String, int, int, String)},
+     * or {@link ArticleLoader#getArticlePageProgressively(CancellationSignal)} if an
+     * {@link OnArticlesParsedListener} is set, canceling the load if the page could not be
+     * fetched.
      */
     @Nullable
     @Override
-    public List<Article> loadInBackground() {
-        return getArticlesFromTheGuardianAPI(orderBy, pageIndex, searchTerm);
+    public ArticlePage loadInBackground() {
+        CancellationSignal signal = new CancellationSignal();
+        synchronized (this) {
+            cancellationSignal = signal;
+        }
+        long startCpuNanos = Debug.threadCpuTimeNanos();
+        try {
+            ArticlePage articlePage = getOnArticlesParsedListener() == null
+                    ? getArticlePageFromTheGuardianAPI(orderBy, pageIndex, pageSize, searchTerm)
+                    : getArticlePageProgressively(signal);
+            if (articlePage == null || isLoadInBackgroundCanceled()) {
+                // Account for the work of a load that was aborted from the outside.
+                if (signal.isCanceled()) {
+                    LoadMetrics.recordAbortedLoad(Debug.threadCpuTimeNanos() - startCpuNanos);
+                }
+                cancelLoad();
+                return ArticlePage.empty();
+            }
+            return articlePage;
+        } finally {
+            synchronized (this) {
+                cancellationSignal = null;
+            }
+        }
     }
 
     /**
-     * Returns a {@link List} of {@link Article} objects fetched via a network request to The
-     * Guardian API.
-     *
-     * @param orderBy    {@link String} for specifying what order results will be returned in.
-     * @param pageIndex  int index representing which page result set will be returned.
-     * @param searchTerm {@link String} for requesting listings containing this free text.
-     * @return {@link List} of {@link Article} objects fetched via a network request to The Guardian
-     * API.
+     * Callback method invoked on the main thread when the current load is canceled. It cancels the
+     * {@link CancellationSignal} of the running load, which aborts its network request.
      */
-    private List<Article> getArticlesFromTheGuardianAPI(String orderBy, int pageIndex, String searchTerm) {
-
-        // Construct URL object.
-        URL url = constructUrl(orderBy, pageIndex, searchTerm);
-
-        // Perform network request.
-        String json = null;
-        try {
-            json = getJsonFromUrl(url);
-        } catch (IOException e) {
-            cancelLoad();
-            Log.e(LOG_TAG_NAME, "Error closing input stream", e);
+    @Override
+    public void cancelLoadInBackground() {
+        super.cancelLoadInBackground();
+        synchronized (this) {
+            if (cancellationSignal != null) {
+                cancellationSignal.cancel();
+            }
         }
+    }
 
-        // Return List of Article objects extracted from JSON string.
-        return extractArticlesFromJson(json);
+    /**
+     * Callback method invoked on the main thread when the loader is reset. It drops the
+     * {@link OnArticlesParsedListener} so that no batch reaches a destroyed activity.
+     */
+    @Override
+    protected void onReset() {
+        super.onReset();
+        setOnArticlesParsedListener(null);
     }
 
     /**
-     * Returns a {@link URL} object for requesting article listings from The Guardian API.
+     * Returns an {@link ArticlePage} object fetched via a network request to The Guardian API, or
+     * from the {@link ArticlePageRepository} cache when offline.
      *
      * @param orderBy    {@link String} for specifying what order results will be returned in.
      * @param pageIndex  int index representing which page result set will be returned.
+     * @param pageSize   int representing how many listings each page result set holds.
      * @param searchTerm {@link String} for requesting listings containing this free text.
-     * @return {@link URL} object for requesting article listings from The Guardian API.
+     * @return {@link ArticlePage} object fetched via a network request to The Guardian API, or
+     * null if the page could not be fetched or the load was canceled.
      */
-    private URL constructUrl(String orderBy, int pageIndex, String searchTerm) {
-
-        // Construct string URL.
-        Uri.Builder uriBuilder = new Uri.Builder();
-        uriBuilder.scheme("https")
-                .authority("content.guardianapis.com")
-                .appendPath("search")
-                .appendQueryParameter("api-key", THE_GUARDIAN_API_KEY)
-                .appendQueryParameter("format", "json")
-                .appendQueryParameter("order-by", orderBy)
-                .appendQueryParameter("page", Integer.toString(pageIndex))
-                .appendQueryParameter("page-size", "50")
-                .appendQueryParameter("show-tags", "contributor");
-        if (searchTerm != null && !searchTerm.isEmpty()) {
-            uriBuilder.appendQueryParameter("q", searchTerm);
-        }
-        String stringUrl = uriBuilder.build().toString();
-
-        // Construct URL object.
-        URL url = null;
-        try {
-            url = new URL(stringUrl);
-        } catch (MalformedURLException e) {
-            cancelLoad();
-            Log.e(LOG_TAG_NAME, "Error constructing URL object", e);
-        }
-        return url;
+    @Nullable
+    private ArticlePage getArticlePageFromTheGuardianAPI(String orderBy, int pageIndex, int pageSize, String searchTerm) {
+        return ArticlePageRepository.getInstance(getContext())
+                .getPage(orderBy, pageIndex, pageSize, searchTerm, null, getCancellationSignal());
     }
 
     /**
-     * Performs the network request specified by the given {@link URL} object and returns a
-     * {@link String} JSON response returned from the request.
+     * Returns an {@link ArticlePage} object like
+     * {@link ArticleLoader#getArticlePageFromTheGuardianAPI(String, int, int, String)}, but hands
+     * its articles to the main thread in batches of {@link ArticleLoader#PROGRESSIVE_BATCH_SIZE}
+     * while they are parsed from the response. Articles left over after the last full batch are
+     * only delivered with the complete page. The time to the first batch and to the complete page
+     * is recorded in {@link LoadMetrics}.
      *
-     * @param url {@link URL} object specifying how to make the network request.
-     * @return {@link String} JSON response returned from the request.
+     * @param signal {@link CancellationSignal} of the running load.
+     * @return {@link ArticlePage} object holding every article of the page, or null if the page
+     * could not be fetched or the load was canceled.
      */
-    private String getJsonFromUrl(URL url) throws IOException {
-
-        // Initialize network request objects.
-        HttpURLConnection httpURLConnection = null;
-        InputStream inputStream = null;
-        String json = null;
-
-        try {
-            // Setup the network request and execute it.
-            httpURLConnection = (HttpURLConnection) url.openConnection();
-            httpURLConnection.setReadTimeout(10000);
-            httpURLConnection.setConnectTimeout(15000);
-            httpURLConnection.setRequestMethod("GET");
-            httpURLConnection.connect();
-
-            int responseCode = httpURLConnection.getResponseCode();
-            if (responseCode == 200) {
-                /* If the request is successful, get the input stream from the request and convert
-                 * it into a JSON string. */
-                inputStream = httpURLConnection.getInputStream();
-                json = parseJsonFromInputStream(inputStream);
-            } else {
-                cancelLoad();
-                Log.e(LOG_TAG_NAME, "Network request failed with response code " + responseCode);
-            }
-
-        } catch (IOException e) {
-            cancelLoad();
-            Log.e(LOG_TAG_NAME, "Error performing network request", e);
-        } finally {
-            // Cleanup network request objects.
-            if (httpURLConnection != null) {
-                httpURLConnection.disconnect();
-            }
-            if (inputStream != null) {
-                inputStream.close();
+    @Nullable
+    private ArticlePage getArticlePageProgressively(final CancellationSignal signal) {
+        final long startMillis = SystemClock.elapsedRealtime();
+        final long[] firstRowMillis = new long[]{-1};
+        final List<Article> batch = new ArrayList<>();
+        ArticlePage articlePage = ArticlePageRepository.getInstance(getContext()).streamPage(orderBy, pageIndex, pageSize, searchTerm, null, ApiQuotaManager.Priority.FOREGROUND, signal, new ArticleJsonStreamParser.OnArticleParsedListener() {
+            @Override
+            public void onArticleParsed(Article article) {
+                batch.add(article);
+                if (batch.size() < PROGRESSIVE_BATCH_SIZE) {
+                    return;
+                }
+                postArticles(new ArrayList<>(batch), signal);
+                batch.clear();
+                if (firstRowMillis[0] < 0) {
+                    firstRowMillis[0] = SystemClock.elapsedRealtime() - startMillis;
+                }
             }
+        });
+        if (articlePage != null && !signal.isCanceled()) {
+            long fullPageMillis = SystemClock.elapsedRealtime() - startMillis;
+            LoadMetrics.recordProgressiveLoad(firstRowMillis[0] < 0 ? fullPageMillis : firstRowMillis[0], fullPageMillis);
         }
-
-        return json;
+        return articlePage;
     }
 
     /**
-     * Parses each character returned from an {@link InputStream} into a {@link String} JSON
-     * response.
+     * Hands a batch of parsed articles to the {@link OnArticlesParsedListener} on the main thread.
+     * Batches are posted before the result of the load, so they always arrive ahead of it.
      *
-     * @param inputStream {@link InputStream} to be parsed.
-     * @return {@link String} JSON response parsed from an {@link InputStream}.
+     * @param articles {@link List} of parsed {@link Article} objects.
+     * @param signal   {@link CancellationSignal} of the running load. Nothing is handed out once it
+     *                 is canceled.
      */
-    private String parseJsonFromInputStream(InputStream inputStream) throws IOException {
-        StringBuilder jsonStringBuilder = new StringBuilder();
-        InputStreamReader inputStreamReader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
-        BufferedReader bufferedReader = new BufferedReader(inputStreamReader);
-        String bufferedReaderLine = bufferedReader.readLine();
-        while (bufferedReaderLine != null) {
-            jsonStringBuilder.append(bufferedReaderLine);
-            bufferedReaderLine = bufferedReader.readLine();
-        }
-        return jsonStringBuilder.toString();
+    private void postArticles(final List<Article> articles, final CancellationSignal signal) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                OnArticlesParsedListener listener = getOnArticlesParsedListener();
+                if (listener != null && !signal.isCanceled()) {
+                    listener.onArticlesParsed(ArticleLoader.this, articles);
+                }
+            }
+        });
     }
 
     /**
-     * Parses a {@link String} JSON response into a {@link List} of {@link Article} objects.
+     * Returns the {@link OnArticlesParsedListener} of this loader.
      *
-     * @param json {@link String} JSON response from a The Guardian API content search.
-     * @return {@link List} of {@link Article} objects parsed from a JSON response.
+     * @return {@link OnArticlesParsedListener} of this loader, or null if none is set.
      */
-    private List<Article> extractArticlesFromJson(String json) {
-
-        if (json == null) {
-            cancelLoad();
-        }
-
-        List<Article> articles = new ArrayList<>();
-
-        // Get results JSON array from the JSON string.
-        JSONArray resultsJsonArray = null;
-        try {
-            JSONObject rootJsonObject = new JSONObject(json);
-            JSONObject responseJsonObject = rootJsonObject.getJSONObject("response");
-            resultsJsonArray = responseJsonObject.getJSONArray("results");
-        } catch (JSONException e) {
-            cancelLoad();
-            Log.e(LOG_TAG_NAME, "Error parsing the results JSON array", e);
-        }
-
-        if (resultsJsonArray == null) {
-            cancelLoad();
-        }
-
-        // Iterate through the results JSON array.
-        for (int resultsIndex = 0; resultsIndex < resultsJsonArray.length(); resultsIndex++) {
-
-            // Get the current result object.
-            JSONObject resultJSONObject;
-            try {
-                resultJSONObject = resultsJsonArray.getJSONObject(resultsIndex);
-            } catch (JSONException e) {
-                Log.e(LOG_TAG_NAME, "Error parsing the result JSON object with index " + resultsIndex, e);
-                // Skip to the next result if a null current result is parsed.
-                continue;
-            }
-
-            // Get the properties for this result.
-            String webTitle = "";
-            try {
-                webTitle = resultJSONObject.getString("webTitle");
-            } catch (JSONException e) {
-                Log.e(LOG_TAG_NAME, "Error parsing the webTitle JSON property for the result with index " + resultsIndex, e);
-            }
-
-            String[] contributorWebTitles = new String[]{""};
-            try {
-                JSONArray tagsJSONArray = resultJSONObject.getJSONArray("tags");
-                contributorWebTitles = new String[tagsJSONArray.length()];
-                for (int tagsIndex = 0; tagsIndex < tagsJSONArray.length(); tagsIndex++) {
-                    contributorWebTitles[tagsIndex] = tagsJSONArray.getJSONObject(tagsIndex).getString("webTitle");
-                }
-            } catch (JSONException e) {
-                Log.e(LOG_TAG_NAME, "Error parsing the contributor webTitle JSON property for the result with index " + resultsIndex, e);
-            }
-
-            String sectionName = "";
-            try {
-                sectionName = resultJSONObject.getString("sectionName");
-            } catch (JSONException e) {
-                Log.e(LOG_TAG_NAME, "Error parsing the sectionName JSON property for the result with index " + resultsIndex, e);
-            }
-
-            String webPublicationDate = "";
-            try {
-                webPublicationDate = resultJSONObject.getString("webPublicationDate");
-            } catch (JSONException e) {
-                Log.e(LOG_TAG_NAME, "Error parsing the webPublicationDate JSON property for the result with index " + resultsIndex, e);
-            }
-
-            String webUrl = "";
-            try {
-                webUrl = resultJSONObject.getString("webUrl");
-            } catch (JSONException e) {
-                Log.e(LOG_TAG_NAME, "Error parsing the webUrl JSON property for the result with index " + resultsIndex, e);
-            }
+    @Nullable
+    private synchronized OnArticlesParsedListener getOnArticlesParsedListener() {
+        return onArticlesParsedListener;
+    }
 
-            // Add a new Article object for this result.
-            articles.add(new Article(webTitle, contributorWebTitles, sectionName, webPublicationDate, webUrl));
-        }
+    /**
+     * Returns the {@link CancellationSignal} of the load currently running on the worker thread.
+     *
+     * @return {@link CancellationSignal} of the running load, or null if no load is running.
+     */
+    private synchronized CancellationSignal getCancellationSignal() {
+        return cancellationSignal;
+    }
 
-        return articles;
+    /**
+     * {@link OnArticlesParsedListener} is handed the articles of a progressive load in batches
+     * while its page is still downloading.
+     */
+    public interface OnArticlesParsedListener {
+
+        /**
+         * Invoked on the main thread with the next batch of parsed articles.
+         *
+         * @param loader   {@link ArticleLoader} the articles were parsed by.
+         * @param articles {@link List} of parsed {@link Article} objects in result set order.
+         */
+        void onArticlesParsed(ArticleLoader loader, List<Article> articles);
     }
 }
@@ -0,0 +1,92 @@
+package com.davidread.theguardiannewsclient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link ArticlePage} is a model class for a single page of article listings along with the
+ * pagination metadata The Guardian API returns with it.
+ */
+public class ArticlePage {
+
+    /**
+     * {@link List} of {@link Article} objects on this page.
+     */
+    private final List<Article> articles;
+
+    /**
+     * int index of this page. Page indices start at 1.
+     */
+    private final int currentPage;
+
+    /**
+     * int representing how many pages the result set has, or -1 if unknown.
+     */
+    private final int pages;
+
+    /**
+     * int representing how many article listings the result set has, or -1 if unknown.
+     */
+    private final int total;
+
+    /**
+     * Constructs a new {@link ArticlePage} object.
+     *
+     * @param articles    {@link List} of {@link Article} objects on this page.
+     * @param currentPage int index of this page.
+     * @param pages       int representing how many pages the result set has, or -1 if unknown.
+     * @param total       int representing how many article listings the result set has, or -1 if
+     *                    unknown.
+     */
+    public ArticlePage(List<Article> articles, int currentPage, int pages, int total) {
+        this.articles = articles;
+        this.currentPage = currentPage;
+        this.pages = pages;
+        this.total = total;
+    }
+
+    /**
+     * Returns an {@link ArticlePage} object without articles or metadata, used as the result of
+     * canceled loads.
+     *
+     * @return An empty {@link ArticlePage} object.
+     */
+    public static ArticlePage empty() {
+        return new ArticlePage(new ArrayList<Article>(), 0, -1, -1);
+    }
+
+    /**
+     * Returns the {@link List} of {@link Article} objects on this page.
+     */
+    public List<Article> getArticles() {
+        return articles;
+    }
+
+    /**
+     * Returns the index of this page.
+     */
+    public int getCurrentPage() {
+        return currentPage;
+    }
+
+    /**
+     * Returns how many pages the result set has, or -1 if unknown.
+     */
+    public int getPages() {
+        return pages;
+    }
+
+    /**
+     * Returns how many article listings the result set has, or -1 if unknown.
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Returns whether no page follows this one, so that no further page needs to be requested.
+     */
+    public boolean isLastPage() {
+        return articles.isEmpty() || (pages >= 0 && currentPage >= pages);
+    }
+}
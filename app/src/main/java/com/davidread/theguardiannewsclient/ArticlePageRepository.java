@@ -0,0 +1,293 @@
+package com.davidread.theguardiannewsclient;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.core.os.CancellationSignal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link ArticlePageRepository} provides pages of article listings from The Guardian API. Every
+ * page fetched from the network is stored GZIP compressed in a {@link DiskLruCache}, so feeds that
+ * were browsed before can still be read when the device is offline or a request fails.
+ */
+public class ArticlePageRepository {
+
+    /**
+     * {@link String} log tag name for {@link ArticlePageRepository}.
+     */
+    public static final String LOG_TAG_NAME = ArticlePageRepository.class.getSimpleName();
+
+    /**
+     * {@link String} name of the directory inside the cache directory where pages are stored.
+     */
+    private static final String CACHE_DIRECTORY_NAME = "article_pages";
+
+    /**
+     * long representing the maximum number of compressed bytes the page cache may occupy.
+     */
+    private static final long MAX_CACHE_SIZE_BYTES = 5 * 1024 * 1024;
+
+    /**
+     * {@link ArticlePageRepository} instance shared across the app.
+     */
+    private static ArticlePageRepository instance;
+
+    /**
+     * {@link File} representing the directory where pages are stored.
+     */
+    private final File cacheDirectory;
+
+    /**
+     * {@link Context} requests through {@link GuardianApiClient} are made with.
+     */
+    private final Context context;
+
+    /**
+     * {@link ArticleArchive} every {@link Article} fetched from the network is archived to.
+     */
+    private final ArticleArchive articleArchive;
+
+    /**
+     * {@link DiskLruCache} where compressed JSON responses are stored. It is created lazily on a
+     * worker thread since it indexes the cache directory when constructed.
+     */
+    private DiskLruCache diskLruCache;
+
+    /**
+     * Constructs a new {@link ArticlePageRepository} object.
+     *
+     * @param context {@link Context} for accessing the cache and files directories and making
+     *                requests.
+     */
+    private ArticlePageRepository(Context context) {
+        this.context = context;
+        this.cacheDirectory = new File(context.getCacheDir(), CACHE_DIRECTORY_NAME);
+        this.articleArchive = ArticleArchive.getInstance(context);
+    }
+
+    /**
+     * Returns the {@link ArticlePageRepository} instance shared across the app.
+     *
+     * @param context {@link Context} for accessing the cache directory.
+     * @return {@link ArticlePageRepository} instance shared across the app.
+     */
+    public static synchronized ArticlePageRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new ArticlePageRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Returns a page of article listings. The page is fetched from the network unless the device
+     * is offline, and the cached copy is returned when the device is offline or the request fails.
+     * Must not be called on the main thread.
+     *
+     * @param orderBy            {@link String} for specifying what order results will be returned
+     *                           in.
+     * @param pageIndex          int index representing which page result set will be returned.
+     * @param pageSize           int representing how many listings each page result set holds.
+     * @param searchTerm         {@link String} for requesting listings containing this free text.
+     * @param section            {@link String} id of the section listings must be from, or null
+     *                           for every section.
+     * @param cancellationSignal {@link CancellationSignal} that aborts the network request when
+     *                           canceled. May be null.
+     * @return {@link ArticlePage} object, or null if the page is neither available from the
+     * network nor from the cache, or the request was canceled.
+     */
+    @Nullable
+    public ArticlePage getPage(String orderBy, int pageIndex, int pageSize, String searchTerm, String section, @Nullable CancellationSignal cancellationSignal) {
+        return streamPage(orderBy, pageIndex, pageSize, searchTerm, section, ApiQuotaManager.Priority.FOREGROUND, cancellationSignal, null);
+    }
+
+    /**
+     * Returns a page of article listings. The page is fetched from the network unless the device
+     * is offline, and the cached copy is returned when the device is offline or the request fails.
+     * The response is parsed while it is still being downloaded, and every {@link Article} is
+     * handed to the given listener as soon as it is parsed.
+     * The downloaded bytes are kept aside and cached once the page is complete. If the request
+     * fails halfway, the cached copy resumes where the network left off, so no {@link Article} is
+     * handed to the listener twice. Must not be called on the main thread.
+     *
+     * @param orderBy                 {@link String} for specifying what order results will be
+     *                                returned in.
+     * @param pageIndex               int index representing which page result set will be
+     *                                returned.
+     * @param pageSize                int representing how many listings each page result set
+     *                                holds.
+     * @param searchTerm              {@link String} for requesting listings containing this free
+     *                                text.
+     * @param section                 {@link String} id of the section listings must be from, or
+     *                                null for every section.
+     * @param priority                {@link ApiQuotaManager.Priority} of the network request.
+     * @param cancellationSignal      {@link CancellationSignal} that aborts the network request
+     *                                when canceled. May be null.
+     * @param onArticleParsedListener {@link ArticleJsonStreamParser.OnArticleParsedListener}
+     *                                invoked on the calling thread for every parsed
+     *                                {@link Article}. May be null.
+     * @return {@link ArticlePage} object holding every {@link Article} of the page, or null if the
+     * page is neither available from the network nor from the cache, or the request was canceled.
+     */
+    @Nullable
+    public ArticlePage streamPage(String orderBy, int pageIndex, int pageSize, String searchTerm, String section, ApiQuotaManager.Priority priority, @Nullable final CancellationSignal cancellationSignal, @Nullable final ArticleJsonStreamParser.OnArticleParsedListener onArticleParsedListener) {
+        String key = getCacheKey(orderBy, pageIndex, pageSize, searchTerm, section);
+
+        // Count what was handed out so that a fallback to the cache does not repeat it.
+        final int[] parsedCount = new int[1];
+        final ArticleJsonStreamParser.OnArticleParsedListener countingListener = new ArticleJsonStreamParser.OnArticleParsedListener() {
+            @Override
+            public void onArticleParsed(Article article) {
+                parsedCount[0]++;
+                if (onArticleParsedListener != null) {
+                    onArticleParsedListener.onArticleParsed(article);
+                }
+            }
+        };
+
+        // Perform network request unless offline, keeping the raw bytes aside for the cache.
+        ArticlePage articlePage = null;
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        if (!NetworkMonitor.getCurrentLoadingProfile().isOffline()) {
+            // Trace the request up to its headers as the fetch, and reading the body as the parse.
+            final boolean[] fetching = new boolean[]{true};
+            StartupTracer.beginSection(StartupTracer.SECTION_PAGE_FETCH);
+            try {
+                articlePage = GuardianApiClient.readResponse(context, GuardianApiClient.buildSearchUrl(orderBy, pageIndex, pageSize, searchTerm, section), priority, cancellationSignal, new GuardianApiClient.ResponseReader<ArticlePage>() {
+                    @Override
+                    public ArticlePage read(InputStream inputStream) throws IOException {
+                        fetching[0] = false;
+                        StartupTracer.endSection(StartupTracer.SECTION_PAGE_FETCH);
+                        StartupTracer.beginSection(StartupTracer.SECTION_PAGE_PARSE);
+                        try {
+                            Reader reader = new InputStreamReader(new TeeInputStream(inputStream, byteArrayOutputStream), StandardCharsets.UTF_8);
+                            return ArticleJsonStreamParser.parse(reader, cancellationSignal, countingListener);
+                        } finally {
+                            StartupTracer.endSection(StartupTracer.SECTION_PAGE_PARSE);
+                        }
+                    }
+                });
+            } catch (IOException e) {
+                Log.e(LOG_TAG_NAME, "Error closing input stream", e);
+            } finally {
+                if (fetching[0]) {
+                    StartupTracer.endSection(StartupTracer.SECTION_PAGE_FETCH);
+                }
+            }
+        }
+        if (cancellationSignal != null && cancellationSignal.isCanceled()) {
+            return null;
+        }
+
+        // Cache and archive a successful response, or fall back to the cached response.
+        if (articlePage != null) {
+            getDiskLruCache().putCompressedString(key, new String(byteArrayOutputStream.toByteArray(), StandardCharsets.UTF_8));
+            articleArchive.append(articlePage.getArticles());
+            return articlePage;
+        }
+        String cachedJson = getDiskLruCache().getCompressedString(key);
+        if (cachedJson == null) {
+            return null;
+        }
+        final int skipCount = parsedCount[0];
+        final int[] cachedCount = new int[1];
+        StartupTracer.beginSection(StartupTracer.SECTION_PAGE_PARSE);
+        try {
+            return ArticleJsonStreamParser.parse(new StringReader(cachedJson), cancellationSignal, new ArticleJsonStreamParser.OnArticleParsedListener() {
+                @Override
+                public void onArticleParsed(Article article) {
+                    if (cachedCount[0]++ >= skipCount && onArticleParsedListener != null) {
+                        onArticleParsedListener.onArticleParsed(article);
+                    }
+                }
+            });
+        } catch (IOException e) {
+            Log.e(LOG_TAG_NAME, "Error parsing the cached page", e);
+            return null;
+        } finally {
+            StartupTracer.endSection(StartupTracer.SECTION_PAGE_PARSE);
+        }
+    }
+
+    /**
+     * Returns the {@link DiskLruCache} where compressed JSON responses are stored, creating it
+     * first if needed.
+     *
+     * @return {@link DiskLruCache} where compressed JSON responses are stored.
+     */
+    private synchronized DiskLruCache getDiskLruCache() {
+        if (diskLruCache == null) {
+            diskLruCache = new DiskLruCache(cacheDirectory, MAX_CACHE_SIZE_BYTES);
+        }
+        return diskLruCache;
+    }
+
+    /**
+     * Returns the key a page is cached under. It is built from the request parameters rather than
+     * the request URL, so it does not depend on the API key.
+     *
+     * @return {@link String} key the page is cached under.
+     */
+    private static String getCacheKey(String orderBy, int pageIndex, int pageSize, String searchTerm, String section) {
+        return orderBy + "|" + pageIndex + "|" + pageSize + "|" + (searchTerm == null ? "" : searchTerm) + "|" + (section == null ? "" : section);
+    }
+
+    /**
+     * {@link TeeInputStream} copies every byte read through it into a
+     * {@link ByteArrayOutputStream}, so that a response parsed while it is downloaded can still be
+     * cached afterwards.
+     */
+    private static class TeeInputStream extends FilterInputStream {
+
+        /**
+         * {@link ByteArrayOutputStream} the bytes read are copied into.
+         */
+        private final ByteArrayOutputStream byteArrayOutputStream;
+
+        /**
+         * Constructs a new {@link TeeInputStream} object.
+         *
+         * @param inputStream           {@link InputStream} to read from.
+         * @param byteArrayOutputStream {@link ByteArrayOutputStream} the bytes read are copied
+         *                              into.
+         */
+        TeeInputStream(InputStream inputStream, ByteArrayOutputStream byteArrayOutputStream) {
+            super(inputStream);
+            this.byteArrayOutputStream = byteArrayOutputStream;
+        }
+
+        /**
+         * Reads a single byte and copies it.
+         */
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read >= 0) {
+                byteArrayOutputStream.write(read);
+            }
+            return read;
+        }
+
+        /**
+         * Reads into a part of a byte array and copies the bytes read.
+         */
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                byteArrayOutputStream.write(buffer, offset, read);
+            }
+            return read;
+        }
+    }
+}
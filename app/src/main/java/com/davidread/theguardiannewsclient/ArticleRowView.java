@@ -0,0 +1,286 @@
+package com.davidread.theguardiannewsclient;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.os.Build;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+/**
+ * {@link ArticleRowView} is a flattened alternative to the list_item_article layout. Instead of
+ * nesting four {@link android.widget.TextView} objects in two {@link android.widget.LinearLayout}
+ * objects, it draws the title, authors, section name, and date published itself from
+ * {@link StaticLayout} objects built once per text and width, so a row is measured in a single
+ * pass. Its only child is the thumbnail {@link ImageView}, so that the {@link ImageLoader} can load
+ * into it as usual. The texts are exposed to accessibility services as the content description.
+ */
+public class ArticleRowView extends ViewGroup {
+
+    /**
+     * {@link TextPaint} objects for drawing the title and the secondary texts.
+     */
+    private final TextPaint titleTextPaint;
+    private final TextPaint secondaryTextPaint;
+
+    /**
+     * int colors of the title and the secondary texts at full opacity.
+     */
+    private final int titleTextColor;
+    private final int secondaryTextColor;
+
+    /**
+     * int dimensions in pixels of the padding around and between the content, and of the
+     * thumbnail.
+     */
+    private final int padding;
+    private final int thumbnailWidth;
+    private final int thumbnailHeight;
+
+    /**
+     * {@link ImageView} holding the thumbnail of the article.
+     */
+    private final ImageView thumbnailImageView;
+
+    /**
+     * {@link CharSequence} texts of the article.
+     */
+    private CharSequence title;
+    private CharSequence authors;
+    private CharSequence sectionName;
+    private CharSequence datePublished;
+
+    /**
+     * {@link StaticLayout} objects the texts are drawn from. They are rebuilt only when a text or
+     * the available width changes.
+     */
+    private StaticLayout titleLayout;
+    private StaticLayout authorsLayout;
+    private StaticLayout sectionNameLayout;
+    private StaticLayout datePublishedLayout;
+
+    /**
+     * int width in pixels the {@link StaticLayout} objects were built for, or -1 if they need to
+     * be rebuilt.
+     */
+    private int textLayoutWidth;
+
+    /**
+     * Constructs a new {@link ArticleRowView} object.
+     *
+     * @param context {@link Context} whose theme provides the text appearances.
+     */
+    public ArticleRowView(Context context) {
+        this(context, null);
+    }
+
+    /**
+     * Constructs a new {@link ArticleRowView} object when inflated from XML.
+     *
+     * @param context {@link Context} whose theme provides the text appearances.
+     * @param attrs   {@link AttributeSet} of the XML tag.
+     */
+    public ArticleRowView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        setWillNotDraw(false);
+
+        padding = getResources().getDimensionPixelSize(R.dimen.list_item_padding);
+        thumbnailWidth = getResources().getDimensionPixelSize(R.dimen.list_item_thumbnail_width);
+        thumbnailHeight = getResources().getDimensionPixelSize(R.dimen.list_item_thumbnail_height);
+
+        // Match PrimaryTextViewStyle and SecondaryTextViewStyle.
+        titleTextColor = resolveColor(context, android.R.attr.textColorPrimary);
+        titleTextPaint = createTextPaint(context, android.R.attr.textAppearanceListItem, titleTextColor);
+        secondaryTextColor = resolveColor(context, android.R.attr.textColorSecondary);
+        secondaryTextPaint = createTextPaint(context, android.R.attr.textAppearanceSmall, secondaryTextColor);
+
+        thumbnailImageView = new ImageView(context);
+        thumbnailImageView.setScaleType(ImageView.ScaleType.CENTER_CROP);
+        thumbnailImageView.setImportantForAccessibility(IMPORTANT_FOR_ACCESSIBILITY_NO);
+        thumbnailImageView.setVisibility(GONE);
+        addView(thumbnailImageView);
+
+        title = "";
+        authors = "";
+        sectionName = "";
+        datePublished = "";
+        textLayoutWidth = -1;
+    }
+
+    /**
+     * Sets the texts of the article shown by this view.
+     *
+     * @param title         {@link CharSequence} title of the article.
+     * @param authors       {@link CharSequence} formatted authors of the article.
+     * @param sectionName   {@link CharSequence} name of the section the article is from.
+     * @param datePublished {@link CharSequence} formatted date the article was published.
+     */
+    public void setTexts(CharSequence title, CharSequence authors, CharSequence sectionName, CharSequence datePublished) {
+        this.title = title;
+        this.authors = authors;
+        this.sectionName = sectionName;
+        this.datePublished = datePublished;
+        textLayoutWidth = -1;
+        setContentDescription(TextUtils.concat(title, ", ", authors, ", ", sectionName, ", ", datePublished));
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * Sets the opacity of the texts and the thumbnail, e.g. to dim a read article. Unlike
+     * {@link ArticleRowView#setAlpha(float)}, it does not interfere with item animations.
+     *
+     * @param alpha float opacity between 0 and 1.
+     */
+    public void setContentAlpha(float alpha) {
+        titleTextPaint.setColor(applyAlpha(titleTextColor, alpha));
+        secondaryTextPaint.setColor(applyAlpha(secondaryTextColor, alpha));
+        thumbnailImageView.setAlpha(alpha);
+        invalidate();
+    }
+
+    /**
+     * Returns the {@link ImageView} holding the thumbnail of the article.
+     */
+    public ImageView getThumbnailImageView() {
+        return thumbnailImageView;
+    }
+
+    /**
+     * Measures this view in a single pass: the width is taken from the parent, and the height is
+     * the taller of the text column and the thumbnail.
+     */
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.UNSPECIFIED ? getSuggestedMinimumWidth() : MeasureSpec.getSize(widthMeasureSpec);
+        boolean thumbnailVisible = thumbnailImageView.getVisibility() != GONE;
+        int textWidth = Math.max(0, width - 2 * padding - (thumbnailVisible ? thumbnailWidth + padding : 0));
+        ensureTextLayouts(textWidth);
+
+        int contentHeight = titleLayout.getHeight() + authorsLayout.getHeight() + sectionNameLayout.getHeight() + datePublishedLayout.getHeight();
+        if (thumbnailVisible) {
+            thumbnailImageView.measure(MeasureSpec.makeMeasureSpec(thumbnailWidth, MeasureSpec.EXACTLY), MeasureSpec.makeMeasureSpec(thumbnailHeight, MeasureSpec.EXACTLY));
+            contentHeight = Math.max(contentHeight, thumbnailHeight);
+        }
+        setMeasuredDimension(width, resolveSize(contentHeight + 2 * padding, heightMeasureSpec));
+    }
+
+    /**
+     * Positions the thumbnail at the end of the row.
+     */
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        if (thumbnailImageView.getVisibility() == GONE) {
+            return;
+        }
+        int thumbnailLeft = isLayoutRtl() ? padding : right - left - padding - thumbnailWidth;
+        thumbnailImageView.layout(thumbnailLeft, padding, thumbnailLeft + thumbnailWidth, padding + thumbnailHeight);
+    }
+
+    /**
+     * Draws the texts stacked at the start of the row.
+     */
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (textLayoutWidth < 0) {
+            return;
+        }
+        boolean thumbnailVisible = thumbnailImageView.getVisibility() != GONE;
+        int textLeft = isLayoutRtl() && thumbnailVisible ? 2 * padding + thumbnailWidth : padding;
+        int saveCount = canvas.save();
+        canvas.translate(textLeft, padding);
+        titleLayout.draw(canvas);
+        canvas.translate(0, titleLayout.getHeight());
+        authorsLayout.draw(canvas);
+        canvas.translate(0, authorsLayout.getHeight());
+        sectionNameLayout.draw(canvas);
+        canvas.translate(0, sectionNameLayout.getHeight());
+        datePublishedLayout.draw(canvas);
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * Rebuilds the {@link StaticLayout} objects if a text or the given width changed. The title
+     * wraps, while the secondary texts are single lines ellipsized at the end.
+     *
+     * @param textWidth int width in pixels available to the texts.
+     */
+    private void ensureTextLayouts(int textWidth) {
+        if (textLayoutWidth == textWidth) {
+            return;
+        }
+        titleLayout = createTextLayout(title, titleTextPaint, textWidth);
+        authorsLayout = createTextLayout(TextUtils.ellipsize(authors, secondaryTextPaint, textWidth, TextUtils.TruncateAt.END), secondaryTextPaint, textWidth);
+        sectionNameLayout = createTextLayout(TextUtils.ellipsize(sectionName, secondaryTextPaint, textWidth, TextUtils.TruncateAt.END), secondaryTextPaint, textWidth);
+        datePublishedLayout = createTextLayout(TextUtils.ellipsize(datePublished, secondaryTextPaint, textWidth, TextUtils.TruncateAt.END), secondaryTextPaint, textWidth);
+        textLayoutWidth = textWidth;
+    }
+
+    /**
+     * Returns whether this view is laid out from right to left.
+     */
+    private boolean isLayoutRtl() {
+        return getLayoutDirection() == LAYOUT_DIRECTION_RTL;
+    }
+
+    /**
+     * Returns a new {@link StaticLayout} for the given text, with font padding included like a
+     * {@link android.widget.TextView} does by default.
+     */
+    @SuppressWarnings("deprecation")
+    private static StaticLayout createTextLayout(CharSequence text, TextPaint textPaint, int width) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            return StaticLayout.Builder.obtain(text, 0, text.length(), textPaint, width)
+                    .setIncludePad(true)
+                    .build();
+        }
+        return new StaticLayout(text, textPaint, width, Layout.Alignment.ALIGN_NORMAL, 1f, 0f, true);
+    }
+
+    /**
+     * Returns a new {@link TextPaint} with the text size of the text appearance referenced by the
+     * given theme attribute.
+     */
+    private static TextPaint createTextPaint(Context context, int textAppearanceAttr, int textColor) {
+        TextPaint textPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        textPaint.density = context.getResources().getDisplayMetrics().density;
+        textPaint.setColor(textColor);
+
+        TypedValue typedValue = new TypedValue();
+        float defaultTextSize = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 14, context.getResources().getDisplayMetrics());
+        if (context.getTheme().resolveAttribute(textAppearanceAttr, typedValue, true)) {
+            TypedArray textAppearance = context.obtainStyledAttributes(typedValue.resourceId, new int[]{android.R.attr.textSize});
+            textPaint.setTextSize(textAppearance.getDimension(0, defaultTextSize));
+            textAppearance.recycle();
+        } else {
+            textPaint.setTextSize(defaultTextSize);
+        }
+        return textPaint;
+    }
+
+    /**
+     * Returns the default color of the color state list referenced by the given theme attribute.
+     */
+    private static int resolveColor(Context context, int colorAttr) {
+        TypedArray typedArray = context.obtainStyledAttributes(new int[]{colorAttr});
+        int color = typedArray.getColor(0, Color.BLACK);
+        typedArray.recycle();
+        return color;
+    }
+
+    /**
+     * Returns the given color with its alpha channel scaled by the given opacity.
+     */
+    private static int applyAlpha(int color, float alpha) {
+        return Color.argb(Math.round(Color.alpha(color) * alpha), Color.red(color), Color.green(color), Color.blue(color));
+    }
+}
@@ -0,0 +1,263 @@
+package com.davidread.theguardiannewsclient;
+
+import android.content.Context;
+
+import androidx.core.os.CancellationSignal;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * {@link ArticleStream} is a pull based stream of article listings from The Guardian API. A
+ * {@link Subscriber} requests how many more {@link Article} objects it is ready for, and the stream
+ * hands them over as soon as they are parsed from the response. Pages are fetched on demand only:
+ * the next page is not requested before every {@link Article} of the previous one was asked for,
+ * so a slow consumer never causes more than one page to be buffered. Fetching goes through the
+ * {@link ArticlePageRepository}, so a stream shares its cache and quota with the rest of the app.
+ */
+public class ArticleStream {
+
+    /**
+     * {@link ExecutorService} shared by every {@link ArticleStream} for fetching pages and
+     * delivering their {@link Article} objects.
+     */
+    private static final ExecutorService STREAM_EXECUTOR_SERVICE = Executors.newCachedThreadPool();
+
+    /**
+     * {@link String} for specifying what order article listings will be returned in.
+     */
+    private final String orderBy;
+
+    /**
+     * {@link String} for requesting article listings containing certain free text.
+     */
+    private final String searchTerm;
+
+    /**
+     * {@link String} id of the section article listings must be from, or null for every section.
+     */
+    private final String section;
+
+    /**
+     * int representing how many article listings are requested per page.
+     */
+    private final int pageSize;
+
+    /**
+     * {@link ApiQuotaManager.Priority} the pages of this stream are requested with.
+     */
+    private final ApiQuotaManager.Priority priority;
+
+    /**
+     * {@link ArticlePageRepository} the pages are fetched through.
+     */
+    private final ArticlePageRepository articlePageRepository;
+
+    /**
+     * {@link Subscriber} the {@link Article} objects of this stream are delivered to.
+     */
+    private final Subscriber subscriber;
+
+    /**
+     * {@link CancellationSignal} that aborts the page request in flight when the stream is
+     * canceled.
+     */
+    private final CancellationSignal cancellationSignal;
+
+    /**
+     * {@link ArrayDeque} of parsed {@link Article} objects that were not requested yet. It never
+     * holds more than a single page.
+     */
+    private final ArrayDeque<Article> buffer;
+
+    /**
+     * long representing how many {@link Article} objects were requested but not delivered yet.
+     */
+    private long requestedCount;
+
+    /**
+     * int index of the next page to fetch. Page indices start at 1.
+     */
+    private int nextPageIndex;
+
+    /**
+     * boolean indicating whether the last page of the result set was fetched.
+     */
+    private boolean lastPageFetched;
+
+    /**
+     * boolean indicating whether a task is fetching or delivering for this stream.
+     */
+    private boolean draining;
+
+    /**
+     * boolean indicating whether the stream completed, failed, or was canceled.
+     */
+    private boolean terminated;
+
+    /**
+     * Constructs a new {@link ArticleStream} object. Nothing is fetched before
+     * {@link ArticleStream#request(int)} is called.
+     *
+     * @param context    {@link Context} for accessing the {@link ArticlePageRepository}.
+     * @param orderBy    {@link String} for specifying what order article listings will be returned
+     *                   in.
+     * @param searchTerm {@link String} for requesting article listings containing certain free
+     *                   text.
+     * @param section    {@link String} id of the section article listings must be from, or null
+     *                   for every section.
+     * @param pageSize   int representing how many article listings are requested per page.
+     * @param priority   {@link ApiQuotaManager.Priority} the pages are requested with.
+     * @param subscriber {@link Subscriber} the {@link Article} objects are delivered to.
+     */
+    public ArticleStream(Context context, String orderBy, String searchTerm, String section, int pageSize, ApiQuotaManager.Priority priority, Subscriber subscriber) {
+        this.orderBy = orderBy;
+        this.searchTerm = searchTerm;
+        this.section = section;
+        this.pageSize = pageSize;
+        this.priority = priority;
+        this.articlePageRepository = ArticlePageRepository.getInstance(context);
+        this.subscriber = subscriber;
+        this.cancellationSignal = new CancellationSignal();
+        this.buffer = new ArrayDeque<>();
+        this.nextPageIndex = 1;
+    }
+
+    /**
+     * Signals that the {@link Subscriber} is ready for the given number of further {@link Article}
+     * objects. Demand adds up across calls. Buffered {@link Article} objects are delivered first,
+     * and the next page is only fetched once the buffer runs dry.
+     *
+     * @param count int number of further {@link Article} objects to deliver. Must be positive.
+     */
+    public void request(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Requested count must be positive but was " + count);
+        }
+        synchronized (this) {
+            requestedCount = requestedCount + count < 0 ? Long.MAX_VALUE : requestedCount + count;
+            if (draining || terminated) {
+                return;
+            }
+            draining = true;
+        }
+        STREAM_EXECUTOR_SERVICE.execute(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        });
+    }
+
+    /**
+     * Cancels the stream. The page request in flight is aborted and nothing is delivered to the
+     * {@link Subscriber} afterwards.
+     */
+    public void cancel() {
+        synchronized (this) {
+            terminated = true;
+            buffer.clear();
+        }
+        cancellationSignal.cancel();
+    }
+
+    /**
+     * Delivers buffered {@link Article} objects and fetches further pages until the demand is met,
+     * the result set is exhausted, or the stream is canceled. Only one drain runs per stream at a
+     * time, so the {@link Subscriber} is never called concurrently.
+     */
+    private void drain() {
+        while (true) {
+            Article article;
+            boolean completed = false;
+            int pageIndex;
+            synchronized (this) {
+                if (terminated || requestedCount == 0) {
+                    draining = false;
+                    return;
+                }
+                article = buffer.poll();
+                if (article != null) {
+                    requestedCount--;
+                } else if (lastPageFetched) {
+                    terminated = true;
+                    completed = true;
+                }
+                pageIndex = nextPageIndex;
+            }
+
+            if (article != null) {
+                subscriber.onNext(article);
+                continue;
+            }
+            if (completed) {
+                subscriber.onComplete();
+                return;
+            }
+
+            // Fetch the next page, delivering its articles while they are parsed as long as there is demand.
+            ArticlePage articlePage = articlePageRepository.streamPage(orderBy, pageIndex, pageSize, searchTerm, section, priority, cancellationSignal, new ArticleJsonStreamParser.OnArticleParsedListener() {
+                @Override
+                public void onArticleParsed(Article article) {
+                    boolean deliver;
+                    synchronized (ArticleStream.this) {
+                        deliver = !terminated && requestedCount > 0 && buffer.isEmpty();
+                        if (deliver) {
+                            requestedCount--;
+                        } else if (!terminated) {
+                            buffer.add(article);
+                        }
+                    }
+                    if (deliver) {
+                        subscriber.onNext(article);
+                    }
+                }
+            });
+
+            boolean failed = false;
+            synchronized (this) {
+                if (terminated) {
+                    draining = false;
+                    return;
+                }
+                if (articlePage == null) {
+                    terminated = true;
+                    failed = true;
+                } else {
+                    lastPageFetched = articlePage.isLastPage();
+                    nextPageIndex++;
+                }
+            }
+            if (failed) {
+                subscriber.onError();
+                return;
+            }
+        }
+    }
+
+    /**
+     * {@link Subscriber} receives the {@link Article} objects of an {@link ArticleStream}. Its
+     * methods are invoked on a worker thread, one at a time and in result set order.
+     */
+    public interface Subscriber {
+
+        /**
+         * Invoked for every {@link Article} that was requested, as soon as it is parsed.
+         *
+         * @param article {@link Article} object of the stream.
+         */
+        void onNext(Article article);
+
+        /**
+         * Invoked once every {@link Article} of the result set was delivered.
+         */
+        void onComplete();
+
+        /**
+         * Invoked once if a page could neither be fetched from the network nor from the cache.
+         * Nothing is delivered afterwards.
+         */
+        void onError();
+    }
+}
@@ -0,0 +1,335 @@
+package com.davidread.theguardiannewsclient;
+
+import android.content.ComponentCallbacks2;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link CacheGovernor} keeps every in-memory cache of the app within a shared heap budget. Caches
+ * register themselves with a priority and report their estimated size. When their total exceeds
+ * the budget, or when the OS signals memory pressure through
+ * {@link ComponentCallbacks2#onTrimMemory(int)}, caches are trimmed in priority order, so that
+ * memory which is cheapest to rebuild is given up first. All trimming happens on the main thread.
+ */
+public class CacheGovernor {
+
+    /**
+     * {@link String} log tag name for {@link CacheGovernor}.
+     */
+    public static final String LOG_TAG_NAME = CacheGovernor.class.getSimpleName();
+
+    /**
+     * int priorities of a {@link ManagedCache}. Caches with a lower priority are trimmed first.
+     * {@link CacheGovernor#PRIORITY_LOW} is for pools that only save allocations,
+     * {@link CacheGovernor#PRIORITY_NORMAL} for content that can be reloaded from disk, and
+     * {@link CacheGovernor#PRIORITY_HIGH} for content that is on screen or must be refetched.
+     */
+    public static final int PRIORITY_LOW = 0;
+    public static final int PRIORITY_NORMAL = 1;
+    public static final int PRIORITY_HIGH = 2;
+
+    /**
+     * int representing which fraction of the maximum heap size all registered caches may occupy
+     * together.
+     */
+    private static final int HEAP_BUDGET_FRACTION = 4;
+
+    /**
+     * {@link CacheGovernor} instance shared across the app.
+     */
+    private static final CacheGovernor instance = new CacheGovernor();
+
+    /**
+     * long representing how many bytes all registered caches may occupy together.
+     */
+    private final long heapBudgetBytes;
+
+    /**
+     * {@link List} of registered {@link Registration} objects, sorted by ascending priority.
+     */
+    private final List<Registration> registrations;
+
+    /**
+     * {@link Handler} for checking the heap budget on the main thread.
+     */
+    private final Handler mainHandler;
+
+    /**
+     * {@link Runnable} that checks the heap budget.
+     */
+    private final Runnable enforceHeapBudgetRunnable = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (CacheGovernor.this) {
+                budgetCheckPending = false;
+            }
+            enforceHeapBudget();
+        }
+    };
+
+    /**
+     * boolean indicating whether a heap budget check is already posted.
+     */
+    private boolean budgetCheckPending;
+
+    /**
+     * {@link AtomicLong} counters reported by {@link CacheGovernor#getStatsSummary()}.
+     */
+    private final AtomicLong trimEventCount = new AtomicLong();
+    private final AtomicLong trimmedBytes = new AtomicLong();
+
+    /**
+     * Constructs a new {@link CacheGovernor} object.
+     */
+    private CacheGovernor() {
+        this.heapBudgetBytes = Runtime.getRuntime().maxMemory() / HEAP_BUDGET_FRACTION;
+        this.registrations = new ArrayList<>();
+        this.mainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Returns the {@link CacheGovernor} instance shared across the app.
+     *
+     * @return {@link CacheGovernor} instance shared across the app.
+     */
+    public static CacheGovernor getInstance() {
+        return instance;
+    }
+
+    /**
+     * Registers a {@link ManagedCache} so that it is trimmed under memory pressure.
+     *
+     * @param managedCache {@link ManagedCache} to register.
+     * @param priority     int priority of the cache, one of {@link CacheGovernor#PRIORITY_LOW},
+     *                     {@link CacheGovernor#PRIORITY_NORMAL}, and
+     *                     {@link CacheGovernor#PRIORITY_HIGH}.
+     */
+    public synchronized void register(ManagedCache managedCache, int priority) {
+        registrations.add(new Registration(managedCache, priority));
+        Collections.sort(registrations, new Comparator<Registration>() {
+            @Override
+            public int compare(Registration registration1, Registration registration2) {
+                return Integer.compare(registration1.priority, registration2.priority);
+            }
+        });
+    }
+
+    /**
+     * Unregisters a {@link ManagedCache}, e.g. when its owner is destroyed.
+     *
+     * @param managedCache {@link ManagedCache} to unregister.
+     */
+    public synchronized void unregister(ManagedCache managedCache) {
+        for (int registrationIndex = registrations.size() - 1; registrationIndex >= 0; registrationIndex--) {
+            if (registrations.get(registrationIndex).managedCache == managedCache) {
+                registrations.remove(registrationIndex);
+            }
+        }
+    }
+
+    /**
+     * Asks for the heap budget to be checked after a cache grew. May be called on any thread;
+     * checks requested in quick succession are coalesced into a single one on the main thread.
+     */
+    public void requestBudgetCheck() {
+        synchronized (this) {
+            if (budgetCheckPending) {
+                return;
+            }
+            budgetCheckPending = true;
+        }
+        mainHandler.post(enforceHeapBudgetRunnable);
+    }
+
+    /**
+     * Trims caches in priority order until all registered caches together fit the heap budget.
+     * Must be called on the main thread.
+     */
+    public void enforceHeapBudget() {
+        List<Registration> snapshot = getRegistrations();
+        long excessBytes = getTotalSizeBytes(snapshot) - heapBudgetBytes;
+        for (Registration registration : snapshot) {
+            if (excessBytes <= 0) {
+                return;
+            }
+            long sizeBytes = registration.managedCache.getSizeBytes();
+            excessBytes -= trim(registration, Math.max(0, sizeBytes - excessBytes), "heap budget");
+        }
+    }
+
+    /**
+     * Trims caches according to a trim memory level passed to
+     * {@link ComponentCallbacks2#onTrimMemory(int)}. The more severe the level, the more priorities
+     * are affected: pools go first, content that can be reloaded from disk follows once the app is
+     * in the background or memory runs low, and content on screen goes last. Must be called on the
+     * main thread.
+     *
+     * @param level int trim memory level.
+     */
+    public void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_COMPLETE || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            trimPriorities(PRIORITY_HIGH, PRIORITY_HIGH, "trim level " + level);
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            trimPriorities(PRIORITY_NORMAL, PRIORITY_HIGH, "trim level " + level);
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            trimPriorities(PRIORITY_LOW, PRIORITY_NORMAL, "trim level " + level);
+        } else {
+            trimPriorities(PRIORITY_LOW, PRIORITY_LOW, "trim level " + level);
+        }
+    }
+
+    /**
+     * Empties every registered cache. Must be called on the main thread.
+     */
+    public void onLowMemory() {
+        trimPriorities(PRIORITY_HIGH, PRIORITY_HIGH, "low memory");
+    }
+
+    /**
+     * Returns a {@link String} summarizing the size of every registered cache and the trims so
+     * far.
+     *
+     * @return {@link String} summarizing cache sizes and trims.
+     */
+    public String getStatsSummary() {
+        List<Registration> snapshot = getRegistrations();
+        StringBuilder stringBuilder = new StringBuilder();
+        for (Registration registration : snapshot) {
+            stringBuilder.append(String.format(Locale.US, "%s %d bytes (priority %d), ",
+                    registration.managedCache.getName(), registration.managedCache.getSizeBytes(), registration.priority));
+        }
+        stringBuilder.append(String.format(Locale.US, "total %d/%d bytes, trims %d, trimmed %d bytes",
+                getTotalSizeBytes(snapshot), heapBudgetBytes, trimEventCount.get(), trimmedBytes.get()));
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Logs the size of every registered cache and the trims so far.
+     */
+    public void logStats() {
+        Log.i(LOG_TAG_NAME, getStatsSummary());
+    }
+
+    /**
+     * Empties every cache up to the given priority and halves every cache above it up to the
+     * other given priority.
+     *
+     * @param emptyUpToPriority int highest priority of the caches to empty.
+     * @param halveUpToPriority int highest priority of the caches to halve.
+     * @param reason            {@link String} reason of the trim for the log.
+     */
+    private void trimPriorities(int emptyUpToPriority, int halveUpToPriority, String reason) {
+        for (Registration registration : getRegistrations()) {
+            if (registration.priority <= emptyUpToPriority) {
+                trim(registration, 0, reason);
+            } else if (registration.priority <= halveUpToPriority) {
+                trim(registration, registration.managedCache.getSizeBytes() / 2, reason);
+            }
+        }
+    }
+
+    /**
+     * Trims a single cache and reports the trim.
+     *
+     * @param registration     {@link Registration} of the cache to trim.
+     * @param targetSizeBytes  long size in bytes the cache should be trimmed to.
+     * @param reason           {@link String} reason of the trim for the log.
+     * @return long number of bytes the cache gave up.
+     */
+    private long trim(Registration registration, long targetSizeBytes, String reason) {
+        long sizeBytesBefore = registration.managedCache.getSizeBytes();
+        if (sizeBytesBefore <= targetSizeBytes) {
+            return 0;
+        }
+        registration.managedCache.trimToSize(targetSizeBytes);
+        long freedBytes = Math.max(0, sizeBytesBefore - registration.managedCache.getSizeBytes());
+        trimEventCount.incrementAndGet();
+        trimmedBytes.addAndGet(freedBytes);
+        Log.i(LOG_TAG_NAME, String.format(Locale.US, "Trimmed %s from %d to %d bytes for %s",
+                registration.managedCache.getName(), sizeBytesBefore, sizeBytesBefore - freedBytes, reason));
+        return freedBytes;
+    }
+
+    /**
+     * Returns a copy of the registrations, so that caches may register or unregister while being
+     * trimmed.
+     *
+     * @return {@link List} of {@link Registration} objects sorted by ascending priority.
+     */
+    private synchronized List<Registration> getRegistrations() {
+        return new ArrayList<>(registrations);
+    }
+
+    /**
+     * Returns how many bytes the given caches occupy together.
+     *
+     * @param snapshot {@link List} of {@link Registration} objects.
+     * @return long total size in bytes.
+     */
+    private static long getTotalSizeBytes(List<Registration> snapshot) {
+        long totalSizeBytes = 0;
+        for (Registration registration : snapshot) {
+            totalSizeBytes += registration.managedCache.getSizeBytes();
+        }
+        return totalSizeBytes;
+    }
+
+    /**
+     * {@link ManagedCache} is an in-memory cache that can be trimmed by the {@link CacheGovernor}.
+     */
+    public interface ManagedCache {
+
+        /**
+         * Returns the name of the cache for reports.
+         */
+        String getName();
+
+        /**
+         * Returns an estimate of how many bytes the cache occupies.
+         */
+        long getSizeBytes();
+
+        /**
+         * Evicts entries until the cache occupies no more than the given number of bytes. Invoked
+         * on the main thread.
+         *
+         * @param targetSizeBytes long size in bytes to trim to. 0 asks the cache to empty itself.
+         */
+        void trimToSize(long targetSizeBytes);
+    }
+
+    /**
+     * {@link Registration} pairs a registered {@link ManagedCache} with its priority.
+     */
+    private static class Registration {
+
+        /**
+         * {@link ManagedCache} that was registered.
+         */
+        private final ManagedCache managedCache;
+
+        /**
+         * int priority of the cache.
+         */
+        private final int priority;
+
+        /**
+         * Constructs a new {@link Registration} object.
+         *
+         * @param managedCache {@link ManagedCache} that was registered.
+         * @param priority     int priority of the cache.
+         */
+        Registration(ManagedCache managedCache, int priority) {
+            this.managedCache = managedCache;
+            this.priority = priority;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.davidread.theguardiannewsclient;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * {@link DiskLruCache} is a cache that stores byte array entries as files in a single directory.
+ * The total size of the entries is kept under a byte budget by evicting the least recently used
+ * entries first. Access order survives process restarts through the last modified time of each
+ * file.
+ */
+public class DiskLruCache {
+
+    /**
+     * {@link String} log tag name for {@link DiskLruCache}.
+     */
+    public static final String LOG_TAG_NAME = DiskLruCache.class.getSimpleName();
+
+    /**
+     * {@link String} suffix of files that are still being written.
+     */
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    /**
+     * {@link File} representing the directory where entries are stored.
+     */
+    private final File directory;
+
+    /**
+     * long representing the maximum number of bytes the entries may occupy.
+     */
+    private final long maxSizeBytes;
+
+    /**
+     * {@link LinkedHashMap} in access order that maps each entry file name to its size in bytes.
+     * Its first entry is the least recently used one.
+     */
+    private final LinkedHashMap<String, Long> entrySizes;
+
+    /**
+     * long representing the number of bytes the entries currently occupy.
+     */
+    private long sizeBytes;
+
+    /**
+     * Constructs a new {@link DiskLruCache} object and indexes the entries already present in the
+     * directory.
+     *
+     * @param directory    {@link File} representing the directory where entries are stored.
+     * @param maxSizeBytes long representing the maximum number of bytes the entries may occupy.
+     */
+    public DiskLruCache(File directory, long maxSizeBytes) {
+        this.directory = directory;
+        this.maxSizeBytes = maxSizeBytes;
+        this.entrySizes = new LinkedHashMap<>(16, 0.75f, true);
+        this.sizeBytes = 0;
+
+        if (!directory.exists() && !directory.mkdirs()) {
+            Log.e(LOG_TAG_NAME, "Error creating cache directory " + directory);
+        }
+
+        // Index existing entries from least to most recently used.
+        File[] files = directory.listFiles();
+        if (files != null) {
+            Arrays.sort(files, new Comparator<File>() {
+                @Override
+                public int compare(File file1, File file2) {
+                    return Long.compare(file1.lastModified(), file2.lastModified());
+                }
+            });
+            for (File file : files) {
+                if (file.getName().endsWith(TEMP_FILE_SUFFIX)) {
+                    deleteFile(file);
+                    continue;
+                }
+                entrySizes.put(file.getName(), file.length());
+                sizeBytes += file.length();
+            }
+        }
+        trimToSize(maxSizeBytes);
+    }
+
+    /**
+     * Returns the bytes stored for the given key and marks the entry as most recently used. Only
+     * the index lookup holds the lock, so reading one entry does not hold up reads of others. An
+     * entry that is replaced or evicted meanwhile is read whole or not at all, since entries are
+     * only ever replaced by renaming a complete file over them.
+     *
+     * @param key {@link String} key of the entry.
+     * @return byte array stored for the key, or null if no entry exists.
+     */
+    @Nullable
+    public byte[] get(String key) {
+        String fileName = getFileName(key);
+        synchronized (this) {
+            if (entrySizes.get(fileName) == null) {
+                return null;
+            }
+        }
+
+        File file = new File(directory, fileName);
+        try {
+            byte[] bytes = readFile(file);
+            if (!file.setLastModified(System.currentTimeMillis())) {
+                Log.w(LOG_TAG_NAME, "Error updating access time of " + file);
+            }
+            return bytes;
+        } catch (FileNotFoundException e) {
+            // The entry was evicted after the lookup.
+            return null;
+        } catch (IOException e) {
+            Log.e(LOG_TAG_NAME, "Error reading cache entry " + file, e);
+            synchronized (this) {
+                removeEntry(fileName);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Returns whether an entry exists for the given key without changing its access order.
+     *
+     * @param key {@link String} key of the entry.
+     * @return Whether an entry exists for the key.
+     */
+    public synchronized boolean contains(String key) {
+        return entrySizes.containsKey(getFileName(key));
+    }
+
+    /**
+     * Stores the given bytes for the given key, then evicts least recently used entries until the
+     * cache fits in its byte budget again. The bytes are written to a temporary file first, which
+     * then replaces the previous entry, if any, in a single rename.
+     *
+     * @param key   {@link String} key of the entry.
+     * @param bytes byte array to store.
+     */
+    public synchronized void put(String key, byte[] bytes) {
+        if (bytes.length > maxSizeBytes) {
+            return;
+        }
+
+        String fileName = getFileName(key);
+        File tempFile = new File(directory, fileName + TEMP_FILE_SUFFIX);
+        File file = new File(directory, fileName);
+        try {
+            writeFile(tempFile, bytes);
+            if (!tempFile.renameTo(file)) {
+                throw new IOException("Error renaming " + tempFile + " to " + file);
+            }
+            Long previousSize = entrySizes.put(fileName, (long) bytes.length);
+            sizeBytes += bytes.length - (previousSize != null ? previousSize : 0);
+        } catch (IOException e) {
+            Log.e(LOG_TAG_NAME, "Error writing cache entry " + file, e);
+            deleteFile(tempFile);
+        }
+        trimToSize(maxSizeBytes);
+    }
+
+    /**
+     * Returns the GZIP compressed {@link String} stored for the given key with
+     * {@link DiskLruCache#putCompressedString(String, String)} and marks the entry as most recently
+     * used.
+     *
+     * @param key {@link String} key of the entry.
+     * @return {@link String} stored for the key, or null if no valid entry exists.
+     */
+    @Nullable
+    public String getCompressedString(String key) {
+        byte[] compressedBytes = get(key);
+        if (compressedBytes == null) {
+            return null;
+        }
+        try {
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(compressedBytes.length * 4);
+            InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(compressedBytes));
+            try {
+                byte[] buffer = new byte[8192];
+                int read = inputStream.read(buffer);
+                while (read >= 0) {
+                    byteArrayOutputStream.write(buffer, 0, read);
+                    read = inputStream.read(buffer);
+                }
+            } finally {
+                inputStream.close();
+            }
+            return new String(byteArrayOutputStream.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            Log.e(LOG_TAG_NAME, "Error decompressing cache entry " + key, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the given {@link String} GZIP compressed for the given key.
+     *
+     * @param key  {@link String} key of the entry.
+     * @param text {@link String} to store.
+     */
+    public void putCompressedString(String key, String text) {
+        try {
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            OutputStream outputStream = new GZIPOutputStream(byteArrayOutputStream);
+            try {
+                outputStream.write(text.getBytes(StandardCharsets.UTF_8));
+            } finally {
+                outputStream.close();
+            }
+            put(key, byteArrayOutputStream.toByteArray());
+        } catch (IOException e) {
+            Log.e(LOG_TAG_NAME, "Error compressing cache entry " + key, e);
+        }
+    }
+
+    /**
+     * Evicts least recently used entries until the entries occupy no more than the given number of
+     * bytes.
+     *
+     * @param targetSizeBytes long representing the number of bytes the entries may occupy.
+     */
+    public synchronized void trimToSize(long targetSizeBytes) {
+        Iterator<Map.Entry<String, Long>> iterator = entrySizes.entrySet().iterator();
+        while (sizeBytes > targetSizeBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            deleteFile(new File(directory, entry.getKey()));
+            sizeBytes -= entry.getValue();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Returns the number of bytes the entries currently occupy.
+     *
+     * @return long representing the number of bytes the entries currently occupy.
+     */
+    public synchronized long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    /**
+     * Removes the entry with the given file name from the index and from disk.
+     *
+     * @param fileName {@link String} file name of the entry.
+     */
+    private void removeEntry(String fileName) {
+        Long entrySize = entrySizes.remove(fileName);
+        if (entrySize != null) {
+            sizeBytes -= entrySize;
+            deleteFile(new File(directory, fileName));
+        }
+    }
+
+    /**
+     * Returns the file name an entry with the given key is stored under. Keys are hashed so that
+     * arbitrary strings map to valid, fixed length file names.
+     *
+     * @param key {@link String} key of the entry.
+     * @return {@link String} file name of the entry.
+     */
+    private static String getFileName(String key) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
+            byte[] digest = messageDigest.digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder fileNameStringBuilder = new StringBuilder(digest.length * 2);
+            for (byte digestByte : digest) {
+                fileNameStringBuilder.append(Character.forDigit((digestByte >> 4) & 0xf, 16));
+                fileNameStringBuilder.append(Character.forDigit(digestByte & 0xf, 16));
+            }
+            return fileNameStringBuilder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(key.hashCode());
+        }
+    }
+
+    /**
+     * Reads every byte of the given file. The size is taken from the opened file, so a file
+     * renamed over it meanwhile does not change how many bytes are read.
+     *
+     * @param file {@link File} to read.
+     * @return byte array holding the contents of the file.
+     */
+    private static byte[] readFile(File file) throws IOException {
+        FileInputStream inputStream = new FileInputStream(file);
+        try {
+            byte[] bytes = new byte[(int) inputStream.getChannel().size()];
+            int offset = 0;
+            while (offset < bytes.length) {
+                int read = inputStream.read(bytes, offset, bytes.length - offset);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of file " + file);
+                }
+                offset += read;
+            }
+            return bytes;
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * Writes the given bytes to the given file, replacing its contents.
+     *
+     * @param file  {@link File} to write.
+     * @param bytes byte array to write.
+     */
+    private static void writeFile(File file, byte[] bytes) throws IOException {
+        OutputStream outputStream = new FileOutputStream(file);
+        try {
+            outputStream.write(bytes);
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    /**
+     * Deletes the given file, logging if the deletion fails.
+     *
+     * @param file {@link File} to delete.
+     */
+    private static void deleteFile(File file) {
+        if (file.exists() && !file.delete()) {
+            Log.w(LOG_TAG_NAME, "Error deleting " + file);
+        }
+    }
+}
@@ -0,0 +1,521 @@
+package com.davidread.theguardiannewsclient;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.core.os.CancellationSignal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link GuardianApiClient} is a utility class that constructs request URLs for The Guardian API
+ * and performs the network requests for them. Every request may be aborted through a
+ * {@link CancellationSignal}, which disconnects the underlying connection. Requests to The Guardian
+ * API must acquire a permit from the {@link ApiQuotaManager} before they are made. The requests
+ * themselves are performed by the {@link HttpTransport} selected in the network engine setting.
+ */
+public final class GuardianApiClient {
+
+    /**
+     * {@link String} log tag name for {@link GuardianApiClient}.
+     */
+    public static final String LOG_TAG_NAME = GuardianApiClient.class.getSimpleName();
+
+    /**
+     * {@link String} holding the key used to access The Guardian API.
+     */
+    private static final String THE_GUARDIAN_API_KEY = BuildConfig.THE_GUARDIAN_API_KEY;
+
+    /**
+     * {@link String} holding the host name of The Guardian API.
+     */
+    private static final String THE_GUARDIAN_API_AUTHORITY = "content.guardianapis.com";
+
+    /**
+     * int HTTP response code The Guardian API returns when the call limits of the key are hit.
+     */
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    /**
+     * {@link HttpTransport} every request is performed with.
+     */
+    private static volatile HttpTransport httpTransport = new UrlConnectionTransport();
+
+    /**
+     * {@link OkHttpTransport} kept once created, so that switching back and forth between engines
+     * does not throw its connection pool away.
+     */
+    private static OkHttpTransport okHttpTransport;
+
+    /**
+     * {@link CountDownLatch} released once the preconnect started by
+     * {@link GuardianApiClient#startPreconnect(Context)} finished, or null if none was started.
+     */
+    private static volatile CountDownLatch preconnectLatch;
+
+    /**
+     * boolean indicating whether the preconnect succeeded.
+     */
+    private static volatile boolean preconnected;
+
+    /**
+     * {@link AtomicBoolean} set once the first request to The Guardian API of the process started,
+     * so that only its time to first byte is recorded as the cold start one.
+     */
+    private static final AtomicBoolean firstApiRequestStarted = new AtomicBoolean();
+
+    /**
+     * Private constructor since {@link GuardianApiClient} only has static members.
+     */
+    private GuardianApiClient() {
+    }
+
+    /**
+     * Selects the {@link HttpTransport} named by the network engine setting. Requests already
+     * in flight finish on the transport they were started with. Any other transport that was set
+     * explicitly, e.g. the recording, replaying, or stand-in transport of a test, is kept until it
+     * is replaced explicitly.
+     *
+     * @param context {@link Context} for accessing the {@link SettingsRepository}.
+     */
+    public static synchronized void applyHttpTransportPreference(Context context) {
+        if (!(httpTransport instanceof UrlConnectionTransport) && !(httpTransport instanceof OkHttpTransport)) {
+            return;
+        }
+        String networkEnginePreferenceValue = SettingsRepository.getInstance(context).getSettings().getNetworkEngine();
+        if (OkHttpTransport.NAME.equals(networkEnginePreferenceValue)) {
+            if (okHttpTransport == null) {
+                okHttpTransport = new OkHttpTransport();
+            }
+            httpTransport = okHttpTransport;
+        } else if (!(httpTransport instanceof UrlConnectionTransport)) {
+            httpTransport = new UrlConnectionTransport();
+        }
+    }
+
+    /**
+     * Starts resolving and connecting to The Guardian API on a new thread, so that DNS, TCP, and
+     * TLS are done while the UI is still being inflated. Must be called before the first request,
+     * e.g. when the process starts. The first request to The Guardian API waits for the preconnect
+     * to finish instead of opening a second connection, and then reuses the pooled one. Does
+     * nothing beyond that if the preconnect setting is off or the device is offline.
+     *
+     * @param context {@link Context} for accessing the settings and the network state.
+     */
+    public static void startPreconnect(Context context) {
+        final Context applicationContext = context.getApplicationContext();
+        final CountDownLatch latch = new CountDownLatch(1);
+        preconnectLatch = latch;
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    // Restore the API quota here as well, so the main thread does not read it from disk.
+                    ApiQuotaManager.getInstance(applicationContext);
+                    preconnect(applicationContext);
+                } finally {
+                    latch.countDown();
+                }
+            }
+        }, LOG_TAG_NAME + "-preconnect").start();
+    }
+
+    /**
+     * Connects to The Guardian API through the {@link HttpTransport} selected in the network engine
+     * setting if the preconnect setting is on. Waits for the settings to load, since it runs on its
+     * own thread.
+     *
+     * @param context {@link Context} for accessing the settings and the network state.
+     */
+    private static void preconnect(Context context) {
+        if (!SettingsRepository.getInstance(context).awaitSettings().isPreconnectEnabled()) {
+            return;
+        }
+        applyHttpTransportPreference(context);
+        LoadingProfile loadingProfile = NetworkMonitor.getInstance(context).getLoadingProfile();
+        if (loadingProfile.isOffline()) {
+            return;
+        }
+        try {
+            httpTransport.preconnect(new URL("https", THE_GUARDIAN_API_AUTHORITY, "/"), loadingProfile.getConnectTimeoutMillis());
+            preconnected = true;
+        } catch (IOException e) {
+            Log.e(LOG_TAG_NAME, "Error preconnecting", e);
+        }
+    }
+
+    /**
+     * Waits for a running preconnect to finish, so that the connection it opens is reused.
+     *
+     * @param timeoutMillis long milliseconds to wait at most.
+     */
+    private static void awaitPreconnect(long timeoutMillis) {
+        CountDownLatch latch = preconnectLatch;
+        if (latch == null) {
+            return;
+        }
+        try {
+            latch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sets the {@link HttpTransport} every request is performed with, e.g. to compare engines.
+     *
+     * @param newHttpTransport {@link HttpTransport} to perform requests with.
+     */
+    public static synchronized void setHttpTransport(HttpTransport newHttpTransport) {
+        httpTransport = newHttpTransport;
+    }
+
+    /**
+     * Returns the {@link HttpTransport} every request is performed with.
+     *
+     * @return {@link HttpTransport} currently in use.
+     */
+    public static HttpTransport getHttpTransport() {
+        return httpTransport;
+    }
+
+    /**
+     * Returns a {@link URL} object for requesting article listings from The Guardian API.
+     *
+     * @param orderBy    {@link String} for specifying what order results will be returned in.
+     * @param pageIndex  int index representing which page result set will be returned.
+     * @param pageSize   int representing how many listings each page result set holds.
+     * @param searchTerm {@link String} for requesting listings containing this free text.
+     * @param section    {@link String} id of the section listings must be from, e.g. "world". Pass
+     *                   null or the empty string to request listings from every section.
+     * @return {@link URL} object for requesting article listings, or null if it is malformed.
+     */
+    @Nullable
+    public static URL buildSearchUrl(String orderBy, int pageIndex, int pageSize, String searchTerm, String section) {
+        Uri.Builder uriBuilder = newUriBuilder()
+                .appendPath("search")
+                .appendQueryParameter("order-by", orderBy)
+                .appendQueryParameter("page", Integer.toString(pageIndex))
+                .appendQueryParameter("page-size", Integer.toString(pageSize))
+                .appendQueryParameter("show-tags", "contributor")
+                .appendQueryParameter("show-fields", "thumbnail");
+        if (searchTerm != null && !searchTerm.isEmpty()) {
+            uriBuilder.appendQueryParameter("q", searchTerm);
+        }
+        if (section != null && !section.isEmpty()) {
+            uriBuilder.appendQueryParameter("section", section);
+        }
+        return toUrl(uriBuilder);
+    }
+
+    /**
+     * Returns a {@link URL} object for requesting a single item from The Guardian API.
+     *
+     * @param id     {@link String} id of the item, e.g. "world/2021/nov/19/some-headline".
+     * @param fields {@link String} comma delimited list of fields to return with the item.
+     * @return {@link URL} object for requesting the item, or null if it is malformed.
+     */
+    @Nullable
+    public static URL buildItemUrl(String id, String fields) {
+        Uri.Builder uriBuilder = newUriBuilder()
+                .appendEncodedPath(id)
+                .appendQueryParameter("show-fields", fields);
+        return toUrl(uriBuilder);
+    }
+
+    /**
+     * Performs the network request specified by the given {@link URL} object and returns a
+     * {@link String} JSON response returned from the request.
+     *
+     * @param context            {@link Context} for accessing the {@link ApiQuotaManager}.
+     * @param url                {@link URL} object specifying how to make the network request.
+     * @param priority           {@link ApiQuotaManager.Priority} of the request.
+     * @param cancellationSignal {@link CancellationSignal} that aborts the request when canceled.
+     *                           May be null.
+     * @return {@link String} JSON response, or null if the request failed, was canceled, or was
+     * shed by the {@link ApiQuotaManager}.
+     */
+    @Nullable
+    public static String getJson(Context context, URL url, ApiQuotaManager.Priority priority, @Nullable CancellationSignal cancellationSignal) throws IOException {
+        byte[] bytes = getBytes(context, url, priority, cancellationSignal);
+        if (bytes == null) {
+            return null;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Performs the network request specified by the given {@link URL} object with
+     * {@link ApiQuotaManager.Priority#FOREGROUND} priority and returns the body of the response.
+     *
+     * @param context            {@link Context} for accessing the {@link ApiQuotaManager}.
+     * @param url                {@link URL} object specifying how to make the network request.
+     * @param cancellationSignal {@link CancellationSignal} that aborts the request when canceled.
+     *                           May be null.
+     * @return byte array holding the response body, or null if the request failed or was canceled.
+     */
+    @Nullable
+    public static byte[] getBytes(Context context, URL url, @Nullable CancellationSignal cancellationSignal) throws IOException {
+        return getBytes(context, url, ApiQuotaManager.Priority.FOREGROUND, cancellationSignal);
+    }
+
+    /**
+     * Performs the network request specified by the given {@link URL} object and returns the body
+     * of the response. It works for any URL, e.g. for images referenced by The Guardian API. The
+     * timeouts come from the current {@link LoadingProfile}, and no request is made while offline.
+     * Requests to The Guardian API are counted against the {@link ApiQuotaManager}, unless the
+     * {@link HttpTransport} serves them without reaching it.
+     *
+     * @param context            {@link Context} for accessing the {@link ApiQuotaManager}.
+     * @param url                {@link URL} object specifying how to make the network request.
+     * @param priority           {@link ApiQuotaManager.Priority} of the request.
+     * @param cancellationSignal {@link CancellationSignal} that aborts the request when canceled.
+     *                           May be null.
+     * @return byte array holding the response body, or null if the request failed, was canceled,
+     * or was shed by the {@link ApiQuotaManager}.
+     */
+    @Nullable
+    public static byte[] getBytes(Context context, URL url, ApiQuotaManager.Priority priority, @Nullable final CancellationSignal cancellationSignal) throws IOException {
+        return readResponse(context, url, priority, cancellationSignal, new ResponseReader<byte[]>() {
+            @Override
+            public byte[] read(InputStream inputStream) throws IOException {
+                ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+                readBytesFromInputStream(inputStream, byteArrayOutputStream, cancellationSignal);
+                return byteArrayOutputStream.toByteArray();
+            }
+        });
+    }
+
+    /**
+     * Performs the network request specified by the given {@link URL} object and hands the body
+     * of the response to a {@link ResponseReader} while it is still being downloaded. This is what
+     * lets callers parse a response incrementally instead of waiting for its last byte. Apart from
+     * that, it behaves like {@link GuardianApiClient#getBytes(Context, URL,
+     * ApiQuotaManager.Priority, CancellationSignal)}.
+     *
+     * @param context            {@link Context} for accessing the {@link ApiQuotaManager}.
+     * @param url                {@link URL} object specifying how to make the network request.
+     * @param priority           {@link ApiQuotaManager.Priority} of the request.
+     * @param cancellationSignal {@link CancellationSignal} that aborts the request when canceled.
+     *                           May be null.
+     * @param responseReader     {@link ResponseReader} the body of a successful response is handed
+     *                           to.
+     * @return Result of the {@link ResponseReader}, or null if the request failed, was canceled,
+     * or was shed by the {@link ApiQuotaManager}.
+     */
+    @Nullable
+    public static <T> T readResponse(Context context, URL url, ApiQuotaManager.Priority priority, @Nullable CancellationSignal cancellationSignal, ResponseReader<T> responseReader) throws IOException {
+
+        LoadingProfile loadingProfile = NetworkMonitor.getCurrentLoadingProfile();
+        if (url == null || loadingProfile.isOffline()) {
+            return null;
+        }
+
+        // Reuse the connection of a preconnect still in progress, which also restores the API quota.
+        boolean apiRequest = THE_GUARDIAN_API_AUTHORITY.equals(url.getHost());
+        boolean firstApiRequest = apiRequest && firstApiRequestStarted.compareAndSet(false, true);
+        long startMillis = SystemClock.elapsedRealtime();
+        if (apiRequest) {
+            awaitPreconnect(loadingProfile.getConnectTimeoutMillis());
+        }
+
+        /* Acquire a permit for requests to The Guardian API, unless the transport serves them
+         * without reaching it. */
+        HttpTransport transport = httpTransport;
+        ApiQuotaManager apiQuotaManager = apiRequest && transport.countsAgainstApiQuota() ? ApiQuotaManager.getInstance(context) : null;
+        if (apiQuotaManager != null && !apiQuotaManager.acquire(priority, cancellationSignal)) {
+            return null;
+        }
+
+        // Initialize network request objects.
+        HttpTransport.Response response = null;
+        CountingInputStream countingInputStream = null;
+        T result = null;
+
+        try {
+            // Execute the network request through the selected transport.
+            response = transport.execute(url, loadingProfile.getConnectTimeoutMillis(), loadingProfile.getReadTimeoutMillis(), cancellationSignal);
+            if (firstApiRequest) {
+                LoadMetrics.recordColdStartTimeToFirstByte(SystemClock.elapsedRealtime() - startMillis, preconnected);
+            }
+
+            int responseCode = response.getCode();
+            if (responseCode == 200) {
+                /* If the request is successful, get the input stream from the response and hand it
+                 * to the response reader. */
+                countingInputStream = new CountingInputStream(response.getBody());
+                result = responseReader.read(countingInputStream);
+            } else if (responseCode == HTTP_TOO_MANY_REQUESTS && apiQuotaManager != null) {
+                apiQuotaManager.onServerThrottled(parseRetryAfterSeconds(response.getHeader("Retry-After")));
+            } else {
+                Log.e(LOG_TAG_NAME, "Network request failed with response code " + responseCode);
+            }
+
+        } catch (IOException e) {
+            if (cancellationSignal == null || !cancellationSignal.isCanceled()) {
+                Log.e(LOG_TAG_NAME, "Error performing network request", e);
+            }
+        } finally {
+            // Cleanup network request objects.
+            if (response != null) {
+                response.close();
+            }
+        }
+
+        // Drop the response of a canceled request and account for what was read in vain.
+        if (cancellationSignal != null && cancellationSignal.isCanceled()) {
+            LoadMetrics.recordAbortedRequest(countingInputStream == null ? 0 : countingInputStream.getCount());
+            return null;
+        }
+        return result;
+    }
+
+    /**
+     * Parses the value of a Retry-After header given in seconds.
+     *
+     * @param retryAfter {@link String} value of the Retry-After header. May be null.
+     * @return long number of seconds to wait, or -1 if the header is missing or not in seconds.
+     */
+    private static long parseRetryAfterSeconds(@Nullable String retryAfter) {
+        if (retryAfter == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(retryAfter.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Reads every byte returned from an {@link InputStream}. Reading stops early if the request is
+     * canceled.
+     *
+     * @param inputStream           {@link InputStream} to be read.
+     * @param byteArrayOutputStream {@link ByteArrayOutputStream} the bytes are written to.
+     * @param cancellationSignal    {@link CancellationSignal} of the request. May be null.
+     */
+    private static void readBytesFromInputStream(InputStream inputStream, ByteArrayOutputStream byteArrayOutputStream, @Nullable CancellationSignal cancellationSignal) throws IOException {
+        byte[] buffer = new byte[8192];
+        int read = inputStream.read(buffer);
+        while (read >= 0 && (cancellationSignal == null || !cancellationSignal.isCanceled())) {
+            byteArrayOutputStream.write(buffer, 0, read);
+            read = inputStream.read(buffer);
+        }
+    }
+
+    /**
+     * Returns a {@link Uri.Builder} pointing at The Guardian API with the parameters every request
+     * shares already appended.
+     *
+     * @return {@link Uri.Builder} for a The Guardian API request.
+     */
+    private static Uri.Builder newUriBuilder() {
+        Uri.Builder uriBuilder = new Uri.Builder();
+        uriBuilder.scheme("https")
+                .authority(THE_GUARDIAN_API_AUTHORITY)
+                .appendQueryParameter("api-key", THE_GUARDIAN_API_KEY)
+                .appendQueryParameter("format", "json");
+        return uriBuilder;
+    }
+
+    /**
+     * Converts a {@link Uri.Builder} into a {@link URL} object.
+     *
+     * @param uriBuilder {@link Uri.Builder} to convert.
+     * @return {@link URL} object, or null if it is malformed.
+     */
+    @Nullable
+    private static URL toUrl(Uri.Builder uriBuilder) {
+        String stringUrl = uriBuilder.build().toString();
+        try {
+            return new URL(stringUrl);
+        } catch (MalformedURLException e) {
+            Log.e(LOG_TAG_NAME, "Error constructing URL object", e);
+            return null;
+        }
+    }
+
+    /**
+     * {@link ResponseReader} consumes the body of a successful response while it is being
+     * downloaded.
+     *
+     * @param <T> Type of the result the body is turned into.
+     */
+    public interface ResponseReader<T> {
+
+        /**
+         * Invoked on the requesting thread with the body of a successful response. The
+         * {@link InputStream} is closed once this method returns.
+         *
+         * @param inputStream {@link InputStream} of the response body.
+         * @return Result the body was turned into. May be null.
+         */
+        @Nullable
+        T read(InputStream inputStream) throws IOException;
+    }
+
+    /**
+     * {@link CountingInputStream} counts the bytes read through it, so that the bytes of a
+     * canceled request can be accounted for no matter how the response was consumed.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        /**
+         * long representing how many bytes were read so far.
+         */
+        private long count;
+
+        /**
+         * Constructs a new {@link CountingInputStream} object.
+         *
+         * @param inputStream {@link InputStream} to count the bytes of.
+         */
+        CountingInputStream(InputStream inputStream) {
+            super(inputStream);
+        }
+
+        /**
+         * Reads a single byte and counts it.
+         */
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read >= 0) {
+                count++;
+            }
+            return read;
+        }
+
+        /**
+         * Reads into a part of a byte array and counts the bytes read.
+         */
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        /**
+         * Returns how many bytes were read so far.
+         */
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.davidread.theguardiannewsclient;
+
+import androidx.annotation.Nullable;
+import androidx.core.os.CancellationSignal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+
+/**
+ * {@link HttpTransport} performs the HTTP GET requests made through {@link GuardianApiClient}. It
+ * only moves bytes: quota accounting, offline handling, and metrics stay in
+ * {@link GuardianApiClient}, so implementations with different connection pooling or protocols can
+ * be swapped in without touching the callers.
+ */
+public interface HttpTransport {
+
+    /**
+     * Performs a GET request and returns its response as soon as the status line and headers were
+     * received. The body is read from the returned {@link Response} while it is still downloading.
+     *
+     * @param url                  {@link URL} to request.
+     * @param connectTimeoutMillis int milliseconds to wait for a connection.
+     * @param readTimeoutMillis    int milliseconds to wait for data between reads.
+     * @param cancellationSignal   {@link CancellationSignal} that aborts the request when
+     *                             canceled, including a body that is being read. May be null.
+     * @return {@link Response} of the request, which must be closed.
+     */
+    Response execute(URL url, int connectTimeoutMillis, int readTimeoutMillis, @Nullable CancellationSignal cancellationSignal) throws IOException;
+
+    /**
+     * Resolves the host of the given {@link URL} and opens a connection to it, including the TLS
+     * handshake, so that it is pooled and reused by the next request to the same host. A cheap
+     * HEAD request is made to get there, whose response is ignored.
+     *
+     * @param url                  {@link URL} of the host to connect to.
+     * @param connectTimeoutMillis int milliseconds to wait for a connection.
+     */
+    void preconnect(URL url, int connectTimeoutMillis) throws IOException;
+
+    /**
+     * Returns whether requests made through this transport reach The Guardian API, so that
+     * {@link GuardianApiClient} counts them against the {@link ApiQuotaManager}. Transports that
+     * serve recorded or generated responses return false.
+     */
+    boolean countsAgainstApiQuota();
+
+    /**
+     * {@link Response} is the response of a request made through an {@link HttpTransport}.
+     * Closing it releases the underlying connection.
+     */
+    interface Response extends Closeable {
+
+        /**
+         * Returns the HTTP status code of the response.
+         */
+        int getCode();
+
+        /**
+         * Returns the value of the given response header.
+         *
+         * @param name {@link String} name of the header.
+         * @return {@link String} value of the header, or null if the response has none.
+         */
+        @Nullable
+        String getHeader(String name);
+
+        /**
+         * Returns the body of the response.
+         *
+         * @return {@link InputStream} of the body.
+         */
+        InputStream getBody() throws IOException;
+    }
+}
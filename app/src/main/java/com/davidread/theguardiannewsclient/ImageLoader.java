@@ -0,0 +1,604 @@
+package com.davidread.theguardiannewsclient;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import androidx.annotation.Nullable;
+import androidx.core.os.CancellationSignal;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ImageLoader} loads thumbnail images into {@link ImageView} objects. Images are looked up
+ * in a byte bounded memory cache of decoded {@link Bitmap} objects first, then in a
+ * {@link DiskLruCache} of downloaded bytes, and finally fetched from the network. Decoding is
+ * downsampled to the size of the target {@link ImageView} and reuses the memory of evicted
+ * {@link Bitmap} objects that are no longer displayed. All public methods must be called on the
+ * main thread.
+ */
+public class ImageLoader {
+
+    /**
+     * {@link String} log tag name for {@link ImageLoader}.
+     */
+    public static final String LOG_TAG_NAME = ImageLoader.class.getSimpleName();
+
+    /**
+     * {@link String} name of the directory inside the cache directory where images are stored.
+     */
+    private static final String CACHE_DIRECTORY_NAME = "thumbnails";
+
+    /**
+     * long representing the maximum number of bytes the disk cache may occupy.
+     */
+    private static final long MAX_DISK_CACHE_SIZE_BYTES = 20 * 1024 * 1024;
+
+    /**
+     * int representing which fraction of the maximum heap size the memory cache may occupy.
+     */
+    private static final int MEMORY_CACHE_HEAP_FRACTION = 8;
+
+    /**
+     * int representing how many evicted {@link Bitmap} objects are kept for reuse.
+     */
+    private static final int MAX_REUSABLE_BITMAP_COUNT = 8;
+
+    /**
+     * int representing how many images may be loaded at the same time.
+     */
+    private static final int THREAD_COUNT = 3;
+
+    /**
+     * int representing the edge length in pixels used when a target {@link ImageView} has no
+     * size yet.
+     */
+    private static final int DEFAULT_TARGET_SIZE_PX = 256;
+
+    /**
+     * {@link ImageLoader} instance shared across the app.
+     */
+    private static ImageLoader instance;
+
+    /**
+     * {@link LruCache} mapping request keys to decoded {@link Bitmap} objects. Its size is measured
+     * in bytes.
+     */
+    private final LruCache<String, Bitmap> memoryCache;
+
+    /**
+     * {@link File} representing the directory where downloaded images are stored.
+     */
+    private final File diskCacheDirectory;
+
+    /**
+     * {@link Context} requests through {@link GuardianApiClient} are made with.
+     */
+    private final Context context;
+
+    /**
+     * {@link ExecutorService} that loads and decodes images in the background.
+     */
+    private final ExecutorService executorService;
+
+    /**
+     * {@link Handler} for delivering decoded images on the main thread.
+     */
+    private final Handler mainHandler;
+
+    /**
+     * {@link IdentityHashMap} mapping each displayed {@link Bitmap} to the number of
+     * {@link ImageView} objects displaying it.
+     */
+    private final IdentityHashMap<Bitmap, Integer> displayCounts;
+
+    /**
+     * {@link Set} of {@link Bitmap} objects evicted from the memory cache while still displayed.
+     * They become reusable once no {@link ImageView} displays them anymore.
+     */
+    private final Set<Bitmap> evictedDisplayedBitmaps;
+
+    /**
+     * {@link List} of {@link Bitmap} objects whose memory may be reused for decoding.
+     */
+    private final List<Bitmap> reusableBitmaps;
+
+    /**
+     * {@link AtomicLong} counters reported by {@link ImageLoader#logStats()}.
+     */
+    private final AtomicLong memoryHitCount = new AtomicLong();
+    private final AtomicLong diskHitCount = new AtomicLong();
+    private final AtomicLong networkLoadCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong decodeCount = new AtomicLong();
+    private final AtomicLong decodeNanos = new AtomicLong();
+    private final AtomicLong reusedBitmapCount = new AtomicLong();
+
+    /**
+     * {@link DiskLruCache} where downloaded images are stored. It is created lazily on a worker
+     * thread since it indexes the cache directory when constructed.
+     */
+    private DiskLruCache diskLruCache;
+
+    /**
+     * Constructs a new {@link ImageLoader} object.
+     *
+     * @param context {@link Context} for accessing the cache directory and making requests.
+     */
+    private ImageLoader(Context context) {
+        int memoryCacheSizeBytes = (int) (Runtime.getRuntime().maxMemory() / MEMORY_CACHE_HEAP_FRACTION);
+        this.memoryCache = new LruCache<String, Bitmap>(memoryCacheSizeBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, String key, Bitmap oldValue, Bitmap newValue) {
+                if (displayCounts.containsKey(oldValue)) {
+                    evictedDisplayedBitmaps.add(oldValue);
+                } else {
+                    addReusableBitmap(oldValue);
+                }
+            }
+        };
+        this.diskCacheDirectory = new File(context.getCacheDir(), CACHE_DIRECTORY_NAME);
+        this.context = context;
+        this.executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+        this.mainHandler = new Handler(Looper.getMainLooper());
+        this.displayCounts = new IdentityHashMap<>();
+        this.evictedDisplayedBitmaps = Collections.newSetFromMap(new IdentityHashMap<Bitmap, Boolean>());
+        this.reusableBitmaps = new ArrayList<>();
+        registerWithCacheGovernor();
+    }
+
+    /**
+     * Returns the {@link ImageLoader} instance shared across the app.
+     *
+     * @param context {@link Context} for accessing the cache directory.
+     * @return {@link ImageLoader} instance shared across the app.
+     */
+    public static synchronized ImageLoader getInstance(Context context) {
+        if (instance == null) {
+            instance = new ImageLoader(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Loads the image at the given URL into the given {@link ImageView}. Any request still running
+     * for the {@link ImageView} is canceled first.
+     *
+     * @param url       {@link String} URL of the image.
+     * @param imageView {@link ImageView} to show the image in.
+     */
+    public void load(String url, ImageView imageView) {
+        clear(imageView);
+
+        int targetWidth = getTargetSize(imageView.getWidth(), imageView.getLayoutParams() != null ? imageView.getLayoutParams().width : 0);
+        int targetHeight = getTargetSize(imageView.getHeight(), imageView.getLayoutParams() != null ? imageView.getLayoutParams().height : 0);
+        String key = url + '#' + targetWidth + 'x' + targetHeight;
+
+        // Show the image right away if it is in the memory cache.
+        Bitmap bitmap = memoryCache.get(key);
+        if (bitmap != null) {
+            memoryHitCount.incrementAndGet();
+            display(imageView, bitmap);
+            return;
+        }
+
+        // Otherwise, load it in the background.
+        Request request = new Request(url, key, targetWidth, targetHeight, imageView);
+        imageView.setTag(R.id.image_loader_request_tag, request);
+        request.future = executorService.submit(request);
+    }
+
+    /**
+     * Cancels the request running for the given {@link ImageView} and removes the image it shows.
+     * It should be called whenever the {@link ImageView} is recycled.
+     *
+     * @param imageView {@link ImageView} to clear.
+     */
+    public void clear(ImageView imageView) {
+        Object tag = imageView.getTag(R.id.image_loader_request_tag);
+        if (tag instanceof Request) {
+            ((Request) tag).cancel();
+        }
+        imageView.setTag(R.id.image_loader_request_tag, null);
+
+        imageView.setImageDrawable(null);
+        Object bitmapTag = imageView.getTag(R.id.image_loader_bitmap_tag);
+        imageView.setTag(R.id.image_loader_bitmap_tag, null);
+        if (bitmapTag instanceof Bitmap) {
+            releaseDisplayedBitmap((Bitmap) bitmapTag);
+        }
+    }
+
+    /**
+     * Evicts every {@link Bitmap} from the memory cache and drops the reusable ones.
+     */
+    public void clearMemory() {
+        memoryCache.evictAll();
+        synchronized (reusableBitmaps) {
+            reusableBitmaps.clear();
+        }
+    }
+
+    /**
+     * Returns a {@link String} summarizing cache hit rates and decode times.
+     *
+     * @return {@link String} summarizing cache hit rates and decode times.
+     */
+    public String getStatsSummary() {
+        long memoryHits = memoryHitCount.get();
+        long diskHits = diskHitCount.get();
+        long networkLoads = networkLoadCount.get();
+        long requests = Math.max(1, memoryHits + diskHits + networkLoads);
+        long decodes = decodeCount.get();
+        return String.format(Locale.US,
+                "memory hits %.1f%%, disk hits %.1f%%, network loads %d, failures %d, decodes %d averaging %.2f ms, reused bitmaps %d, memory cache %d/%d bytes",
+                100.0 * memoryHits / requests,
+                100.0 * diskHits / requests,
+                networkLoads,
+                failureCount.get(),
+                decodes,
+                decodes == 0 ? 0.0 : decodeNanos.get() / 1e6 / decodes,
+                reusedBitmapCount.get(),
+                memoryCache.size(),
+                memoryCache.maxSize());
+    }
+
+    /**
+     * Logs the cache hit rates and decode times.
+     */
+    public void logStats() {
+        Log.i(LOG_TAG_NAME, getStatsSummary());
+    }
+
+    /**
+     * Shows the given {@link Bitmap} in the given {@link ImageView} and counts it as displayed.
+     *
+     * @param imageView {@link ImageView} to show the {@link Bitmap} in.
+     * @param bitmap    {@link Bitmap} to show.
+     */
+    private void display(ImageView imageView, Bitmap bitmap) {
+        imageView.setImageBitmap(bitmap);
+        imageView.setTag(R.id.image_loader_bitmap_tag, bitmap);
+        Integer displayCount = displayCounts.get(bitmap);
+        displayCounts.put(bitmap, displayCount == null ? 1 : displayCount + 1);
+    }
+
+    /**
+     * Counts the given {@link Bitmap} as displayed by one less {@link ImageView}. Once it is no
+     * longer displayed and no longer in the memory cache, its memory becomes reusable.
+     *
+     * @param bitmap {@link Bitmap} that is no longer shown by an {@link ImageView}.
+     */
+    private void releaseDisplayedBitmap(Bitmap bitmap) {
+        Integer displayCount = displayCounts.get(bitmap);
+        if (displayCount == null) {
+            return;
+        }
+        if (displayCount > 1) {
+            displayCounts.put(bitmap, displayCount - 1);
+            return;
+        }
+        displayCounts.remove(bitmap);
+        if (evictedDisplayedBitmaps.remove(bitmap)) {
+            addReusableBitmap(bitmap);
+        }
+    }
+
+    /**
+     * Registers the memory cache and the pool of reusable {@link Bitmap} objects with the
+     * {@link CacheGovernor}. The pool only saves allocations, so it is given up before the memory
+     * cache, which saves decoding.
+     */
+    private void registerWithCacheGovernor() {
+        CacheGovernor.getInstance().register(new CacheGovernor.ManagedCache() {
+            @Override
+            public String getName() {
+                return "image memory cache";
+            }
+
+            @Override
+            public long getSizeBytes() {
+                return memoryCache.size();
+            }
+
+            @Override
+            public void trimToSize(long targetSizeBytes) {
+                memoryCache.trimToSize((int) Math.min(Integer.MAX_VALUE, targetSizeBytes));
+            }
+        }, CacheGovernor.PRIORITY_NORMAL);
+        CacheGovernor.getInstance().register(new CacheGovernor.ManagedCache() {
+            @Override
+            public String getName() {
+                return "reusable bitmaps";
+            }
+
+            @Override
+            public long getSizeBytes() {
+                long sizeBytes = 0;
+                synchronized (reusableBitmaps) {
+                    for (Bitmap bitmap : reusableBitmaps) {
+                        sizeBytes += bitmap.isRecycled() ? 0 : bitmap.getAllocationByteCount();
+                    }
+                }
+                return sizeBytes;
+            }
+
+            @Override
+            public void trimToSize(long targetSizeBytes) {
+                synchronized (reusableBitmaps) {
+                    while (!reusableBitmaps.isEmpty() && getSizeBytes() > targetSizeBytes) {
+                        reusableBitmaps.remove(0);
+                    }
+                }
+            }
+        }, CacheGovernor.PRIORITY_LOW);
+    }
+
+    /**
+     * Keeps the given {@link Bitmap} so its memory may be reused for decoding.
+     *
+     * @param bitmap {@link Bitmap} that is neither cached nor displayed.
+     */
+    private void addReusableBitmap(Bitmap bitmap) {
+        if (!bitmap.isMutable() || bitmap.isRecycled()) {
+            return;
+        }
+        synchronized (reusableBitmaps) {
+            if (reusableBitmaps.size() >= MAX_REUSABLE_BITMAP_COUNT) {
+                reusableBitmaps.remove(0);
+            }
+            reusableBitmaps.add(bitmap);
+        }
+    }
+
+    /**
+     * Removes and returns a reusable {@link Bitmap} that is large enough to hold an image decoded
+     * with the given {@link BitmapFactory.Options}.
+     *
+     * @param options {@link BitmapFactory.Options} holding the bounds and sample size of the image.
+     * @return {@link Bitmap} whose memory may be reused, or null if there is none.
+     */
+    @Nullable
+    private Bitmap takeReusableBitmap(BitmapFactory.Options options) {
+        int width = (options.outWidth + options.inSampleSize - 1) / options.inSampleSize;
+        int height = (options.outHeight + options.inSampleSize - 1) / options.inSampleSize;
+        int byteCount = width * height * 4;
+        synchronized (reusableBitmaps) {
+            Iterator<Bitmap> iterator = reusableBitmaps.iterator();
+            while (iterator.hasNext()) {
+                Bitmap bitmap = iterator.next();
+                if (bitmap.isRecycled()) {
+                    iterator.remove();
+                } else if (bitmap.getConfig() == Bitmap.Config.ARGB_8888 && bitmap.getAllocationByteCount() >= byteCount) {
+                    iterator.remove();
+                    return bitmap;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Decodes the given image bytes into a {@link Bitmap} downsampled to roughly the target size.
+     *
+     * @param bytes        byte array holding an encoded image.
+     * @param targetWidth  int width in pixels the image is shown at.
+     * @param targetHeight int height in pixels the image is shown at.
+     * @return Decoded {@link Bitmap}, or null if the bytes are not a valid image.
+     */
+    @Nullable
+    private Bitmap decodeSampledBitmap(byte[] bytes, int targetWidth, int targetHeight) {
+
+        // Read the image bounds without allocating pixels.
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        // Pick the largest power of two sample size that keeps the image at least target sized.
+        int inSampleSize = 1;
+        while (options.outWidth / (inSampleSize * 2) >= targetWidth && options.outHeight / (inSampleSize * 2) >= targetHeight) {
+            inSampleSize *= 2;
+        }
+        options.inSampleSize = inSampleSize;
+        options.inJustDecodeBounds = false;
+        options.inMutable = true;
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+
+        // Decode into reused memory if possible.
+        Bitmap reusableBitmap = takeReusableBitmap(options);
+        options.inBitmap = reusableBitmap;
+        try {
+            Bitmap bitmap = BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+            if (reusableBitmap != null && bitmap == reusableBitmap) {
+                reusedBitmapCount.incrementAndGet();
+            }
+            return bitmap;
+        } catch (IllegalArgumentException e) {
+            options.inBitmap = null;
+            return BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+        }
+    }
+
+    /**
+     * Returns the {@link DiskLruCache} where downloaded images are stored, creating it first if
+     * needed.
+     *
+     * @return {@link DiskLruCache} where downloaded images are stored.
+     */
+    private synchronized DiskLruCache getDiskLruCache() {
+        if (diskLruCache == null) {
+            diskLruCache = new DiskLruCache(diskCacheDirectory, MAX_DISK_CACHE_SIZE_BYTES);
+        }
+        return diskLruCache;
+    }
+
+    /**
+     * Returns the size in pixels an image should be decoded at for one dimension of a target
+     * {@link ImageView}.
+     *
+     * @param measuredSize int measured size of the {@link ImageView}.
+     * @param layoutSize   int size from the {@link ViewGroup.LayoutParams} of the
+     *                     {@link ImageView}.
+     * @return int size in pixels to decode at.
+     */
+    private static int getTargetSize(int measuredSize, int layoutSize) {
+        if (measuredSize > 0) {
+            return measuredSize;
+        } else if (layoutSize > 0) {
+            return layoutSize;
+        } else {
+            return DEFAULT_TARGET_SIZE_PX;
+        }
+    }
+
+    /**
+     * {@link Request} loads a single image for a single {@link ImageView} on a worker thread and
+     * delivers it on the main thread.
+     */
+    private class Request implements Runnable {
+
+        /**
+         * {@link String} URL of the image.
+         */
+        private final String url;
+
+        /**
+         * {@link String} key of the decoded image in the memory cache.
+         */
+        private final String key;
+
+        /**
+         * int size in pixels the image is decoded at.
+         */
+        private final int targetWidth;
+        private final int targetHeight;
+
+        /**
+         * {@link ImageView} the image is shown in.
+         */
+        private final ImageView imageView;
+
+        /**
+         * {@link CancellationSignal} that aborts the network request of this request.
+         */
+        private final CancellationSignal cancellationSignal;
+
+        /**
+         * {@link Future} of this request on the {@link ExecutorService}.
+         */
+        private Future<?> future;
+
+        /**
+         * Constructs a new {@link Request} object.
+         *
+         * @param url          {@link String} URL of the image.
+         * @param key          {@link String} key of the decoded image in the memory cache.
+         * @param targetWidth  int width in pixels the image is decoded at.
+         * @param targetHeight int height in pixels the image is decoded at.
+         * @param imageView    {@link ImageView} the image is shown in.
+         */
+        private Request(String url, String key, int targetWidth, int targetHeight, ImageView imageView) {
+            this.url = url;
+            this.key = key;
+            this.targetWidth = targetWidth;
+            this.targetHeight = targetHeight;
+            this.imageView = imageView;
+            this.cancellationSignal = new CancellationSignal();
+        }
+
+        /**
+         * Cancels this request. Its image is never delivered to the {@link ImageView}.
+         */
+        private void cancel() {
+            cancellationSignal.cancel();
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+
+        /**
+         * Loads the image bytes from the disk cache or the network, decodes them, and posts the
+         * decoded {@link Bitmap} to the main thread.
+         */
+        @Override
+        public void run() {
+            if (cancellationSignal.isCanceled()) {
+                return;
+            }
+
+            // Look up the disk cache before the network.
+            byte[] bytes = getDiskLruCache().get(url);
+            if (bytes != null) {
+                diskHitCount.incrementAndGet();
+            } else {
+                try {
+                    bytes = GuardianApiClient.getBytes(context, new URL(url), cancellationSignal);
+                } catch (MalformedURLException e) {
+                    Log.e(LOG_TAG_NAME, "Invalid thumbnail URL " + url, e);
+                } catch (IOException e) {
+                    Log.e(LOG_TAG_NAME, "Error closing input stream", e);
+                }
+                if (cancellationSignal.isCanceled()) {
+                    return;
+                }
+                if (bytes == null) {
+                    failureCount.incrementAndGet();
+                    return;
+                }
+                networkLoadCount.incrementAndGet();
+                getDiskLruCache().put(url, bytes);
+            }
+
+            // Decode the image downsampled to the target size.
+            long decodeStartNanos = System.nanoTime();
+            final Bitmap bitmap = decodeSampledBitmap(bytes, targetWidth, targetHeight);
+            decodeNanos.addAndGet(System.nanoTime() - decodeStartNanos);
+            decodeCount.incrementAndGet();
+            if (bitmap == null) {
+                failureCount.incrementAndGet();
+                return;
+            }
+
+            // Cache and deliver the image on the main thread.
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (!cancellationSignal.isCanceled() && imageView.getTag(R.id.image_loader_request_tag) == Request.this) {
+                        imageView.setTag(R.id.image_loader_request_tag, null);
+                        display(imageView, bitmap);
+                    }
+                    memoryCache.put(key, bitmap);
+                    CacheGovernor.getInstance().requestBudgetCheck();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,594 @@
+package com.davidread.theguardiannewsclient;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * {@link JsonTokenizer} reads a JSON document from a {@link Reader} token by token, like
+ * {@link android.util.JsonReader}, but without allocating per token. Names and string values are
+ * decoded into one reused char array, which callers compare with
+ * {@link JsonTokenizer#isText(String)} or read through {@link JsonTokenizer#getText()}, and
+ * numbers are parsed in place. Only a {@link String} the caller asks for is ever created.
+ * <p>
+ * Like {@link android.util.JsonReader}, reading a token of the wrong type throws an
+ * {@link IllegalStateException}, and malformed JSON throws an {@link IOException}.
+ */
+final class JsonTokenizer {
+
+    /**
+     * int tokens returned by {@link JsonTokenizer#peek()}.
+     */
+    static final int BEGIN_OBJECT = 1;
+    static final int END_OBJECT = 2;
+    static final int BEGIN_ARRAY = 3;
+    static final int END_ARRAY = 4;
+    static final int NAME = 5;
+    static final int STRING = 6;
+    static final int NUMBER = 7;
+    static final int BOOLEAN = 8;
+    static final int NULL = 9;
+    static final int END_DOCUMENT = 10;
+
+    /**
+     * int representing that the next token was not peeked yet.
+     */
+    private static final int PEEKED_NONE = 0;
+
+    /**
+     * int scopes kept on {@link JsonTokenizer#scopes} for every object and array being read,
+     * telling which separator comes next.
+     */
+    private static final int SCOPE_EMPTY_DOCUMENT = 0;
+    private static final int SCOPE_NONEMPTY_DOCUMENT = 1;
+    private static final int SCOPE_EMPTY_OBJECT = 2;
+    private static final int SCOPE_DANGLING_NAME = 3;
+    private static final int SCOPE_NONEMPTY_OBJECT = 4;
+    private static final int SCOPE_EMPTY_ARRAY = 5;
+    private static final int SCOPE_NONEMPTY_ARRAY = 6;
+
+    /**
+     * int representing how many chars are read from the {@link Reader} at a time.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * {@link Reader} the document is read from.
+     */
+    private final Reader reader;
+
+    /**
+     * char array holding the chars read but not consumed yet, between {@link JsonTokenizer#position}
+     * and {@link JsonTokenizer#limit}.
+     */
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    /**
+     * int array of the scopes of the objects and arrays being read, innermost last, and how many
+     * there are.
+     */
+    private int[] scopes = new int[32];
+    private int scopeCount;
+
+    /**
+     * int token peeked but not consumed yet, or {@link JsonTokenizer#PEEKED_NONE}.
+     */
+    private int peeked = PEEKED_NONE;
+
+    /**
+     * char array holding the name or value read last, and how many of its chars are used.
+     */
+    private char[] text = new char[256];
+    private int textLength;
+
+    /**
+     * {@link CharSequence} view of {@link JsonTokenizer#text}, handed out by
+     * {@link JsonTokenizer#getText()}. It is reused for every token.
+     */
+    private final CharSequence textView = new CharSequence() {
+
+        @Override
+        public int length() {
+            return textLength;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index >= textLength) {
+                throw new IndexOutOfBoundsException();
+            }
+            return text[index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(text, start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(text, 0, textLength);
+        }
+    };
+
+    /**
+     * Constructs a new {@link JsonTokenizer} object.
+     *
+     * @param reader {@link Reader} the document is read from. It is not closed.
+     */
+    JsonTokenizer(Reader reader) {
+        this.reader = reader;
+        scopes[scopeCount++] = SCOPE_EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Returns the type of the next token without consuming it.
+     *
+     * @return int token, e.g. {@link JsonTokenizer#BEGIN_OBJECT}.
+     */
+    int peek() throws IOException {
+        if (peeked != PEEKED_NONE) {
+            return peeked;
+        }
+        int scope = scopes[scopeCount - 1];
+        int c;
+        switch (scope) {
+            case SCOPE_EMPTY_ARRAY:
+            case SCOPE_NONEMPTY_ARRAY:
+                scopes[scopeCount - 1] = SCOPE_NONEMPTY_ARRAY;
+                c = nextNonWhitespace(true);
+                if (c == ']') {
+                    return peeked = END_ARRAY;
+                }
+                if (scope == SCOPE_NONEMPTY_ARRAY) {
+                    if (c != ',') {
+                        throw syntaxError("Expected ',' or ']'");
+                    }
+                    c = nextNonWhitespace(true);
+                }
+                break;
+            case SCOPE_EMPTY_OBJECT:
+            case SCOPE_NONEMPTY_OBJECT:
+                scopes[scopeCount - 1] = SCOPE_DANGLING_NAME;
+                c = nextNonWhitespace(true);
+                if (c == '}') {
+                    return peeked = END_OBJECT;
+                }
+                if (scope == SCOPE_NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw syntaxError("Expected ',' or '}'");
+                    }
+                    c = nextNonWhitespace(true);
+                }
+                if (c != '"') {
+                    throw syntaxError("Expected a name");
+                }
+                return peeked = NAME;
+            case SCOPE_DANGLING_NAME:
+                scopes[scopeCount - 1] = SCOPE_NONEMPTY_OBJECT;
+                if (nextNonWhitespace(true) != ':') {
+                    throw syntaxError("Expected ':'");
+                }
+                c = nextNonWhitespace(true);
+                break;
+            case SCOPE_EMPTY_DOCUMENT:
+                scopes[scopeCount - 1] = SCOPE_NONEMPTY_DOCUMENT;
+                c = nextNonWhitespace(true);
+                break;
+            default:
+                if (nextNonWhitespace(false) != -1) {
+                    throw syntaxError("Expected the end of the document");
+                }
+                return peeked = END_DOCUMENT;
+        }
+
+        switch (c) {
+            case '{':
+                return peeked = BEGIN_OBJECT;
+            case '[':
+                return peeked = BEGIN_ARRAY;
+            case '"':
+                return peeked = STRING;
+            case 't':
+            case 'f':
+                position--;
+                return peeked = BOOLEAN;
+            case 'n':
+                position--;
+                return peeked = NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    position--;
+                    return peeked = NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    /**
+     * Returns whether the current object or array has another element.
+     */
+    boolean hasNext() throws IOException {
+        int token = peek();
+        return token != END_OBJECT && token != END_ARRAY && token != END_DOCUMENT;
+    }
+
+    /**
+     * Consumes the opening brace of an object.
+     */
+    void beginObject() throws IOException {
+        expect(BEGIN_OBJECT);
+        pushScope(SCOPE_EMPTY_OBJECT);
+    }
+
+    /**
+     * Consumes the closing brace of the current object.
+     */
+    void endObject() throws IOException {
+        expect(END_OBJECT);
+        scopeCount--;
+    }
+
+    /**
+     * Consumes the opening bracket of an array.
+     */
+    void beginArray() throws IOException {
+        expect(BEGIN_ARRAY);
+        pushScope(SCOPE_EMPTY_ARRAY);
+    }
+
+    /**
+     * Consumes the closing bracket of the current array.
+     */
+    void endArray() throws IOException {
+        expect(END_ARRAY);
+        scopeCount--;
+    }
+
+    /**
+     * Consumes the next name and decodes it into the text returned by
+     * {@link JsonTokenizer#getText()}.
+     */
+    void nextName() throws IOException {
+        expect(NAME);
+        readString(true);
+    }
+
+    /**
+     * Consumes the next string value and decodes it into the text returned by
+     * {@link JsonTokenizer#getText()}. A number is read as its literal text.
+     */
+    void nextString() throws IOException {
+        int token = peek();
+        if (token == NUMBER) {
+            peeked = PEEKED_NONE;
+            readLiteral(true);
+            return;
+        }
+        expect(STRING);
+        readString(true);
+    }
+
+    /**
+     * Consumes the next number value, which must be an int.
+     *
+     * @return int value of the number.
+     * @throws NumberFormatException If the number is not an int.
+     */
+    int nextInt() throws IOException {
+        expect(NUMBER);
+        readLiteral(true);
+        long value = 0;
+        boolean negative = textLength > 0 && text[0] == '-';
+        int start = negative ? 1 : 0;
+        if (textLength == start || textLength - start > 10) {
+            throw new NumberFormatException("Not an int: " + textView);
+        }
+        for (int i = start; i < textLength; i++) {
+            char c = text[i];
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Not an int: " + textView);
+            }
+            value = value * 10 + (c - '0');
+        }
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Not an int: " + textView);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Consumes the next value, including every nested value of an object or array, without
+     * decoding it.
+     */
+    void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            int token = peek();
+            switch (token) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    depth++;
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    depth++;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    depth--;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    depth--;
+                    break;
+                case NAME:
+                case STRING:
+                    peeked = PEEKED_NONE;
+                    readString(false);
+                    break;
+                case NUMBER:
+                case BOOLEAN:
+                case NULL:
+                    peeked = PEEKED_NONE;
+                    readLiteral(false);
+                    break;
+                default:
+                    throw new IllegalStateException("Expected a value but was the end of the document");
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * Returns whether the name or value read last equals the given {@link String}.
+     *
+     * @param value {@link String} to compare with.
+     * @return boolean indicating whether they are equal.
+     */
+    boolean isText(String value) {
+        if (value.length() != textLength) {
+            return false;
+        }
+        for (int i = 0; i < textLength; i++) {
+            if (text[i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the name or value read last. The returned {@link CharSequence} is reused and
+     * changes with the next token, so it must be copied to be kept.
+     *
+     * @return {@link CharSequence} view of the text read last.
+     */
+    CharSequence getText() {
+        return textView;
+    }
+
+    /**
+     * Consumes the peeked token if it is of the given type.
+     *
+     * @param token int token expected next.
+     */
+    private void expect(int token) throws IOException {
+        int actual = peek();
+        if (actual != token) {
+            throw new IllegalStateException("Expected token " + token + " but was " + actual);
+        }
+        peeked = PEEKED_NONE;
+    }
+
+    /**
+     * Pushes the given scope when an object or array is entered.
+     */
+    private void pushScope(int scope) {
+        if (scopeCount == scopes.length) {
+            scopes = Arrays.copyOf(scopes, scopeCount * 2);
+        }
+        scopes[scopeCount++] = scope;
+    }
+
+    /**
+     * Reads the rest of a string whose opening quote was consumed, unescaping it into
+     * {@link JsonTokenizer#text} if it is kept. Runs without escapes are copied in bulk.
+     *
+     * @param keep boolean indicating whether the string is decoded or only skipped.
+     */
+    private void readString(boolean keep) throws IOException {
+        textLength = 0;
+        while (true) {
+            if (position == limit && !fill()) {
+                throw new EOFException("Unterminated string");
+            }
+            int start = position;
+            while (position < limit) {
+                char c = buffer[position];
+                if (c == '"' || c == '\\') {
+                    break;
+                }
+                position++;
+            }
+            if (keep) {
+                appendText(buffer, start, position - start);
+            }
+            if (position == limit) {
+                continue;
+            }
+            if (buffer[position++] == '"') {
+                return;
+            }
+            char escaped = readEscape();
+            if (keep) {
+                appendText(escaped);
+            }
+        }
+    }
+
+    /**
+     * Reads the char an escape sequence stands for, after its backslash was consumed.
+     *
+     * @return char the escape sequence stands for.
+     */
+    private char readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("Malformed unicode escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            case 't':
+                return '\t';
+            case 'b':
+                return '\b';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            default:
+                throw syntaxError("Invalid escape sequence");
+        }
+    }
+
+    /**
+     * Reads a number, true, false, or null literal, into {@link JsonTokenizer#text} if it is
+     * kept. A true, false, or null literal is checked to be spelled right.
+     *
+     * @param keep boolean indicating whether the literal is kept or only skipped.
+     */
+    private void readLiteral(boolean keep) throws IOException {
+        textLength = 0;
+        int first = peekChar();
+        String expected = first == 't' ? "true" : first == 'f' ? "false" : first == 'n' ? "null" : null;
+        int length = 0;
+        while (true) {
+            int c = peekChar();
+            if (c == -1 || !isLiteralChar((char) c)) {
+                break;
+            }
+            if (expected != null && (length >= expected.length() || expected.charAt(length) != c)) {
+                throw syntaxError("Unexpected literal");
+            }
+            position++;
+            length++;
+            if (keep) {
+                appendText((char) c);
+            }
+        }
+        if (length == 0 || (expected != null && length != expected.length())) {
+            throw syntaxError("Unexpected literal");
+        }
+    }
+
+    /**
+     * Returns whether the given char may be part of a number or literal.
+     */
+    private static boolean isLiteralChar(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '-' || c == '+' || c == '.';
+    }
+
+    /**
+     * Appends the given chars to {@link JsonTokenizer#text}, growing it if needed.
+     */
+    private void appendText(char[] chars, int offset, int length) {
+        if (textLength + length > text.length) {
+            text = Arrays.copyOf(text, Math.max(text.length * 2, textLength + length));
+        }
+        System.arraycopy(chars, offset, text, textLength, length);
+        textLength += length;
+    }
+
+    /**
+     * Appends the given char to {@link JsonTokenizer#text}, growing it if needed.
+     */
+    private void appendText(char c) {
+        if (textLength == text.length) {
+            text = Arrays.copyOf(text, text.length * 2);
+        }
+        text[textLength++] = c;
+    }
+
+    /**
+     * Consumes whitespace and returns the first other char, which is consumed as well.
+     *
+     * @param required boolean indicating whether the end of the document is an error here.
+     * @return int char, or -1 at the end of the document if it is not required.
+     */
+    private int nextNonWhitespace(boolean required) throws IOException {
+        while (position < limit || fill()) {
+            char c = buffer[position++];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+        }
+        if (required) {
+            throw new EOFException("End of input");
+        }
+        return -1;
+    }
+
+    /**
+     * Consumes and returns the next char.
+     *
+     * @throws EOFException If the document ended.
+     */
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            throw new EOFException("End of input");
+        }
+        return buffer[position++];
+    }
+
+    /**
+     * Returns the next char without consuming it, or -1 if the document ended.
+     */
+    private int peekChar() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    /**
+     * Reads the next chars of the document into the empty buffer.
+     *
+     * @return boolean indicating whether any chars were read.
+     */
+    private boolean fill() throws IOException {
+        position = 0;
+        limit = 0;
+        int count;
+        do {
+            count = reader.read(buffer, 0, buffer.length);
+        } while (count == 0);
+        if (count < 0) {
+            return false;
+        }
+        limit = count;
+        return true;
+    }
+
+    /**
+     * Returns an {@link IOException} for malformed JSON at the current position.
+     */
+    private IOException syntaxError(String message) {
+        return new IOException(message + " in JSON");
+    }
+}
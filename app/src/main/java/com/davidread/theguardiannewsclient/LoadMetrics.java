@@ -0,0 +1,180 @@
+package com.davidread.theguardiannewsclient;
+
+import android.util.Log;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link LoadMetrics} is a utility class that counts the work spent on loads whose results were
+ * thrown away because their feed was reset while they were running. It lets the cost of
+ * abandoned loads be measured, e.g. by changing settings in the middle of a load. It also times
+ * progressive loads, comparing when their first rows were shown with when their page completed,
+ * and the time to first byte of the first API request after a cold start.
+ */
+public final class LoadMetrics {
+
+    /**
+     * {@link String} log tag name for {@link LoadMetrics}.
+     */
+    public static final String LOG_TAG_NAME = LoadMetrics.class.getSimpleName();
+
+    /**
+     * {@link AtomicLong} counters reported by {@link LoadMetrics#getSummary()}.
+     */
+    private static final AtomicLong abortedRequestCount = new AtomicLong();
+    private static final AtomicLong wastedBytes = new AtomicLong();
+    private static final AtomicLong abortedLoadCount = new AtomicLong();
+    private static final AtomicLong wastedCpuNanos = new AtomicLong();
+    private static final AtomicLong droppedResultCount = new AtomicLong();
+    private static final AtomicLong progressiveLoadCount = new AtomicLong();
+    private static final AtomicLong totalFirstRowMillis = new AtomicLong();
+    private static final AtomicLong totalFullPageMillis = new AtomicLong();
+
+    /**
+     * long milliseconds from the start of the first API request of the process until its response
+     * headers arrived, or -1 if it did not complete yet, and whether a preconnect to the API had
+     * succeeded before it.
+     */
+    private static volatile long coldStartTimeToFirstByteMillis = -1;
+    private static volatile boolean coldStartPreconnected;
+
+    /**
+     * Private constructor since {@link LoadMetrics} only has static members.
+     */
+    private LoadMetrics() {
+    }
+
+    /**
+     * Records a network request that was aborted after reading part of its response.
+     *
+     * @param bytesRead long number of response bytes read before the request was aborted.
+     */
+    public static void recordAbortedRequest(long bytesRead) {
+        abortedRequestCount.incrementAndGet();
+        wastedBytes.addAndGet(bytesRead);
+    }
+
+    /**
+     * Records a load that was canceled while running on a worker thread.
+     *
+     * @param cpuNanos long thread CPU time in nanoseconds the load used before it stopped.
+     */
+    public static void recordAbortedLoad(long cpuNanos) {
+        abortedLoadCount.incrementAndGet();
+        wastedCpuNanos.addAndGet(cpuNanos);
+    }
+
+    /**
+     * Records a load that completed but whose result belonged to an earlier feed generation and
+     * was dropped.
+     */
+    public static void recordDroppedResult() {
+        droppedResultCount.incrementAndGet();
+    }
+
+    /**
+     * Records a progressive load that completed.
+     *
+     * @param firstRowMillis long milliseconds from the start of the load until its first rows were
+     *                       handed to the main thread.
+     * @param fullPageMillis long milliseconds from the start of the load until its whole page was
+     *                       parsed.
+     */
+    public static void recordProgressiveLoad(long firstRowMillis, long fullPageMillis) {
+        progressiveLoadCount.incrementAndGet();
+        totalFirstRowMillis.addAndGet(firstRowMillis);
+        totalFullPageMillis.addAndGet(fullPageMillis);
+    }
+
+    /**
+     * Records the time to first byte of the first API request of the process.
+     *
+     * @param timeToFirstByteMillis long milliseconds from the start of the request until its
+     *                              response headers arrived.
+     * @param preconnected          Whether a preconnect to the API had succeeded before.
+     */
+    public static void recordColdStartTimeToFirstByte(long timeToFirstByteMillis, boolean preconnected) {
+        coldStartPreconnected = preconnected;
+        coldStartTimeToFirstByteMillis = timeToFirstByteMillis;
+    }
+
+    /**
+     * Returns the average milliseconds progressive loads took until their first rows were shown.
+     *
+     * @return long average time to first row, or -1 if no progressive load completed yet.
+     */
+    public static long getAverageFirstRowMillis() {
+        long count = progressiveLoadCount.get();
+        return count == 0 ? -1 : totalFirstRowMillis.get() / count;
+    }
+
+    /**
+     * Returns the average milliseconds progressive loads took until their whole page was parsed.
+     *
+     * @return long average time to full page, or -1 if no progressive load completed yet.
+     */
+    public static long getAverageFullPageMillis() {
+        long count = progressiveLoadCount.get();
+        return count == 0 ? -1 : totalFullPageMillis.get() / count;
+    }
+
+    /**
+     * Returns the number of network requests that were aborted after reading part of their
+     * response.
+     *
+     * @return long number of aborted requests.
+     */
+    public static long getAbortedRequestCount() {
+        return abortedRequestCount.get();
+    }
+
+    /**
+     * Returns the number of loads that were canceled while running on a worker thread.
+     *
+     * @return long number of aborted loads.
+     */
+    public static long getAbortedLoadCount() {
+        return abortedLoadCount.get();
+    }
+
+    /**
+     * Returns the number of response bytes read by aborted requests.
+     *
+     * @return long number of wasted bytes.
+     */
+    public static long getWastedBytes() {
+        return wastedBytes.get();
+    }
+
+    /**
+     * Returns the thread CPU time in milliseconds used by aborted loads.
+     *
+     * @return long number of wasted CPU milliseconds.
+     */
+    public static long getWastedCpuMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(wastedCpuNanos.get());
+    }
+
+    /**
+     * Returns a one line summary of the counters.
+     *
+     * @return {@link String} summary of the counters.
+     */
+    public static String getSummary() {
+        return String.format(Locale.US,
+                "aborted requests %d, wasted bytes %d, aborted loads %d, wasted cpu %d ms, dropped results %d, progressive loads %d, avg first row %d ms, avg full page %d ms, cold start ttfb %d ms (preconnected %b)",
+                abortedRequestCount.get(), wastedBytes.get(), abortedLoadCount.get(),
+                getWastedCpuMillis(), droppedResultCount.get(), progressiveLoadCount.get(),
+                getAverageFirstRowMillis(), getAverageFullPageMillis(),
+                coldStartTimeToFirstByteMillis, coldStartPreconnected);
+    }
+
+    /**
+     * Writes {@link LoadMetrics#getSummary()} to the log.
+     */
+    public static void logSummary() {
+        Log.i(LOG_TAG_NAME, getSummary());
+    }
+}
@@ -0,0 +1,215 @@
+package com.davidread.theguardiannewsclient;
+
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkInfo;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+
+/**
+ * {@link LoadingProfile} is a model class describing how eagerly content is loaded on the current
+ * network connection. It controls the page size of new feeds, how far ahead of the end of the list
+ * the next page is requested, whether thumbnails are loaded and article bodies are prefetched, and
+ * the network timeouts. When offline, content is served from local caches only.
+ */
+public class LoadingProfile {
+
+    /**
+     * int representing the downstream bandwidth in kbps below which a connection is considered
+     * constrained.
+     */
+    public static final int CONSTRAINED_BANDWIDTH_KBPS = 1500;
+
+    /**
+     * {@link LoadingProfile} used on unmetered connections with plenty of bandwidth.
+     */
+    public static final LoadingProfile UNMETERED = new LoadingProfile("unmetered", false, 50, 20, true, true, 15000, 10000);
+
+    /**
+     * {@link LoadingProfile} used on metered connections, e.g. mobile data.
+     */
+    public static final LoadingProfile METERED = new LoadingProfile("metered", false, 30, 5, true, false, 15000, 10000);
+
+    /**
+     * {@link LoadingProfile} used on connections with little bandwidth.
+     */
+    public static final LoadingProfile CONSTRAINED = new LoadingProfile("constrained", false, 20, 0, false, false, 30000, 30000);
+
+    /**
+     * {@link LoadingProfile} used when there is no connection. Nothing is requested over the
+     * network.
+     */
+    public static final LoadingProfile OFFLINE = new LoadingProfile("offline", true, 50, 0, false, false, 0, 0);
+
+    /**
+     * {@link String} name of the profile used in logs.
+     */
+    private final String name;
+
+    /**
+     * Boolean representing whether content may only be served from local caches.
+     */
+    private final boolean offline;
+
+    /**
+     * int representing how many articles are requested per page.
+     */
+    private final int pageSize;
+
+    /**
+     * int representing how many items before the end of the list the next page is requested.
+     */
+    private final int prefetchDistance;
+
+    /**
+     * Boolean representing whether thumbnails are loaded.
+     */
+    private final boolean loadsImages;
+
+    /**
+     * Boolean representing whether the body texts of visible articles are prefetched.
+     */
+    private final boolean prefetchesArticleBodies;
+
+    /**
+     * int representing the network connect and read timeouts in milliseconds.
+     */
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+
+    /**
+     * Constructs a new {@link LoadingProfile} object.
+     *
+     * @param name                    {@link String} name of the profile used in logs.
+     * @param offline                 Boolean representing whether content may only be served
+     *                                from local caches.
+     * @param pageSize                int representing how many articles are requested per page.
+     * @param prefetchDistance        int representing how many items before the end of the list
+     *                                the next page is requested.
+     * @param loadsImages             Boolean representing whether thumbnails are loaded.
+     * @param prefetchesArticleBodies Boolean representing whether the body texts of visible
+     *                                articles are prefetched.
+     * @param connectTimeoutMillis    int representing the network connect timeout.
+     * @param readTimeoutMillis       int representing the network read timeout.
+     */
+    private LoadingProfile(String name, boolean offline, int pageSize, int prefetchDistance, boolean loadsImages, boolean prefetchesArticleBodies, int connectTimeoutMillis, int readTimeoutMillis) {
+        this.name = name;
+        this.offline = offline;
+        this.pageSize = pageSize;
+        this.prefetchDistance = prefetchDistance;
+        this.loadsImages = loadsImages;
+        this.prefetchesArticleBodies = prefetchesArticleBodies;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    /**
+     * Returns the {@link LoadingProfile} matching the given connection properties.
+     *
+     * @param connected      Boolean representing whether a connection to the internet exists.
+     * @param metered        Boolean representing whether the connection is metered.
+     * @param downstreamKbps int estimated downstream bandwidth in kbps, or 0 if unknown.
+     * @return {@link LoadingProfile} matching the given connection properties.
+     */
+    public static LoadingProfile select(boolean connected, boolean metered, int downstreamKbps) {
+        if (!connected) {
+            return OFFLINE;
+        } else if (downstreamKbps > 0 && downstreamKbps < CONSTRAINED_BANDWIDTH_KBPS) {
+            return CONSTRAINED;
+        } else if (metered) {
+            return METERED;
+        } else {
+            return UNMETERED;
+        }
+    }
+
+    /**
+     * Returns the {@link LoadingProfile} matching the active network of the given
+     * {@link ConnectivityManager}.
+     *
+     * @param connectivityManager {@link ConnectivityManager} to query.
+     * @return {@link LoadingProfile} matching the active network.
+     */
+    @SuppressWarnings("deprecation")
+    public static LoadingProfile fromConnectivity(ConnectivityManager connectivityManager) {
+        if (connectivityManager == null) {
+            return UNMETERED;
+        }
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            Network network = connectivityManager.getActiveNetwork();
+            NetworkCapabilities networkCapabilities = network == null ? null : connectivityManager.getNetworkCapabilities(network);
+            if (networkCapabilities == null || !networkCapabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)) {
+                return OFFLINE;
+            }
+            boolean metered = !networkCapabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED);
+            return select(true, metered, networkCapabilities.getLinkDownstreamBandwidthKbps());
+        }
+
+        NetworkInfo networkInfo = connectivityManager.getActiveNetworkInfo();
+        if (networkInfo == null || !networkInfo.isConnected()) {
+            return OFFLINE;
+        }
+        return select(true, connectivityManager.isActiveNetworkMetered(), 0);
+    }
+
+    /**
+     * Returns whether content may only be served from local caches.
+     */
+    public boolean isOffline() {
+        return offline;
+    }
+
+    /**
+     * Returns how many articles are requested per page.
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Returns how many items before the end of the list the next page is requested.
+     */
+    public int getPrefetchDistance() {
+        return prefetchDistance;
+    }
+
+    /**
+     * Returns whether thumbnails are loaded.
+     */
+    public boolean loadsImages() {
+        return loadsImages;
+    }
+
+    /**
+     * Returns whether the body texts of visible articles are prefetched.
+     */
+    public boolean prefetchesArticleBodies() {
+        return prefetchesArticleBodies;
+    }
+
+    /**
+     * Returns the network connect timeout in milliseconds.
+     */
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    /**
+     * Returns the network read timeout in milliseconds.
+     */
+    public int getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    /**
+     * Returns the name of the profile.
+     */
+    @NonNull
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -1,27 +1,33 @@
 package com.davidread.theguardiannewsclient;
 
+import android.content.DialogInterface;
 import android.content.Intent;
-import android.content.SharedPreferences;
-import android.net.Uri;
+import android.database.Cursor;
+import android.database.MatrixCursor;
 import android.os.Bundle;
-import android.os.Parcelable;
-import android.util.Log;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.BaseColumns;
+import android.text.TextUtils;
+import android.util.SparseIntArray;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
-import android.webkit.URLUtil;
+import android.widget.SeekBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.SearchView;
+import androidx.cursoradapter.widget.SimpleCursorAdapter;
 import androidx.loader.app.LoaderManager;
 import androidx.loader.content.Loader;
-import androidx.preference.PreferenceManager;
 import androidx.recyclerview.widget.DefaultItemAnimator;
 import androidx.recyclerview.widget.DividerItemDecoration;
-import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.ArrayList;
@@ -44,6 +50,50 @@ public class MainActivity extends AppCompatActivity {
     private static final String RECYCLER_VIEW_CONTENT_KEY = "recycler_view_content_key";
     private static final String RECYCLER_VIEW_FOOTER_VIEW_TYPE_KEY = "recycler_view_footer_view_type";
     private static final String RECYCLER_VIEW_POSITION_KEY = "recycler_view_position";
+    private static final String MERGED_ARTICLE_FEED_KEY = "merged_article_feed";
+    private static final String FEED_PAGE_SIZE_KEY = "feed_page_size";
+    private static final String TOTAL_ARTICLE_COUNT_KEY = "total_article_count";
+    private static final String SPARSE_ARTICLE_LIST_SIZE_KEY = "sparse_article_list_size";
+    private static final String FACET_FILTER_TYPE_KEY = "facet_filter_type";
+    private static final String FACET_FILTER_VALUE_KEY = "facet_filter_value";
+
+    /**
+     * {@link String} key for the page index passed to loaders of single pages.
+     */
+    private static final String PAGE_INDEX_ARG = "page_index";
+
+    /**
+     * int representing how many pages of a {@link SparseArticleList} are kept in memory.
+     */
+    private static final int MAX_SPARSE_PAGE_COUNT = 8;
+
+    /**
+     * int representing how many pages of a {@link SparseArticleList} are kept however hard the
+     * {@link CacheGovernor} trims, so that the rows on screen do not turn into placeholders.
+     */
+    private static final int MIN_SPARSE_PAGE_COUNT = 2;
+
+    /**
+     * int representing how many of the most frequent contributors are offered in the filter
+     * dialog.
+     */
+    private static final int MAX_FILTER_CONTRIBUTOR_COUNT = 20;
+
+    /**
+     * long representing how many milliseconds the search term must stay unchanged while the user
+     * is typing before a new feed is requested for it.
+     */
+    private static final long SEARCH_DEBOUNCE_DELAY_MILLIS = 400;
+
+    /**
+     * int representing how many search term suggestions are shown below the {@link SearchView}.
+     */
+    private static final int MAX_SEARCH_SUGGESTION_COUNT = 8;
+
+    /**
+     * {@link String} name of the column holding a suggested search term.
+     */
+    private static final String SEARCH_SUGGESTION_COLUMN = "suggestion";
 
     /**
      * {@link com.davidread.theguardiannewsclient.RecyclerViewOnItemClickListener.OnItemClickListener} defines
@@ -53,10 +103,11 @@ public class MainActivity extends AppCompatActivity {
 
         /**
          * Handles itemClick event. On this event, the view type of the clicked item view will be
-         * evaluated. If the view type is {@link ArticleAdapter#VIEW_TYPE_ARTICLE}, then an intent
-         * to open the URL associated with the corresponding {@link Article} object will be started.
-         * If the view type is {@link ArticleAdapter#VIEW_TYPE_ERROR}, then the error view will be
-         * hidden and a new {@link ArticleLoader} will be initialized.
+         * evaluated. If the view type shows an article, then the
+         * corresponding {@link Article} object will be marked as read and opened in a
+         * {@link ReaderActivity}. If the
+         * view type is {@link ArticleAdapter#VIEW_TYPE_ERROR}, then the error view will be hidden
+         * and a new {@link ArticleLoader} will be initialized.
          *
          * @param view     {@link View} within the {@link RecyclerView} that was clicked.
          * @param position int representing the position of the view within the adapter.
@@ -65,26 +116,12 @@ public class MainActivity extends AppCompatActivity {
         public void onItemClick(View view, int position, int viewType) {
 
             // Case where an article view is clicked.
-            if (viewType == ArticleAdapter.VIEW_TYPE_ARTICLE) {
-
+            if (ArticleAdapter.isArticleViewType(viewType)) {
                 Article article = articleAdapter.getArticle(position);
-                String url = article.getUrl();
-                Intent intent = new Intent(Intent.ACTION_VIEW);
-                intent.setData(Uri.parse(url));
-
-                // Do nothing if no browser app is installed on the device.
-                if (intent.resolveActivity(getPackageManager()) == null) {
-                    Log.e(LOG_TAG_NAME, "No browser app installed to handle view intent");
-                    Toast.makeText(MainActivity.this, getString(R.string.no_browser_label), Toast.LENGTH_LONG).show();
-                    return;
-                }
-
-                // Do nothing if the provided URL is invalid.
-                if (url == null || !URLUtil.isValidUrl(url)) {
-                    Log.e(LOG_TAG_NAME, "Invalid URL string provided by The Guardian API");
-                    return;
-                }
-
+                ReadStateStore.getInstance(MainActivity.this).markRead(article.getId());
+                articleAdapter.notifyItemChanged(position);
+                Intent intent = new Intent(MainActivity.this, ReaderActivity.class);
+                intent.putExtra(ReaderActivity.EXTRA_ARTICLE, article);
                 startActivity(intent);
             }
 
@@ -104,9 +141,9 @@ public class MainActivity extends AppCompatActivity {
     private final RecyclerView.OnScrollListener onScrollListener = new RecyclerView.OnScrollListener() {
 
         /**
-         * Handles scrolled event. On this event, check if the last item of the {@link RecyclerView}
-         * is visible. If so, initialize a new {@link ArticleLoader} to fetch more {@link Article}
-         * objects to display.
+         * Handles scrolled event. On this event, check if the end of the {@link RecyclerView} is
+         * within the prefetch distance of the current {@link LoadingProfile}. If so, initialize a
+         * new {@link ArticleLoader} to fetch more {@link Article} objects to display.
          *
          * @param recyclerView  {@link RecyclerView} object being scrolled.
          * @param dx            The amount of horizontal scroll.
@@ -117,17 +154,32 @@ public class MainActivity extends AppCompatActivity {
             super.onScrolled(recyclerView, dx, dy);
             int totalItemCount = layoutManager.getItemCount();
             int lastVisibleItemPosition = layoutManager.findLastVisibleItemPosition();
-            if (lastVisibleItemPosition == totalItemCount - 1) {
+            if (lastVisibleItemPosition >= totalItemCount - 1 - loadingProfile.getPrefetchDistance() * layoutManager.getSpanCount()) {
                 LoaderManager.getInstance(MainActivity.this).initLoader(nextArticleLoaderId, null, loaderCallbacks);
             }
         }
+
+        /**
+         * Handles scrollStateChanged event. On this event, prefetch the body texts of the visible
+         * {@link Article} objects once scrolling comes to rest.
+         *
+         * @param recyclerView {@link RecyclerView} object whose scroll state changed.
+         * @param newState     The new scroll state.
+         */
+        @Override
+        public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+            super.onScrollStateChanged(recyclerView, newState);
+            if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                prefetchVisibleArticleBodies();
+            }
+        }
     };
 
     /**
      * {@link LoaderManager.LoaderCallbacks} object that defines how the {@link ArticleLoader}
      * handles its createLoader, loadFinished, and loaderReset events.
      */
-    private final LoaderManager.LoaderCallbacks<List<Article>> loaderCallbacks = new LoaderManager.LoaderCallbacks<List<Article>>() {
+    private final LoaderManager.LoaderCallbacks<ArticlePage> loaderCallbacks = new LoaderManager.LoaderCallbacks<ArticlePage>() {
 
         /**
          * Handles createLoader event. On this event, update the UI to a loading state, get the user
@@ -140,42 +192,76 @@ public class MainActivity extends AppCompatActivity {
          */
         @NonNull
         @Override
-        public Loader<List<Article>> onCreateLoader(int id, @Nullable Bundle args) {
+        public Loader<ArticlePage> onCreateLoader(int id, @Nullable Bundle args) {
+
+            // Remember which feed generation this loader belongs to.
+            loaderFeedGenerations.put(id, feedGeneration);
 
             // Update UI to loading.
             articleAdapter.showFooterView(ArticleAdapter.VIEW_TYPE_LOADING);
             layoutManager.scrollToPosition(articleAdapter.getItemCount() - 1);
 
-            // Get user preferences for order by and search term from SharedPreferences.
-            SharedPreferences sharedPreferences = PreferenceManager.getDefaultSharedPreferences(MainActivity.this);
-            String orderByPreferenceValue = sharedPreferences.getString(getString(R.string.order_by_key), getString(R.string.order_by_default_value));
-            String searchTermPreferenceValue = sharedPreferences.getString(getString(R.string.search_term_key), getString(R.string.search_term_default_value));
+            // Get user settings for order by, search term, and sections from the in-memory
+            // snapshot.
+            String orderByPreferenceValue = settings.getOrderBy();
+            String searchTermPreferenceValue = settings.getSearchTerm();
+            List<String> sections = settings.getSections();
+
+            // Return a new MergedArticleLoader object if several sections are followed.
+            if (!sections.isEmpty()) {
+                if (mergedArticleFeed == null || !mergedArticleFeed.matches(orderByPreferenceValue, searchTermPreferenceValue, sections)) {
+                    mergedArticleFeed = new MergedArticleFeed(orderByPreferenceValue, searchTermPreferenceValue, feedPageSize, sections);
+                }
+                MergedArticleLoader mergedArticleLoader = new MergedArticleLoader(MainActivity.this, mergedArticleFeed, feedPageSize);
+                mergedArticleLoader.registerOnLoadCanceledListener(onLoadCanceledListener);
+                return mergedArticleLoader;
+            }
 
-            // Return a new ArticleLoader object.
-            ArticleLoader articleLoader = new ArticleLoader(MainActivity.this, orderByPreferenceValue, nextPageIndex, searchTermPreferenceValue);
+            // Return a new ArticleLoader object otherwise.
+            ArticleLoader articleLoader = new ArticleLoader(MainActivity.this, orderByPreferenceValue, nextPageIndex, feedPageSize, searchTermPreferenceValue);
             articleLoader.registerOnLoadCanceledListener(onLoadCanceledListener);
+            if (settings.isProgressiveLoadingEnabled()) {
+                articleLoader.setOnArticlesParsedListener(onArticlesParsedListener);
+            }
             return articleLoader;
         }
 
         /**
          * Handles loadFinished event. On this event, hide the loading view in the
-         * {@link RecyclerView} and add the {@link List} returned by the completed
-         * {@link ArticleLoader} to the {@link ArticleAdapter}. Then, remove the scroll listener
-         * if no data was returned by the {@link ArticleLoader}. Then, increment the
+         * {@link RecyclerView} and add the {@link Article} objects of the {@link ArticlePage}
+         * returned by the completed {@link ArticleLoader} to the {@link ArticleAdapter}, skipping
+         * the ones that were already shown while the page was downloading. Then,
+         * remove the scroll listener if it was the last page, so that no page past it is
+         * requested, and update the progress shown in the action bar. Then, increment the
          * nextArticleLoaderId and nextPageIndex global variables for future {@link ArticleLoader}
          * objects. Finally, destroy the completed {@link ArticleLoader}.
          *
-         * @param loader    {@link ArticleLoader} object that completed.
-         * @param data      {@link List} of {@link Article} objects returned by the completed
-         *                  {@link ArticleLoader} object.
+         * @param loader      {@link ArticleLoader} object that completed.
+         * @param articlePage {@link ArticlePage} object returned by the completed
+         *                    {@link ArticleLoader} object.
          */
         @Override
-        public void onLoadFinished(@NonNull Loader<List<Article>> loader, List<Article> data) {
+        public void onLoadFinished(@NonNull Loader<ArticlePage> loader, ArticlePage articlePage) {
+
+            // Drop results of a feed that was reset while they were loading.
+            if (!isCurrentFeedGeneration(loader)) {
+                LoadMetrics.recordDroppedResult();
+                destroyArticleLoader(loader);
+                return;
+            }
 
             // Update UI.
+            StartupTracer.beginSection(StartupTracer.SECTION_PAGE_BIND);
+            List<Article> articles = articlePage.getArticles();
+            SearchSuggestionIndex.getInstance(MainActivity.this).addArticles(articles);
             articleAdapter.hideFooterView();
-            articleAdapter.addAllArticles(data);
-            if (data.isEmpty()) {
+            articleAdapter.addAllArticles(articles.subList(Math.min(progressiveArticleCount, articles.size()), articles.size()));
+            progressiveArticleCount = 0;
+            if (articlePage.getTotal() >= 0) {
+                totalArticleCount = articlePage.getTotal();
+            }
+            updateActionBarTitle();
+            if (articlePage.isLastPage()) {
                 recyclerView.removeOnScrollListener(onScrollListener);
                 if (articleAdapter.getItemCount() == 0) {
                     emptyListTextView.setVisibility(View.VISIBLE);
@@ -183,17 +269,25 @@ public class MainActivity extends AppCompatActivity {
                     articleAdapter.showFooterView(ArticleAdapter.VIEW_TYPE_END_OF_LIST);
                 }
             }
+            StartupTracer.endSection(StartupTracer.SECTION_PAGE_BIND);
+            reportFullyDrawnOnNextDraw();
+
+            // Prefetch body texts of the articles now on screen.
+            recyclerView.post(prefetchVisibleArticleBodiesRunnable);
+
+            // Let the cache governor check the heap budget now that the list grew.
+            CacheGovernor.getInstance().requestBudgetCheck();
 
             // Increment global variables.
             nextArticleLoaderId++;
             nextPageIndex++;
 
             // Destroy ArticleLoader.
-            LoaderManager.getInstance(MainActivity.this).destroyLoader(loader.getId());
+            destroyArticleLoader(loader);
         }
 
         @Override
-        public void onLoaderReset(@NonNull Loader<List<Article>> loader) {
+        public void onLoaderReset(@NonNull Loader<ArticlePage> loader) {
         }
     };
 
@@ -201,21 +295,323 @@ public class MainActivity extends AppCompatActivity {
      * {@link Loader.OnLoadCanceledListener} object that defines how an {@link ArticleLoader}
      * handles its loadCanceled event.
      */
-    private final Loader.OnLoadCanceledListener<List<Article>> onLoadCanceledListener = new Loader.OnLoadCanceledListener<List<Article>>() {
+    private final Loader.OnLoadCanceledListener<ArticlePage> onLoadCanceledListener = new Loader.OnLoadCanceledListener<ArticlePage>() {
 
         /**
-         * Handles loadCanceled event. On this event, show an error view in the
+         * Handles loadCanceled event. On this event, remove the rows shown while the page was
+         * downloading so that a retry does not repeat them, show an error view in the
          * {@link RecyclerView}, remove the scroll listener from the {@link RecyclerView}, and
          * destroy the canceled {@link ArticleLoader}.
          *
          * @param loader    {@link Loader} object that was canceled.
          */
         @Override
-        public void onLoadCanceled(@NonNull Loader<List<Article>> loader) {
+        public void onLoadCanceled(@NonNull Loader<ArticlePage> loader) {
+            if (!isCurrentFeedGeneration(loader)) {
+                destroyArticleLoader(loader);
+                return;
+            }
+            articleAdapter.removeLastArticles(progressiveArticleCount);
+            progressiveArticleCount = 0;
             articleAdapter.hideFooterView();
             articleAdapter.showFooterView(ArticleAdapter.VIEW_TYPE_ERROR);
             recyclerView.removeOnScrollListener(onScrollListener);
-            LoaderManager.getInstance(MainActivity.this).destroyLoader(loader.getId());
+            destroyArticleLoader(loader);
+        }
+    };
+
+    /**
+     * {@link ArticleLoader.OnArticlesParsedListener} object that shows the articles of the running
+     * {@link ArticleLoader} while its page is still downloading.
+     */
+    private final ArticleLoader.OnArticlesParsedListener onArticlesParsedListener = new ArticleLoader.OnArticlesParsedListener() {
+
+        /**
+         * Handles articlesParsed event. On this event, add the batch of articles to the
+         * {@link ArticleAdapter} above the loading view and remember how many rows were shown
+         * ahead of the complete page.
+         *
+         * @param loader   {@link ArticleLoader} the articles were parsed by.
+         * @param articles {@link List} of parsed {@link Article} objects.
+         */
+        @Override
+        public void onArticlesParsed(ArticleLoader loader, List<Article> articles) {
+            if (loader.getId() != nextArticleLoaderId || !isCurrentFeedGeneration(loader) || sparseArticleList != null) {
+                return;
+            }
+            StartupTracer.beginSection(StartupTracer.SECTION_PAGE_BIND);
+            articleAdapter.addAllArticles(articles);
+            progressiveArticleCount += articles.size();
+            StartupTracer.endSection(StartupTracer.SECTION_PAGE_BIND);
+            reportFullyDrawnOnNextDraw();
+        }
+    };
+
+    /**
+     * {@link CacheGovernor.ManagedCache} object that lets the {@link CacheGovernor} trim the
+     * {@link Article} objects held by the {@link ArticleAdapter}.
+     */
+    private final CacheGovernor.ManagedCache articleListCache = new CacheGovernor.ManagedCache() {
+
+        @Override
+        public String getName() {
+            return "article list";
+        }
+
+        /**
+         * Returns the estimated size of the loaded {@link Article} objects, which the
+         * {@link ArticleAdapter} keeps up to date.
+         */
+        @Override
+        public long getSizeBytes() {
+            return articleAdapter.estimateArticleSizeBytes();
+        }
+
+        /**
+         * Trims the loaded {@link Article} objects by evicting the pages farthest from the screen,
+         * which turn back into placeholders and are reloaded when scrolled to. A sequentially
+         * paged feed is moved into a {@link SparseArticleList} first. A merged feed, or a feed
+         * whose size is unknown, cannot reload single pages and is left alone.
+         */
+        @Override
+        public void trimToSize(long targetSizeBytes) {
+            if (sparseArticleList == null) {
+                if (mergedArticleFeed != null || totalArticleCount < 0 || articleAdapter.getArticles().isEmpty()) {
+                    return;
+                }
+                enterSparseModeKeepingLoadedArticles();
+                recyclerView.post(requestVisibleSparsePagesRunnable);
+            }
+            long pageSizeBytes = Math.max(1, sparseArticleList.estimateSizeBytes() / Math.max(1, sparseArticleList.getLoadedPageCount()));
+            trimSparsePages((int) Math.max(MIN_SPARSE_PAGE_COUNT, Math.min(MAX_SPARSE_PAGE_COUNT, targetSizeBytes / pageSizeBytes)));
+        }
+    };
+
+    /**
+     * {@link LoaderManager.LoaderCallbacks} object that defines how the {@link ArticleLoader}
+     * objects of single pages of a {@link SparseArticleList} handle their createLoader,
+     * loadFinished, and loaderReset events. Their loader ids are the negated page indices.
+     */
+    private final LoaderManager.LoaderCallbacks<ArticlePage> sparsePageLoaderCallbacks = new LoaderManager.LoaderCallbacks<ArticlePage>() {
+
+        /**
+         * Handles createLoader event. On this event, return a new {@link ArticleLoader} object for
+         * the page passed in the arguments.
+         *
+         * @param id   int id of the {@link ArticleLoader} to be created.
+         * @param args {@link Bundle} object containing the page index.
+         * @return A new {@link ArticleLoader} object.
+         */
+        @NonNull
+        @Override
+        public Loader<ArticlePage> onCreateLoader(int id, @Nullable Bundle args) {
+            loaderFeedGenerations.put(id, feedGeneration);
+            int pageIndex = args == null ? 1 : args.getInt(PAGE_INDEX_ARG, 1);
+            ArticleLoader articleLoader = new ArticleLoader(MainActivity.this, settings.getOrderBy(), pageIndex, feedPageSize, settings.getSearchTerm());
+            articleLoader.registerOnLoadCanceledListener(sparsePageOnLoadCanceledListener);
+            return articleLoader;
+        }
+
+        /**
+         * Handles loadFinished event. On this event, fill the placeholders of the loaded page,
+         * evict pages far away from what is on screen, and destroy the completed
+         * {@link ArticleLoader}.
+         *
+         * @param loader      {@link ArticleLoader} object that completed.
+         * @param articlePage {@link ArticlePage} object returned by the completed
+         *                    {@link ArticleLoader} object.
+         */
+        @Override
+        public void onLoadFinished(@NonNull Loader<ArticlePage> loader, ArticlePage articlePage) {
+            if (!isCurrentFeedGeneration(loader) || sparseArticleList == null) {
+                LoadMetrics.recordDroppedResult();
+                destroyArticleLoader(loader);
+                return;
+            }
+            int pageIndex = -loader.getId();
+            sparseArticleList.putPage(pageIndex, articlePage.getArticles());
+            articleAdapter.notifyItemRangeChanged(sparseArticleList.getFirstPosition(pageIndex), sparseArticleList.getPositionCount(pageIndex));
+            trimSparsePages(MAX_SPARSE_PAGE_COUNT);
+            CacheGovernor.getInstance().requestBudgetCheck();
+            updateActionBarTitle();
+            recyclerView.post(prefetchVisibleArticleBodiesRunnable);
+            destroyArticleLoader(loader);
+        }
+
+        @Override
+        public void onLoaderReset(@NonNull Loader<ArticlePage> loader) {
+        }
+    };
+
+    /**
+     * {@link Loader.OnLoadCanceledListener} object that defines how an {@link ArticleLoader} of a
+     * single page handles its loadCanceled event. The page keeps its placeholders and is requested
+     * again the next time it is on screen while scrolling is at rest.
+     */
+    private final Loader.OnLoadCanceledListener<ArticlePage> sparsePageOnLoadCanceledListener = new Loader.OnLoadCanceledListener<ArticlePage>() {
+        @Override
+        public void onLoadCanceled(@NonNull Loader<ArticlePage> loader) {
+            destroyArticleLoader(loader);
+        }
+    };
+
+    /**
+     * {@link androidx.recyclerview.widget.RecyclerView.OnScrollListener} that loads the pages of a
+     * {@link SparseArticleList} once scrolling comes to rest, so that pages merely scrolled past
+     * are never requested.
+     */
+    private final RecyclerView.OnScrollListener sparseOnScrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+            super.onScrollStateChanged(recyclerView, newState);
+            if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                requestVisibleSparsePages();
+                prefetchVisibleArticleBodies();
+            }
+        }
+    };
+
+    /**
+     * {@link Runnable} that requests the pages of a {@link SparseArticleList} that are on screen.
+     */
+    private final Runnable requestVisibleSparsePagesRunnable = new Runnable() {
+        @Override
+        public void run() {
+            requestVisibleSparsePages();
+        }
+    };
+
+    /**
+     * {@link Handler} for posting debounced search term changes onto the main thread.
+     */
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * {@link Runnable} that applies the pending search term once the user stops typing.
+     */
+    private final Runnable applySearchTermRunnable = new Runnable() {
+        @Override
+        public void run() {
+            applySearchTerm(pendingSearchTerm);
+        }
+    };
+
+    /**
+     * {@link Runnable} that prefetches the body texts of the visible {@link Article} objects.
+     */
+    private final Runnable prefetchVisibleArticleBodiesRunnable = new Runnable() {
+        @Override
+        public void run() {
+            prefetchVisibleArticleBodies();
+        }
+    };
+
+    /**
+     * {@link NetworkMonitor.OnLoadingProfileChangedListener} object that applies a new
+     * {@link LoadingProfile} when the network connection changes.
+     */
+    private final NetworkMonitor.OnLoadingProfileChangedListener onLoadingProfileChangedListener = new NetworkMonitor.OnLoadingProfileChangedListener() {
+
+        /**
+         * Handles loadingProfileChanged event. On this event, apply the new {@link LoadingProfile}
+         * to the {@link ArticleAdapter}. The page size of the current feed is kept so that page
+         * indices stay consistent; it is only applied to the next feed.
+         *
+         * @param newLoadingProfile {@link LoadingProfile} matching the new active network.
+         */
+        @Override
+        public void onLoadingProfileChanged(LoadingProfile newLoadingProfile) {
+            loadingProfile = newLoadingProfile;
+            articleAdapter.setThumbnailsEnabled(loadingProfile.loadsImages());
+        }
+    };
+
+    /**
+     * {@link ReadStateStore.OnReadStateChangedListener} object that restyles the {@link Article}
+     * views once the read states finished loading.
+     */
+    private final ReadStateStore.OnReadStateChangedListener onReadStateChangedListener = new ReadStateStore.OnReadStateChangedListener() {
+        @Override
+        public void onReadStateChanged() {
+            refreshVisibleReadState();
+        }
+    };
+
+    /**
+     * {@link SettingsRepository.OnSettingsChangedListener} object that applies settings changed
+     * elsewhere, e.g. in the {@link SettingsActivity}. The feed is only reset if a setting it is
+     * requested with changed.
+     */
+    private final SettingsRepository.OnSettingsChangedListener onSettingsChangedListener = new SettingsRepository.OnSettingsChangedListener() {
+        @Override
+        public void onSettingsChanged(SettingsRepository.Settings newSettings) {
+            SettingsRepository.Settings oldSettings = settings;
+            settings = newSettings;
+            GuardianApiClient.applyHttpTransportPreference(MainActivity.this);
+            articleAdapter.setFlatRowsEnabled(settings.isFlatRowsEnabled());
+            articleAdapter.setHideRead(settings.isHideRead());
+            if (!settings.hasSameFeed(oldSettings)) {
+                if (!settings.getSearchTerm().equals(oldSettings.getSearchTerm())) {
+                    SearchSuggestionIndex.getInstance(MainActivity.this).addSubmittedTerm(settings.getSearchTerm());
+                    invalidateOptionsMenu();
+                }
+                resetArticleFeed();
+            }
+        }
+    };
+
+    /**
+     * {@link SettingsRepository.OnSettingsLoadedListener} object that applies the user settings
+     * once they were loaded, and only then starts or restores the feed.
+     */
+    private final SettingsRepository.OnSettingsLoadedListener onSettingsLoadedListener = new SettingsRepository.OnSettingsLoadedListener() {
+        @Override
+        public void onSettingsLoaded(SettingsRepository.Settings loadedSettings) {
+            applyLoadedSettings(loadedSettings);
+        }
+    };
+
+    /**
+     * {@link SearchView.OnQueryTextListener} object that defines how the inline {@link SearchView}
+     * handles its queryTextChange and queryTextSubmit events.
+     */
+    private final SearchView.OnQueryTextListener onQueryTextListener = new SearchView.OnQueryTextListener() {
+
+        /**
+         * Handles queryTextSubmit event. On this event, apply the submitted search term right away
+         * instead of waiting for the debounce delay.
+         *
+         * @param query {@link String} submitted by the user.
+         * @return True to consume the event.
+         */
+        @Override
+        public boolean onQueryTextSubmit(String query) {
+            searchHandler.removeCallbacks(applySearchTermRunnable);
+            pendingSearchTerm = query.trim();
+            SearchSuggestionIndex.getInstance(MainActivity.this).addSubmittedTerm(pendingSearchTerm);
+            applySearchTerm(pendingSearchTerm);
+            return true;
+        }
+
+        /**
+         * Handles queryTextChange event. On this event, suggest search terms starting with the
+         * typed text, abort the requests of the current feed if the typed text differs from its
+         * search term, and restart the debounce delay so that only the search term the user
+         * settles on results in a request.
+         *
+         * @param newText {@link String} currently typed by the user.
+         * @return True to consume the event.
+         */
+        @Override
+        public boolean onQueryTextChange(String newText) {
+            searchHandler.removeCallbacks(applySearchTermRunnable);
+            pendingSearchTerm = newText.trim();
+            if (!pendingSearchTerm.equals(settings.getSearchTerm())) {
+                abortFeedLoads();
+            }
+            updateSearchSuggestions(newText);
+            searchHandler.postDelayed(applySearchTermRunnable, SEARCH_DEBOUNCE_DELAY_MILLIS);
+            return true;
         }
     };
 
@@ -226,9 +622,16 @@ public class MainActivity extends AppCompatActivity {
     private ArticleAdapter articleAdapter;
 
     /**
-     * {@link LinearLayoutManager} responsible for positioning views in the {@link RecyclerView}.
+     * {@link SimpleCursorAdapter} for binding search term suggestions to the drop down of the
+     * {@link SearchView}, or null while the options menu is not created.
+     */
+    private SimpleCursorAdapter searchSuggestionsAdapter;
+
+    /**
+     * {@link GridLayoutManager} responsible for positioning views in the {@link RecyclerView}. It
+     * has a single column on phones.
      */
-    private LinearLayoutManager layoutManager;
+    private GridLayoutManager layoutManager;
 
     /**
      * {@link RecyclerView} for displaying a {@link List} of {@link Article} objects.
@@ -251,28 +654,147 @@ public class MainActivity extends AppCompatActivity {
      */
     private int nextPageIndex;
 
+    /**
+     * int representing how many articles of the running {@link ArticleLoader} were shown before
+     * its page completed.
+     */
+    private int progressiveArticleCount;
+
+    /**
+     * boolean indicating whether this activity reported being fully drawn.
+     */
+    private boolean fullyDrawnReported;
+
+    /**
+     * {@link String} holding the search term typed into the inline {@link SearchView} that has not
+     * been applied yet.
+     */
+    private String pendingSearchTerm;
+
+    /**
+     * {@link MergedArticleFeed} whose articles are shown when the user follows several sections.
+     * It is null while a single query is shown.
+     */
+    private MergedArticleFeed mergedArticleFeed;
+
+    /**
+     * {@link LoadingProfile} matching the active network connection.
+     */
+    private LoadingProfile loadingProfile;
+
+    /**
+     * {@link SettingsRepository.Settings} snapshot the feed is requested with. It holds the default
+     * settings until the user settings were loaded.
+     */
+    private SettingsRepository.Settings settings;
+
+    /**
+     * boolean indicating whether the user settings were applied by
+     * {@link MainActivity#applyLoadedSettings(SettingsRepository.Settings)}.
+     */
+    private boolean settingsLoaded;
+
+    /**
+     * {@link Bundle} instance state this activity was recreated with, kept until the user settings
+     * were loaded and the feed it holds can be restored. null if there is none.
+     */
+    private Bundle restoredInstanceState;
+
+    /**
+     * {@link String} key of the feed shown, see {@link SavedFeed#getKey(String, String, List)}.
+     */
+    private String currentFeedKey;
+
+    /**
+     * int representing how many articles are requested per page for the current feed. It is taken
+     * from the {@link LoadingProfile} when the feed starts and kept until the feed is reset.
+     */
+    private int feedPageSize;
+
+    /**
+     * int representing the generation of the current feed. It is incremented every time the feed
+     * is reset, so that loads started for an earlier feed can be recognized and dropped.
+     */
+    private int feedGeneration;
+
+    /**
+     * boolean indicating whether the loads of the current feed were aborted because the user
+     * started typing another search term. They are resumed if the search term ends up unchanged.
+     */
+    private boolean feedLoadsAborted;
+
+    /**
+     * int representing how many articles the current feed has in total, or -1 if unknown.
+     */
+    private int totalArticleCount;
+
+    /**
+     * {@link SparseArticleList} adapted after the user jumped to a page. It is null while the feed
+     * is paged sequentially.
+     */
+    private SparseArticleList sparseArticleList;
+
+    /**
+     * {@link SparseIntArray} mapping the id of each running {@link ArticleLoader} to the feed
+     * generation it was created for.
+     */
+    private final SparseIntArray loaderFeedGenerations = new SparseIntArray();
+
     /**
      * Callback method invoked exactly once when this activity is created. On this event, setup the
-     * {@link RecyclerView} and its helper objects, setup the empty list {@link TextView},
-     * initialize the global {@link ArticleLoader} variables, and initialize a new
-     * {@link ArticleLoader} object.
+     * {@link RecyclerView} and its helper objects, setup the empty list {@link TextView}, and
+     * initialize the global {@link ArticleLoader} variables, all with the settings served right
+     * away. The feed is started or restored once the user settings were loaded, which is
+     * immediately unless the process just started. Each of these phases is traced by the
+     * {@link StartupTracer}.
      *
      * @param savedInstanceState {@link Bundle} object where instance state from a previous
      *                           configuration change is stored.
      */
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        StartupTracer.startWarmLaunch();
+        StartupTracer.beginSection(StartupTracer.SECTION_ACTIVITY_CREATE);
         super.onCreate(savedInstanceState);
+        StartupTracer.beginSection(StartupTracer.SECTION_INFLATE_LAYOUT);
         setContentView(R.layout.activity_main);
+        StartupTracer.endSection(StartupTracer.SECTION_INFLATE_LAYOUT);
+
+        // Setup with the settings served right away, the defaults while the user settings are
+        // still loading.
+        settings = SettingsRepository.getInstance(this).getSettings();
 
-        // Setup article adapter.
+        // Start loading the search suggestion index before the search view is first expanded.
+        SearchSuggestionIndex.getInstance(this);
+
+        // Remember which feed is shown and start reading the saved feeds.
+        currentFeedKey = SavedFeed.getKey(settings);
+        SavedFeedRepository.getInstance(this);
+
+        // Setup loading profile.
+        NetworkMonitor networkMonitor = NetworkMonitor.getInstance(this);
+        loadingProfile = networkMonitor.getLoadingProfile();
+        networkMonitor.addOnLoadingProfileChangedListener(onLoadingProfileChangedListener);
+
+        // Setup article adapter and let the cache governor trim its articles.
+        StartupTracer.beginSection(StartupTracer.SECTION_SETUP_FEED_VIEWS);
         articleAdapter = new ArticleAdapter(this);
+        articleAdapter.setThumbnailsEnabled(loadingProfile.loadsImages());
+        articleAdapter.setFlatRowsEnabled(settings.isFlatRowsEnabled());
+        articleAdapter.setHideRead(settings.isHideRead());
+        CacheGovernor.getInstance().register(articleListCache, CacheGovernor.PRIORITY_HIGH);
+        ReadStateStore.getInstance(this).addOnReadStateChangedListener(onReadStateChangedListener);
 
-        // Setup linear layout manager.
-        layoutManager = new LinearLayoutManager(this);
+        // Setup grid layout manager with as many columns as fit the screen. Footer views span
+        // every column.
+        int columnCount = getArticleColumnCount();
+        layoutManager = articleAdapter.createGridLayoutManager(this, columnCount);
 
-        // Setup recycler view.
+        // Setup recycler view. Its view pool and cache grow with the column count, so that a row
+        // scrolled by does not cost more inflations or binds in wider grids.
         recyclerView = findViewById(R.id.article_recycler_view);
+        recyclerView.setHasFixedSize(true);
+        ArticleAdapter.configureGridRecycling(recyclerView, columnCount);
         recyclerView.setAdapter(articleAdapter);
         recyclerView.setLayoutManager(layoutManager);
         recyclerView.setItemAnimator(new DefaultItemAnimator());
@@ -282,23 +804,128 @@ public class MainActivity extends AppCompatActivity {
 
         // Setup empty list text view.
         emptyListTextView = findViewById(R.id.empty_list_text_view);
+        StartupTracer.endSection(StartupTracer.SECTION_SETUP_FEED_VIEWS);
 
         // Initialize id and page index for ArticleLoader objects.
         nextArticleLoaderId = 0;
         nextPageIndex = 1;
+        feedPageSize = loadingProfile.getPageSize();
+        totalArticleCount = -1;
 
         // Update action bar title.
         updateActionBarTitle();
 
-        // Start new ArticleLoader if not restoring an instance state.
-        if (savedInstanceState == null) {
+        // Start or restore the feed once the user settings were loaded, without waiting for them
+        // here.
+        restoredInstanceState = savedInstanceState;
+        SettingsRepository.getInstance(this).addOnSettingsLoadedListener(onSettingsLoadedListener);
+        StartupTracer.endSection(StartupTracer.SECTION_ACTIVITY_CREATE);
+    }
+
+    /**
+     * Applies the user settings once they were loaded: selects the network engine, restyles the
+     * article views, starts listening for changes, and then restores the feed of the instance
+     * state this activity was recreated with, or else starts a new {@link ArticleLoader}. If the
+     * user already reset the feed with the default settings and they request another feed, it is
+     * reset again.
+     *
+     * @param loadedSettings Loaded {@link SettingsRepository.Settings} snapshot.
+     */
+    private void applyLoadedSettings(SettingsRepository.Settings loadedSettings) {
+        SettingsRepository.Settings defaultSettings = settings;
+        settings = loadedSettings;
+        settingsLoaded = true;
+        GuardianApiClient.applyHttpTransportPreference(this);
+        SettingsRepository.getInstance(this).addOnSettingsChangedListener(onSettingsChangedListener);
+        currentFeedKey = SavedFeed.getKey(settings);
+        articleAdapter.setFlatRowsEnabled(settings.isFlatRowsEnabled());
+        articleAdapter.setHideRead(settings.isHideRead());
+        updateActionBarTitle();
+        if (!settings.equals(defaultSettings)) {
+            invalidateOptionsMenu();
+        }
+
+        Bundle savedInstanceState = restoredInstanceState;
+        restoredInstanceState = null;
+        if (savedInstanceState != null && savedInstanceState.containsKey(NEXT_PAGE_INDEX_KEY)) {
+            nextArticleLoaderId = savedInstanceState.getInt(NEXT_ARTICLE_LOADER_ID_KEY);
+            restoreFeedState(savedInstanceState);
+            if (!articleAdapter.getArticles().isEmpty()) {
+                reportFullyDrawnOnNextDraw();
+            }
+        } else if (!LoaderManager.getInstance(this).hasRunningLoaders() && articleAdapter.getArticles().isEmpty()) {
+            StartupTracer.beginSection(StartupTracer.SECTION_START_LOADER);
             LoaderManager.getInstance(MainActivity.this).initLoader(nextArticleLoaderId, null, loaderCallbacks);
+            StartupTracer.endSection(StartupTracer.SECTION_START_LOADER);
+        } else if (!settings.hasSameFeed(defaultSettings)) {
+            resetArticleFeed();
+        }
+    }
+
+    /**
+     * Callback method invoked when this activity returns to the foreground. On this event, restyle
+     * the {@link Article} views, since articles may have been read in the meantime, and refresh
+     * the saved feeds that are not visible in the background.
+     */
+    @Override
+    protected void onResume() {
+        super.onResume();
+        refreshVisibleReadState();
+        SavedFeedRepository.getInstance(this).refreshInBackground(currentFeedKey, loadingProfile);
+    }
+
+    /**
+     * Callback method invoked when this activity is no longer visible. On this event, persist the
+     * search suggestion index, and in debug builds report the stats of the subsystems.
+     */
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (BuildConfig.DEBUG) {
+            logStats();
         }
+        SearchSuggestionIndex.getInstance(this).persist();
+    }
+
+    /**
+     * Logs the thumbnail cache hit rates and decode times, the remaining API budget, the work
+     * wasted on aborted loads, the cache sizes, the memory held by the read states, the view holder
+     * creations and binds, the size and lookup times of the search suggestion index, the saved
+     * feed refreshes and switches, and the size of the article archive. Every summary is built
+     * from counters, so none of them visits the loaded articles.
+     */
+    private void logStats() {
+        ImageLoader.getInstance(this).logStats();
+        ApiQuotaManager.getInstance(this).logStats();
+        LoadMetrics.logSummary();
+        CacheGovernor.getInstance().logStats();
+        ReadStateStore.getInstance(this).logStats();
+        articleAdapter.logStats();
+        SearchSuggestionIndex.getInstance(this).logStats();
+        SavedFeedRepository.getInstance(this).logStats();
+        ArticleArchive.getInstance(this).logStats();
+    }
+
+    /**
+     * Callback method invoked when this activity is destroyed. On this event, drop any pending
+     * search term change and stop listening for network changes.
+     */
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        searchHandler.removeCallbacks(applySearchTermRunnable);
+        NetworkMonitor.getInstance(this).removeOnLoadingProfileChangedListener(onLoadingProfileChangedListener);
+        CacheGovernor.getInstance().unregister(articleListCache);
+        ReadStateStore.getInstance(this).removeOnReadStateChangedListener(onReadStateChangedListener);
+        SettingsRepository settingsRepository = SettingsRepository.getInstance(this);
+        settingsRepository.removeOnSettingsLoadedListener(onSettingsLoadedListener);
+        settingsRepository.removeOnSettingsChangedListener(onSettingsChangedListener);
     }
 
     /**
      * Callback method invoked when this activity needs a new options menu. On this event, inflate
-     * the options menu defined at {@link R.menu#menu_main}.
+     * the options menu defined at {@link R.menu#menu_main} and setup the inline
+     * {@link SearchView}.
      *
      * @param menu {@link Menu} object in which you place your items.
      * @return Whether the menu will be displayed.
@@ -306,14 +933,57 @@ public class MainActivity extends AppCompatActivity {
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         getMenuInflater().inflate(R.menu.menu_main, menu);
+        menu.findItem(R.id.action_hide_read).setChecked(settings.isHideRead());
+
+        // Drop the empty search term posted when a previous menu collapsed its SearchView, and
+        // resume the loads it aborted.
+        searchHandler.removeCallbacks(applySearchTermRunnable);
+        resumeFeedLoads();
+
+        MenuItem searchMenuItem = menu.findItem(R.id.action_search);
+        final SearchView searchView = (SearchView) searchMenuItem.getActionView();
+        if (searchView != null) {
+            String searchTermPreferenceValue = settings.getSearchTerm();
+            searchView.setQueryHint(getString(R.string.action_search_hint));
+            searchView.setMaxWidth(Integer.MAX_VALUE);
+
+            // Show suggestions from the search suggestion index, and submit a clicked one.
+            searchSuggestionsAdapter = new SimpleCursorAdapter(this, android.R.layout.simple_list_item_1, null,
+                    new String[]{SEARCH_SUGGESTION_COLUMN}, new int[]{android.R.id.text1}, 0);
+            searchView.setSuggestionsAdapter(searchSuggestionsAdapter);
+            searchView.setOnSuggestionListener(new SearchView.OnSuggestionListener() {
+                @Override
+                public boolean onSuggestionSelect(int position) {
+                    return false;
+                }
+
+                @Override
+                public boolean onSuggestionClick(int position) {
+                    Cursor cursor = searchSuggestionsAdapter.getCursor();
+                    if (cursor != null && cursor.moveToPosition(position)) {
+                        searchView.setQuery(cursor.getString(cursor.getColumnIndexOrThrow(SEARCH_SUGGESTION_COLUMN)), true);
+                    }
+                    return true;
+                }
+            });
+
+            if (!searchTermPreferenceValue.isEmpty()) {
+                searchMenuItem.expandActionView();
+                searchView.setQuery(searchTermPreferenceValue, false);
+                searchView.clearFocus();
+            }
+            searchView.setOnQueryTextListener(onQueryTextListener);
+        }
         return true;
     }
 
     /**
      * Callback method invoked when an options menu item is clicked. On this event, check which
-     * menu item is clicked. If it's the refresh action, call
-     * {@link MainActivity#onActivityResult(int, int, Intent)} to refresh the list. If it's the
-     * settings action, create an intent for the {@link SettingsActivity}.
+     * menu item is clicked. If it's the refresh action, reset the feed to refresh the list. If
+     * it's the saved feeds action, show the saved feeds dialog. If it's the hide read action,
+     * toggle and persist whether read articles are hidden. If it's the filter action, show the
+     * filter dialog. If it's the settings action, create an intent for the
+     * {@link SettingsActivity}.
      *
      * @param item {@link MenuItem} that was clicked.
      * @return False to allow normal menu processing to proceed. True to consume it here.
@@ -322,11 +992,28 @@ public class MainActivity extends AppCompatActivity {
     public boolean onOptionsItemSelected(@NonNull MenuItem item) {
         int selectedOptionsItemId = item.getItemId();
         if (selectedOptionsItemId == R.id.action_refresh) {
-            onActivityResult(0, 0, null);
+            resetArticleFeed();
+            return true;
+        } else if (selectedOptionsItemId == R.id.action_saved_feeds) {
+            showSavedFeedsDialog();
+            return true;
+        } else if (selectedOptionsItemId == R.id.action_jump_to_page) {
+            showJumpToPageDialog();
+            return true;
+        } else if (selectedOptionsItemId == R.id.action_filter) {
+            showFilterDialog();
+            return true;
+        } else if (selectedOptionsItemId == R.id.action_hide_read) {
+            boolean hideRead = !item.isChecked();
+            item.setChecked(hideRead);
+            SettingsRepository settingsRepository = SettingsRepository.getInstance(this);
+            settingsRepository.setHideRead(hideRead);
+            settings = settingsRepository.getSettings();
+            articleAdapter.setHideRead(hideRead);
             return true;
         } else if (selectedOptionsItemId == R.id.action_settings) {
             Intent intent = new Intent(this, SettingsActivity.class);
-            startActivityForResult(intent, 0);
+            startActivity(intent);
             return true;
         } else {
             return false;
@@ -336,35 +1023,75 @@ public class MainActivity extends AppCompatActivity {
     /**
      * Callback method invoked when this activity needs to save its instance state before a possible
      * configuration change. On this event, save the state of the global {@link ArticleLoader}
-     * variables, the empty list {@link TextView}, and the {@link RecyclerView}.
+     * variables, the empty list {@link TextView}, and the {@link RecyclerView}. If the user
+     * settings did not load yet, there is no feed to save, and the recreated activity starts a new
+     * one.
      *
      * @param outState {@link Bundle} object where the instance state is saved.
      */
     @Override
     protected void onSaveInstanceState(@NonNull Bundle outState) {
         super.onSaveInstanceState(outState);
+        if (!settingsLoaded) {
+            return;
+        }
         outState.putInt(NEXT_ARTICLE_LOADER_ID_KEY, nextArticleLoaderId);
+        saveFeedState(outState);
+    }
+
+    /**
+     * Saves the state of the current feed: the paging variables, the empty list {@link TextView},
+     * and the {@link RecyclerView}. Loader ids are left out, since they belong to this activity
+     * rather than to the feed.
+     *
+     * @param outState {@link Bundle} object where the feed state is saved.
+     */
+    private void saveFeedState(Bundle outState) {
         outState.putInt(NEXT_PAGE_INDEX_KEY, nextPageIndex);
+        outState.putInt(FEED_PAGE_SIZE_KEY, feedPageSize);
+        outState.putInt(TOTAL_ARTICLE_COUNT_KEY, totalArticleCount);
         outState.putInt(EMPTY_LIST_TEXT_VIEW_VISIBILITY_KEY, emptyListTextView.getVisibility());
-        outState.putParcelableArrayList(RECYCLER_VIEW_CONTENT_KEY, (ArrayList<? extends Parcelable>) articleAdapter.getArticles());
+        outState.putInt(SPARSE_ARTICLE_LIST_SIZE_KEY, sparseArticleList == null ? -1 : sparseArticleList.size());
+        if (sparseArticleList == null) {
+            // Rows of the running page are left out since the restarted loader shows them again.
+            List<Article> articles = articleAdapter.getArticles();
+            outState.putParcelableArrayList(RECYCLER_VIEW_CONTENT_KEY, new ArrayList<>(articles.subList(0, articles.size() - progressiveArticleCount)));
+        }
         outState.putInt(RECYCLER_VIEW_FOOTER_VIEW_TYPE_KEY, articleAdapter.getItemViewType(articleAdapter.getItemCount() - 1));
         outState.putInt(RECYCLER_VIEW_POSITION_KEY, layoutManager.findFirstVisibleItemPosition());
+        outState.putParcelable(MERGED_ARTICLE_FEED_KEY, mergedArticleFeed);
+        outState.putInt(FACET_FILTER_TYPE_KEY, articleAdapter.getFacetFilterType());
+        outState.putString(FACET_FILTER_VALUE_KEY, articleAdapter.getFacetFilterValue());
     }
 
     /**
-     * Callback method invoked after a configuration change. On this event, restore the state of
-     * the global {@link ArticleLoader} variables, the empty list {@link TextView}, and the
-     * {@link RecyclerView}.
+     * Restores the state of a feed saved by {@link MainActivity#saveFeedState(Bundle)}, and
+     * restarts the loader of the page that was loading when it was saved.
      *
-     * @param savedInstanceState {@link Bundle} object where instance state is restored from.
+     * @param savedInstanceState {@link Bundle} object where the feed state is restored from.
      */
-    @Override
-    protected void onRestoreInstanceState(@NonNull Bundle savedInstanceState) {
-        super.onRestoreInstanceState(savedInstanceState);
-        nextArticleLoaderId = savedInstanceState.getInt(NEXT_ARTICLE_LOADER_ID_KEY);
+    private void restoreFeedState(Bundle savedInstanceState) {
         nextPageIndex = savedInstanceState.getInt(NEXT_PAGE_INDEX_KEY);
+        feedPageSize = savedInstanceState.getInt(FEED_PAGE_SIZE_KEY, feedPageSize);
+        totalArticleCount = savedInstanceState.getInt(TOTAL_ARTICLE_COUNT_KEY, -1);
+        updateActionBarTitle();
+        mergedArticleFeed = savedInstanceState.getParcelable(MERGED_ARTICLE_FEED_KEY);
         emptyListTextView.setVisibility(savedInstanceState.getInt(EMPTY_LIST_TEXT_VIEW_VISIBILITY_KEY));
+
+        // Restore a jumped to feed with placeholders only and reload the pages on screen.
+        int sparseArticleListSize = savedInstanceState.getInt(SPARSE_ARTICLE_LIST_SIZE_KEY, -1);
+        if (sparseArticleListSize >= 0) {
+            enterSparseMode(new SparseArticleList(feedPageSize, sparseArticleListSize));
+            layoutManager.scrollToPositionWithOffset(savedInstanceState.getInt(RECYCLER_VIEW_POSITION_KEY), 0);
+            recyclerView.post(requestVisibleSparsePagesRunnable);
+            return;
+        }
+
         articleAdapter.addAllArticles(savedInstanceState.getParcelableArrayList(RECYCLER_VIEW_CONTENT_KEY));
+        String facetFilterValue = savedInstanceState.getString(FACET_FILTER_VALUE_KEY);
+        if (facetFilterValue != null) {
+            articleAdapter.setFacetFilter(savedInstanceState.getInt(FACET_FILTER_TYPE_KEY), facetFilterValue);
+        }
         layoutManager.scrollToPosition(savedInstanceState.getInt(RECYCLER_VIEW_POSITION_KEY));
 
         int recyclerViewFooterViewType = savedInstanceState.getInt(RECYCLER_VIEW_FOOTER_VIEW_TYPE_KEY);
@@ -380,37 +1107,569 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * Callback method invoked after a child activity finishes. On this event, reset the UI, reset
-     * the nextPageIndex global variable, and initialize a new {@link ArticleLoader} object.
+     * Replaces the suggestions shown below the {@link SearchView} with the indexed search terms
+     * starting with the given text.
      *
-     * @param requestCode The integer request code originally supplied to startActivityForResult(),
-     *                    allowing you to identify who this result came from.
-     * @param resultCode  The integer result code returned by the child activity through its
-     *                    setResult().
-     * @param data        An Intent, which can return result data to the caller (various data can be
-     *                    attached to Intent "extras").
+     * @param text {@link String} typed into the inline {@link SearchView}.
      */
-    @Override
-    protected void onActivityResult(int requestCode, int resultCode, @Nullable Intent data) {
-        super.onActivityResult(requestCode, resultCode, data);
+    private void updateSearchSuggestions(String text) {
+        if (searchSuggestionsAdapter == null) {
+            return;
+        }
+        MatrixCursor cursor = new MatrixCursor(new String[]{BaseColumns._ID, SEARCH_SUGGESTION_COLUMN});
+        List<String> suggestions = SearchSuggestionIndex.getInstance(this).getSuggestions(text, MAX_SEARCH_SUGGESTION_COUNT);
+        for (int suggestionIndex = 0; suggestionIndex < suggestions.size(); suggestionIndex++) {
+            cursor.addRow(new Object[]{suggestionIndex, suggestions.get(suggestionIndex)});
+        }
+        searchSuggestionsAdapter.changeCursor(cursor);
+    }
+
+    /**
+     * Saves the given search term as the search term preference and resets the feed if it differs
+     * from the current one. Otherwise, the loads aborted while the user was typing are resumed.
+     *
+     * @param searchTerm {@link String} typed into the inline {@link SearchView}.
+     */
+    private void applySearchTerm(String searchTerm) {
+        if (searchTerm == null) {
+            return;
+        }
+        if (searchTerm.equals(settings.getSearchTerm())) {
+            resumeFeedLoads();
+            return;
+        }
+        SettingsRepository settingsRepository = SettingsRepository.getInstance(this);
+        settingsRepository.setSearchTerm(searchTerm);
+        settings = settingsRepository.getSettings();
+        resetArticleFeed();
+    }
+
+    /**
+     * Resets the UI and the nextPageIndex global variable, starts a new feed generation, aborts the
+     * {@link ArticleLoader} that may still be running for the previous feed, and initializes a new
+     * {@link ArticleLoader} object. If the settings now request a different feed, the state of the
+     * previous one is kept in case it is a saved feed the user switches back to. Otherwise, the
+     * feed is being refreshed and its kept state is dropped.
+     */
+    private void resetArticleFeed() {
+        String feedKey = SavedFeed.getKey(settings);
+        if (feedKey.equals(currentFeedKey)) {
+            SavedFeedRepository.getInstance(this).removeFeedState(feedKey);
+        } else {
+            stashFeedState();
+            currentFeedKey = feedKey;
+        }
+        clearArticleFeed();
+        LoaderManager.getInstance(MainActivity.this).initLoader(nextArticleLoaderId, null, loaderCallbacks);
+    }
+
+    /**
+     * Switches to the given saved feed. Its settings are saved, and the feed is restored from the
+     * state it was left in, or from its first page refreshed in the background, so that no
+     * request is needed. Only if neither is available, the feed is reloaded.
+     *
+     * @param savedFeed {@link SavedFeed} to switch to.
+     */
+    private void switchToSavedFeed(SavedFeed savedFeed) {
+        if (savedFeed.getKey().equals(currentFeedKey)) {
+            return;
+        }
+        stashFeedState();
+        SavedFeedRepository.FeedSwitch feedSwitch = SavedFeedRepository.getInstance(this).switchTo(savedFeed, loadingProfile);
+        settings = SettingsRepository.getInstance(this).getSettings();
+        currentFeedKey = savedFeed.getKey();
+        clearArticleFeed();
+        invalidateOptionsMenu();
+        if (feedSwitch.getFeedState() != null) {
+            restoreFeedState(feedSwitch.getFeedState());
+        } else if (feedSwitch.getRefreshedPage() != null) {
+            showRefreshedPage(feedSwitch.getRefreshedPage());
+        } else {
+            LoaderManager.getInstance(MainActivity.this).initLoader(nextArticleLoaderId, null, loaderCallbacks);
+        }
+    }
+
+    /**
+     * Hands the state of the current feed to the {@link SavedFeedRepository}, which keeps it if
+     * the feed is saved.
+     */
+    private void stashFeedState() {
+        if (currentFeedKey == null) {
+            return;
+        }
+        Bundle feedState = new Bundle();
+        saveFeedState(feedState);
+        ArrayList<Article> articles = feedState.getParcelableArrayList(RECYCLER_VIEW_CONTENT_KEY);
+        SavedFeedRepository.getInstance(this).putFeedState(currentFeedKey, feedState, articles == null ? new ArrayList<Article>() : articles);
+    }
+
+    /**
+     * Shows a first page refreshed in the background as the first page of the current feed. The
+     * following pages are requested with the page size it was requested with.
+     *
+     * @param refreshedPage {@link SavedFeedRepository.RefreshedPage} to show.
+     */
+    private void showRefreshedPage(SavedFeedRepository.RefreshedPage refreshedPage) {
+        ArticlePage articlePage = refreshedPage.getArticlePage();
+        feedPageSize = refreshedPage.getPageSize();
+        nextPageIndex = 2;
+        totalArticleCount = articlePage.getTotal();
+        articleAdapter.addAllArticles(articlePage.getArticles());
+        updateActionBarTitle();
+        if (articlePage.isLastPage()) {
+            recyclerView.removeOnScrollListener(onScrollListener);
+            if (articleAdapter.getItemCount() == 0) {
+                emptyListTextView.setVisibility(View.VISIBLE);
+            } else {
+                articleAdapter.showFooterView(ArticleAdapter.VIEW_TYPE_END_OF_LIST);
+            }
+        }
+        layoutManager.scrollToPosition(0);
+    }
+
+    /**
+     * Starts a new feed generation, aborts the loaders that may still be running for the previous
+     * feed, and resets the UI and the paging variables to an empty feed.
+     */
+    private void clearArticleFeed() {
+
+        // Start a new generation so results of the previous feed are recognized as stale.
+        feedGeneration++;
+
+        // Abort the running ArticleLoader, which disconnects its request and stops its parsing.
+        destroyRunningArticleLoader();
+        destroySparsePageLoaders(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        feedLoadsAborted = false;
+
+        // Reset UI.
+        totalArticleCount = -1;
+        progressiveArticleCount = 0;
+        sparseArticleList = null;
+        recyclerView.removeOnScrollListener(sparseOnScrollListener);
         articleAdapter.resetArticles();
         articleAdapter.hideFooterView();
         emptyListTextView.setVisibility(View.INVISIBLE);
+        recyclerView.removeOnScrollListener(onScrollListener);
+        recyclerView.addOnScrollListener(onScrollListener);
         updateActionBarTitle();
+
+        // Reset paging to the first page.
+        mergedArticleFeed = null;
         nextPageIndex = 1;
-        LoaderManager.getInstance(MainActivity.this).initLoader(nextArticleLoaderId, null, loaderCallbacks);
+        feedPageSize = loadingProfile.getPageSize();
+    }
+
+    /**
+     * Shows a dialog listing the saved feeds, which switches to the chosen one. Its button saves
+     * the current feed, or removes it if it is saved already.
+     */
+    private void showSavedFeedsDialog() {
+        final SavedFeedRepository savedFeedRepository = SavedFeedRepository.getInstance(this);
+        final List<SavedFeed> savedFeeds = new ArrayList<>(savedFeedRepository.getSavedFeeds());
+        String[] items = new String[savedFeeds.size()];
+        int checkedItem = -1;
+        for (int savedFeedPosition = 0; savedFeedPosition < savedFeeds.size(); savedFeedPosition++) {
+            items[savedFeedPosition] = savedFeeds.get(savedFeedPosition).getName();
+            if (savedFeeds.get(savedFeedPosition).getKey().equals(currentFeedKey)) {
+                checkedItem = savedFeedPosition;
+            }
+        }
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle(getString(R.string.saved_feeds_dialog_title_label));
+        if (savedFeeds.isEmpty()) {
+            builder.setMessage(getString(R.string.saved_feeds_empty_label));
+        } else {
+            builder.setSingleChoiceItems(items, checkedItem, new DialogInterface.OnClickListener() {
+                @Override
+                public void onClick(DialogInterface dialog, int which) {
+                    dialog.dismiss();
+                    switchToSavedFeed(savedFeeds.get(which));
+                }
+            });
+        }
+        if (checkedItem >= 0) {
+            builder.setPositiveButton(R.string.saved_feeds_remove_button_label, new DialogInterface.OnClickListener() {
+                @Override
+                public void onClick(DialogInterface dialog, int which) {
+                    savedFeedRepository.removeSavedFeed(currentFeedKey);
+                }
+            });
+        } else {
+            builder.setPositiveButton(R.string.saved_feeds_save_button_label, new DialogInterface.OnClickListener() {
+                @Override
+                public void onClick(DialogInterface dialog, int which) {
+                    savedFeedRepository.addSavedFeed(new SavedFeed(savedFeedRepository.buildName(settings), settings.getOrderBy(), settings.getSearchTerm(), settings.getSectionsValue()));
+                }
+            });
+        }
+        builder.setNegativeButton(android.R.string.cancel, null);
+        builder.create().show();
+    }
+
+    /**
+     * Shows a dialog with a scrubber over the pages of the current feed and jumps to the chosen
+     * page. Jumping needs the page count, so it is only available once the first page of a single
+     * feed loaded; a merged feed has no random access.
+     */
+    private void showJumpToPageDialog() {
+        if (mergedArticleFeed != null || totalArticleCount <= 0 || feedPageSize <= 0) {
+            Toast.makeText(this, getString(R.string.jump_to_page_unavailable_label), Toast.LENGTH_LONG).show();
+            return;
+        }
+        final int pageCount = (totalArticleCount + feedPageSize - 1) / feedPageSize;
+        int firstVisibleItemPosition = Math.max(0, layoutManager.findFirstVisibleItemPosition());
+
+        View dialogView = getLayoutInflater().inflate(R.layout.dialog_jump_to_page, null);
+        final TextView positionTextView = dialogView.findViewById(R.id.jump_to_page_position_text_view);
+        final SeekBar seekBar = dialogView.findViewById(R.id.jump_to_page_seek_bar);
+        seekBar.setMax(pageCount - 1);
+        seekBar.setProgress(Math.min(pageCount - 1, firstVisibleItemPosition / feedPageSize));
+        positionTextView.setText(getString(R.string.jump_to_page_position_label, seekBar.getProgress() + 1, pageCount));
+        seekBar.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
+            @Override
+            public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+                positionTextView.setText(getString(R.string.jump_to_page_position_label, progress + 1, pageCount));
+            }
+
+            @Override
+            public void onStartTrackingTouch(SeekBar seekBar) {
+            }
+
+            @Override
+            public void onStopTrackingTouch(SeekBar seekBar) {
+            }
+        });
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle(getString(R.string.jump_to_page_dialog_title_label));
+        builder.setView(dialogView);
+        builder.setPositiveButton(R.string.jump_to_page_positive_button_label, new DialogInterface.OnClickListener() {
+            @Override
+            public void onClick(DialogInterface dialog, int which) {
+                jumpToPage(seekBar.getProgress() + 1);
+            }
+        });
+        builder.setNegativeButton(android.R.string.cancel, null);
+        builder.create().show();
+    }
+
+    /**
+     * Returns how many columns of {@link Article} views fit the current screen width, between 1
+     * and {@link R.integer#max_article_column_count}.
+     *
+     * @return int number of columns.
+     */
+    private int getArticleColumnCount() {
+        float columnMinWidthDp = getResources().getDimension(R.dimen.article_column_min_width) / getResources().getDisplayMetrics().density;
+        int columnCount = (int) (getResources().getConfiguration().screenWidthDp / columnMinWidthDp);
+        return Math.max(1, Math.min(getResources().getInteger(R.integer.max_article_column_count), columnCount));
+    }
+
+    /**
+     * Shows a dialog listing the sections and the most frequent contributors of the loaded
+     * articles together with their counts. Choosing one shows only its articles without another
+     * query. The counts come from the {@link ArticleFacetIndex} of the {@link ArticleAdapter}, so
+     * nothing is recounted here.
+     */
+    private void showFilterDialog() {
+        if (sparseArticleList != null) {
+            Toast.makeText(this, getString(R.string.filter_unavailable_label), Toast.LENGTH_LONG).show();
+            return;
+        }
+        ArticleFacetIndex facetIndex = articleAdapter.getFacetIndex();
+        List<ArticleFacetIndex.Facet> sectionFacets = facetIndex.getFacets(ArticleFacetIndex.TYPE_SECTION);
+        List<ArticleFacetIndex.Facet> contributorFacets = facetIndex.getFacets(ArticleFacetIndex.TYPE_CONTRIBUTOR);
+        final List<ArticleFacetIndex.Facet> facets = new ArrayList<>(sectionFacets);
+        facets.addAll(contributorFacets.subList(0, Math.min(MAX_FILTER_CONTRIBUTOR_COUNT, contributorFacets.size())));
+
+        // The first item clears the filter.
+        String[] items = new String[facets.size() + 1];
+        items[0] = getString(R.string.filter_all_label);
+        int checkedItem = 0;
+        for (int facetPosition = 0; facetPosition < facets.size(); facetPosition++) {
+            ArticleFacetIndex.Facet facet = facets.get(facetPosition);
+            int labelResId = facet.getType() == ArticleFacetIndex.TYPE_SECTION ? R.string.filter_section_item_label : R.string.filter_contributor_item_label;
+            items[facetPosition + 1] = getString(labelResId, facet.getValue(), facet.getCount());
+            if (facet.getType() == articleAdapter.getFacetFilterType() && facet.getValue().equals(articleAdapter.getFacetFilterValue())) {
+                checkedItem = facetPosition + 1;
+            }
+        }
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle(getString(R.string.filter_dialog_title_label));
+        builder.setSingleChoiceItems(items, checkedItem, new DialogInterface.OnClickListener() {
+            @Override
+            public void onClick(DialogInterface dialog, int which) {
+                if (which == 0) {
+                    articleAdapter.setFacetFilter(ArticleFacetIndex.TYPE_SECTION, null);
+                } else {
+                    ArticleFacetIndex.Facet facet = facets.get(which - 1);
+                    articleAdapter.setFacetFilter(facet.getType(), facet.getValue());
+                }
+                layoutManager.scrollToPosition(0);
+                dialog.dismiss();
+            }
+        });
+        builder.setNegativeButton(android.R.string.cancel, null);
+        builder.create().show();
+    }
+
+    /**
+     * Scrolls to the given page of the current feed and loads only the pages on screen. On the
+     * first jump, the sequentially loaded articles are moved into a {@link SparseArticleList} that
+     * spans the whole result set.
+     *
+     * @param pageIndex int index of the page to jump to.
+     */
+    private void jumpToPage(int pageIndex) {
+        if (sparseArticleList == null) {
+            enterSparseModeKeepingLoadedArticles();
+        }
+
+        layoutManager.scrollToPositionWithOffset(sparseArticleList.getFirstPosition(pageIndex), 0);
+        recyclerView.post(requestVisibleSparsePagesRunnable);
+    }
+
+    /**
+     * Moves the sequentially paged feed into a {@link SparseArticleList} that spans the whole
+     * result set, keeping the pages that were already loaded. Sequential paging is aborted so its
+     * results never reach the sparse list.
+     */
+    private void enterSparseModeKeepingLoadedArticles() {
+
+        // Abort sequential paging so its results never reach the sparse list.
+        feedGeneration++;
+        destroyRunningArticleLoader();
+        feedLoadsAborted = false;
+        articleAdapter.removeLastArticles(progressiveArticleCount);
+        progressiveArticleCount = 0;
+
+        // Keep the pages that were already loaded.
+        SparseArticleList newSparseArticleList = new SparseArticleList(feedPageSize, totalArticleCount);
+        List<Article> loadedArticles = articleAdapter.getArticles();
+        for (int start = 0; start < loadedArticles.size(); start += feedPageSize) {
+            int end = Math.min(loadedArticles.size(), start + feedPageSize);
+            newSparseArticleList.putPage(newSparseArticleList.getPageIndex(start), new ArrayList<>(loadedArticles.subList(start, end)));
+        }
+        enterSparseMode(newSparseArticleList);
+    }
+
+    /**
+     * Adapts the given {@link SparseArticleList} instead of the sequentially paged feed.
+     *
+     * @param newSparseArticleList {@link SparseArticleList} to adapt.
+     */
+    private void enterSparseMode(SparseArticleList newSparseArticleList) {
+        sparseArticleList = newSparseArticleList;
+        articleAdapter.hideFooterView();
+        articleAdapter.setArticles(sparseArticleList);
+        emptyListTextView.setVisibility(View.INVISIBLE);
+        recyclerView.removeOnScrollListener(onScrollListener);
+        recyclerView.removeOnScrollListener(sparseOnScrollListener);
+        recyclerView.addOnScrollListener(sparseOnScrollListener);
+        updateActionBarTitle();
+    }
+
+    /**
+     * Requests the pages of the {@link SparseArticleList} that are on screen and not loaded yet,
+     * and aborts requests for pages that scrolled out of reach.
+     */
+    private void requestVisibleSparsePages() {
+        if (sparseArticleList == null || sparseArticleList.isEmpty()) {
+            return;
+        }
+        int firstVisibleItemPosition = layoutManager.findFirstVisibleItemPosition();
+        int lastVisibleItemPosition = layoutManager.findLastVisibleItemPosition();
+        if (firstVisibleItemPosition == RecyclerView.NO_POSITION) {
+            return;
+        }
+        int firstPageIndex = sparseArticleList.getPageIndex(firstVisibleItemPosition);
+        int lastPageIndex = sparseArticleList.getPageIndex(Math.min(lastVisibleItemPosition, sparseArticleList.size() - 1));
+
+        // Abort pages that are no longer next to the screen.
+        destroySparsePageLoaders(Integer.MIN_VALUE, firstPageIndex - 2);
+        destroySparsePageLoaders(lastPageIndex + 2, Integer.MAX_VALUE);
+
+        LoaderManager loaderManager = LoaderManager.getInstance(MainActivity.this);
+        for (int pageIndex = firstPageIndex; pageIndex <= lastPageIndex; pageIndex++) {
+            // A loader retained across a configuration change is reattached rather than restarted.
+            if (!sparseArticleList.isPageLoaded(pageIndex) && loaderFeedGenerations.indexOfKey(-pageIndex) < 0) {
+                loaderFeedGenerations.put(-pageIndex, feedGeneration);
+                Bundle args = new Bundle();
+                args.putInt(PAGE_INDEX_ARG, pageIndex);
+                loaderManager.initLoader(-pageIndex, args, sparsePageLoaderCallbacks);
+            }
+        }
+    }
+
+    /**
+     * Destroys the running {@link ArticleLoader} objects of single pages whose page index lies in
+     * the given range, which aborts their requests.
+     *
+     * @param fromPageIndex int lowest page index to destroy.
+     * @param toPageIndex   int highest page index to destroy.
+     */
+    private void destroySparsePageLoaders(int fromPageIndex, int toPageIndex) {
+        List<Integer> loaderIds = new ArrayList<>();
+        for (int loaderIndex = 0; loaderIndex < loaderFeedGenerations.size(); loaderIndex++) {
+            int loaderId = loaderFeedGenerations.keyAt(loaderIndex);
+            if (loaderId < 0 && -loaderId >= fromPageIndex && -loaderId <= toPageIndex) {
+                loaderIds.add(loaderId);
+            }
+        }
+        LoaderManager loaderManager = LoaderManager.getInstance(MainActivity.this);
+        for (int loaderId : loaderIds) {
+            loaderFeedGenerations.delete(loaderId);
+            loaderManager.destroyLoader(loaderId);
+        }
+    }
+
+    /**
+     * Evicts the pages of the {@link SparseArticleList} farthest from the screen so that memory
+     * stays bounded however far the user jumps, turning them back into placeholders.
+     *
+     * @param maxPageCount int maximum number of pages to keep.
+     */
+    private void trimSparsePages(int maxPageCount) {
+        int firstVisibleItemPosition = Math.max(0, layoutManager.findFirstVisibleItemPosition());
+        int[] evictedPageIndices = sparseArticleList.trimAround(sparseArticleList.getPageIndex(firstVisibleItemPosition), maxPageCount);
+        for (int evictedPageIndex : evictedPageIndices) {
+            articleAdapter.notifyItemRangeChanged(sparseArticleList.getFirstPosition(evictedPageIndex), sparseArticleList.getPositionCount(evictedPageIndex));
+        }
+    }
+
+    /**
+     * Destroys the running {@link ArticleLoader} of the sequentially paged feed without reporting
+     * it as canceled, which aborts its request and stops its parsing.
+     *
+     * @return Whether an {@link ArticleLoader} was running.
+     */
+    private boolean destroyRunningArticleLoader() {
+        Loader<ArticlePage> runningLoader = LoaderManager.getInstance(MainActivity.this).getLoader(nextArticleLoaderId);
+        if (runningLoader == null) {
+            return false;
+        }
+        runningLoader.unregisterOnLoadCanceledListener(onLoadCanceledListener);
+        destroyArticleLoader(runningLoader);
+        nextArticleLoaderId++;
+        return true;
+    }
+
+    /**
+     * Aborts the requests of the current feed as soon as the user types another search term, so
+     * that no request for a search term about to be replaced keeps running during the debounce
+     * delay. The rows shown while the aborted page was downloading are removed. The feed itself is
+     * kept until the new search term is applied.
+     */
+    private void abortFeedLoads() {
+        if (destroyRunningArticleLoader()) {
+            articleAdapter.removeLastArticles(progressiveArticleCount);
+            progressiveArticleCount = 0;
+            articleAdapter.hideFooterView();
+            feedLoadsAborted = true;
+        }
+        if (loaderFeedGenerations.size() > 0) {
+            destroySparsePageLoaders(Integer.MIN_VALUE, Integer.MAX_VALUE);
+            feedLoadsAborted = true;
+        }
+        if (feedLoadsAborted) {
+            feedGeneration++;
+        }
+    }
+
+    /**
+     * Restarts the loads of the current feed aborted by
+     * {@link MainActivity#abortFeedLoads()} once the user settled on its search term again.
+     */
+    private void resumeFeedLoads() {
+        if (!feedLoadsAborted) {
+            return;
+        }
+        feedLoadsAborted = false;
+        if (sparseArticleList != null) {
+            requestVisibleSparsePages();
+        } else {
+            LoaderManager.getInstance(MainActivity.this).initLoader(nextArticleLoaderId, null, loaderCallbacks);
+        }
+    }
+
+    /**
+     * Returns whether the given {@link ArticleLoader} was created for the current feed generation.
+     *
+     * @param loader {@link Loader} to check.
+     * @return Whether the loader belongs to the current feed.
+     */
+    private boolean isCurrentFeedGeneration(Loader<ArticlePage> loader) {
+        return loaderFeedGenerations.get(loader.getId(), feedGeneration) == feedGeneration;
+    }
+
+    /**
+     * Destroys the given {@link ArticleLoader} and forgets its feed generation.
+     *
+     * @param loader {@link Loader} to destroy.
+     */
+    private void destroyArticleLoader(Loader<ArticlePage> loader) {
+        loaderFeedGenerations.delete(loader.getId());
+        LoaderManager.getInstance(MainActivity.this).destroyLoader(loader.getId());
+    }
+
+    /**
+     * Restyles the {@link Article} views on screen after read states changed. Views off screen
+     * are bound with the current read state once they scroll into view.
+     */
+    private void refreshVisibleReadState() {
+        articleAdapter.refreshReadState(layoutManager.findFirstVisibleItemPosition(), layoutManager.findLastVisibleItemPosition(), layoutManager.getSpanCount());
+    }
+
+    /**
+     * Prefetches the body texts of the {@link Article} objects currently visible in the
+     * {@link RecyclerView} so they open instantly and offline in the {@link ReaderActivity}. Does
+     * nothing if the current {@link LoadingProfile} does not prefetch article bodies.
+     */
+    private void prefetchVisibleArticleBodies() {
+        if (!loadingProfile.prefetchesArticleBodies()) {
+            return;
+        }
+        int firstVisibleItemPosition = layoutManager.findFirstVisibleItemPosition();
+        int lastVisibleItemPosition = layoutManager.findLastVisibleItemPosition();
+        if (firstVisibleItemPosition == RecyclerView.NO_POSITION || lastVisibleItemPosition < firstVisibleItemPosition) {
+            return;
+        }
+
+        // Go through the adapter, since hidden read articles shift positions within the list.
+        List<Article> visibleArticles = new ArrayList<>();
+        for (int position = firstVisibleItemPosition; position <= lastVisibleItemPosition; position++) {
+            if (ArticleAdapter.isArticleViewType(articleAdapter.getItemViewType(position))) {
+                visibleArticles.add(articleAdapter.getArticle(position));
+            }
+        }
+        ArticleBodyRepository.getInstance(this).prefetch(visibleArticles);
+    }
+
+    /**
+     * Reports this activity as fully drawn right before the next frame is drawn, which is the
+     * first one showing the rows just bound, and lets the {@link StartupTracer} finish the launch.
+     * Only the first call has an effect.
+     */
+    private void reportFullyDrawnOnNextDraw() {
+        if (!fullyDrawnReported) {
+            fullyDrawnReported = true;
+            StartupTracer.finishLaunchOnNextDraw(this, recyclerView);
+        }
     }
 
     /**
      * Updates the action bar title of this activity to reflect what order by and search term
-     * preferences the user has selected.
+     * preferences the user has selected. The followed sections and the loading progress are shown
+     * as the subtitle.
      */
     private void updateActionBarTitle() {
 
-        // Get order by and search term preference values from SharedPreferences.
-        SharedPreferences sharedPreferences = PreferenceManager.getDefaultSharedPreferences(MainActivity.this);
-        String orderByPreferenceValue = sharedPreferences.getString(getString(R.string.order_by_key), getString(R.string.order_by_default_value));
-        String searchTermPreferenceValue = sharedPreferences.getString(getString(R.string.search_term_key), getString(R.string.search_term_default_value));
+        // Get order by, search term, and sections settings from the in-memory snapshot.
+        String orderByPreferenceValue = settings.getOrderBy();
+        String searchTermPreferenceValue = settings.getSearchTerm();
+        List<String> sections = settings.getSections();
 
         // Get appropriate order by label that corresponds to its value.
         String orderByPreferenceLabel = "";
@@ -429,6 +1688,17 @@ public class MainActivity extends AppCompatActivity {
             } else {
                 getSupportActionBar().setTitle(getString(R.string.main_activity_search_label, searchTermPreferenceValue, orderByPreferenceLabel));
             }
+
+            // Show the followed sections and how far the feed was loaded as the subtitle.
+            List<String> subtitleParts = new ArrayList<>();
+            if (!sections.isEmpty()) {
+                subtitleParts.add(TextUtils.join(", ", sections));
+            }
+            if (totalArticleCount >= 0) {
+                int loadedArticleCount = sparseArticleList == null ? articleAdapter.getArticles().size() : sparseArticleList.getLoadedCount();
+                subtitleParts.add(getString(R.string.main_activity_progress_label, loadedArticleCount, totalArticleCount));
+            }
+            getSupportActionBar().setSubtitle(subtitleParts.isEmpty() ? null : TextUtils.join(" · ", subtitleParts));
         }
     }
 }
\ No newline at end of file
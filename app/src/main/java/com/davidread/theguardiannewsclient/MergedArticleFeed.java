@@ -0,0 +1,511 @@
+package com.davidread.theguardiannewsclient;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.core.os.CancellationSignal;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * {@link MergedArticleFeed} combines the article listings of several sections into a single feed
+ * sorted by publication date. Each section is paged on its own and the sections are merged with a
+ * k-way merge as the feed is consumed. A section holds at most its current page and one page
+ * fetched ahead of time. The sections share one budget of
+ * {@link MergedArticleFeed#MAX_BUFFERED_ARTICLE_COUNT} articles: the more sections are merged, the
+ * smaller their pages, and at most {@link MergedArticleFeed#MAX_SECTION_COUNT} sections are merged.
+ * Memory thus stays bounded no matter how many sections are configured or how far the feed is
+ * consumed. It implements the {@link Parcelable} interface so that its paging state may be passed
+ * inside {@link android.os.Bundle} objects.
+ */
+public class MergedArticleFeed implements Parcelable {
+
+    /**
+     * {@link String} log tag name for {@link MergedArticleFeed}.
+     */
+    public static final String LOG_TAG_NAME = MergedArticleFeed.class.getSimpleName();
+
+    /**
+     * {@link android.os.Parcelable.Creator} object that generates instances of this class from
+     * a {@link Parcelable} object.
+     */
+    public static final Creator<MergedArticleFeed> CREATOR = new Creator<MergedArticleFeed>() {
+        @Override
+        public MergedArticleFeed createFromParcel(Parcel in) {
+            return new MergedArticleFeed(in);
+        }
+
+        @Override
+        public MergedArticleFeed[] newArray(int size) {
+            return new MergedArticleFeed[size];
+        }
+    };
+
+    /**
+     * int representing how many unconsumed articles a section may have left before its next page
+     * is fetched ahead of time.
+     */
+    private static final int PREFETCH_THRESHOLD = 10;
+
+    /**
+     * int representing how many articles all sections of a feed hold at most, counting the
+     * current page and the page fetched ahead of time of each.
+     */
+    static final int MAX_BUFFERED_ARTICLE_COUNT = 200;
+
+    /**
+     * int representing the smallest page size sections are requested with, below which the
+     * number of requests would outweigh the memory saved.
+     */
+    static final int MIN_SECTION_PAGE_SIZE = 10;
+
+    /**
+     * int representing how many sections are merged at most, so that every section gets pages of
+     * at least {@link MergedArticleFeed#MIN_SECTION_PAGE_SIZE} within the budget.
+     */
+    static final int MAX_SECTION_COUNT = MAX_BUFFERED_ARTICLE_COUNT / (2 * MIN_SECTION_PAGE_SIZE);
+
+    /**
+     * {@link ExecutorService} shared by every {@link MergedArticleFeed} for fetching section pages
+     * concurrently.
+     */
+    private static final ExecutorService FETCH_EXECUTOR_SERVICE = Executors.newFixedThreadPool(4);
+
+    /**
+     * {@link String} for specifying what order article listings are merged in. Either "newest" or
+     * "oldest".
+     */
+    private final String orderBy;
+
+    /**
+     * {@link String} for requesting article listings containing certain free text.
+     */
+    private final String searchTerm;
+
+    /**
+     * int representing how many article listings are requested per section page, as returned by
+     * {@link MergedArticleFeed#getSectionPageSize(int, int)}.
+     */
+    private final int pageSize;
+
+    /**
+     * {@link List} of {@link Source} objects, one for each merged section.
+     */
+    private final List<Source> sources;
+
+    /**
+     * int representing how many pages of merged articles were returned so far.
+     */
+    private int deliveredPageCount;
+
+    /**
+     * Constructs a new {@link MergedArticleFeed} object.
+     *
+     * @param orderBy    {@link String} for specifying what order article listings are merged in.
+     *                   Any value other than "oldest" merges the newest articles first.
+     * @param searchTerm {@link String} for requesting article listings containing certain free
+     *                   text.
+     * @param pageSize   int representing how many article listings are requested per section
+     *                   page at most. Sections get smaller pages if the budget requires it.
+     * @param sections   {@link List} of {@link String} section ids to merge, as returned by
+     *                   {@link MergedArticleFeed#parseSections(String)}.
+     */
+    public MergedArticleFeed(String orderBy, String searchTerm, int pageSize, List<String> sections) {
+        this.orderBy = "oldest".equals(orderBy) ? "oldest" : "newest";
+        this.searchTerm = searchTerm;
+        this.pageSize = getSectionPageSize(pageSize, sections.size());
+        this.sources = new ArrayList<>();
+        for (String section : sections) {
+            sources.add(new Source(section));
+        }
+        this.deliveredPageCount = 0;
+    }
+
+    /**
+     * Constructs a new {@link MergedArticleFeed} object.
+     *
+     * @param in {@link Parcelable} object that contains the member variables of the
+     *           {@link MergedArticleFeed} object to be constructed.
+     */
+    protected MergedArticleFeed(Parcel in) {
+        orderBy = in.readString();
+        searchTerm = in.readString();
+        pageSize = in.readInt();
+        deliveredPageCount = in.readInt();
+        int sourceCount = in.readInt();
+        sources = new ArrayList<>(sourceCount);
+        for (int sourceIndex = 0; sourceIndex < sourceCount; sourceIndex++) {
+            Source source = new Source(in.readString());
+            source.nextPageIndex = in.readInt();
+            source.exhausted = in.readInt() == 1;
+            source.total = in.readInt();
+            in.readTypedList(source.buffer, Article.CREATOR);
+            sources.add(source);
+        }
+    }
+
+    /**
+     * Parses a comma delimited list of section ids, e.g. "world, technology", into a {@link List}.
+     * Sections beyond the first {@link MergedArticleFeed#MAX_SECTION_COUNT} are ignored.
+     *
+     * @param sectionsPreferenceValue {@link String} comma delimited list of section ids.
+     * @return {@link List} of trimmed, non-empty, distinct {@link String} section ids.
+     */
+    public static List<String> parseSections(String sectionsPreferenceValue) {
+        List<String> sections = new ArrayList<>();
+        if (sectionsPreferenceValue == null) {
+            return sections;
+        }
+        for (String section : sectionsPreferenceValue.split(",")) {
+            String trimmedSection = section.trim();
+            if (!trimmedSection.isEmpty() && !sections.contains(trimmedSection)) {
+                sections.add(trimmedSection);
+            }
+            if (sections.size() == MAX_SECTION_COUNT) {
+                break;
+            }
+        }
+        return sections;
+    }
+
+    /**
+     * Returns the page size the sections of a feed are requested with, so that the current and
+     * the prefetched page of every section fit into
+     * {@link MergedArticleFeed#MAX_BUFFERED_ARTICLE_COUNT} articles together.
+     *
+     * @param pageSize     int representing the page size of the feed.
+     * @param sectionCount int representing how many sections are merged.
+     * @return int page size between {@link MergedArticleFeed#MIN_SECTION_PAGE_SIZE} and the page
+     * size of the feed.
+     */
+    public static int getSectionPageSize(int pageSize, int sectionCount) {
+        int budgetPageSize = MAX_BUFFERED_ARTICLE_COUNT / (2 * Math.max(1, sectionCount));
+        return Math.min(pageSize, Math.max(MIN_SECTION_PAGE_SIZE, budgetPageSize));
+    }
+
+    /**
+     * Returns whether this feed merges the given sections with the given order and search term.
+     *
+     * @param orderBy    {@link String} order of the feed.
+     * @param searchTerm {@link String} search term of the feed.
+     * @param sections   {@link List} of {@link String} section ids of the feed.
+     * @return Whether this feed matches the given parameters.
+     */
+    public boolean matches(String orderBy, String searchTerm, List<String> sections) {
+        if (!this.orderBy.equals("oldest".equals(orderBy) ? "oldest" : "newest")
+                || !String.valueOf(this.searchTerm).equals(String.valueOf(searchTerm))
+                || sources.size() != sections.size()) {
+            return false;
+        }
+        for (int sourceIndex = 0; sourceIndex < sources.size(); sourceIndex++) {
+            if (!sources.get(sourceIndex).section.equals(sections.get(sourceIndex))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the next page of the merged feed. Sections whose pages run low are fetched
+     * concurrently, and no section is requested past its last page. The returned
+     * {@link ArticlePage} counts merged pages of the given size, and its total is the sum of the
+     * section totals. Must not be called on the main thread.
+     *
+     * @param count                 int maximum number of articles to return.
+     * @param articlePageRepository {@link ArticlePageRepository} section pages are requested
+     *                              from.
+     * @param cancellationSignal    {@link CancellationSignal} that aborts the network requests
+     *                              when canceled.
+     * @return {@link ArticlePage} of the next {@link Article} objects, which is the last page once
+     * every section is exhausted, or null if a section page could not be fetched.
+     */
+    @Nullable
+    public ArticlePage nextArticles(int count, ArticlePageRepository articlePageRepository, CancellationSignal cancellationSignal) {
+        List<Article> articles = new ArrayList<>(count);
+
+        // Make sure every section has a head article to compete with, fetching concurrently.
+        for (Source source : sources) {
+            source.prefetchIfNeeded(articlePageRepository, cancellationSignal);
+        }
+        PriorityQueue<Source> heads = new PriorityQueue<>(Math.max(1, sources.size()), headComparator());
+        for (Source source : sources) {
+            if (!source.awaitHead(articlePageRepository, cancellationSignal)) {
+                return null;
+            }
+            if (source.hasHead()) {
+                heads.add(source);
+            }
+        }
+
+        // Repeatedly take the head article that comes first in publication order.
+        while (articles.size() < count && !heads.isEmpty()) {
+            if (cancellationSignal.isCanceled()) {
+                return null;
+            }
+            Source source = heads.poll();
+            articles.add(source.takeHead());
+            source.prefetchIfNeeded(articlePageRepository, cancellationSignal);
+            if (!source.awaitHead(articlePageRepository, cancellationSignal)) {
+                return null;
+            }
+            if (source.hasHead()) {
+                heads.add(source);
+            }
+        }
+
+        // Describe the merged page the same way The Guardian API describes its pages.
+        deliveredPageCount++;
+        int total = getTotal();
+        int pages;
+        if (heads.isEmpty()) {
+            pages = deliveredPageCount;
+        } else {
+            pages = Math.max(deliveredPageCount + 1, total < 0 ? -1 : (total + count - 1) / count);
+        }
+        return new ArticlePage(articles, deliveredPageCount, pages, total);
+    }
+
+    /**
+     * Returns the sum of the section totals.
+     *
+     * @return int representing how many article listings the merged feed has, or -1 if the total of
+     * a section is not known yet.
+     */
+    private int getTotal() {
+        int total = 0;
+        for (Source source : sources) {
+            synchronized (source) {
+                if (source.total < 0) {
+                    return -1;
+                }
+                total += source.total;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns a {@link Comparator} that orders {@link Source} objects by the publication date of
+     * their head article, in the order of this feed.
+     *
+     * @return {@link Comparator} for {@link Source} objects.
+     */
+    private Comparator<Source> headComparator() {
+        final boolean newestFirst = !"oldest".equals(orderBy);
+        return new Comparator<Source>() {
+            @Override
+            public int compare(Source source1, Source source2) {
+                // ISO 8601 UTC dates sort lexicographically.
+                int comparison = source1.peekHead().getDatePublished().compareTo(source2.peekHead().getDatePublished());
+                return newestFirst ? -comparison : comparison;
+            }
+        };
+    }
+
+    /**
+     * Returns an int that describes the type of objects contained in this {@link Parcelable}
+     * instance.
+     *
+     * @return An int that describes the type of objects contained in this {@link Parcelable}
+     * instance.
+     */
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    /**
+     * Converts the member variables of this {@link MergedArticleFeed} object into a {@link Parcel}
+     * object. Pages fetched ahead of time are not written and will be fetched again.
+     *
+     * @param dest  {@link Parcel} object where the member variables will be stored.
+     * @param flags Additional flags.
+     */
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeString(orderBy);
+        dest.writeString(searchTerm);
+        dest.writeInt(pageSize);
+        dest.writeInt(deliveredPageCount);
+        dest.writeInt(sources.size());
+        for (Source source : sources) {
+            synchronized (source) {
+                dest.writeString(source.section);
+                dest.writeInt(source.nextPageIndex);
+                dest.writeInt(source.exhausted ? 1 : 0);
+                dest.writeInt(source.total);
+                dest.writeTypedList(new ArrayList<>(source.buffer.subList(source.bufferPosition, source.buffer.size())));
+            }
+        }
+    }
+
+    /**
+     * {@link Source} holds the paging state of a single section of a {@link MergedArticleFeed}.
+     */
+    private class Source {
+
+        /**
+         * {@link String} id of the section.
+         */
+        private final String section;
+
+        /**
+         * {@link List} of {@link Article} objects of the current page.
+         */
+        private List<Article> buffer;
+
+        /**
+         * int index of the head article within the buffer.
+         */
+        private int bufferPosition;
+
+        /**
+         * int index of the next page to fetch.
+         */
+        private int nextPageIndex;
+
+        /**
+         * Boolean representing whether the last page of the section was fetched, so that no
+         * further page is requested.
+         */
+        private boolean exhausted;
+
+        /**
+         * int representing how many article listings the section has, or -1 if unknown.
+         */
+        private int total;
+
+        /**
+         * {@link Future} of the next page while it is being fetched ahead of time.
+         */
+        private Future<ArticlePage> pendingPage;
+
+        /**
+         * {@link CancellationSignal} of the load that started fetching the pending page.
+         */
+        private CancellationSignal pendingPageCancellationSignal;
+
+        /**
+         * Constructs a new {@link Source} object.
+         *
+         * @param section {@link String} id of the section.
+         */
+        private Source(String section) {
+            this.section = section;
+            this.buffer = new ArrayList<>();
+            this.bufferPosition = 0;
+            this.nextPageIndex = 1;
+            this.exhausted = false;
+            this.total = -1;
+        }
+
+        /**
+         * Returns whether the current page has an unconsumed article.
+         */
+        private synchronized boolean hasHead() {
+            return bufferPosition < buffer.size();
+        }
+
+        /**
+         * Returns the head article without consuming it.
+         */
+        private synchronized Article peekHead() {
+            return buffer.get(bufferPosition);
+        }
+
+        /**
+         * Consumes and returns the head article.
+         */
+        private synchronized Article takeHead() {
+            return buffer.get(bufferPosition++);
+        }
+
+        /**
+         * Starts fetching the next page in the background if the current page runs low and no
+         * fetch is running yet.
+         *
+         * @param articlePageRepository {@link ArticlePageRepository} the page is requested from.
+         * @param cancellationSignal    {@link CancellationSignal} that aborts the fetch when
+         *                              canceled.
+         */
+        private synchronized void prefetchIfNeeded(final ArticlePageRepository articlePageRepository, final CancellationSignal cancellationSignal) {
+            if (exhausted || pendingPage != null || buffer.size() - bufferPosition > PREFETCH_THRESHOLD) {
+                return;
+            }
+            final int pageIndex = nextPageIndex;
+            pendingPageCancellationSignal = cancellationSignal;
+            pendingPage = FETCH_EXECUTOR_SERVICE.submit(new Callable<ArticlePage>() {
+                @Override
+                public ArticlePage call() {
+                    return articlePageRepository.getPage(orderBy, pageIndex, pageSize, searchTerm, section, cancellationSignal);
+                }
+            });
+        }
+
+        /**
+         * Blocks until the current page has a head article or the section is exhausted, swapping
+         * in the page fetched ahead of time when the current page is consumed. A page whose fetch
+         * was aborted by an earlier, canceled load is fetched again.
+         *
+         * @param articlePageRepository {@link ArticlePageRepository} pages are requested from.
+         * @param cancellationSignal    {@link CancellationSignal} of the running load.
+         * @return Whether the section is in a usable state. False if a fetch failed.
+         */
+        private boolean awaitHead(ArticlePageRepository articlePageRepository, CancellationSignal cancellationSignal) {
+            while (true) {
+                Future<ArticlePage> page;
+                CancellationSignal pageCancellationSignal;
+                synchronized (this) {
+                    if (hasHead() || exhausted) {
+                        return true;
+                    }
+                    page = pendingPage;
+                    pageCancellationSignal = pendingPageCancellationSignal;
+                }
+                if (page == null) {
+                    return true;
+                }
+
+                ArticlePage articlePage;
+                try {
+                    articlePage = page.get();
+                } catch (ExecutionException | CancellationException e) {
+                    Log.e(LOG_TAG_NAME, "Error fetching page " + nextPageIndex + " of section " + section, e);
+                    articlePage = null;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    articlePage = null;
+                }
+
+                synchronized (this) {
+                    pendingPage = null;
+                    pendingPageCancellationSignal = null;
+                    if (cancellationSignal.isCanceled()) {
+                        return false;
+                    }
+                    if (articlePage != null) {
+                        buffer = articlePage.getArticles();
+                        bufferPosition = 0;
+                        nextPageIndex++;
+                        exhausted = articlePage.isLastPage();
+                        total = articlePage.getTotal();
+                    } else if (!pageCancellationSignal.isCanceled()) {
+                        return false;
+                    }
+                }
+                prefetchIfNeeded(articlePageRepository, cancellationSignal);
+            }
+        }
+    }
+}
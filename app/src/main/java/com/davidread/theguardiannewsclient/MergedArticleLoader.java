@@ -0,0 +1,101 @@
+package com.davidread.theguardiannewsclient;
+
+import android.content.Context;
+import android.os.Debug;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.os.CancellationSignal;
+import androidx.loader.content.AsyncTaskLoader;
+
+/**
+ * {@link MergedArticleLoader} is a utility class that provides an {@link AsyncTaskLoader} for
+ * retrieving the next articles of a {@link MergedArticleFeed}. It is canceled like an
+ * {@link ArticleLoader} when a section page could not be fetched.
+ */
+public class MergedArticleLoader extends AsyncTaskLoader<ArticlePage> {
+
+    /**
+     * {@link MergedArticleFeed} whose next articles are loaded.
+     */
+    private final MergedArticleFeed mergedArticleFeed;
+
+    /**
+     * int maximum number of articles to load.
+     */
+    private final int count;
+
+    /**
+     * {@link CancellationSignal} for the load currently running on the worker thread.
+     */
+    private CancellationSignal cancellationSignal;
+
+    /**
+     * Constructs a new {@link MergedArticleLoader} object.
+     *
+     * @param context           {@link Context} for the superclass.
+     * @param mergedArticleFeed {@link MergedArticleFeed} whose next articles are loaded.
+     * @param count             int maximum number of articles to load.
+     */
+    public MergedArticleLoader(@NonNull Context context, MergedArticleFeed mergedArticleFeed, int count) {
+        super(context);
+        this.mergedArticleFeed = mergedArticleFeed;
+        this.count = count;
+    }
+
+    /**
+     * Callback method invoked directly before executing the actual load. It calls forceLoad() to
+     * start the loader.
+     */
+    @Override
+    protected void onStartLoading() {
+        super.onStartLoading();
+        forceLoad();
+    }
+
+    /**
+     * Callback method invoked to perform the actual load on a worker thread and return the result.
+     * It returns
+     * {@link MergedArticleFeed#nextArticles(int, ArticlePageRepository, CancellationSignal)},
+     * canceling the load if a section page could not be fetched.
+     */
+    @Nullable
+    @Override
+    public ArticlePage loadInBackground() {
+        CancellationSignal signal = new CancellationSignal();
+        synchronized (this) {
+            cancellationSignal = signal;
+        }
+        long startCpuNanos = Debug.threadCpuTimeNanos();
+        try {
+            ArticlePage articlePage = mergedArticleFeed.nextArticles(count, ArticlePageRepository.getInstance(getContext()), signal);
+            if (articlePage == null) {
+                // Account for the work of a load that was aborted from the outside.
+                if (signal.isCanceled()) {
+                    LoadMetrics.recordAbortedLoad(Debug.threadCpuTimeNanos() - startCpuNanos);
+                }
+                cancelLoad();
+                return ArticlePage.empty();
+            }
+            return articlePage;
+        } finally {
+            synchronized (this) {
+                cancellationSignal = null;
+            }
+        }
+    }
+
+    /**
+     * Callback method invoked on the main thread when the current load is canceled. It cancels the
+     * {@link CancellationSignal} of the running load, which aborts its network requests.
+     */
+    @Override
+    public void cancelLoadInBackground() {
+        super.cancelLoadInBackground();
+        synchronized (this) {
+            if (cancellationSignal != null) {
+                cancellationSignal.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.davidread.theguardiannewsclient;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link NetworkMonitor} tracks the active network connection and keeps the matching
+ * {@link LoadingProfile} up to date. Listeners are notified on the main thread whenever the
+ * {@link LoadingProfile} changes.
+ */
+public class NetworkMonitor {
+
+    /**
+     * {@link String} log tag name for {@link NetworkMonitor}.
+     */
+    public static final String LOG_TAG_NAME = NetworkMonitor.class.getSimpleName();
+
+    /**
+     * {@link NetworkMonitor} instance shared across the app.
+     */
+    private static volatile NetworkMonitor instance;
+
+    /**
+     * {@link ConnectivityManager} queried for the active network.
+     */
+    private final ConnectivityManager connectivityManager;
+
+    /**
+     * {@link Handler} for notifying listeners on the main thread.
+     */
+    private final Handler mainHandler;
+
+    /**
+     * {@link List} of {@link OnLoadingProfileChangedListener} objects to notify.
+     */
+    private final List<OnLoadingProfileChangedListener> listeners;
+
+    /**
+     * {@link LoadingProfile} matching the active network.
+     */
+    private volatile LoadingProfile loadingProfile;
+
+    /**
+     * Constructs a new {@link NetworkMonitor} object and starts listening for network changes.
+     * Only tests construct it directly; the app uses {@link NetworkMonitor#getInstance(Context)}.
+     *
+     * @param context {@link Context} for accessing the {@link ConnectivityManager}.
+     */
+    NetworkMonitor(Context context) {
+        this.connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        this.mainHandler = new Handler(Looper.getMainLooper());
+        this.listeners = new ArrayList<>();
+        this.loadingProfile = LoadingProfile.fromConnectivity(connectivityManager);
+
+        if (connectivityManager == null) {
+            return;
+        }
+        ConnectivityManager.NetworkCallback networkCallback = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(@NonNull Network network) {
+                refreshLoadingProfile();
+            }
+
+            @Override
+            public void onLost(@NonNull Network network) {
+                refreshLoadingProfile();
+            }
+
+            @Override
+            public void onCapabilitiesChanged(@NonNull Network network, @NonNull NetworkCapabilities networkCapabilities) {
+                refreshLoadingProfile();
+            }
+        };
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            connectivityManager.registerDefaultNetworkCallback(networkCallback);
+        } else {
+            NetworkRequest networkRequest = new NetworkRequest.Builder()
+                    .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+                    .build();
+            connectivityManager.registerNetworkCallback(networkRequest, networkCallback);
+        }
+    }
+
+    /**
+     * Returns the {@link NetworkMonitor} instance shared across the app.
+     *
+     * @param context {@link Context} for accessing the {@link ConnectivityManager}.
+     * @return {@link NetworkMonitor} instance shared across the app.
+     */
+    public static NetworkMonitor getInstance(Context context) {
+        if (instance == null) {
+            synchronized (NetworkMonitor.class) {
+                if (instance == null) {
+                    instance = new NetworkMonitor(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the {@link LoadingProfile} of the shared {@link NetworkMonitor}, or
+     * {@link LoadingProfile#UNMETERED} if the network is not monitored yet. It is meant for code
+     * that has no {@link Context}.
+     *
+     * @return {@link LoadingProfile} matching the active network.
+     */
+    public static LoadingProfile getCurrentLoadingProfile() {
+        LoadingProfile override = LoadingProfileOverride.get();
+        if (override != null) {
+            return override;
+        }
+        NetworkMonitor networkMonitor = instance;
+        return networkMonitor == null ? LoadingProfile.UNMETERED : networkMonitor.getLoadingProfile();
+    }
+
+    /**
+     * Returns the {@link LoadingProfile} matching the active network, unless a debug build
+     * overrides it through {@link LoadingProfileOverride}.
+     *
+     * @return {@link LoadingProfile} matching the active network.
+     */
+    public LoadingProfile getLoadingProfile() {
+        LoadingProfile override = LoadingProfileOverride.get();
+        return override != null ? override : loadingProfile;
+    }
+
+    /**
+     * Registers a listener to be notified on the main thread when the {@link LoadingProfile}
+     * changes.
+     *
+     * @param listener {@link OnLoadingProfileChangedListener} to register.
+     */
+    public void addOnLoadingProfileChangedListener(OnLoadingProfileChangedListener listener) {
+        synchronized (listeners) {
+            listeners.add(listener);
+        }
+    }
+
+    /**
+     * Unregisters a listener registered with
+     * {@link NetworkMonitor#addOnLoadingProfileChangedListener(OnLoadingProfileChangedListener)}.
+     *
+     * @param listener {@link OnLoadingProfileChangedListener} to unregister.
+     */
+    public void removeOnLoadingProfileChangedListener(OnLoadingProfileChangedListener listener) {
+        synchronized (listeners) {
+            listeners.remove(listener);
+        }
+    }
+
+    /**
+     * Recomputes the {@link LoadingProfile} from the active network and notifies listeners if it
+     * changed.
+     */
+    private void refreshLoadingProfile() {
+        final LoadingProfile newLoadingProfile = LoadingProfile.fromConnectivity(connectivityManager);
+        if (newLoadingProfile == loadingProfile) {
+            return;
+        }
+        Log.i(LOG_TAG_NAME, "Loading profile changed from " + loadingProfile + " to " + newLoadingProfile);
+        loadingProfile = newLoadingProfile;
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                List<OnLoadingProfileChangedListener> listenersCopy;
+                synchronized (listeners) {
+                    listenersCopy = new ArrayList<>(listeners);
+                }
+                for (OnLoadingProfileChangedListener listener : listenersCopy) {
+                    listener.onLoadingProfileChanged(newLoadingProfile);
+                }
+            }
+        });
+    }
+
+    /**
+     * Interface definition for a callback to be invoked when the {@link LoadingProfile} changes.
+     */
+    public interface OnLoadingProfileChangedListener {
+
+        /**
+         * Callback method to be invoked on the main thread when the {@link LoadingProfile}
+         * changes.
+         *
+         * @param loadingProfile {@link LoadingProfile} matching the new active network.
+         */
+        void onLoadingProfileChanged(LoadingProfile loadingProfile);
+    }
+}
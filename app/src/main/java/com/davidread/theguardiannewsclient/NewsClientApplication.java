@@ -0,0 +1,49 @@
+package com.davidread.theguardiannewsclient;
+
+import android.app.Application;
+
+/**
+ * {@link NewsClientApplication} is the {@link Application} of the app. It starts loading the
+ * settings and connecting to The Guardian API as early as the process starts, and it forwards
+ * memory pressure signals of the OS to the {@link CacheGovernor}, so in-memory caches are trimmed
+ * no matter which activity is running.
+ */
+public class NewsClientApplication extends Application {
+
+    /**
+     * Callback method invoked when the process starts, before any activity is created. On this
+     * event, start tracing the cold launch, then start loading the settings and connecting to The
+     * Guardian API in parallel with the inflation of the UI.
+     */
+    @Override
+    public void onCreate() {
+        StartupTracer.startColdLaunch();
+        StartupTracer.beginSection(StartupTracer.SECTION_APPLICATION_CREATE);
+        super.onCreate();
+        SettingsRepository.getInstance(this);
+        GuardianApiClient.startPreconnect(this);
+        StartupTracer.endSection(StartupTracer.SECTION_APPLICATION_CREATE);
+    }
+
+    /**
+     * Callback method invoked when the OS asks the process to trim memory. On this event, let the
+     * {@link CacheGovernor} trim caches according to the given level.
+     *
+     * @param level int trim memory level.
+     */
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        CacheGovernor.getInstance().onTrimMemory(level);
+    }
+
+    /**
+     * Callback method invoked when the whole system runs low on memory. On this event, let the
+     * {@link CacheGovernor} empty every cache.
+     */
+    @Override
+    public void onLowMemory() {
+        super.onLowMemory();
+        CacheGovernor.getInstance().onLowMemory();
+    }
+}
@@ -0,0 +1,165 @@
+package com.davidread.theguardiannewsclient;
+
+import androidx.annotation.Nullable;
+import androidx.core.os.CancellationSignal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+
+/**
+ * {@link OkHttpTransport} is an {@link HttpTransport} backed by OkHttp. It negotiates HTTP/2 with
+ * servers that support it, so concurrent page and image requests to the same host are multiplexed
+ * over a single connection instead of each opening its own.
+ */
+public class OkHttpTransport implements HttpTransport {
+
+    /**
+     * {@link String} name of this transport as stored in the network engine preference.
+     */
+    public static final String NAME = "okhttp";
+
+    /**
+     * {@link OkHttpClient} whose connection pool and dispatcher are shared by every request. Clients
+     * with other timeouts are derived from it, so they share the pool as well.
+     */
+    private final OkHttpClient okHttpClient;
+
+    /**
+     * Constructs a new {@link OkHttpTransport} object with its own connection pool.
+     */
+    public OkHttpTransport() {
+        this(new OkHttpClient());
+    }
+
+    /**
+     * Constructs a new {@link OkHttpTransport} object on top of the given {@link OkHttpClient},
+     * e.g. one that trusts the certificate of a local test server.
+     *
+     * @param okHttpClient {@link OkHttpClient} whose connection pool and dispatcher are shared by
+     *                     every request.
+     */
+    OkHttpTransport(OkHttpClient okHttpClient) {
+        this.okHttpClient = okHttpClient;
+    }
+
+    /**
+     * Performs a GET request through the shared {@link OkHttpClient}. Canceling the request
+     * cancels the {@link Call}, which aborts its stream without closing the shared connection.
+     */
+    @Override
+    public Response execute(URL url, int connectTimeoutMillis, int readTimeoutMillis, @Nullable CancellationSignal cancellationSignal) throws IOException {
+
+        // Setup the network request.
+        OkHttpClient client = okHttpClient.newBuilder()
+                .connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS)
+                .build();
+        final Call call = client.newCall(new Request.Builder().url(url).get().build());
+
+        // Cancel the call as soon as the request is canceled.
+        if (cancellationSignal != null) {
+            cancellationSignal.setOnCancelListener(new CancellationSignal.OnCancelListener() {
+                @Override
+                public void onCancel() {
+                    call.cancel();
+                }
+            });
+        }
+
+        // Execute the network request.
+        try {
+            return new OkHttpResponse(call.execute(), cancellationSignal);
+        } catch (IOException e) {
+            if (cancellationSignal != null) {
+                cancellationSignal.setOnCancelListener(null);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Makes a HEAD request through the shared {@link OkHttpClient}. Closing its response returns
+     * the connection to the shared pool, where the next request to the host picks it up.
+     */
+    @Override
+    public void preconnect(URL url, int connectTimeoutMillis) throws IOException {
+        OkHttpClient client = okHttpClient.newBuilder()
+                .connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS)
+                .readTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS)
+                .build();
+        client.newCall(new Request.Builder().url(url).head().build()).execute().close();
+    }
+
+    /**
+     * Returns true since every request goes to the network.
+     */
+    @Override
+    public boolean countsAgainstApiQuota() {
+        return true;
+    }
+
+    /**
+     * {@link OkHttpResponse} is the {@link HttpTransport.Response} of an OkHttp {@link Call}.
+     */
+    private static class OkHttpResponse implements Response {
+
+        /**
+         * {@link okhttp3.Response} of the call.
+         */
+        private final okhttp3.Response response;
+
+        /**
+         * {@link CancellationSignal} of the request, or null if it cannot be canceled.
+         */
+        private final CancellationSignal cancellationSignal;
+
+        /**
+         * Constructs a new {@link OkHttpResponse} object.
+         *
+         * @param response           {@link okhttp3.Response} of the call.
+         * @param cancellationSignal {@link CancellationSignal} of the request. May be null.
+         */
+        OkHttpResponse(okhttp3.Response response, @Nullable CancellationSignal cancellationSignal) {
+            this.response = response;
+            this.cancellationSignal = cancellationSignal;
+        }
+
+        @Override
+        public int getCode() {
+            return response.code();
+        }
+
+        @Nullable
+        @Override
+        public String getHeader(String name) {
+            return response.header(name);
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            ResponseBody body = response.body();
+            if (body == null) {
+                throw new IOException("Response has no body");
+            }
+            return body.byteStream();
+        }
+
+        /**
+         * Closes the response, which returns its connection to the pool.
+         */
+        @Override
+        public void close() {
+            if (cancellationSignal != null) {
+                cancellationSignal.setOnCancelListener(null);
+            }
+            response.close();
+        }
+    }
+}
@@ -0,0 +1,596 @@
+package com.davidread.theguardiannewsclient;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * {@link ReadStateStore} remembers which articles the user opened. Article ids are reduced to 64 bit
+ * hashes and kept in three places:
+ * <ul>
+ *     <li>A sorted file of unique hashes, memory-mapped read only, so that even hundreds of
+ *     thousands of ids cost no heap and load without being parsed.</li>
+ *     <li>A small sorted array of hashes recorded since that file was last written. They are also
+ *     appended to a log file, and merged into the sorted file once enough of them piled up.</li>
+ *     <li>A Bloom filter over all hashes that answers most lookups of unread articles without
+ *     touching the file.</li>
+ * </ul>
+ * {@link ReadStateStore#isRead(String)} is cheap enough to be called while binding every row: it
+ * hashes the id without allocating, checks the Bloom filter, and only binary searches the pending
+ * array and the mapped file if the filter cannot rule the id out. All methods must be called on the
+ * main thread; file I/O runs on a single worker thread.
+ */
+public class ReadStateStore {
+
+    /**
+     * {@link String} log tag name for {@link ReadStateStore}.
+     */
+    public static final String LOG_TAG_NAME = ReadStateStore.class.getSimpleName();
+
+    /**
+     * {@link String} names of the sorted file and the log file inside the files directory.
+     */
+    private static final String SORTED_FILE_NAME = "read_state.bin";
+    private static final String LOG_FILE_NAME = "read_state.log";
+
+    /**
+     * int representing how many pending hashes trigger a merge into the sorted file.
+     */
+    private static final int MERGE_THRESHOLD = 512;
+
+    /**
+     * int representing how many Bloom filter bits are reserved per hash, which keeps the false
+     * positive rate near 1% with {@link ReadStateStore#BLOOM_HASH_COUNT} probes.
+     */
+    private static final int BLOOM_BITS_PER_HASH = 10;
+
+    /**
+     * int representing how many bits are probed per hash in the Bloom filter.
+     */
+    private static final int BLOOM_HASH_COUNT = 7;
+
+    /**
+     * int representing how many hashes the Bloom filter is sized for at least.
+     */
+    private static final int MIN_BLOOM_CAPACITY = 4096;
+
+    /**
+     * {@link ReadStateStore} instance shared across the app.
+     */
+    private static ReadStateStore instance;
+
+    /**
+     * {@link File} objects of the sorted file, the log file, and the file a merge is written to.
+     */
+    private final File sortedFile;
+    private final File logFile;
+    private final File mergeFile;
+
+    /**
+     * {@link ExecutorService} running every file operation in order on a single worker thread.
+     */
+    private final ExecutorService ioExecutorService;
+
+    /**
+     * {@link Handler} for handing results of the worker thread back to the main thread.
+     */
+    private final Handler mainHandler;
+
+    /**
+     * {@link List} of {@link OnReadStateChangedListener} objects to notify.
+     */
+    private final List<OnReadStateChangedListener> onReadStateChangedListeners;
+
+    /**
+     * {@link LongBuffer} over the memory-mapped sorted file, or null while it is not loaded or
+     * does not exist.
+     */
+    private LongBuffer sortedHashes;
+
+    /**
+     * long array holding the pending hashes in its first pendingCount elements, sorted.
+     */
+    private long[] pendingHashes;
+    private int pendingCount;
+
+    /**
+     * long array holding the bits of the Bloom filter.
+     */
+    private long[] bloomBits;
+
+    /**
+     * boolean indicating whether a merge is running on the worker thread.
+     */
+    private boolean merging;
+
+    /**
+     * Constructs a new {@link ReadStateStore} object and starts loading it on the worker thread.
+     *
+     * @param context {@link Context} for accessing the files directory.
+     */
+    private ReadStateStore(Context context) {
+        this(context.getFilesDir());
+    }
+
+    /**
+     * Constructs a new {@link ReadStateStore} object keeping its files in the given directory and
+     * starts loading it on the worker thread. Must be called on the main thread.
+     *
+     * @param directory {@link File} directory holding the sorted file and the log file.
+     */
+    ReadStateStore(File directory) {
+        this.sortedFile = new File(directory, SORTED_FILE_NAME);
+        this.logFile = new File(directory, LOG_FILE_NAME);
+        this.mergeFile = new File(directory, SORTED_FILE_NAME + ".tmp");
+        this.ioExecutorService = Executors.newSingleThreadExecutor();
+        this.mainHandler = new Handler(Looper.getMainLooper());
+        this.onReadStateChangedListeners = new ArrayList<>();
+        this.pendingHashes = new long[MERGE_THRESHOLD * 2];
+        this.bloomBits = new long[getBloomWordCount(MIN_BLOOM_CAPACITY)];
+        load();
+    }
+
+    /**
+     * Returns the {@link ReadStateStore} instance shared across the app.
+     *
+     * @param context {@link Context} for accessing the files directory.
+     * @return {@link ReadStateStore} instance shared across the app.
+     */
+    public static synchronized ReadStateStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new ReadStateStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Returns whether the article with the given id was opened. Articles opened in an earlier
+     * session are reported as unread until the store finished loading, after which every
+     * {@link OnReadStateChangedListener} is notified.
+     *
+     * @param id {@link String} id of the article.
+     * @return Whether the article was opened.
+     */
+    public boolean isRead(String id) {
+        long hash = hash(id);
+        if (!bloomMightContain(bloomBits, hash)) {
+            return false;
+        }
+        return Arrays.binarySearch(pendingHashes, 0, pendingCount, hash) >= 0 || sortedContains(sortedHashes, hash);
+    }
+
+    /**
+     * Records that the article with the given id was opened and persists it.
+     *
+     * @param id {@link String} id of the article.
+     */
+    public void markRead(String id) {
+        final long hash = hash(id);
+        if (!insertPending(hash)) {
+            return;
+        }
+        ioExecutorService.execute(new Runnable() {
+            @Override
+            public void run() {
+                appendToLog(hash);
+            }
+        });
+        if (pendingCount >= MERGE_THRESHOLD) {
+            merge();
+        }
+    }
+
+    /**
+     * Adds an {@link OnReadStateChangedListener} to notify.
+     *
+     * @param listener {@link OnReadStateChangedListener} to add.
+     */
+    public void addOnReadStateChangedListener(OnReadStateChangedListener listener) {
+        onReadStateChangedListeners.add(listener);
+    }
+
+    /**
+     * Removes an {@link OnReadStateChangedListener} so that it is no longer notified.
+     *
+     * @param listener {@link OnReadStateChangedListener} to remove.
+     */
+    public void removeOnReadStateChangedListener(OnReadStateChangedListener listener) {
+        onReadStateChangedListeners.remove(listener);
+    }
+
+    /**
+     * Returns a {@link String} summarizing how many ids are stored and how much memory they take.
+     *
+     * @return {@link String} summarizing the size of the store.
+     */
+    public String getStatsSummary() {
+        long sortedCount = sortedHashes == null ? 0 : sortedHashes.capacity();
+        long count = getCount();
+        long heapBytes = getHeapBytes();
+        return String.format(Locale.US,
+                "read ids %d (%d pending), heap %d bytes, mapped %d bytes, about %d heap bytes per million ids",
+                count, pendingCount, heapBytes, 8 * sortedCount,
+                count == 0 ? 0 : heapBytes * 1000000 / count);
+    }
+
+    /**
+     * Returns how many ids are stored, counting those in the sorted file and the pending ones.
+     *
+     * @return long number of stored ids.
+     */
+    long getCount() {
+        return (sortedHashes == null ? 0 : sortedHashes.capacity()) + pendingCount;
+    }
+
+    /**
+     * Returns how many heap bytes the Bloom filter and the pending array take. The mapped sorted
+     * file is not counted.
+     *
+     * @return long heap bytes held by the store.
+     */
+    long getHeapBytes() {
+        return 8L * bloomBits.length + 8L * pendingHashes.length;
+    }
+
+    /**
+     * Logs the size of the store.
+     */
+    public void logStats() {
+        Log.i(LOG_TAG_NAME, getStatsSummary());
+    }
+
+    /**
+     * Maps the sorted file, reads the log file, and builds the Bloom filter on the worker thread,
+     * then installs the result on the main thread. Hashes recorded in the meantime are kept.
+     */
+    private void load() {
+        ioExecutorService.execute(new Runnable() {
+            @Override
+            public void run() {
+                final LongBuffer loadedSortedHashes = mapSortedFile();
+                final long[] loggedHashes = readLog();
+                final int loadedCount = (loadedSortedHashes == null ? 0 : loadedSortedHashes.capacity()) + loggedHashes.length;
+                final long[] loadedBloomBits = buildBloomFilter(loadedSortedHashes, getBloomCapacity(loadedCount + MERGE_THRESHOLD));
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        installLoadedState(loadedSortedHashes, loggedHashes, loadedBloomBits);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Installs the state loaded on the worker thread and notifies every listener.
+     */
+    private void installLoadedState(LongBuffer loadedSortedHashes, long[] loggedHashes, long[] loadedBloomBits) {
+        long[] recordedHashes = Arrays.copyOf(pendingHashes, pendingCount);
+        sortedHashes = loadedSortedHashes;
+        bloomBits = loadedBloomBits;
+        pendingCount = 0;
+        for (long hash : loggedHashes) {
+            insertPending(hash);
+        }
+        for (long hash : recordedHashes) {
+            insertPending(hash);
+        }
+        notifyListeners();
+        if (pendingCount >= MERGE_THRESHOLD) {
+            merge();
+        }
+    }
+
+    /**
+     * Merges the pending hashes into a new sorted file on the worker thread, then maps the new file
+     * on the main thread. Hashes recorded while the merge runs stay pending; their log appends are
+     * queued behind the merge, so they survive the log being cleared.
+     */
+    private void merge() {
+        if (merging) {
+            return;
+        }
+        merging = true;
+        final LongBuffer mergedSortedHashes = sortedHashes;
+        final long[] mergedPendingHashes = Arrays.copyOf(pendingHashes, pendingCount);
+        ioExecutorService.execute(new Runnable() {
+            @Override
+            public void run() {
+                final boolean merged = writeMergeFile(mergedSortedHashes, mergedPendingHashes);
+                final LongBuffer newSortedHashes = merged ? mapSortedFile() : null;
+                final long[] newBloomBits = merged ? buildBloomFilter(newSortedHashes, getBloomCapacity((newSortedHashes == null ? 0 : newSortedHashes.capacity()) + MERGE_THRESHOLD)) : null;
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        merging = false;
+                        if (merged) {
+                            installMergedState(newSortedHashes, newBloomBits);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Installs a merged sorted file on the main thread, keeping only the pending hashes it does not
+     * contain yet.
+     */
+    private void installMergedState(LongBuffer newSortedHashes, long[] newBloomBits) {
+        long[] remainingHashes = Arrays.copyOf(pendingHashes, pendingCount);
+        sortedHashes = newSortedHashes;
+        bloomBits = newBloomBits;
+        pendingCount = 0;
+        for (long hash : remainingHashes) {
+            if (!sortedContains(sortedHashes, hash)) {
+                insertPending(hash);
+            }
+        }
+    }
+
+    /**
+     * Inserts a hash into the sorted pending array and the Bloom filter.
+     *
+     * @param hash long hash of an article id.
+     * @return Whether the hash was not stored before.
+     */
+    private boolean insertPending(long hash) {
+        if (sortedContains(sortedHashes, hash)) {
+            return false;
+        }
+        int insertionIndex = Arrays.binarySearch(pendingHashes, 0, pendingCount, hash);
+        if (insertionIndex >= 0) {
+            return false;
+        }
+        insertionIndex = -insertionIndex - 1;
+        if (pendingCount == pendingHashes.length) {
+            pendingHashes = Arrays.copyOf(pendingHashes, pendingHashes.length * 2);
+        }
+        System.arraycopy(pendingHashes, insertionIndex, pendingHashes, insertionIndex + 1, pendingCount - insertionIndex);
+        pendingHashes[insertionIndex] = hash;
+        pendingCount++;
+        bloomAdd(bloomBits, hash);
+        return true;
+    }
+
+    /**
+     * Notifies every {@link OnReadStateChangedListener}.
+     */
+    private void notifyListeners() {
+        for (OnReadStateChangedListener listener : new ArrayList<>(onReadStateChangedListeners)) {
+            listener.onReadStateChanged();
+        }
+    }
+
+    /**
+     * Maps the sorted file read only. Must be called on the worker thread.
+     *
+     * @return {@link LongBuffer} over the sorted file, or null if it does not exist or cannot be
+     * mapped.
+     */
+    private LongBuffer mapSortedFile() {
+        if (!sortedFile.exists() || sortedFile.length() < 8) {
+            return null;
+        }
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(sortedFile, "r")) {
+            FileChannel fileChannel = randomAccessFile.getChannel();
+            return fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size() / 8 * 8).asLongBuffer();
+        } catch (IOException e) {
+            Log.e(LOG_TAG_NAME, "Error mapping the read state file", e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads every hash appended to the log file. A torn last entry is ignored. Must be called on
+     * the worker thread.
+     *
+     * @return long array of logged hashes.
+     */
+    private long[] readLog() {
+        if (!logFile.exists()) {
+            return new long[0];
+        }
+        long[] loggedHashes = new long[(int) (logFile.length() / 8)];
+        try (DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile)))) {
+            for (int loggedIndex = 0; loggedIndex < loggedHashes.length; loggedIndex++) {
+                loggedHashes[loggedIndex] = dataInputStream.readLong();
+            }
+        } catch (EOFException e) {
+            Log.e(LOG_TAG_NAME, "Read state log ended early", e);
+        } catch (IOException e) {
+            Log.e(LOG_TAG_NAME, "Error reading the read state log", e);
+        }
+        return loggedHashes;
+    }
+
+    /**
+     * Appends a hash to the log file. Must be called on the worker thread.
+     *
+     * @param hash long hash to append.
+     */
+    private void appendToLog(long hash) {
+        try (DataOutputStream dataOutputStream = new DataOutputStream(new FileOutputStream(logFile, true))) {
+            dataOutputStream.writeLong(hash);
+        } catch (IOException e) {
+            Log.e(LOG_TAG_NAME, "Error appending to the read state log", e);
+        }
+    }
+
+    /**
+     * Writes the union of the sorted hashes and the given pending hashes to a new sorted file,
+     * replaces the old one with it, and clears the log. Must be called on the worker thread.
+     *
+     * @return Whether the new sorted file was written.
+     */
+    private boolean writeMergeFile(LongBuffer oldSortedHashes, long[] newHashes) {
+        int oldCount = oldSortedHashes == null ? 0 : oldSortedHashes.capacity();
+        try (DataOutputStream dataOutputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(mergeFile)))) {
+            int oldIndex = 0;
+            int newIndex = 0;
+            long lastHash = 0;
+            boolean written = false;
+            while (oldIndex < oldCount || newIndex < newHashes.length) {
+                long hash;
+                if (newIndex >= newHashes.length || (oldIndex < oldCount && oldSortedHashes.get(oldIndex) <= newHashes[newIndex])) {
+                    hash = oldSortedHashes.get(oldIndex++);
+                } else {
+                    hash = newHashes[newIndex++];
+                }
+                if (!written || hash != lastHash) {
+                    dataOutputStream.writeLong(hash);
+                    lastHash = hash;
+                    written = true;
+                }
+            }
+        } catch (IOException e) {
+            Log.e(LOG_TAG_NAME, "Error writing the merged read state file", e);
+            return false;
+        }
+        if (!mergeFile.renameTo(sortedFile)) {
+            Log.e(LOG_TAG_NAME, "Error replacing the read state file");
+            return false;
+        }
+        if (logFile.exists() && !logFile.delete()) {
+            Log.e(LOG_TAG_NAME, "Error clearing the read state log");
+        }
+        return true;
+    }
+
+    /**
+     * Returns a Bloom filter over the given sorted hashes.
+     *
+     * @param hashes   {@link LongBuffer} of sorted hashes. May be null.
+     * @param capacity int number of hashes the filter is sized for.
+     * @return long array holding the bits of the filter.
+     */
+    private static long[] buildBloomFilter(LongBuffer hashes, int capacity) {
+        long[] bits = new long[getBloomWordCount(capacity)];
+        if (hashes != null) {
+            for (int hashesIndex = 0; hashesIndex < hashes.capacity(); hashesIndex++) {
+                bloomAdd(bits, hashes.get(hashesIndex));
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Returns the Bloom filter capacity for the given number of hashes, leaving room to grow.
+     */
+    private static int getBloomCapacity(int count) {
+        return Math.max(MIN_BLOOM_CAPACITY, count * 2);
+    }
+
+    /**
+     * Returns how many long words a Bloom filter of the given capacity needs.
+     */
+    private static int getBloomWordCount(int capacity) {
+        return (int) (((long) capacity * BLOOM_BITS_PER_HASH + 63) / 64);
+    }
+
+    /**
+     * Sets the bits of a hash in a Bloom filter. Probe positions are derived from the two halves
+     * of the hash by double hashing.
+     */
+    private static void bloomAdd(long[] bits, long hash) {
+        long bitCount = (long) bits.length * 64;
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int probe = 0; probe < BLOOM_HASH_COUNT; probe++) {
+            long bitIndex = ((hash1 + probe * hash2) & 0x7fffffffL) % bitCount;
+            bits[(int) (bitIndex >>> 6)] |= 1L << bitIndex;
+        }
+    }
+
+    /**
+     * Returns whether every bit of a hash is set in a Bloom filter.
+     */
+    private static boolean bloomMightContain(long[] bits, long hash) {
+        long bitCount = (long) bits.length * 64;
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int probe = 0; probe < BLOOM_HASH_COUNT; probe++) {
+            long bitIndex = ((hash1 + probe * hash2) & 0x7fffffffL) % bitCount;
+            if ((bits[(int) (bitIndex >>> 6)] & (1L << bitIndex)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Binary searches a hash in the mapped sorted file without allocating.
+     *
+     * @param hashes {@link LongBuffer} of sorted hashes. May be null.
+     * @param hash   long hash to search.
+     * @return Whether the hash is stored.
+     */
+    private static boolean sortedContains(LongBuffer hashes, long hash) {
+        if (hashes == null) {
+            return false;
+        }
+        int low = 0;
+        int high = hashes.capacity() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleHash = hashes.get(middle);
+            if (middleHash < hash) {
+                low = middle + 1;
+            } else if (middleHash > hash) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the 64 bit FNV-1a hash of an article id, computed over its characters without
+     * allocating.
+     *
+     * @param id {@link String} id of the article.
+     * @return long hash of the id.
+     */
+    static long hash(String id) {
+        long hash = 0xcbf29ce484222325L;
+        for (int charIndex = 0; charIndex < id.length(); charIndex++) {
+            hash ^= id.charAt(charIndex);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * {@link OnReadStateChangedListener} is notified on the main thread when read states changed
+     * other than through {@link ReadStateStore#markRead(String)}, i.e. once the store finished
+     * loading.
+     */
+    public interface OnReadStateChangedListener {
+
+        /**
+         * Invoked when read states changed.
+         */
+        void onReadStateChanged();
+    }
+}
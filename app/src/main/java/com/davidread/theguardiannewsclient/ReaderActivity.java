@@ -0,0 +1,204 @@
+package com.davidread.theguardiannewsclient;
+
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Bundle;
+import android.util.Log;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.view.View;
+import android.webkit.URLUtil;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.loader.app.LoaderManager;
+import androidx.loader.content.Loader;
+
+/**
+ * {@link ReaderActivity} shows a single {@link Article} in-app. Its body text is loaded by an
+ * {@link ArticleBodyLoader}, so articles that were opened or prefetched before show up without a
+ * network request.
+ */
+public class ReaderActivity extends AppCompatActivity {
+
+    /**
+     * {@link String} log tag name for {@link ReaderActivity}.
+     */
+    public static final String LOG_TAG_NAME = ReaderActivity.class.getSimpleName();
+
+    /**
+     * {@link String} key for the {@link Article} object passed in the starting {@link Intent}.
+     */
+    public static final String EXTRA_ARTICLE = "article";
+
+    /**
+     * int id of the {@link ArticleBodyLoader}.
+     */
+    private static final int ARTICLE_BODY_LOADER_ID = 0;
+
+    /**
+     * {@link LoaderManager.LoaderCallbacks} object that defines how the {@link ArticleBodyLoader}
+     * handles its createLoader, loadFinished, and loaderReset events.
+     */
+    private final LoaderManager.LoaderCallbacks<String> loaderCallbacks = new LoaderManager.LoaderCallbacks<String>() {
+
+        /**
+         * Handles createLoader event. On this event, return a new {@link ArticleBodyLoader} for
+         * the shown {@link Article}.
+         *
+         * @param id   int id of the {@link ArticleBodyLoader} to be created.
+         * @param args {@link Bundle} object containing optional arguments.
+         * @return A new {@link ArticleBodyLoader} object.
+         */
+        @NonNull
+        @Override
+        public Loader<String> onCreateLoader(int id, @Nullable Bundle args) {
+            return new ArticleBodyLoader(ReaderActivity.this, article.getId());
+        }
+
+        /**
+         * Handles loadFinished event. On this event, hide the progress bar and show either the
+         * body text or the error view.
+         *
+         * @param loader {@link ArticleBodyLoader} object that completed.
+         * @param data   {@link String} body text, or null if it could not be loaded.
+         */
+        @Override
+        public void onLoadFinished(@NonNull Loader<String> loader, String data) {
+            progressBar.setVisibility(View.GONE);
+            if (data == null || data.isEmpty()) {
+                errorTextView.setVisibility(View.VISIBLE);
+            } else {
+                bodyTextView.setText(data);
+                bodyTextView.setVisibility(View.VISIBLE);
+            }
+        }
+
+        @Override
+        public void onLoaderReset(@NonNull Loader<String> loader) {
+        }
+    };
+
+    /**
+     * {@link Article} shown by this activity.
+     */
+    private Article article;
+
+    /**
+     * {@link ProgressBar} shown while the body text is loading.
+     */
+    private ProgressBar progressBar;
+
+    /**
+     * {@link TextView} holding the body text of the article.
+     */
+    private TextView bodyTextView;
+
+    /**
+     * {@link TextView} shown when the body text could not be loaded.
+     */
+    private TextView errorTextView;
+
+    /**
+     * Callback method invoked exactly once when this activity is created. On this event, show the
+     * headline of the passed {@link Article} and initialize an {@link ArticleBodyLoader} for its
+     * body text.
+     *
+     * @param savedInstanceState {@link Bundle} object where instance state from a previous
+     *                           configuration change is stored.
+     */
+    @Override
+    protected void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_reader);
+
+        article = getIntent().getParcelableExtra(EXTRA_ARTICLE);
+        if (article == null) {
+            Log.e(LOG_TAG_NAME, "No article passed to the reader");
+            finish();
+            return;
+        }
+
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+            getSupportActionBar().setTitle(article.getSectionName());
+        }
+
+        TextView titleTextView = findViewById(R.id.reader_title_text_view);
+        TextView authorsTextView = findViewById(R.id.reader_authors_text_view);
+        TextView datePublishedTextView = findViewById(R.id.reader_date_published_text_view);
+        progressBar = findViewById(R.id.reader_progress_bar);
+        bodyTextView = findViewById(R.id.reader_body_text_view);
+        errorTextView = findViewById(R.id.reader_error_text_view);
+
+        titleTextView.setText(article.getTitle());
+        authorsTextView.setText(ArticleAdapter.getFormattedAuthorsString(this, article.getAuthors()));
+        datePublishedTextView.setText(ArticleAdapter.getFormattedDatePublishedString(article.getDatePublished()));
+
+        // This activity may be recreated on its own after process death, so make sure the network
+        // state and network engine are set up before loading. The API quota is restored by the
+        // NewsClientApplication.
+        NetworkMonitor.getInstance(this);
+        GuardianApiClient.applyHttpTransportPreference(this);
+        LoaderManager.getInstance(this).initLoader(ARTICLE_BODY_LOADER_ID, null, loaderCallbacks);
+    }
+
+    /**
+     * Callback method invoked when this activity needs a new options menu. On this event, inflate
+     * the options menu defined at {@link R.menu#menu_reader}.
+     *
+     * @param menu {@link Menu} object in which you place your items.
+     * @return Whether the menu will be displayed.
+     */
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.menu_reader, menu);
+        return true;
+    }
+
+    /**
+     * Callback method invoked when an options menu item is clicked. On this event, open the
+     * article in a browser app if the open in browser action is clicked. Otherwise, have the up
+     * button mimic the behavior of the back button.
+     *
+     * @param item {@link MenuItem} that was clicked.
+     * @return False to allow normal menu processing to proceed. True to consume it here.
+     */
+    @Override
+    public boolean onOptionsItemSelected(@NonNull MenuItem item) {
+        if (item.getItemId() == R.id.action_open_in_browser) {
+            openInBrowser();
+        } else {
+            onBackPressed();
+        }
+        return true;
+    }
+
+    /**
+     * Starts an intent to open the URL associated with the shown {@link Article} in a browser app.
+     */
+    private void openInBrowser() {
+        String url = article.getUrl();
+        Intent intent = new Intent(Intent.ACTION_VIEW);
+        intent.setData(Uri.parse(url));
+
+        // Do nothing if no browser app is installed on the device.
+        if (intent.resolveActivity(getPackageManager()) == null) {
+            Log.e(LOG_TAG_NAME, "No browser app installed to handle view intent");
+            Toast.makeText(this, getString(R.string.no_browser_label), Toast.LENGTH_LONG).show();
+            return;
+        }
+
+        // Do nothing if the provided URL is invalid.
+        if (url == null || !URLUtil.isValidUrl(url)) {
+            Log.e(LOG_TAG_NAME, "Invalid URL string provided by The Guardian API");
+            return;
+        }
+
+        startActivity(intent);
+    }
+}
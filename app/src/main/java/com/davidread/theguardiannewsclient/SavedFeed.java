@@ -0,0 +1,157 @@
+package com.davidread.theguardiannewsclient;
+
+import android.text.TextUtils;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.List;
+
+/**
+ * {@link SavedFeed} is a model class for a feed the user saved: a name together with the order by,
+ * search term, and sections settings the feed is requested with.
+ */
+public class SavedFeed {
+
+    /**
+     * {@link String} keys of the JSON representation of a {@link SavedFeed}.
+     */
+    private static final String NAME_KEY = "name";
+    private static final String ORDER_BY_KEY = "orderBy";
+    private static final String SEARCH_TERM_KEY = "searchTerm";
+    private static final String SECTIONS_KEY = "sections";
+
+    /**
+     * {@link String} name of the feed shown to the user.
+     */
+    private final String name;
+
+    /**
+     * {@link String} order by setting of the feed.
+     */
+    private final String orderBy;
+
+    /**
+     * {@link String} search term setting of the feed.
+     */
+    private final String searchTerm;
+
+    /**
+     * {@link String} raw sections setting of the feed.
+     */
+    private final String sectionsValue;
+
+    /**
+     * {@link String} key identifying the feed, see {@link SavedFeed#getKey(String, String, List)}.
+     */
+    private final String key;
+
+    /**
+     * Constructs a new {@link SavedFeed} object.
+     *
+     * @param name          {@link String} name of the feed shown to the user.
+     * @param orderBy       {@link String} order by setting of the feed.
+     * @param searchTerm    {@link String} search term setting of the feed.
+     * @param sectionsValue {@link String} raw sections setting of the feed.
+     */
+    public SavedFeed(String name, String orderBy, String searchTerm, String sectionsValue) {
+        this.name = name;
+        this.orderBy = orderBy;
+        this.searchTerm = searchTerm;
+        this.sectionsValue = sectionsValue;
+        this.key = getKey(orderBy, searchTerm, MergedArticleFeed.parseSections(sectionsValue));
+    }
+
+    /**
+     * Returns the key of the feed requested with the given settings. Feeds whose settings only
+     * differ in how the sections were typed share a key.
+     *
+     * @param orderBy    {@link String} order by setting of the feed.
+     * @param searchTerm {@link String} search term setting of the feed.
+     * @param sections   {@link List} of {@link String} section ids parsed from the sections
+     *                   setting of the feed.
+     * @return {@link String} key identifying the feed.
+     */
+    public static String getKey(String orderBy, String searchTerm, List<String> sections) {
+        return orderBy + "|" + searchTerm + "|" + TextUtils.join(",", sections);
+    }
+
+    /**
+     * Returns the key of the feed requested with the given {@link SettingsRepository.Settings}.
+     *
+     * @param settings {@link SettingsRepository.Settings} snapshot the feed is requested with.
+     * @return {@link String} key identifying the feed.
+     */
+    public static String getKey(SettingsRepository.Settings settings) {
+        return getKey(settings.getOrderBy(), settings.getSearchTerm(), settings.getSections());
+    }
+
+    /**
+     * Returns a new {@link SavedFeed} object read from its JSON representation.
+     *
+     * @param jsonObject {@link JSONObject} written by {@link SavedFeed#toJson()}.
+     * @return {@link SavedFeed} object.
+     * @throws JSONException If a property is missing.
+     */
+    public static SavedFeed fromJson(JSONObject jsonObject) throws JSONException {
+        return new SavedFeed(jsonObject.getString(NAME_KEY), jsonObject.getString(ORDER_BY_KEY),
+                jsonObject.getString(SEARCH_TERM_KEY), jsonObject.getString(SECTIONS_KEY));
+    }
+
+    /**
+     * Returns the JSON representation of this feed.
+     *
+     * @return {@link JSONObject} holding the name and settings of this feed.
+     * @throws JSONException Never, since every value is a {@link String}.
+     */
+    public JSONObject toJson() throws JSONException {
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put(NAME_KEY, name);
+        jsonObject.put(ORDER_BY_KEY, orderBy);
+        jsonObject.put(SEARCH_TERM_KEY, searchTerm);
+        jsonObject.put(SECTIONS_KEY, sectionsValue);
+        return jsonObject;
+    }
+
+    /**
+     * Returns the name of the feed shown to the user.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the order by setting of the feed.
+     */
+    public String getOrderBy() {
+        return orderBy;
+    }
+
+    /**
+     * Returns the search term setting of the feed.
+     */
+    public String getSearchTerm() {
+        return searchTerm;
+    }
+
+    /**
+     * Returns the raw sections setting of the feed.
+     */
+    public String getSectionsValue() {
+        return sectionsValue;
+    }
+
+    /**
+     * Returns the key identifying the feed.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Returns whether the feed merges several sections.
+     */
+    public boolean isMerged() {
+        return !MergedArticleFeed.parseSections(sectionsValue).isEmpty();
+    }
+}
@@ -0,0 +1,714 @@
+package com.davidread.theguardiannewsclient;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.text.TextUtils;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link SavedFeedRepository} holds the feeds the user saved, and what is needed to switch between
+ * them without a reload:
+ * <ul>
+ *     <li>The state of every saved feed the user switched away from, i.e. its loaded articles,
+ *     paging state, and scroll position, as saved by the main activity.</li>
+ *     <li>The first page of every saved feed that is not visible, refreshed in the background.</li>
+ * </ul>
+ * Background refreshes of several feeds run concurrently, but on a small shared thread pool and
+ * with {@link ApiQuotaManager.Priority#BACKGROUND} priority, so they are shed before they could
+ * delay a foreground request or eat into the daily quota reserved for the user. The feeds are
+ * stored as JSON in private {@link SharedPreferences}, read on a worker thread; background
+ * refreshes requested before they were read start once they are, so the main thread never waits
+ * for the disk to refresh. Apart from the constructor, all methods must be called on the main
+ * thread.
+ */
+public class SavedFeedRepository {
+
+    /**
+     * {@link String} log tag name for {@link SavedFeedRepository}.
+     */
+    public static final String LOG_TAG_NAME = SavedFeedRepository.class.getSimpleName();
+
+    /**
+     * {@link String} name of the {@link SharedPreferences} file and key the feeds are stored
+     * under.
+     */
+    private static final String PREFERENCES_NAME = "saved_feeds";
+    private static final String SAVED_FEEDS_KEY = "saved_feeds";
+
+    /**
+     * int representing how many background refreshes run at the same time at most.
+     */
+    private static final int MAX_CONCURRENT_REFRESHES = 2;
+
+    /**
+     * long representing how many milliseconds a refreshed first page stays fresh. A feed is not
+     * refreshed again before, whether its last refresh succeeded or not.
+     */
+    private static final long REFRESH_INTERVAL_MILLIS = 10 * 60 * 1000;
+
+    /**
+     * int representing how many calls of the daily quota must remain for background refreshes to
+     * be started.
+     */
+    private static final int MIN_REMAINING_DAILY_QUOTA = ApiQuotaManager.CALLS_PER_DAY / 5;
+
+    /**
+     * int representing how many feed states are kept at most.
+     */
+    private static final int MAX_FEED_STATE_COUNT = 4;
+
+    /**
+     * {@link SavedFeedRepository} instance shared across the app.
+     */
+    private static SavedFeedRepository instance;
+
+    /**
+     * {@link Context} for accessing the {@link ApiQuotaManager} and the
+     * {@link ArticlePageRepository}.
+     */
+    private final Context context;
+
+    /**
+     * {@link SharedPreferences} the feeds are stored in.
+     */
+    private final SharedPreferences sharedPreferences;
+
+    /**
+     * {@link ExecutorService} shared by every background refresh, which bounds how many run at
+     * the same time. Reading the stored feeds is its first task.
+     */
+    private final ExecutorService refreshExecutorService;
+
+    /**
+     * {@link Handler} for handing refreshed pages back to the main thread.
+     */
+    private final Handler mainHandler;
+
+    /**
+     * {@link Future} of the {@link List} of stored {@link SavedFeed} objects.
+     */
+    private final Future<List<SavedFeed>> loadedSavedFeeds;
+
+    /**
+     * {@link List} of {@link SavedFeed} objects, or null until the stored feeds were read.
+     */
+    private List<SavedFeed> savedFeeds;
+
+    /**
+     * {@link LinkedHashMap} of feed keys to the {@link FeedState} of the feeds switched away
+     * from, in access order.
+     */
+    private final LinkedHashMap<String, FeedState> feedStates;
+
+    /**
+     * {@link Map} of feed keys to the first pages refreshed in the background.
+     */
+    private final Map<String, RefreshedPage> refreshedPages;
+
+    /**
+     * {@link Map} of feed keys to when their last background refresh finished, in milliseconds
+     * since boot. Merged feeds and failed refreshes leave no {@link RefreshedPage}, so this is
+     * what keeps them from being refreshed on every call.
+     */
+    private final Map<String, Long> refreshedAtMillis;
+
+    /**
+     * {@link Set} of keys of the feeds being refreshed.
+     */
+    private final Set<String> refreshingKeys;
+
+    /**
+     * {@link Runnable} starting the background refresh requested before the stored feeds were
+     * read, or null if there is none. Only the latest request is kept.
+     */
+    @Nullable
+    private Runnable pendingRefresh;
+
+    /**
+     * {@link AtomicLong} counters reported by {@link SavedFeedRepository#getStatsSummary()}.
+     */
+    private final AtomicLong refreshCount = new AtomicLong();
+    private final AtomicLong failedRefreshCount = new AtomicLong();
+    private long instantSwitchCount;
+    private long reloadSwitchCount;
+
+    /**
+     * {@link CacheGovernor.ManagedCache} object that lets the {@link CacheGovernor} drop feed
+     * states and refreshed pages, least recently used first.
+     */
+    private final CacheGovernor.ManagedCache managedCache = new CacheGovernor.ManagedCache() {
+
+        @Override
+        public String getName() {
+            return "saved feeds";
+        }
+
+        @Override
+        public long getSizeBytes() {
+            long sizeBytes = 0;
+            for (FeedState feedState : feedStates.values()) {
+                sizeBytes += feedState.sizeBytes;
+            }
+            for (RefreshedPage refreshedPage : refreshedPages.values()) {
+                sizeBytes += refreshedPage.sizeBytes;
+            }
+            return sizeBytes;
+        }
+
+        @Override
+        public void trimToSize(long targetSizeBytes) {
+            Iterator<FeedState> feedStateIterator = feedStates.values().iterator();
+            while (getSizeBytes() > targetSizeBytes && feedStateIterator.hasNext()) {
+                feedStateIterator.next();
+                feedStateIterator.remove();
+            }
+            Iterator<RefreshedPage> refreshedPageIterator = refreshedPages.values().iterator();
+            while (getSizeBytes() > targetSizeBytes && refreshedPageIterator.hasNext()) {
+                refreshedPageIterator.next();
+                refreshedPageIterator.remove();
+            }
+        }
+    };
+
+    /**
+     * Constructs a new {@link SavedFeedRepository} object and starts reading the stored feeds on
+     * a worker thread.
+     *
+     * @param context {@link Context} for accessing {@link SharedPreferences}.
+     */
+    private SavedFeedRepository(Context context) {
+        this.context = context;
+        this.sharedPreferences = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        this.refreshExecutorService = Executors.newFixedThreadPool(MAX_CONCURRENT_REFRESHES);
+        this.mainHandler = new Handler(Looper.getMainLooper());
+        this.feedStates = new LinkedHashMap<>(MAX_FEED_STATE_COUNT, 0.75f, true);
+        this.refreshedPages = new LinkedHashMap<>();
+        this.refreshedAtMillis = new HashMap<>();
+        this.refreshingKeys = new HashSet<>();
+        FutureTask<List<SavedFeed>> readTask = new FutureTask<List<SavedFeed>>(new Callable<List<SavedFeed>>() {
+            @Override
+            public List<SavedFeed> call() {
+                return readSavedFeeds();
+            }
+        }) {
+            @Override
+            protected void done() {
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        runPendingRefresh();
+                    }
+                });
+            }
+        };
+        this.loadedSavedFeeds = readTask;
+        refreshExecutorService.execute(readTask);
+        CacheGovernor.getInstance().register(managedCache, CacheGovernor.PRIORITY_NORMAL);
+    }
+
+    /**
+     * Returns the {@link SavedFeedRepository} instance shared across the app.
+     *
+     * @param context {@link Context} for accessing {@link SharedPreferences}.
+     * @return {@link SavedFeedRepository} instance shared across the app.
+     */
+    public static synchronized SavedFeedRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new SavedFeedRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the saved feeds. Only if they are requested before the worker thread finished
+     * reading them, the caller waits for them.
+     *
+     * @return Unmodifiable {@link List} of {@link SavedFeed} objects in the order they were saved.
+     */
+    public List<SavedFeed> getSavedFeeds() {
+        return Collections.unmodifiableList(ensureSavedFeeds());
+    }
+
+    /**
+     * Returns the saved feed with the given key.
+     *
+     * @param key {@link String} key of the feed.
+     * @return {@link SavedFeed} object, or null if no feed with this key is saved.
+     */
+    @Nullable
+    public SavedFeed getSavedFeed(String key) {
+        for (SavedFeed savedFeed : ensureSavedFeeds()) {
+            if (savedFeed.getKey().equals(key)) {
+                return savedFeed;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Saves a feed, replacing a saved feed with the same key.
+     *
+     * @param savedFeed {@link SavedFeed} to save.
+     */
+    public void addSavedFeed(SavedFeed savedFeed) {
+        removeSavedFeed(savedFeed.getKey());
+        ensureSavedFeeds().add(savedFeed);
+        writeSavedFeeds();
+    }
+
+    /**
+     * Removes the saved feed with the given key along with its state and refreshed page.
+     *
+     * @param key {@link String} key of the feed.
+     */
+    public void removeSavedFeed(String key) {
+        Iterator<SavedFeed> savedFeedIterator = ensureSavedFeeds().iterator();
+        while (savedFeedIterator.hasNext()) {
+            if (savedFeedIterator.next().getKey().equals(key)) {
+                savedFeedIterator.remove();
+            }
+        }
+        feedStates.remove(key);
+        refreshedPages.remove(key);
+        refreshedAtMillis.remove(key);
+        writeSavedFeeds();
+    }
+
+    /**
+     * Keeps the state of a saved feed the user switched away from. States of feeds that are not
+     * saved are ignored.
+     *
+     * @param key      {@link String} key of the feed.
+     * @param state    {@link Bundle} holding the state of the feed.
+     * @param articles {@link List} of the {@link Article} objects held by the state, for
+     *                 estimating its size and comparing it to refreshed pages.
+     */
+    public void putFeedState(String key, Bundle state, List<Article> articles) {
+        if (getSavedFeed(key) == null) {
+            return;
+        }
+        feedStates.put(key, new FeedState(state, articles));
+        Iterator<String> keyIterator = feedStates.keySet().iterator();
+        while (feedStates.size() > MAX_FEED_STATE_COUNT) {
+            keyIterator.next();
+            keyIterator.remove();
+        }
+    }
+
+    /**
+     * Returns the state of the given feed, unless it was dropped or a refreshed first page shows
+     * that newer articles were published since.
+     *
+     * @param key {@link String} key of the feed.
+     * @return {@link Bundle} holding the state of the feed, or null.
+     */
+    @Nullable
+    private Bundle getFeedState(String key) {
+        FeedState feedState = feedStates.get(key);
+        return feedState == null ? null : feedState.state;
+    }
+
+    /**
+     * Drops the state of the given feed, e.g. because the user refreshed it.
+     *
+     * @param key {@link String} key of the feed.
+     */
+    public void removeFeedState(String key) {
+        feedStates.remove(key);
+    }
+
+    /**
+     * Switches to the given saved feed. Its settings are saved, and it is looked up how the feed
+     * can be shown without a request: from the state it was left in, or else from its first page
+     * refreshed in the background. The switch is counted as instant or as a reload, and the other
+     * saved feeds are refreshed in the background.
+     *
+     * @param savedFeed      {@link SavedFeed} to switch to.
+     * @param loadingProfile {@link LoadingProfile} of the active network connection.
+     * @return {@link FeedSwitch} holding what the feed can be shown from.
+     */
+    public FeedSwitch switchTo(SavedFeed savedFeed, LoadingProfile loadingProfile) {
+        SettingsRepository.getInstance(context).setFeed(savedFeed.getOrderBy(), savedFeed.getSearchTerm(), savedFeed.getSectionsValue());
+        String key = savedFeed.getKey();
+        FeedSwitch feedSwitch = new FeedSwitch(getFeedState(key), refreshedPages.get(key));
+        if (feedSwitch.isInstant()) {
+            instantSwitchCount++;
+        } else {
+            reloadSwitchCount++;
+        }
+        refreshInBackground(key, loadingProfile);
+        return feedSwitch;
+    }
+
+    /**
+     * Returns a name for a feed made of its search term, sections, and order.
+     *
+     * @param settings {@link SettingsRepository.Settings} of the feed.
+     * @return {@link String} name of the feed.
+     */
+    public String buildName(SettingsRepository.Settings settings) {
+        String name = settings.getSearchTerm().isEmpty() ? context.getString(R.string.saved_feed_all_articles_label) : settings.getSearchTerm();
+        if (!settings.getSections().isEmpty()) {
+            name = context.getString(R.string.saved_feed_sections_name, name, TextUtils.join(", ", settings.getSections()));
+        }
+        if (context.getString(R.string.order_by_oldest_value).equals(settings.getOrderBy())) {
+            name = context.getString(R.string.saved_feed_oldest_name, name);
+        } else if (context.getString(R.string.order_by_relevance_value).equals(settings.getOrderBy())) {
+            name = context.getString(R.string.saved_feed_relevance_name, name);
+        }
+        return name;
+    }
+
+    /**
+     * Refreshes the first page of every saved feed other than the visible one in the background,
+     * unless it was refreshed recently, it is already being refreshed, the device is offline, or
+     * too little of the daily quota remains. Merged feeds are not paged by single pages, so only
+     * the first pages of their sections are refreshed, which keeps their cached copies current.
+     * If the stored feeds are still being read, the refresh starts once they are.
+     *
+     * @param visibleKey     {@link String} key of the visible feed.
+     * @param loadingProfile {@link LoadingProfile} of the active network connection.
+     */
+    public void refreshInBackground(final String visibleKey, final LoadingProfile loadingProfile) {
+        if (savedFeeds == null && !loadedSavedFeeds.isDone()) {
+            pendingRefresh = new Runnable() {
+                @Override
+                public void run() {
+                    refreshInBackground(visibleKey, loadingProfile);
+                }
+            };
+            return;
+        }
+        pendingRefresh = null;
+        if (loadingProfile.isOffline() || ApiQuotaManager.getInstance(context).getRemainingDailyQuota() < MIN_REMAINING_DAILY_QUOTA) {
+            return;
+        }
+        long nowMillis = SystemClock.elapsedRealtime();
+        for (final SavedFeed savedFeed : ensureSavedFeeds()) {
+            final String key = savedFeed.getKey();
+            Long lastRefreshedAtMillis = refreshedAtMillis.get(key);
+            if (key.equals(visibleKey) || refreshingKeys.contains(key)
+                    || (lastRefreshedAtMillis != null && nowMillis - lastRefreshedAtMillis < REFRESH_INTERVAL_MILLIS)) {
+                continue;
+            }
+            refreshingKeys.add(key);
+            final int pageSize = loadingProfile.getPageSize();
+            refreshExecutorService.execute(new Runnable() {
+                @Override
+                public void run() {
+                    final ArticlePage articlePage = refresh(savedFeed, pageSize);
+                    mainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            refreshingKeys.remove(key);
+                            if (getSavedFeed(key) != null) {
+                                refreshedAtMillis.put(key, SystemClock.elapsedRealtime());
+                            }
+                            if (articlePage != null) {
+                                onRefreshed(key, articlePage, pageSize);
+                            }
+                        }
+                    });
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns a {@link String} summarizing the saved feeds, their background refreshes, and how
+     * switches between them were served.
+     */
+    public String getStatsSummary() {
+        return String.format(Locale.US,
+                "Saved feeds: %d saved, %d states, %d refreshed pages, %d refreshes, %d failed, %d instant switches, %d reloads",
+                ensureSavedFeeds().size(),
+                feedStates.size(),
+                refreshedPages.size(),
+                refreshCount.get(),
+                failedRefreshCount.get(),
+                instantSwitchCount,
+                reloadSwitchCount);
+    }
+
+    /**
+     * Logs the summary returned by {@link SavedFeedRepository#getStatsSummary()}.
+     */
+    public void logStats() {
+        Log.i(LOG_TAG_NAME, getStatsSummary());
+    }
+
+    /**
+     * Fetches the first page of a feed with {@link ApiQuotaManager.Priority#BACKGROUND} priority.
+     * Invoked on a refresh thread.
+     *
+     * @return {@link ArticlePage} of a feed that is not merged, or null if the page could not be
+     * fetched or the feed is merged.
+     */
+    @Nullable
+    private ArticlePage refresh(SavedFeed savedFeed, int pageSize) {
+        ArticlePageRepository articlePageRepository = ArticlePageRepository.getInstance(context);
+        if (savedFeed.isMerged()) {
+            List<String> sections = MergedArticleFeed.parseSections(savedFeed.getSectionsValue());
+            int sectionPageSize = MergedArticleFeed.getSectionPageSize(pageSize, sections.size());
+            for (String section : sections) {
+                ArticlePage sectionPage = articlePageRepository.streamPage(savedFeed.getOrderBy(), 1, sectionPageSize, savedFeed.getSearchTerm(), section, ApiQuotaManager.Priority.BACKGROUND, null, null);
+                (sectionPage == null ? failedRefreshCount : refreshCount).incrementAndGet();
+            }
+            return null;
+        }
+        ArticlePage articlePage = articlePageRepository.streamPage(savedFeed.getOrderBy(), 1, pageSize, savedFeed.getSearchTerm(), null, ApiQuotaManager.Priority.BACKGROUND, null, null);
+        (articlePage == null ? failedRefreshCount : refreshCount).incrementAndGet();
+        return articlePage;
+    }
+
+    /**
+     * Keeps a refreshed first page. The state of the feed is dropped if the page starts with a
+     * different {@link Article}, since newer articles were published since it was saved.
+     */
+    private void onRefreshed(String key, ArticlePage articlePage, int pageSize) {
+        if (getSavedFeed(key) == null) {
+            return;
+        }
+        refreshedPages.put(key, new RefreshedPage(articlePage, pageSize));
+        FeedState feedState = feedStates.get(key);
+        List<Article> refreshedArticles = articlePage.getArticles();
+        if (feedState != null && !refreshedArticles.isEmpty()
+                && (feedState.articles.isEmpty() || !feedState.articles.get(0).getId().equals(refreshedArticles.get(0).getId()))) {
+            feedStates.remove(key);
+        }
+        CacheGovernor.getInstance().requestBudgetCheck();
+    }
+
+    /**
+     * Starts the background refresh requested before the stored feeds were read, if any. Invoked
+     * on the main thread once they were read.
+     */
+    private void runPendingRefresh() {
+        if (pendingRefresh != null) {
+            pendingRefresh.run();
+        }
+    }
+
+    /**
+     * Returns the {@link List} of saved feeds, waiting for the worker thread to read them if
+     * needed.
+     */
+    private List<SavedFeed> ensureSavedFeeds() {
+        if (savedFeeds == null) {
+            try {
+                savedFeeds = loadedSavedFeeds.get();
+            } catch (ExecutionException | InterruptedException e) {
+                Log.e(LOG_TAG_NAME, "Error reading the saved feeds", e);
+                savedFeeds = new ArrayList<>();
+            }
+        }
+        return savedFeeds;
+    }
+
+    /**
+     * Reads the stored feeds. Invoked on a worker thread.
+     *
+     * @return {@link List} of stored {@link SavedFeed} objects.
+     */
+    private List<SavedFeed> readSavedFeeds() {
+        List<SavedFeed> storedFeeds = new ArrayList<>();
+        String json = sharedPreferences.getString(SAVED_FEEDS_KEY, null);
+        if (json == null) {
+            return storedFeeds;
+        }
+        try {
+            JSONArray jsonArray = new JSONArray(json);
+            for (int feedIndex = 0; feedIndex < jsonArray.length(); feedIndex++) {
+                storedFeeds.add(SavedFeed.fromJson(jsonArray.getJSONObject(feedIndex)));
+            }
+        } catch (JSONException e) {
+            Log.e(LOG_TAG_NAME, "Error parsing the saved feeds", e);
+        }
+        return storedFeeds;
+    }
+
+    /**
+     * Writes the saved feeds to the {@link SharedPreferences} in the background.
+     */
+    private void writeSavedFeeds() {
+        JSONArray jsonArray = new JSONArray();
+        try {
+            for (SavedFeed savedFeed : ensureSavedFeeds()) {
+                jsonArray.put(savedFeed.toJson());
+            }
+        } catch (JSONException e) {
+            Log.e(LOG_TAG_NAME, "Error writing the saved feeds", e);
+            return;
+        }
+        sharedPreferences.edit().putString(SAVED_FEEDS_KEY, jsonArray.toString()).apply();
+    }
+
+    /**
+     * Returns the estimated size of the given {@link Article} objects.
+     */
+    private static long estimateSizeBytes(List<Article> articles) {
+        long sizeBytes = 0;
+        for (Article article : articles) {
+            sizeBytes += article.estimateSizeBytes();
+        }
+        return sizeBytes;
+    }
+
+    /**
+     * {@link FeedState} pairs the saved state of a feed with the {@link Article} objects it holds.
+     */
+    private static class FeedState {
+
+        /**
+         * {@link Bundle} holding the state of the feed.
+         */
+        private final Bundle state;
+
+        /**
+         * {@link List} of the {@link Article} objects held by the state.
+         */
+        private final List<Article> articles;
+
+        /**
+         * long estimated size in bytes of the {@link Article} objects, computed once.
+         */
+        private final long sizeBytes;
+
+        /**
+         * Constructs a new {@link FeedState} object.
+         */
+        private FeedState(Bundle state, List<Article> articles) {
+            this.state = state;
+            this.articles = articles;
+            this.sizeBytes = estimateSizeBytes(articles);
+        }
+    }
+
+    /**
+     * {@link FeedSwitch} tells how a saved feed switched to can be shown: from the state it was
+     * left in, from its first page refreshed in the background, or only by reloading it.
+     */
+    public static class FeedSwitch {
+
+        /**
+         * {@link Bundle} holding the state the feed was left in, or null.
+         */
+        @Nullable
+        private final Bundle feedState;
+
+        /**
+         * {@link RefreshedPage} of the feed, or null. Only used if there is no feed state.
+         */
+        @Nullable
+        private final RefreshedPage refreshedPage;
+
+        /**
+         * Constructs a new {@link FeedSwitch} object.
+         */
+        private FeedSwitch(@Nullable Bundle feedState, @Nullable RefreshedPage refreshedPage) {
+            this.feedState = feedState;
+            this.refreshedPage = feedState == null ? refreshedPage : null;
+        }
+
+        /**
+         * Returns the state the feed was left in, which it should be restored from.
+         *
+         * @return {@link Bundle} holding the state of the feed, or null.
+         */
+        @Nullable
+        public Bundle getFeedState() {
+            return feedState;
+        }
+
+        /**
+         * Returns the first page refreshed in the background, which the feed should start from if
+         * it has no state.
+         *
+         * @return {@link RefreshedPage}, or null if the feed has a state or was not refreshed.
+         */
+        @Nullable
+        public RefreshedPage getRefreshedPage() {
+            return refreshedPage;
+        }
+
+        /**
+         * Returns whether the feed can be shown without a request.
+         */
+        public boolean isInstant() {
+            return feedState != null || refreshedPage != null;
+        }
+    }
+
+    /**
+     * {@link RefreshedPage} is a first page of a saved feed refreshed in the background, along
+     * with the page size it was requested with.
+     */
+    public static class RefreshedPage {
+
+        /**
+         * {@link ArticlePage} that was refreshed.
+         */
+        private final ArticlePage articlePage;
+
+        /**
+         * int representing the page size the page was requested with.
+         */
+        private final int pageSize;
+
+        /**
+         * long estimated size in bytes of the {@link Article} objects of the page, computed once.
+         */
+        private final long sizeBytes;
+
+        /**
+         * Constructs a new {@link RefreshedPage} object.
+         */
+        private RefreshedPage(ArticlePage articlePage, int pageSize) {
+            this.articlePage = articlePage;
+            this.pageSize = pageSize;
+            this.sizeBytes = estimateSizeBytes(articlePage.getArticles());
+        }
+
+        /**
+         * Returns the {@link ArticlePage} that was refreshed.
+         */
+        public ArticlePage getArticlePage() {
+            return articlePage;
+        }
+
+        /**
+         * Returns the page size the page was requested with. Later pages of the feed must be
+         * requested with the same page size.
+         */
+        public int getPageSize() {
+            return pageSize;
+        }
+    }
+}
@@ -0,0 +1,608 @@
+package com.davidread.theguardiannewsclient;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * {@link SearchSuggestionIndex} suggests search terms as the user types them. It indexes the
+ * search terms the user submitted, and the section and contributor names of loaded
+ * {@link Article} objects, in a radix trie stored in parallel primitive arrays instead of one
+ * object per node. Every node also keeps the highest weight found below it, so the most relevant
+ * completions of a prefix are found best first, without visiting the whole subtree of a short
+ * prefix. The index is updated incrementally and written to a file between sessions. All methods
+ * must be called on the main thread; file I/O runs on a single worker thread.
+ */
+public class SearchSuggestionIndex {
+
+    /**
+     * {@link String} log tag name for {@link SearchSuggestionIndex}.
+     */
+    public static final String LOG_TAG_NAME = SearchSuggestionIndex.class.getSimpleName();
+
+    /**
+     * {@link String} name of the index file inside the files directory.
+     */
+    private static final String INDEX_FILE_NAME = "search_suggestions.bin";
+
+    /**
+     * int version written at the start of the index file.
+     */
+    private static final int INDEX_FILE_VERSION = 1;
+
+    /**
+     * int weights added each time a search term is submitted and each time a section or
+     * contributor name is seen in a loaded {@link Article}. Submitted search terms rank first.
+     */
+    private static final int SUBMITTED_TERM_WEIGHT = 16;
+    private static final int ARTICLE_TERM_WEIGHT = 1;
+
+    /**
+     * int representing the highest weight of a term, so that weights never overflow.
+     */
+    private static final int MAX_TERM_WEIGHT = 1 << 24;
+
+    /**
+     * int representing how many characters of a term are indexed at most.
+     */
+    private static final int MAX_TERM_LENGTH = 64;
+
+    /**
+     * int representing how many terms are indexed at most. Once reached, new terms are dropped
+     * while known terms still gain weight.
+     */
+    private static final int MAX_TERM_COUNT = 100000;
+
+    /**
+     * {@link SearchSuggestionIndex} instance shared across the app.
+     */
+    private static SearchSuggestionIndex instance;
+
+    /**
+     * {@link File} objects of the index file and the file a new index is written to.
+     */
+    private final File indexFile;
+    private final File writeFile;
+
+    /**
+     * {@link ExecutorService} running every file operation in order on a single worker thread.
+     */
+    private final ExecutorService ioExecutorService;
+
+    /**
+     * {@link Handler} for handing results of the worker thread back to the main thread.
+     */
+    private final Handler mainHandler;
+
+    /**
+     * {@link Trie} holding the indexed terms. Until the index file is loaded, it only holds the
+     * terms added since the app started.
+     */
+    private Trie trie;
+
+    /**
+     * boolean indicating whether terms were added since the index file was last written.
+     */
+    private boolean dirty;
+
+    /**
+     * boolean indicating whether the index file was loaded, so that it is not overwritten by the
+     * terms added since the app started alone.
+     */
+    private boolean loaded;
+
+    /**
+     * long values summarizing the suggestion lookups served.
+     */
+    private long lookupCount;
+    private long lookupNanos;
+    private long maxLookupNanos;
+
+    /**
+     * Constructs a new {@link SearchSuggestionIndex} object and starts loading it on the worker
+     * thread.
+     *
+     * @param context {@link Context} for accessing the files directory.
+     */
+    private SearchSuggestionIndex(Context context) {
+        this.indexFile = new File(context.getFilesDir(), INDEX_FILE_NAME);
+        this.writeFile = new File(context.getFilesDir(), INDEX_FILE_NAME + ".tmp");
+        this.ioExecutorService = Executors.newSingleThreadExecutor();
+        this.mainHandler = new Handler(Looper.getMainLooper());
+        this.trie = new Trie();
+        load();
+    }
+
+    /**
+     * Returns the {@link SearchSuggestionIndex} instance, creating it on first use.
+     *
+     * @param context {@link Context} for accessing the files directory.
+     * @return {@link SearchSuggestionIndex} instance.
+     */
+    public static synchronized SearchSuggestionIndex getInstance(Context context) {
+        if (instance == null) {
+            instance = new SearchSuggestionIndex(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Indexes a search term the user submitted.
+     *
+     * @param searchTerm {@link String} submitted search term.
+     */
+    public void addSubmittedTerm(String searchTerm) {
+        dirty |= trie.add(searchTerm, SUBMITTED_TERM_WEIGHT);
+    }
+
+    /**
+     * Indexes the section and contributor names of the given {@link Article} objects.
+     *
+     * @param articles {@link List} of loaded {@link Article} objects.
+     */
+    public void addArticles(List<Article> articles) {
+        for (Article article : articles) {
+            dirty |= trie.add(article.decodeSectionName(), ARTICLE_TERM_WEIGHT);
+            for (String author : article.decodeAuthors()) {
+                dirty |= trie.add(author, ARTICLE_TERM_WEIGHT);
+            }
+        }
+    }
+
+    /**
+     * Returns the indexed terms starting with the given prefix, ignoring case, ordered by
+     * descending weight.
+     *
+     * @param prefix   {@link String} typed by the user.
+     * @param maxCount int representing how many terms are returned at most.
+     * @return {@link List} of {@link String} terms. Empty if the prefix is empty.
+     */
+    public List<String> getSuggestions(String prefix, int maxCount) {
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        List<String> suggestions = trie.getCompletions(prefix, maxCount);
+        long elapsedNanos = SystemClock.elapsedRealtimeNanos() - startNanos;
+        lookupCount++;
+        lookupNanos += elapsedNanos;
+        maxLookupNanos = Math.max(maxLookupNanos, elapsedNanos);
+        return suggestions;
+    }
+
+    /**
+     * Writes the index file on the worker thread if terms were added since it was last written.
+     */
+    public void persist() {
+        if (!dirty || !loaded) {
+            return;
+        }
+        dirty = false;
+        final String[] terms = new String[trie.termCount];
+        final int[] weights = new int[trie.termCount];
+        trie.copyTerms(terms, weights);
+        ioExecutorService.execute(new Runnable() {
+            @Override
+            public void run() {
+                writeIndexFile(terms, weights);
+            }
+        });
+    }
+
+    /**
+     * Returns a {@link String} summarizing the size of the index and the suggestion lookups
+     * served.
+     */
+    public String getStatsSummary() {
+        return String.format(Locale.US,
+                "Search suggestions: %d terms, %d nodes, %.1f KB, %d lookups, %.3f ms average, %.3f ms max",
+                trie.termCount,
+                trie.nodeCount,
+                trie.getMemoryBytes() / 1024.0,
+                lookupCount,
+                lookupCount == 0 ? 0.0 : lookupNanos / (double) lookupCount / 1000000.0,
+                maxLookupNanos / 1000000.0);
+    }
+
+    /**
+     * Logs the summary returned by {@link SearchSuggestionIndex#getStatsSummary()}.
+     */
+    public void logStats() {
+        Log.i(LOG_TAG_NAME, getStatsSummary());
+    }
+
+    /**
+     * Reads the index file into a new {@link Trie} on the worker thread, then installs it on the
+     * main thread together with any terms added meanwhile.
+     */
+    private void load() {
+        ioExecutorService.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Trie loadedTrie = readIndexFile();
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        String[] terms = new String[trie.termCount];
+                        int[] weights = new int[trie.termCount];
+                        trie.copyTerms(terms, weights);
+                        for (int termIndex = 0; termIndex < terms.length; termIndex++) {
+                            loadedTrie.add(terms[termIndex], weights[termIndex]);
+                        }
+                        trie = loadedTrie;
+                        loaded = true;
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Reads every term and weight from the index file. Must be called on the worker thread.
+     *
+     * @return {@link Trie} holding the read terms. Empty if the file does not exist or is
+     * unreadable.
+     */
+    private Trie readIndexFile() {
+        Trie loadedTrie = new Trie();
+        if (!indexFile.exists()) {
+            return loadedTrie;
+        }
+        try (DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (dataInputStream.readInt() != INDEX_FILE_VERSION) {
+                return loadedTrie;
+            }
+            int termCount = dataInputStream.readInt();
+            for (int termIndex = 0; termIndex < termCount; termIndex++) {
+                String term = dataInputStream.readUTF();
+                loadedTrie.add(term, dataInputStream.readInt());
+            }
+        } catch (IOException e) {
+            Log.e(LOG_TAG_NAME, "Error reading the search suggestion index", e);
+        }
+        return loadedTrie;
+    }
+
+    /**
+     * Writes the given terms and weights to a new index file and replaces the old one with it.
+     * Must be called on the worker thread.
+     */
+    private void writeIndexFile(String[] terms, int[] weights) {
+        try (DataOutputStream dataOutputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(writeFile)))) {
+            dataOutputStream.writeInt(INDEX_FILE_VERSION);
+            dataOutputStream.writeInt(terms.length);
+            for (int termIndex = 0; termIndex < terms.length; termIndex++) {
+                dataOutputStream.writeUTF(terms[termIndex]);
+                dataOutputStream.writeInt(weights[termIndex]);
+            }
+        } catch (IOException e) {
+            Log.e(LOG_TAG_NAME, "Error writing the search suggestion index", e);
+            return;
+        }
+        if (!writeFile.renameTo(indexFile)) {
+            Log.e(LOG_TAG_NAME, "Error replacing the search suggestion index");
+        }
+    }
+
+    /**
+     * {@link Trie} is a radix trie over terms compared ignoring case: chains of nodes with a
+     * single child are merged into one node labeled with several characters. Labels are ranges of
+     * a shared character pool, and node i is described by the i-th element of each node array:
+     * its label, its parent, first child and next sibling, the weight of the term ending at it,
+     * and the highest term weight in its subtree. Node 0 is the root. Terms are not stored as
+     * {@link String} objects, but rebuilt from the labels on the path to their node. A label keeps
+     * the case of the term it was first added for.
+     */
+    static class Trie {
+
+        /**
+         * int representing the initial capacity of the node arrays and of the character pool.
+         */
+        private static final int INITIAL_CAPACITY = 256;
+
+        /**
+         * int marking the absence of a node.
+         */
+        private static final int NONE = -1;
+
+        /**
+         * Parallel arrays describing the nodes.
+         */
+        private int[] labelStarts;
+        private int[] labelLengths;
+        private int[] parents;
+        private int[] firstChildren;
+        private int[] nextSiblings;
+        private int[] termWeights;
+        private int[] subtreeWeights;
+        private int nodeCount;
+
+        /**
+         * char array holding the labels of the nodes in its first labelCharCount elements.
+         */
+        private char[] labelChars;
+        private int labelCharCount;
+
+        /**
+         * int representing how many nodes a term ends at.
+         */
+        private int termCount;
+
+        /**
+         * Constructs a new {@link Trie} object holding only the root.
+         */
+        Trie() {
+            labelStarts = new int[INITIAL_CAPACITY];
+            labelLengths = new int[INITIAL_CAPACITY];
+            parents = new int[INITIAL_CAPACITY];
+            firstChildren = new int[INITIAL_CAPACITY];
+            nextSiblings = new int[INITIAL_CAPACITY];
+            termWeights = new int[INITIAL_CAPACITY];
+            subtreeWeights = new int[INITIAL_CAPACITY];
+            labelChars = new char[INITIAL_CAPACITY];
+            newNode(NONE, 0, 0);
+        }
+
+        /**
+         * Adds the given weight to a term, inserting it if it is not indexed yet. Surrounding and
+         * repeated whitespace is dropped, and the term is cut to
+         * {@link SearchSuggestionIndex#MAX_TERM_LENGTH} characters.
+         *
+         * @param term   {@link String} term to add.
+         * @param weight int weight to add.
+         * @return Whether the term was added.
+         */
+        boolean add(String term, int weight) {
+            String normalizedTerm = normalize(term);
+            if (normalizedTerm.isEmpty() || weight <= 0) {
+                return false;
+            }
+            int node = 0;
+            int charIndex = 0;
+            while (charIndex < normalizedTerm.length()) {
+                int child = findChild(node, normalizedTerm.charAt(charIndex));
+                if (child == NONE) {
+                    if (termCount >= MAX_TERM_COUNT) {
+                        return false;
+                    }
+                    node = newNode(node, appendLabel(normalizedTerm, charIndex), normalizedTerm.length() - charIndex);
+                    charIndex = normalizedTerm.length();
+                    break;
+                }
+                int matchLength = matchLabel(child, normalizedTerm, charIndex);
+                if (matchLength < labelLengths[child]) {
+                    if (termCount >= MAX_TERM_COUNT) {
+                        return false;
+                    }
+                    splitNode(child, matchLength);
+                }
+                node = child;
+                charIndex += matchLength;
+            }
+            if (termWeights[node] == 0) {
+                if (termCount >= MAX_TERM_COUNT) {
+                    return false;
+                }
+                termCount++;
+            }
+            int newWeight = (int) Math.min((long) termWeights[node] + weight, MAX_TERM_WEIGHT);
+            termWeights[node] = newWeight;
+            for (int pathNode = node; pathNode != NONE; pathNode = parents[pathNode]) {
+                subtreeWeights[pathNode] = Math.max(subtreeWeights[pathNode], newWeight);
+            }
+            return true;
+        }
+
+        /**
+         * Returns the terms starting with the given prefix, ignoring case, ordered by descending
+         * weight. Subtrees are visited in order of their highest weight, so that only the subtrees
+         * that may hold one of the returned terms are expanded.
+         *
+         * @param prefix   {@link String} typed by the user.
+         * @param maxCount int representing how many terms are returned at most.
+         * @return {@link List} of {@link String} terms.
+         */
+        List<String> getCompletions(String prefix, int maxCount) {
+            String normalizedPrefix = normalize(prefix);
+            if (normalizedPrefix.isEmpty() || maxCount <= 0) {
+                return Collections.emptyList();
+            }
+            int node = 0;
+            int charIndex = 0;
+            while (charIndex < normalizedPrefix.length()) {
+                node = findChild(node, normalizedPrefix.charAt(charIndex));
+                if (node == NONE) {
+                    return Collections.emptyList();
+                }
+                int matchLength = matchLabel(node, normalizedPrefix, charIndex);
+                if (matchLength < labelLengths[node] && charIndex + matchLength < normalizedPrefix.length()) {
+                    return Collections.emptyList();
+                }
+                charIndex += matchLength;
+            }
+
+            /* Queue entries pack a weight in the high 32 bits, and a node in the low 32 bits
+             * shifted by one, with the lowest bit set if the entry stands for the term ending at
+             * the node rather than for its subtree. */
+            List<String> completions = new ArrayList<>(maxCount);
+            PriorityQueue<Long> queue = new PriorityQueue<>(16, Collections.<Long>reverseOrder());
+            queue.add(packEntry(subtreeWeights[node], node, false));
+            while (!queue.isEmpty() && completions.size() < maxCount) {
+                long entry = queue.poll();
+                int entryNode = (int) ((entry & 0xFFFFFFFFL) >>> 1);
+                if ((entry & 1L) != 0) {
+                    completions.add(buildTerm(entryNode));
+                    continue;
+                }
+                if (termWeights[entryNode] != 0) {
+                    queue.add(packEntry(termWeights[entryNode], entryNode, true));
+                }
+                for (int child = firstChildren[entryNode]; child != NONE; child = nextSiblings[child]) {
+                    queue.add(packEntry(subtreeWeights[child], child, false));
+                }
+            }
+            return completions;
+        }
+
+        /**
+         * Copies every indexed term and its weight into the given arrays, which must hold at
+         * least termCount elements each.
+         */
+        void copyTerms(String[] terms, int[] weights) {
+            int termIndex = 0;
+            for (int node = 0; node < nodeCount; node++) {
+                if (termWeights[node] != 0) {
+                    terms[termIndex] = buildTerm(node);
+                    weights[termIndex] = termWeights[node];
+                    termIndex++;
+                }
+            }
+        }
+
+        /**
+         * Returns an estimate in bytes of the memory held by the arrays of this trie.
+         */
+        long getMemoryBytes() {
+            return (long) labelStarts.length * 7 * 4 + (long) labelChars.length * 2;
+        }
+
+        /**
+         * Returns the child of the given node whose label starts with the given character,
+         * ignoring case, or {@link Trie#NONE} if it has none.
+         */
+        private int findChild(int node, char c) {
+            char lowerCaseChar = Character.toLowerCase(c);
+            int child = firstChildren[node];
+            while (child != NONE && Character.toLowerCase(labelChars[labelStarts[child]]) != lowerCaseChar) {
+                child = nextSiblings[child];
+            }
+            return child;
+        }
+
+        /**
+         * Returns how many leading characters of the label of the given node match the given key
+         * from the given index on, ignoring case.
+         */
+        private int matchLabel(int node, String key, int keyIndex) {
+            int labelStart = labelStarts[node];
+            int maxLength = Math.min(labelLengths[node], key.length() - keyIndex);
+            int matchLength = 0;
+            while (matchLength < maxLength && Character.toLowerCase(labelChars[labelStart + matchLength]) == Character.toLowerCase(key.charAt(keyIndex + matchLength))) {
+                matchLength++;
+            }
+            return matchLength;
+        }
+
+        /**
+         * Splits the label of the given node after the given number of characters. The node keeps
+         * the head of the label, and a new single child takes the tail together with the term
+         * and children of the node.
+         */
+        private void splitNode(int node, int headLength) {
+            int tail = newNode(NONE, labelStarts[node] + headLength, labelLengths[node] - headLength);
+            firstChildren[tail] = firstChildren[node];
+            for (int child = firstChildren[tail]; child != NONE; child = nextSiblings[child]) {
+                parents[child] = tail;
+            }
+            termWeights[tail] = termWeights[node];
+            subtreeWeights[tail] = subtreeWeights[node];
+            parents[tail] = node;
+            labelLengths[node] = headLength;
+            firstChildren[node] = tail;
+            termWeights[node] = 0;
+        }
+
+        /**
+         * Appends the given key from the given index on to the character pool.
+         *
+         * @return int index in the pool of the first appended character.
+         */
+        private int appendLabel(String key, int keyIndex) {
+            int length = key.length() - keyIndex;
+            if (labelCharCount + length > labelChars.length) {
+                labelChars = Arrays.copyOf(labelChars, Math.max(labelChars.length * 2, labelCharCount + length));
+            }
+            key.getChars(keyIndex, key.length(), labelChars, labelCharCount);
+            labelCharCount += length;
+            return labelCharCount - length;
+        }
+
+        /**
+         * Returns the term ending at the given node, rebuilt from the labels on its path.
+         */
+        private String buildTerm(int node) {
+            int length = 0;
+            for (int pathNode = node; pathNode != NONE; pathNode = parents[pathNode]) {
+                length += labelLengths[pathNode];
+            }
+            char[] termChars = new char[length];
+            for (int pathNode = node; pathNode != NONE; pathNode = parents[pathNode]) {
+                length -= labelLengths[pathNode];
+                System.arraycopy(labelChars, labelStarts[pathNode], termChars, length, labelLengths[pathNode]);
+            }
+            return new String(termChars);
+        }
+
+        /**
+         * Appends a node without children or term as the first child of the given parent, growing
+         * the node arrays if needed.
+         *
+         * @return int index of the new node.
+         */
+        private int newNode(int parent, int labelStart, int labelLength) {
+            if (nodeCount == labelStarts.length) {
+                int capacity = nodeCount * 2;
+                labelStarts = Arrays.copyOf(labelStarts, capacity);
+                labelLengths = Arrays.copyOf(labelLengths, capacity);
+                parents = Arrays.copyOf(parents, capacity);
+                firstChildren = Arrays.copyOf(firstChildren, capacity);
+                nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+                termWeights = Arrays.copyOf(termWeights, capacity);
+                subtreeWeights = Arrays.copyOf(subtreeWeights, capacity);
+            }
+            labelStarts[nodeCount] = labelStart;
+            labelLengths[nodeCount] = labelLength;
+            parents[nodeCount] = parent;
+            firstChildren[nodeCount] = NONE;
+            nextSiblings[nodeCount] = parent == NONE ? NONE : firstChildren[parent];
+            termWeights[nodeCount] = 0;
+            subtreeWeights[nodeCount] = 0;
+            if (parent != NONE) {
+                firstChildren[parent] = nodeCount;
+            }
+            return nodeCount++;
+        }
+
+        /**
+         * Returns the given term without surrounding and repeated whitespace, cut to
+         * {@link SearchSuggestionIndex#MAX_TERM_LENGTH} characters.
+         */
+        private static String normalize(String term) {
+            String normalizedTerm = term.trim().replaceAll("\\s+", " ");
+            return normalizedTerm.length() > MAX_TERM_LENGTH ? normalizedTerm.substring(0, MAX_TERM_LENGTH) : normalizedTerm;
+        }
+
+        /**
+         * Returns a queue entry for the given weight and node.
+         */
+        private static long packEntry(int weight, int node, boolean termEntry) {
+            return ((long) weight << 32) | ((long) node << 1) | (termEntry ? 1L : 0L);
+        }
+    }
+}
@@ -59,7 +59,9 @@ public class SettingsActivity extends AppCompatActivity {
 
     /**
      * {@link SettingsFragment} is a fragment class whose UI is a list of settings. Settings to
-     * specify the order articles are arranged and to specify an optional search term are present.
+     * specify the order articles are arranged, to specify an optional search term, to specify
+     * optional sections to merge, to show articles while loading, and to choose the network engine
+     * are present.
      */
     public static class SettingsFragment extends PreferenceFragmentCompat {
 
@@ -89,6 +91,14 @@ public class SettingsActivity extends AppCompatActivity {
             if (searchTermPreference != null) {
                 bindSummaryToValue(searchTermPreference);
             }
+            Preference sectionsPreference = findPreference(getString(R.string.sections_key));
+            if (sectionsPreference != null) {
+                bindSummaryToValue(sectionsPreference);
+            }
+            Preference networkEnginePreference = findPreference(getString(R.string.network_engine_key));
+            if (networkEnginePreference != null) {
+                bindSummaryToValue(networkEnginePreference);
+            }
 
             // Attach listener to open about alert dialog to the about preference.
             Preference aboutPreference = findPreference(getString(R.string.about_key));
@@ -117,7 +127,9 @@ public class SettingsActivity extends AppCompatActivity {
                         preference.setSummary(listPreferenceLabels[listPreferenceIndex]);
                         return true;
                     } else if (preference instanceof EditTextPreference) {
-                        if (newValueString.isEmpty()) {
+                        if (newValueString.isEmpty() && preference.getKey().equals(getString(R.string.sections_key))) {
+                            preference.setSummary(getString(R.string.sections_empty_label));
+                        } else if (newValueString.isEmpty()) {
                             preference.setSummary(getString(R.string.search_term_empty_label));
                         } else {
                             preference.setSummary(newValueString);
@@ -0,0 +1,582 @@
+package com.davidread.theguardiannewsclient;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.preference.PreferenceManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * {@link SettingsRepository} serves the user settings as an immutable {@link Settings} snapshot
+ * held in memory. The default {@link SharedPreferences} are loaded on a worker thread as soon as
+ * the process starts, so reading a setting on the main thread never touches the disk nor waits for
+ * it: until the load finished, the default settings are served, and
+ * {@link OnSettingsLoadedListener} objects are handed the loaded snapshot once it is ready. Changes
+ * made in the {@link SettingsActivity} are turned into a new snapshot and handed to
+ * {@link OnSettingsChangedListener} objects on the main thread.
+ */
+public class SettingsRepository {
+
+    /**
+     * {@link String} log tag name for {@link SettingsRepository}.
+     */
+    public static final String LOG_TAG_NAME = SettingsRepository.class.getSimpleName();
+
+    /**
+     * {@link SettingsRepository} instance shared across the app.
+     */
+    private static SettingsRepository instance;
+
+    /**
+     * {@link Context} for accessing resources and the default {@link SharedPreferences}.
+     */
+    private final Context context;
+
+    /**
+     * {@link String} keys of the settings, looked up once.
+     */
+    private final String orderByKey;
+    private final String searchTermKey;
+    private final String sectionsKey;
+    private final String progressiveLoadingKey;
+    private final String flatRowsKey;
+    private final String hideReadKey;
+    private final String networkEngineKey;
+    private final String preconnectKey;
+
+    /**
+     * {@link Settings} snapshot of the default settings, served until the settings were loaded.
+     */
+    private final Settings defaultSettings;
+
+    /**
+     * {@link CountDownLatch} released once the first snapshot was loaded.
+     */
+    private final CountDownLatch loadedLatch;
+
+    /**
+     * {@link ExecutorService} loading the settings and then writing changes to the
+     * {@link SharedPreferences}, in order.
+     */
+    private final ExecutorService executorService;
+
+    /**
+     * {@link Handler} for notifying listeners on the main thread.
+     */
+    private final Handler mainHandler;
+
+    /**
+     * {@link List} of {@link OnSettingsChangedListener} objects. Only accessed on the main thread.
+     */
+    private final List<OnSettingsChangedListener> listeners;
+
+    /**
+     * {@link List} of {@link OnSettingsLoadedListener} objects waiting for the settings to load.
+     * Only accessed on the main thread.
+     */
+    private final List<OnSettingsLoadedListener> loadedListeners;
+
+    /**
+     * {@link SharedPreferences.OnSharedPreferenceChangeListener} that turns changes into a new
+     * snapshot. It is held here since {@link SharedPreferences} only keeps a weak reference to it.
+     */
+    private final SharedPreferences.OnSharedPreferenceChangeListener onSharedPreferenceChangeListener = new SharedPreferences.OnSharedPreferenceChangeListener() {
+        @Override
+        public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
+            onPreferencesChanged();
+        }
+    };
+
+    /**
+     * Default {@link SharedPreferences}, or null until they were loaded.
+     */
+    private volatile SharedPreferences sharedPreferences;
+
+    /**
+     * {@link Settings} snapshot served to callers, or null until it was loaded or first saved.
+     */
+    private volatile Settings settings;
+
+    /**
+     * Constructs a new {@link SettingsRepository} object and starts loading the settings on a
+     * worker thread.
+     *
+     * @param context {@link Context} for accessing resources and the default
+     *                {@link SharedPreferences}.
+     */
+    private SettingsRepository(Context context) {
+        this.context = context;
+        this.orderByKey = context.getString(R.string.order_by_key);
+        this.searchTermKey = context.getString(R.string.search_term_key);
+        this.sectionsKey = context.getString(R.string.sections_key);
+        this.progressiveLoadingKey = context.getString(R.string.progressive_loading_key);
+        this.flatRowsKey = context.getString(R.string.flat_rows_key);
+        this.hideReadKey = context.getString(R.string.hide_read_key);
+        this.networkEngineKey = context.getString(R.string.network_engine_key);
+        this.preconnectKey = context.getString(R.string.preconnect_key);
+        String sectionsValue = context.getString(R.string.sections_default_value);
+        this.defaultSettings = new Settings(
+                context.getString(R.string.order_by_default_value),
+                context.getString(R.string.search_term_default_value),
+                sectionsValue,
+                Collections.unmodifiableList(MergedArticleFeed.parseSections(sectionsValue)),
+                context.getResources().getBoolean(R.bool.progressive_loading_default_value),
+                context.getResources().getBoolean(R.bool.flat_rows_default_value),
+                false,
+                context.getString(R.string.network_engine_default_value),
+                context.getResources().getBoolean(R.bool.preconnect_default_value));
+        this.loadedLatch = new CountDownLatch(1);
+        this.mainHandler = new Handler(Looper.getMainLooper());
+        this.listeners = new ArrayList<>();
+        this.loadedListeners = new ArrayList<>();
+
+        this.executorService = Executors.newSingleThreadExecutor();
+        executorService.execute(new Runnable() {
+            @Override
+            public void run() {
+                load();
+            }
+        });
+    }
+
+    /**
+     * Returns the {@link SettingsRepository} instance shared across the app. The first call
+     * starts loading the settings, so it should happen as early as possible, e.g. when the process
+     * starts.
+     *
+     * @param context {@link Context} for accessing resources and the default
+     *                {@link SharedPreferences}.
+     * @return {@link SettingsRepository} instance shared across the app.
+     */
+    public static synchronized SettingsRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new SettingsRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the current {@link Settings} snapshot from memory without waiting. Until the worker
+     * thread finished loading, it is the snapshot of the default settings; callers that need the
+     * user settings register an {@link OnSettingsLoadedListener}.
+     *
+     * @return Current {@link Settings} snapshot.
+     */
+    public Settings getSettings() {
+        Settings currentSettings = settings;
+        return currentSettings != null ? currentSettings : defaultSettings;
+    }
+
+    /**
+     * Returns whether the user settings were loaded, i.e. whether {@link #getSettings()} no longer
+     * serves the default settings.
+     */
+    public boolean isLoaded() {
+        return loadedLatch.getCount() == 0;
+    }
+
+    /**
+     * Returns the {@link Settings} snapshot of the user settings, waiting for the worker thread to
+     * load it if needed. Must not be called on the main thread.
+     *
+     * @return Current {@link Settings} snapshot.
+     */
+    public Settings awaitSettings() {
+        if (isLoaded()) {
+            return settings;
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                loadedLatch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return settings;
+    }
+
+    /**
+     * Saves the search term setting. The new snapshot is served right away; the
+     * {@link SharedPreferences} are written on the worker thread once they were loaded. Listeners
+     * are not notified, since the caller applies the change itself. Must be called on the main
+     * thread.
+     *
+     * @param searchTerm {@link String} search term to save.
+     */
+    public void setSearchTerm(final String searchTerm) {
+        Settings currentSettings = getSettings();
+        settings = new Settings(currentSettings.orderBy, searchTerm, currentSettings.sectionsValue, currentSettings.sections,
+                currentSettings.progressiveLoadingEnabled, currentSettings.flatRowsEnabled, currentSettings.hideRead,
+                currentSettings.networkEngine, currentSettings.preconnectEnabled);
+        executorService.execute(new Runnable() {
+            @Override
+            public void run() {
+                sharedPreferences.edit().putString(searchTermKey, searchTerm).apply();
+            }
+        });
+    }
+
+    /**
+     * Saves the order by, search term, and sections settings together, e.g. when switching to a
+     * saved feed. The new snapshot is served right away; the {@link SharedPreferences} are written
+     * on the worker thread once they were loaded. Listeners are not notified, since the caller
+     * applies the change itself. Must be called on the main thread.
+     *
+     * @param orderBy       {@link String} order by setting to save.
+     * @param searchTerm    {@link String} search term setting to save.
+     * @param sectionsValue {@link String} raw sections setting to save.
+     */
+    public void setFeed(final String orderBy, final String searchTerm, final String sectionsValue) {
+        Settings currentSettings = getSettings();
+        settings = new Settings(orderBy, searchTerm, sectionsValue, Collections.unmodifiableList(MergedArticleFeed.parseSections(sectionsValue)),
+                currentSettings.progressiveLoadingEnabled, currentSettings.flatRowsEnabled, currentSettings.hideRead,
+                currentSettings.networkEngine, currentSettings.preconnectEnabled);
+        executorService.execute(new Runnable() {
+            @Override
+            public void run() {
+                sharedPreferences.edit()
+                        .putString(orderByKey, orderBy)
+                        .putString(searchTermKey, searchTerm)
+                        .putString(sectionsKey, sectionsValue)
+                        .apply();
+            }
+        });
+    }
+
+    /**
+     * Saves whether read articles are hidden. The new snapshot is served right away; the
+     * {@link SharedPreferences} are written on the worker thread once they were loaded. Listeners
+     * are not notified, since the caller applies the change itself. Must be called on the main
+     * thread.
+     *
+     * @param hideRead Whether read articles are hidden.
+     */
+    public void setHideRead(final boolean hideRead) {
+        Settings currentSettings = getSettings();
+        settings = new Settings(currentSettings.orderBy, currentSettings.searchTerm, currentSettings.sectionsValue, currentSettings.sections,
+                currentSettings.progressiveLoadingEnabled, currentSettings.flatRowsEnabled, hideRead,
+                currentSettings.networkEngine, currentSettings.preconnectEnabled);
+        executorService.execute(new Runnable() {
+            @Override
+            public void run() {
+                sharedPreferences.edit().putBoolean(hideReadKey, hideRead).apply();
+            }
+        });
+    }
+
+    /**
+     * Adds a {@link OnSettingsChangedListener} to be notified of settings changed elsewhere, e.g.
+     * in the {@link SettingsActivity}. Must be called on the main thread.
+     *
+     * @param listener {@link OnSettingsChangedListener} to add.
+     */
+    public void addOnSettingsChangedListener(OnSettingsChangedListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously added {@link OnSettingsChangedListener}. Must be called on the main
+     * thread.
+     *
+     * @param listener {@link OnSettingsChangedListener} to remove.
+     */
+    public void removeOnSettingsChangedListener(OnSettingsChangedListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Adds an {@link OnSettingsLoadedListener} to be handed the user settings once they were
+     * loaded. If they already were, it is invoked right away. Must be called on the main thread.
+     *
+     * @param listener {@link OnSettingsLoadedListener} to add.
+     */
+    public void addOnSettingsLoadedListener(OnSettingsLoadedListener listener) {
+        if (isLoaded()) {
+            listener.onSettingsLoaded(settings);
+        } else {
+            loadedListeners.add(listener);
+        }
+    }
+
+    /**
+     * Removes an {@link OnSettingsLoadedListener} that is still waiting, e.g. when its activity is
+     * destroyed before the settings loaded. Must be called on the main thread.
+     *
+     * @param listener {@link OnSettingsLoadedListener} to remove.
+     */
+    public void removeOnSettingsLoadedListener(OnSettingsLoadedListener listener) {
+        loadedListeners.remove(listener);
+    }
+
+    /**
+     * Loads the default {@link SharedPreferences} into the first snapshot, starts listening for
+     * changes, and hands the snapshot to the waiting {@link OnSettingsLoadedListener} objects on
+     * the main thread. Invoked on the worker thread.
+     */
+    private void load() {
+        SharedPreferences loadedSharedPreferences = PreferenceManager.getDefaultSharedPreferences(context);
+        final Settings loadedSettings = readSettings(loadedSharedPreferences);
+        sharedPreferences = loadedSharedPreferences;
+        settings = loadedSettings;
+        loadedSharedPreferences.registerOnSharedPreferenceChangeListener(onSharedPreferenceChangeListener);
+        loadedLatch.countDown();
+        Log.i(LOG_TAG_NAME, "Settings loaded");
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                for (OnSettingsLoadedListener listener : new ArrayList<>(loadedListeners)) {
+                    listener.onSettingsLoaded(loadedSettings);
+                }
+                loadedListeners.clear();
+            }
+        });
+    }
+
+    /**
+     * Builds a new snapshot after the {@link SharedPreferences} changed and notifies the listeners
+     * if it differs from the current one. Each listener is handed the snapshot built here, even if
+     * a later change replaced it before the notification ran. Invoked on the main thread, where the
+     * {@link SharedPreferences} already hold the new values in memory.
+     */
+    private void onPreferencesChanged() {
+        final Settings newSettings = readSettings(sharedPreferences);
+        if (newSettings.equals(settings)) {
+            return;
+        }
+        settings = newSettings;
+        for (final OnSettingsChangedListener listener : new ArrayList<>(listeners)) {
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (listeners.contains(listener)) {
+                        listener.onSettingsChanged(newSettings);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Reads every setting into a new {@link Settings} snapshot.
+     *
+     * @param sharedPreferences {@link SharedPreferences} to read from.
+     * @return New {@link Settings} snapshot.
+     */
+    private Settings readSettings(SharedPreferences sharedPreferences) {
+        String sectionsValue = sharedPreferences.getString(sectionsKey, defaultSettings.sectionsValue);
+        return new Settings(
+                sharedPreferences.getString(orderByKey, defaultSettings.orderBy),
+                sharedPreferences.getString(searchTermKey, defaultSettings.searchTerm),
+                sectionsValue,
+                Collections.unmodifiableList(MergedArticleFeed.parseSections(sectionsValue)),
+                sharedPreferences.getBoolean(progressiveLoadingKey, defaultSettings.progressiveLoadingEnabled),
+                sharedPreferences.getBoolean(flatRowsKey, defaultSettings.flatRowsEnabled),
+                sharedPreferences.getBoolean(hideReadKey, defaultSettings.hideRead),
+                sharedPreferences.getString(networkEngineKey, defaultSettings.networkEngine),
+                sharedPreferences.getBoolean(preconnectKey, defaultSettings.preconnectEnabled));
+    }
+
+    /**
+     * {@link Settings} is an immutable snapshot of the user settings.
+     */
+    public static final class Settings {
+
+        /**
+         * {@link String} order by setting.
+         */
+        private final String orderBy;
+
+        /**
+         * {@link String} search term setting.
+         */
+        private final String searchTerm;
+
+        /**
+         * {@link String} raw sections setting and the unmodifiable {@link List} of section ids
+         * parsed from it.
+         */
+        private final String sectionsValue;
+        private final List<String> sections;
+
+        /**
+         * Boolean settings.
+         */
+        private final boolean progressiveLoadingEnabled;
+        private final boolean flatRowsEnabled;
+        private final boolean hideRead;
+        private final boolean preconnectEnabled;
+
+        /**
+         * {@link String} network engine setting.
+         */
+        private final String networkEngine;
+
+        /**
+         * Constructs a new {@link Settings} object.
+         */
+        private Settings(String orderBy, String searchTerm, String sectionsValue, List<String> sections,
+                         boolean progressiveLoadingEnabled, boolean flatRowsEnabled, boolean hideRead,
+                         String networkEngine, boolean preconnectEnabled) {
+            this.orderBy = orderBy;
+            this.searchTerm = searchTerm;
+            this.sectionsValue = sectionsValue;
+            this.sections = sections;
+            this.progressiveLoadingEnabled = progressiveLoadingEnabled;
+            this.flatRowsEnabled = flatRowsEnabled;
+            this.hideRead = hideRead;
+            this.networkEngine = networkEngine;
+            this.preconnectEnabled = preconnectEnabled;
+        }
+
+        /**
+         * Returns what order article listings are requested in.
+         */
+        public String getOrderBy() {
+            return orderBy;
+        }
+
+        /**
+         * Returns the free text article listings must contain, or the empty string.
+         */
+        public String getSearchTerm() {
+            return searchTerm;
+        }
+
+        /**
+         * Returns the raw sections setting, as typed by the user.
+         */
+        public String getSectionsValue() {
+            return sectionsValue;
+        }
+
+        /**
+         * Returns the unmodifiable {@link List} of followed section ids. It is empty unless
+         * several sections are merged into one feed.
+         */
+        public List<String> getSections() {
+            return sections;
+        }
+
+        /**
+         * Returns whether article rows are shown while their page is still downloading.
+         */
+        public boolean isProgressiveLoadingEnabled() {
+            return progressiveLoadingEnabled;
+        }
+
+        /**
+         * Returns whether articles are shown in flattened {@link ArticleRowView} objects.
+         */
+        public boolean isFlatRowsEnabled() {
+            return flatRowsEnabled;
+        }
+
+        /**
+         * Returns whether read articles are hidden.
+         */
+        public boolean isHideRead() {
+            return hideRead;
+        }
+
+        /**
+         * Returns the name of the selected {@link HttpTransport}.
+         */
+        public String getNetworkEngine() {
+            return networkEngine;
+        }
+
+        /**
+         * Returns whether The Guardian API is connected to when the process starts.
+         */
+        public boolean isPreconnectEnabled() {
+            return preconnectEnabled;
+        }
+
+        /**
+         * Returns whether the given snapshot requests the same feed, i.e. has the same order by,
+         * search term, and sections settings.
+         *
+         * @param other {@link Settings} snapshot to compare with.
+         * @return Whether both snapshots request the same feed.
+         */
+        public boolean hasSameFeed(Settings other) {
+            return orderBy.equals(other.orderBy) && searchTerm.equals(other.searchTerm) && sections.equals(other.sections);
+        }
+
+        /**
+         * Returns whether the given object is a {@link Settings} snapshot with equal settings.
+         */
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) {
+                return true;
+            }
+            if (!(object instanceof Settings)) {
+                return false;
+            }
+            Settings other = (Settings) object;
+            return hasSameFeed(other) && sectionsValue.equals(other.sectionsValue)
+                    && progressiveLoadingEnabled == other.progressiveLoadingEnabled
+                    && flatRowsEnabled == other.flatRowsEnabled && hideRead == other.hideRead
+                    && networkEngine.equals(other.networkEngine) && preconnectEnabled == other.preconnectEnabled;
+        }
+
+        /**
+         * Returns a hash code consistent with {@link Settings#equals(Object)}.
+         */
+        @Override
+        public int hashCode() {
+            int hashCode = orderBy.hashCode();
+            hashCode = 31 * hashCode + searchTerm.hashCode();
+            hashCode = 31 * hashCode + sectionsValue.hashCode();
+            hashCode = 31 * hashCode + networkEngine.hashCode();
+            hashCode = 31 * hashCode + (progressiveLoadingEnabled ? 1 : 0);
+            hashCode = 31 * hashCode + (flatRowsEnabled ? 1 : 0);
+            hashCode = 31 * hashCode + (hideRead ? 1 : 0);
+            hashCode = 31 * hashCode + (preconnectEnabled ? 1 : 0);
+            return hashCode;
+        }
+    }
+
+    /**
+     * {@link OnSettingsLoadedListener} is handed the user settings on the main thread once they
+     * were loaded.
+     */
+    public interface OnSettingsLoadedListener {
+
+        /**
+         * Invoked with the first snapshot of the user settings.
+         *
+         * @param settings Loaded {@link Settings} snapshot.
+         */
+        void onSettingsLoaded(Settings settings);
+    }
+
+    /**
+     * {@link OnSettingsChangedListener} is notified on the main thread when the settings were
+     * changed elsewhere.
+     */
+    public interface OnSettingsChangedListener {
+
+        /**
+         * Invoked with the new snapshot after the settings changed.
+         *
+         * @param settings New {@link Settings} snapshot.
+         */
+        void onSettingsChanged(Settings settings);
+    }
+}
@@ -0,0 +1,217 @@
+package com.davidread.theguardiannewsclient;
+
+import android.util.SparseArray;
+
+import androidx.annotation.Nullable;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * {@link SparseArticleList} is a read only {@link List} of {@link Article} objects that spans a
+ * whole result set but only holds the pages that were actually loaded. Positions of pages that are
+ * not loaded return null, which the {@link ArticleAdapter} shows as placeholders. Memory therefore
+ * scales with the number of loaded pages rather than with the size of the result set, and pages
+ * far away from what is on screen may be evicted again.
+ */
+public class SparseArticleList extends AbstractList<Article> {
+
+    /**
+     * int representing how many articles each page holds.
+     */
+    private final int pageSize;
+
+    /**
+     * int representing how many articles the result set has.
+     */
+    private final int size;
+
+    /**
+     * {@link SparseArray} mapping page indices to the {@link List} of {@link Article} objects of
+     * each loaded page. Page indices start at 1.
+     */
+    private final SparseArray<List<Article>> pages;
+
+    /**
+     * long estimated size in bytes of the loaded {@link Article} objects, kept up to date as pages
+     * are stored and evicted.
+     */
+    private long sizeBytes;
+
+    /**
+     * Constructs a new {@link SparseArticleList} object without any loaded page.
+     *
+     * @param pageSize int representing how many articles each page holds.
+     * @param size     int representing how many articles the result set has.
+     */
+    public SparseArticleList(int pageSize, int size) {
+        this.pageSize = pageSize;
+        this.size = size;
+        this.pages = new SparseArray<>();
+    }
+
+    /**
+     * Returns the {@link Article} object at the given position.
+     *
+     * @param position int position within the result set.
+     * @return {@link Article} object at the position, or null if its page is not loaded.
+     */
+    @Nullable
+    @Override
+    public Article get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + " of " + size);
+        }
+        List<Article> page = pages.get(getPageIndex(position));
+        int pagePosition = position % pageSize;
+        if (page == null || pagePosition >= page.size()) {
+            return null;
+        }
+        return page.get(pagePosition);
+    }
+
+    /**
+     * Returns how many articles the result set has, loaded or not.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns how many articles each page holds.
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Returns how many pages the result set has.
+     */
+    public int getPageCount() {
+        return (size + pageSize - 1) / pageSize;
+    }
+
+    /**
+     * Returns how many articles are currently loaded.
+     */
+    public int getLoadedCount() {
+        int loadedCount = 0;
+        for (int pagesIndex = 0; pagesIndex < pages.size(); pagesIndex++) {
+            loadedCount += pages.valueAt(pagesIndex).size();
+        }
+        return loadedCount;
+    }
+
+    /**
+     * Returns how many pages are currently loaded.
+     */
+    public int getLoadedPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * Returns an estimate of how many bytes of heap the loaded {@link Article} objects occupy. It
+     * is kept up to date as pages come and go, so this does not visit any {@link Article}.
+     *
+     * @return long estimated size in bytes.
+     */
+    public long estimateSizeBytes() {
+        return sizeBytes;
+    }
+
+    /**
+     * Returns the index of the page holding the given position.
+     *
+     * @param position int position within the result set.
+     * @return int index of the page. Page indices start at 1.
+     */
+    public int getPageIndex(int position) {
+        return position / pageSize + 1;
+    }
+
+    /**
+     * Returns the position of the first article of the given page.
+     *
+     * @param pageIndex int index of the page.
+     * @return int position of the first article of the page.
+     */
+    public int getFirstPosition(int pageIndex) {
+        return (pageIndex - 1) * pageSize;
+    }
+
+    /**
+     * Returns how many positions the given page spans.
+     *
+     * @param pageIndex int index of the page.
+     * @return int number of positions the page spans.
+     */
+    public int getPositionCount(int pageIndex) {
+        return Math.max(0, Math.min(pageSize, size - getFirstPosition(pageIndex)));
+    }
+
+    /**
+     * Returns whether the given page is loaded.
+     *
+     * @param pageIndex int index of the page.
+     * @return Whether the page is loaded.
+     */
+    public boolean isPageLoaded(int pageIndex) {
+        return pages.get(pageIndex) != null;
+    }
+
+    /**
+     * Stores the {@link Article} objects of a loaded page.
+     *
+     * @param pageIndex int index of the page.
+     * @param articles  {@link List} of {@link Article} objects of the page.
+     */
+    public void putPage(int pageIndex, List<Article> articles) {
+        List<Article> replacedPage = pages.get(pageIndex);
+        if (replacedPage != null) {
+            sizeBytes -= estimatePageSizeBytes(replacedPage);
+        }
+        pages.put(pageIndex, articles);
+        sizeBytes += estimatePageSizeBytes(articles);
+    }
+
+    /**
+     * Evicts loaded pages, farthest from the given page first, until no more than the given number
+     * of pages are loaded.
+     *
+     * @param centerPageIndex int index of the page closest to what is on screen.
+     * @param maxPageCount    int maximum number of pages to keep.
+     * @return int array of the evicted page indices.
+     */
+    public int[] trimAround(int centerPageIndex, int maxPageCount) {
+        int evictedCount = Math.max(0, pages.size() - maxPageCount);
+        int[] evictedPageIndices = new int[evictedCount];
+        for (int evictedIndex = 0; evictedIndex < evictedCount; evictedIndex++) {
+            int farthestPageIndex = pages.keyAt(0);
+            for (int pagesIndex = 1; pagesIndex < pages.size(); pagesIndex++) {
+                int pageIndex = pages.keyAt(pagesIndex);
+                if (Math.abs(pageIndex - centerPageIndex) > Math.abs(farthestPageIndex - centerPageIndex)) {
+                    farthestPageIndex = pageIndex;
+                }
+            }
+            sizeBytes -= estimatePageSizeBytes(pages.get(farthestPageIndex));
+            pages.remove(farthestPageIndex);
+            evictedPageIndices[evictedIndex] = farthestPageIndex;
+        }
+        return evictedPageIndices;
+    }
+
+    /**
+     * Returns the estimated size in bytes of the {@link Article} objects of a page.
+     *
+     * @param page {@link List} of {@link Article} objects of a page.
+     * @return long estimated size in bytes.
+     */
+    private static long estimatePageSizeBytes(List<Article> page) {
+        long pageSizeBytes = 0;
+        for (Article article : page) {
+            pageSizeBytes += article.estimateSizeBytes();
+        }
+        return pageSizeBytes;
+    }
+}
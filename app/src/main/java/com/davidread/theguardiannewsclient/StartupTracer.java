@@ -0,0 +1,273 @@
+package com.davidread.theguardiannewsclient;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.Build;
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * {@link StartupTracer} is a utility class that marks the phases of a launch as
+ * {@link Trace} sections, so they show up in system traces, and records when each phase started
+ * and how long it took. Once the first article rows are drawn, the phase timings of the launch are
+ * logged and appended to a local metrics log. A launch is cold when it starts with the process and
+ * warm when only {@link MainActivity} is created again.
+ */
+public final class StartupTracer {
+
+    /**
+     * {@link String} log tag name for {@link StartupTracer}.
+     */
+    public static final String LOG_TAG_NAME = StartupTracer.class.getSimpleName();
+
+    /**
+     * {@link String} names of the traced phases.
+     */
+    public static final String SECTION_APPLICATION_CREATE = "app_create";
+    public static final String SECTION_ACTIVITY_CREATE = "activity_create";
+    public static final String SECTION_INFLATE_LAYOUT = "inflate_layout";
+    public static final String SECTION_SETUP_FEED_VIEWS = "setup_feed_views";
+    public static final String SECTION_START_LOADER = "start_loader";
+    public static final String SECTION_PAGE_FETCH = "page_fetch";
+    public static final String SECTION_PAGE_PARSE = "page_parse";
+    public static final String SECTION_PAGE_BIND = "page_bind";
+
+    /**
+     * {@link String} name of the file inside the files directory the launch summaries are
+     * appended to.
+     */
+    private static final String METRICS_FILE_NAME = "startup_metrics.log";
+
+    /**
+     * int representing how many launch summaries the metrics log keeps. Older ones are dropped.
+     */
+    private static final int MAX_METRICS_LINE_COUNT = 200;
+
+    /**
+     * {@link Object} guarding the metrics log, so writing it never blocks tracing.
+     */
+    private static final Object metricsFileLock = new Object();
+
+    /**
+     * {@link Map} of the phases of the running launch keyed by name, each holding the
+     * milliseconds from the start of the launch until the phase started and the milliseconds it
+     * took, or -1 while it is running. Only the first occurrence of a phase is recorded.
+     */
+    private static final Map<String, long[]> phases = new LinkedHashMap<>();
+
+    /**
+     * long milliseconds since boot when the running launch started, or -1 if no launch is running.
+     */
+    private static long launchStartMillis = -1;
+
+    /**
+     * boolean indicating whether the running launch started with the process.
+     */
+    private static boolean coldLaunch;
+
+    /**
+     * {@link String} summary of the last launch, or null if none finished yet.
+     */
+    private static String lastLaunchSummary;
+
+    /**
+     * Private constructor since {@link StartupTracer} only has static members.
+     */
+    private StartupTracer() {
+    }
+
+    /**
+     * Starts a cold launch at the time the process was started, or now on versions that do not
+     * report it. Must be called first thing when the process starts.
+     */
+    public static synchronized void startColdLaunch() {
+        startLaunch(Build.VERSION.SDK_INT >= Build.VERSION_CODES.N
+                ? Process.getStartElapsedRealtime()
+                : SystemClock.elapsedRealtime(), true);
+    }
+
+    /**
+     * Starts a warm launch now unless a launch is running already, e.g. the cold launch that
+     * created this activity.
+     */
+    public static synchronized void startWarmLaunch() {
+        if (launchStartMillis < 0) {
+            startLaunch(SystemClock.elapsedRealtime(), false);
+        }
+    }
+
+    /**
+     * Begins a {@link Trace} section on the calling thread and records the start of the phase of
+     * the same name, if a launch is running and the phase was not recorded yet. Every call must be
+     * matched by a call to {@link StartupTracer#endSection(String)} on the same thread.
+     *
+     * @param name {@link String} name of the phase.
+     */
+    public static void beginSection(String name) {
+        Trace.beginSection(name);
+        synchronized (StartupTracer.class) {
+            if (launchStartMillis >= 0 && !phases.containsKey(name)) {
+                phases.put(name, new long[]{SystemClock.elapsedRealtime() - launchStartMillis, -1});
+            }
+        }
+    }
+
+    /**
+     * Ends the {@link Trace} section begun last on the calling thread and records how long the
+     * phase of the given name took, if it is still running.
+     *
+     * @param name {@link String} name of the phase.
+     */
+    public static void endSection(String name) {
+        Trace.endSection();
+        synchronized (StartupTracer.class) {
+            long[] phase = phases.get(name);
+            if (launchStartMillis >= 0 && phase != null && phase[1] < 0) {
+                phase[1] = SystemClock.elapsedRealtime() - launchStartMillis - phase[0];
+            }
+        }
+    }
+
+    /**
+     * Finishes the running launch now that its content is drawn. Its summary is logged and
+     * appended to the metrics log on a new thread. Does nothing if no launch is running.
+     *
+     * @param context {@link Context} for accessing the files directory.
+     */
+    public static void finishLaunch(Context context) {
+        final String summary;
+        synchronized (StartupTracer.class) {
+            if (launchStartMillis < 0) {
+                return;
+            }
+            summary = buildSummary(SystemClock.elapsedRealtime() - launchStartMillis);
+            launchStartMillis = -1;
+            lastLaunchSummary = summary;
+        }
+        Log.i(LOG_TAG_NAME, summary);
+
+        final File metricsFile = new File(context.getFilesDir(), METRICS_FILE_NAME);
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                appendToMetricsFile(metricsFile, summary);
+            }
+        }, LOG_TAG_NAME + "-metrics").start();
+    }
+
+    /**
+     * Reports the given activity as fully drawn right before the given view draws its next frame,
+     * which is the first one showing the content just bound to it, and finishes the running
+     * launch.
+     *
+     * @param activity {@link Activity} to report as fully drawn.
+     * @param view     {@link View} whose next frame completes the launch.
+     */
+    public static void finishLaunchOnNextDraw(final Activity activity, final View view) {
+        view.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                view.getViewTreeObserver().removeOnPreDrawListener(this);
+                activity.reportFullyDrawn();
+                finishLaunch(activity);
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Returns the summary of the last launch.
+     *
+     * @return {@link String} summary of the last launch, or null if none finished yet.
+     */
+    public static synchronized String getLastLaunchSummary() {
+        return lastLaunchSummary;
+    }
+
+    /**
+     * Starts a launch, dropping the phases of an unfinished one.
+     *
+     * @param startMillis long milliseconds since boot when the launch started.
+     * @param cold        boolean indicating whether the launch started with the process.
+     */
+    private static void startLaunch(long startMillis, boolean cold) {
+        phases.clear();
+        launchStartMillis = startMillis;
+        coldLaunch = cold;
+    }
+
+    /**
+     * Returns a one line summary of the running launch: when it finished, whether it was cold, the
+     * time until it was fully drawn, and when each phase started and how long it took.
+     *
+     * @param fullyDrawnMillis long milliseconds from the start of the launch until it was fully
+     *                         drawn.
+     * @return {@link String} summary of the launch.
+     */
+    private static String buildSummary(long fullyDrawnMillis) {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ", Locale.US).format(new Date()))
+                .append(coldLaunch ? " cold" : " warm")
+                .append(" fully_drawn ").append(fullyDrawnMillis).append(" ms");
+        for (Map.Entry<String, long[]> phase : phases.entrySet()) {
+            long[] timing = phase.getValue();
+            stringBuilder.append(", ").append(phase.getKey()).append(" @").append(timing[0]);
+            if (timing[1] >= 0) {
+                stringBuilder.append('+').append(timing[1]);
+            }
+            stringBuilder.append(" ms");
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Appends a line to the metrics log, dropping the oldest lines beyond
+     * {@link StartupTracer#MAX_METRICS_LINE_COUNT}.
+     *
+     * @param metricsFile {@link File} of the metrics log.
+     * @param line        {@link String} line to append.
+     */
+    private static void appendToMetricsFile(File metricsFile, String line) {
+        synchronized (metricsFileLock) {
+            List<String> lines = new ArrayList<>();
+            if (metricsFile.exists()) {
+                try (BufferedReader reader = new BufferedReader(new FileReader(metricsFile))) {
+                    String existingLine;
+                    while ((existingLine = reader.readLine()) != null) {
+                        lines.add(existingLine);
+                    }
+                } catch (IOException e) {
+                    Log.e(LOG_TAG_NAME, "Error reading the metrics log", e);
+                }
+            }
+            lines.add(line);
+            List<String> keptLines = lines.subList(Math.max(0, lines.size() - MAX_METRICS_LINE_COUNT), lines.size());
+            try (Writer writer = new FileWriter(metricsFile)) {
+                for (String keptLine : keptLines) {
+                    writer.write(keptLine);
+                    writer.write('\n');
+                }
+            } catch (IOException e) {
+                Log.e(LOG_TAG_NAME, "Error writing the metrics log", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.davidread.theguardiannewsclient;
+
+import androidx.annotation.Nullable;
+import androidx.core.os.CancellationSignal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * {@link UrlConnectionTransport} is the default {@link HttpTransport}. It makes every request with
+ * the platform {@link HttpURLConnection}, which speaks HTTP/1.1 and keeps idle connections alive
+ * for reuse.
+ */
+public class UrlConnectionTransport implements HttpTransport {
+
+    /**
+     * {@link String} name of this transport as stored in the network engine preference.
+     */
+    public static final String NAME = "url_connection";
+
+    /**
+     * Performs a GET request with a new {@link HttpURLConnection}. Canceling the request
+     * disconnects the connection, which makes a blocked read fail immediately.
+     */
+    @Override
+    public Response execute(URL url, int connectTimeoutMillis, int readTimeoutMillis, @Nullable CancellationSignal cancellationSignal) throws IOException {
+
+        // Setup the network request.
+        final HttpURLConnection httpURLConnection = (HttpURLConnection) url.openConnection();
+        httpURLConnection.setReadTimeout(readTimeoutMillis);
+        httpURLConnection.setConnectTimeout(connectTimeoutMillis);
+        httpURLConnection.setRequestMethod("GET");
+
+        // Disconnect the network request as soon as it is canceled.
+        if (cancellationSignal != null) {
+            cancellationSignal.setOnCancelListener(new CancellationSignal.OnCancelListener() {
+                @Override
+                public void onCancel() {
+                    httpURLConnection.disconnect();
+                }
+            });
+        }
+
+        // Execute the network request.
+        try {
+            httpURLConnection.connect();
+            return new UrlConnectionResponse(httpURLConnection, httpURLConnection.getResponseCode(), cancellationSignal);
+        } catch (IOException e) {
+            if (cancellationSignal != null) {
+                cancellationSignal.setOnCancelListener(null);
+            }
+            httpURLConnection.disconnect();
+            throw e;
+        }
+    }
+
+    /**
+     * Makes a HEAD request through an {@link HttpURLConnection} and disconnects it once the
+     * response code arrived, which leaves the connection in the pool of the platform HTTP stack.
+     */
+    @Override
+    public void preconnect(URL url, int connectTimeoutMillis) throws IOException {
+        HttpURLConnection httpURLConnection = (HttpURLConnection) url.openConnection();
+        try {
+            httpURLConnection.setConnectTimeout(connectTimeoutMillis);
+            httpURLConnection.setReadTimeout(connectTimeoutMillis);
+            httpURLConnection.setRequestMethod("HEAD");
+            httpURLConnection.getResponseCode();
+        } finally {
+            httpURLConnection.disconnect();
+        }
+    }
+
+    /**
+     * Returns true since every request goes to the network.
+     */
+    @Override
+    public boolean countsAgainstApiQuota() {
+        return true;
+    }
+
+    /**
+     * {@link UrlConnectionResponse} is the {@link HttpTransport.Response} of an
+     * {@link HttpURLConnection}.
+     */
+    private static class UrlConnectionResponse implements Response {
+
+        /**
+         * {@link HttpURLConnection} the response belongs to.
+         */
+        private final HttpURLConnection httpURLConnection;
+
+        /**
+         * int HTTP status code of the response.
+         */
+        private final int code;
+
+        /**
+         * {@link CancellationSignal} of the request, or null if it cannot be canceled.
+         */
+        private final CancellationSignal cancellationSignal;
+
+        /**
+         * {@link InputStream} of the body, or null if it was not opened yet.
+         */
+        private InputStream body;
+
+        /**
+         * Constructs a new {@link UrlConnectionResponse} object.
+         *
+         * @param httpURLConnection  {@link HttpURLConnection} the response belongs to.
+         * @param code               int HTTP status code of the response.
+         * @param cancellationSignal {@link CancellationSignal} of the request. May be null.
+         */
+        UrlConnectionResponse(HttpURLConnection httpURLConnection, int code, @Nullable CancellationSignal cancellationSignal) {
+            this.httpURLConnection = httpURLConnection;
+            this.code = code;
+            this.cancellationSignal = cancellationSignal;
+        }
+
+        @Override
+        public int getCode() {
+            return code;
+        }
+
+        @Nullable
+        @Override
+        public String getHeader(String name) {
+            return httpURLConnection.getHeaderField(name);
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = httpURLConnection.getInputStream();
+            }
+            return body;
+        }
+
+        /**
+         * Closes the body and disconnects the {@link HttpURLConnection}.
+         */
+        @Override
+        public void close() throws IOException {
+            if (cancellationSignal != null) {
+                cancellationSignal.setOnCancelListener(null);
+            }
+            httpURLConnection.disconnect();
+            if (body != null) {
+                body.close();
+            }
+        }
+    }
+}
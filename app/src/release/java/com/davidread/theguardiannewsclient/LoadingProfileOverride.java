@@ -0,0 +1,25 @@
+package com.davidread.theguardiannewsclient;
+
+import androidx.annotation.Nullable;
+
+/**
+ * {@link LoadingProfileOverride} of release builds, which never overrides the
+ * {@link LoadingProfile} matching the active network. Debug builds have one instrumented tests
+ * can set.
+ */
+final class LoadingProfileOverride {
+
+    /**
+     * Private constructor since {@link LoadingProfileOverride} only has static members.
+     */
+    private LoadingProfileOverride() {
+    }
+
+    /**
+     * Returns null, so the active network always decides.
+     */
+    @Nullable
+    static LoadingProfile get() {
+        return null;
+    }
+}
@@ -0,0 +1,189 @@
+package com.davidread.theguardiannewsclient;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test for {@link ArticleFacetIndex}, which indexes 50,000 generated articles a page at a
+ * time and checks every count and filtered view against a full scan. Run with {@code -Pbenchmark}
+ * to also check that filtering by any facet takes no more than a few milliseconds.
+ */
+public class ArticleFacetIndexTest {
+
+    private static final int ARTICLE_COUNT = 50000;
+    private static final int PAGE_SIZE = 50;
+    private static final int SECTION_COUNT = 20;
+    private static final int CONTRIBUTOR_COUNT = 500;
+
+    /**
+     * long representing the most milliseconds building the filtered view of a facet may take.
+     */
+    private static final long MAX_FILTER_MILLIS = 5;
+
+    private List<Article> articles;
+    private ArticleFacetIndex facetIndex;
+
+    @Before
+    public void setUp() {
+        articles = new ArrayList<>(ARTICLE_COUNT);
+        for (int articleIndex = 0; articleIndex < ARTICLE_COUNT; articleIndex++) {
+            articles.add(buildArticle(articleIndex));
+        }
+        facetIndex = new ArticleFacetIndex();
+    }
+
+    @Test
+    public void updateCountsEveryPageOnce() {
+        List<Article> loadedArticles = new ArrayList<>(ARTICLE_COUNT);
+        for (int pageStart = 0; pageStart < ARTICLE_COUNT; pageStart += PAGE_SIZE) {
+            loadedArticles.addAll(articles.subList(pageStart, pageStart + PAGE_SIZE));
+            facetIndex.update(loadedArticles);
+        }
+
+        assertCountsMatchScan(ARTICLE_COUNT);
+    }
+
+    @Test
+    public void truncateDropsTheTail() {
+        facetIndex.update(articles);
+        int size = ARTICLE_COUNT / 2 + 7;
+        facetIndex.truncate(size);
+
+        assertCountsMatchScan(size);
+
+        // Appending again indexes only the re-added tail.
+        facetIndex.update(articles);
+        assertCountsMatchScan(ARTICLE_COUNT);
+    }
+
+    @Test
+    public void filterVisitsOnlyMatchingArticles() {
+        facetIndex.update(articles);
+        List<ArticleFacetIndex.Facet> facets = facetIndex.getFacets(ArticleFacetIndex.TYPE_CONTRIBUTOR);
+        assertEquals(CONTRIBUTOR_COUNT, facets.size());
+        for (int facetPosition = 1; facetPosition < facets.size(); facetPosition++) {
+            assertTrue(facets.get(facetPosition - 1).getCount() >= facets.get(facetPosition).getCount());
+        }
+
+        // Build the filtered view of every contributor from the index, then by scanning the list.
+        int filteredCount = 0;
+        for (ArticleFacetIndex.Facet facet : facets) {
+            for (int rank = 0; rank < facet.getCount(); rank++) {
+                if (articles.get(facet.getIndex(rank)) != null) {
+                    filteredCount++;
+                }
+            }
+        }
+        int scannedCount = 0;
+        for (ArticleFacetIndex.Facet facet : facets) {
+            for (Article article : articles) {
+                for (String author : article.decodeAuthors()) {
+                    if (author.equals(facet.getValue())) {
+                        scannedCount++;
+                        break;
+                    }
+                }
+            }
+        }
+        assertEquals(scannedCount, filteredCount);
+
+        ArticleFacetIndex.Facet facet = facets.get(0);
+        int articleIndex = facet.getIndex(facet.getCount() / 2);
+        assertEquals(facet.getCount() / 2, facet.getFirstRankFrom(articleIndex));
+        assertEquals(facet.getCount(), facet.getFirstRankFrom(ARTICLE_COUNT));
+    }
+
+    @Test
+    public void filterTakesAFewMilliseconds() {
+        Assume.assumeTrue(Boolean.getBoolean("benchmark"));
+        facetIndex.update(articles);
+
+        // Build the filtered view of every section and contributor several times and take the
+        // fastest time of each, so a collection or compilation does not count as filtering.
+        long maxFilterNanos = 0;
+        String slowestFacetValue = null;
+        for (int type : new int[]{ArticleFacetIndex.TYPE_SECTION, ArticleFacetIndex.TYPE_CONTRIBUTOR}) {
+            for (ArticleFacetIndex.Facet facet : facetIndex.getFacets(type)) {
+                long filterNanos = Long.MAX_VALUE;
+                for (int round = 0; round < 5; round++) {
+                    long startNanos = System.nanoTime();
+                    List<Article> filteredArticles = new ArrayList<>(facet.getCount());
+                    for (int rank = 0; rank < facet.getCount(); rank++) {
+                        filteredArticles.add(articles.get(facet.getIndex(rank)));
+                    }
+                    filterNanos = Math.min(filterNanos, System.nanoTime() - startNanos);
+                    assertEquals(facet.getCount(), filteredArticles.size());
+                }
+                if (filterNanos > maxFilterNanos) {
+                    maxFilterNanos = filterNanos;
+                    slowestFacetValue = facet.getValue();
+                }
+            }
+        }
+        assertTrue(String.format(Locale.US, "Filtering %d articles by %s took %.2f ms", ARTICLE_COUNT, slowestFacetValue, maxFilterNanos / 1e6),
+                maxFilterNanos <= MAX_FILTER_MILLIS * 1000000);
+    }
+
+    /**
+     * Asserts that every facet count and index matches a scan of the first size articles.
+     */
+    private void assertCountsMatchScan(int size) {
+        Map<String, List<Integer>> sectionIndices = new HashMap<>();
+        Map<String, List<Integer>> contributorIndices = new HashMap<>();
+        for (int articleIndex = 0; articleIndex < size; articleIndex++) {
+            Article article = articles.get(articleIndex);
+            addIndex(sectionIndices, article.decodeSectionName(), articleIndex);
+            for (String author : article.decodeAuthors()) {
+                addIndex(contributorIndices, author, articleIndex);
+            }
+        }
+        assertFacetsMatch(ArticleFacetIndex.TYPE_SECTION, sectionIndices);
+        assertFacetsMatch(ArticleFacetIndex.TYPE_CONTRIBUTOR, contributorIndices);
+    }
+
+    private void assertFacetsMatch(int type, Map<String, List<Integer>> expectedIndices) {
+        assertEquals(expectedIndices.size(), facetIndex.getFacets(type).size());
+        for (Map.Entry<String, List<Integer>> entry : expectedIndices.entrySet()) {
+            ArticleFacetIndex.Facet facet = facetIndex.getFacet(type, entry.getKey());
+            assertNotNull(entry.getKey(), facet);
+            assertEquals(entry.getKey(), entry.getValue().size(), facet.getCount());
+            for (int rank = 0; rank < facet.getCount(); rank++) {
+                assertEquals((int) entry.getValue().get(rank), facet.getIndex(rank));
+            }
+        }
+    }
+
+    private static void addIndex(Map<String, List<Integer>> indices, String value, int articleIndex) {
+        List<Integer> valueIndices = indices.get(value);
+        if (valueIndices == null) {
+            valueIndices = new ArrayList<>();
+            indices.put(value, valueIndices);
+        }
+        if (valueIndices.isEmpty() || valueIndices.get(valueIndices.size() - 1).intValue() != articleIndex) {
+            valueIndices.add(articleIndex);
+        }
+    }
+
+    /**
+     * Returns an article with one of {@link #SECTION_COUNT} sections and one to three of
+     * {@link #CONTRIBUTOR_COUNT} contributors.
+     */
+    private static Article buildArticle(int articleIndex) {
+        String[] authors = new String[1 + articleIndex % 3];
+        for (int authorIndex = 0; authorIndex < authors.length; authorIndex++) {
+            authors[authorIndex] = "Contributor " + (articleIndex + authorIndex * 163) % CONTRIBUTOR_COUNT;
+        }
+        return new Article("world/2024/jan/01/article-" + articleIndex, "Title " + articleIndex, authors,
+                "Section " + articleIndex % SECTION_COUNT, "2024-01-01T00:00:00Z",
+                "https://www.theguardian.com/" + articleIndex, "");
+    }
+}
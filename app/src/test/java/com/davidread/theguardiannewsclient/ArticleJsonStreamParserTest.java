@@ -0,0 +1,336 @@
+package com.davidread.theguardiannewsclient;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test for {@link ArticleJsonStreamParser}, which checks the fields it packs into
+ * {@link Article} objects. Run with {@code -Pbenchmark} to also compare how many bytes parsing a
+ * page of 50 results allocates and how much heap 10,000 parsed articles retain to a baseline that
+ * creates a {@link String} for every name and value while parsing, like
+ * {@link android.util.JsonReader} did, and keeps the articles as decoded {@link String} fields.
+ * Both depend on the JVM and its garbage collector, so they are skipped otherwise.
+ */
+public class ArticleJsonStreamParserTest {
+
+    private static final int PAGE_SIZE = 50;
+    private static final int WARM_UP_PAGE_COUNT = 200;
+    private static final int MEASURED_PAGE_COUNT = 200;
+    private static final int RETAINED_ARTICLE_COUNT = 10000;
+
+    @Test
+    public void parsesFieldsOfEveryResult() throws IOException {
+        String json = "{\"response\":{\"status\":\"ok\",\"total\":1234,\"startIndex\":1,\"pageSize\":4,\"currentPage\":2,\"pages\":309,"
+                + "\"orderBy\":\"newest\",\"results\":["
+                + "{\"id\":\"world/1\",\"type\":\"article\",\"sectionName\":\"World news\",\"webPublicationDate\":\"2026-10-18T08:30:00Z\","
+                + "\"webTitle\":\"Caf\\u00e9 \\\"quotes\\\", back\\\\slash \\/ and \\ud83d\\ude00\",\"webUrl\":\"https://www.theguardian.com/world/1\","
+                + "\"fields\":{\"headline\":\"skipped\",\"thumbnail\":\"https://media.guim.co.uk/1/500.jpg\"},"
+                + "\"tags\":[{\"id\":\"profile/a\",\"type\":\"contributor\",\"webTitle\":\"Zo\u00eb \u00c5ngstr\u00f6m\",\"bylineLargeImageUrl\":null},"
+                + "{\"id\":\"profile/b\",\"webTitle\":\"Reporter B\"}],\"isHosted\":false,\"weight\":-1.5e3,\"nested\":[[{}],[]]},"
+                + "{\"id\":\"world/2\",\"webTitle\":\"No tags\",\"sectionName\":null,\"fields\":{}},"
+                + "{\"id\":\"world/3\",\"webTitle\":\"Empty tags\",\"tags\":[]},"
+                + "{\"id\":\"world/4\",\"webTitle\":\"Tag without title\",\"tags\":[{\"id\":\"profile/c\"}]}"
+                + "]}}";
+        ArticlePage articlePage = ArticleJsonStreamParser.parse(new StringReader(json), null, null);
+        assertNotNull(articlePage);
+        assertEquals(2, articlePage.getCurrentPage());
+        assertEquals(309, articlePage.getPages());
+        assertEquals(1234, articlePage.getTotal());
+        assertEquals(4, articlePage.getArticles().size());
+
+        Article first = articlePage.getArticles().get(0);
+        assertEquals("world/1", first.getId());
+        assertEquals("Caf\u00e9 \"quotes\", back\\slash / and \ud83d\ude00", first.getTitle());
+        assertEquals("World news", first.getSectionName());
+        assertEquals("2026-10-18T08:30:00Z", first.getDatePublished());
+        assertEquals("https://www.theguardian.com/world/1", first.getUrl());
+        assertEquals("https://media.guim.co.uk/1/500.jpg", first.getThumbnailUrl());
+        assertArrayEquals(new String[]{"Zo\u00eb \u00c5ngstr\u00f6m", "Reporter B"}, first.getAuthors());
+
+        // Missing properties fall back to empty fields and a single empty author.
+        Article second = articlePage.getArticles().get(1);
+        assertEquals("", second.getSectionName());
+        assertEquals("", second.getThumbnailUrl());
+        assertArrayEquals(new String[]{""}, second.getAuthors());
+        assertArrayEquals(new String[0], articlePage.getArticles().get(2).getAuthors());
+        assertArrayEquals(new String[]{""}, articlePage.getArticles().get(3).getAuthors());
+    }
+
+    @Test
+    public void packsTheSameFieldsAsTheStringConstructor() throws IOException {
+        List<EagerArticle> expected = new ArrayList<>();
+        String json = buildSearchResponse(new Random(3), 1, expected);
+        List<Article> articles = ArticleJsonStreamParser.parse(new StringReader(json), null, null).getArticles();
+        assertEquals(expected.size(), articles.size());
+        for (int i = 0; i < articles.size(); i++) {
+            EagerArticle eagerArticle = expected.get(i);
+            Article article = new Article(eagerArticle.id, eagerArticle.title, eagerArticle.authors, eagerArticle.sectionName,
+                    eagerArticle.datePublished, eagerArticle.url, eagerArticle.thumbnailUrl);
+            assertEquals(article.getId(), articles.get(i).getId());
+            assertArrayEquals(article.getEncodedFields(), articles.get(i).getEncodedFields());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void malformedJsonThrows() throws IOException {
+        ArticleJsonStreamParser.parse(new StringReader("{\"response\":{\"results\":[{\"id\":\"world/1\" \"webTitle\":\"x\"}]}}"), null, null);
+    }
+
+    @Test
+    public void allocatesLessPerPageThanStringsPerToken() throws IOException {
+        Assume.assumeTrue(Boolean.getBoolean("benchmark"));
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue("Allocation counting is not supported by this JVM", threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        String[] pages = buildPages(new Random(11), WARM_UP_PAGE_COUNT + MEASURED_PAGE_COUNT);
+
+        long packedBytes = 0;
+        long eagerBytes = 0;
+        long threadId = Thread.currentThread().getId();
+        for (int pageIndex = 0; pageIndex < pages.length; pageIndex++) {
+            long startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+            ArticlePage articlePage = ArticleJsonStreamParser.parse(new StringReader(pages[pageIndex]), null, null);
+            long middleBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+            List<EagerArticle> eagerArticles = parseEagerly(pages[pageIndex]);
+            long endBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+            assertEquals(articlePage.getArticles().size(), eagerArticles.size());
+            if (pageIndex >= WARM_UP_PAGE_COUNT) {
+                packedBytes += middleBytes - startBytes;
+                eagerBytes += endBytes - middleBytes;
+            }
+        }
+        packedBytes /= MEASURED_PAGE_COUNT;
+        eagerBytes /= MEASURED_PAGE_COUNT;
+        assertTrue(String.format(Locale.US, "Allocation per page of %d: packed %.1f KB, String per token %.1f KB",
+                PAGE_SIZE, packedBytes / 1024.0, eagerBytes / 1024.0), packedBytes < eagerBytes);
+    }
+
+    @Test
+    public void retainsLessHeapThanDecodedFields() throws IOException, InterruptedException {
+        Assume.assumeTrue(Boolean.getBoolean("benchmark"));
+        String[] pages = buildPages(new Random(13), RETAINED_ARTICLE_COUNT / PAGE_SIZE);
+
+        long baselineBytes = getUsedHeapBytes();
+        List<Article> articles = new ArrayList<>(RETAINED_ARTICLE_COUNT);
+        for (String page : pages) {
+            articles.addAll(ArticleJsonStreamParser.parse(new StringReader(page), null, null).getArticles());
+        }
+        long packedBytes = getUsedHeapBytes() - baselineBytes;
+        long estimatedBytes = 0;
+        for (Article article : articles) {
+            estimatedBytes += article.estimateSizeBytes();
+        }
+        assertEquals(RETAINED_ARTICLE_COUNT, articles.size());
+        articles = null;
+
+        baselineBytes = getUsedHeapBytes();
+        List<EagerArticle> eagerArticles = new ArrayList<>(RETAINED_ARTICLE_COUNT);
+        for (String page : pages) {
+            eagerArticles.addAll(parseEagerly(page));
+        }
+        long eagerBytes = getUsedHeapBytes() - baselineBytes;
+        assertEquals(RETAINED_ARTICLE_COUNT, eagerArticles.size());
+
+        assertTrue(String.format(Locale.US, "Heap per %d articles: packed %.2f MB (estimated %.2f MB), decoded fields %.2f MB",
+                RETAINED_ARTICLE_COUNT, packedBytes / 1048576.0, estimatedBytes / 1048576.0, eagerBytes / 1048576.0),
+                packedBytes < eagerBytes);
+    }
+
+    /**
+     * Parses a response the way the parser did before packing: a {@link String} for every name
+     * and value, and an {@link EagerArticle} holding them.
+     */
+    private static List<EagerArticle> parseEagerly(String json) throws IOException {
+        List<EagerArticle> articles = new ArrayList<>();
+        JsonTokenizer jsonTokenizer = new JsonTokenizer(new StringReader(json));
+        jsonTokenizer.beginObject();
+        while (jsonTokenizer.hasNext()) {
+            jsonTokenizer.nextName();
+            if (!jsonTokenizer.getText().toString().equals("response")) {
+                jsonTokenizer.skipValue();
+                continue;
+            }
+            jsonTokenizer.beginObject();
+            while (jsonTokenizer.hasNext()) {
+                jsonTokenizer.nextName();
+                if (!jsonTokenizer.getText().toString().equals("results")) {
+                    jsonTokenizer.skipValue();
+                    continue;
+                }
+                jsonTokenizer.beginArray();
+                while (jsonTokenizer.hasNext()) {
+                    articles.add(parseEagerResult(jsonTokenizer));
+                }
+                jsonTokenizer.endArray();
+            }
+            jsonTokenizer.endObject();
+        }
+        jsonTokenizer.endObject();
+        return articles;
+    }
+
+    private static EagerArticle parseEagerResult(JsonTokenizer jsonTokenizer) throws IOException {
+        EagerArticle article = new EagerArticle();
+        jsonTokenizer.beginObject();
+        while (jsonTokenizer.hasNext()) {
+            jsonTokenizer.nextName();
+            String name = jsonTokenizer.getText().toString();
+            if (name.equals("tags")) {
+                List<String> authors = new ArrayList<>();
+                jsonTokenizer.beginArray();
+                while (jsonTokenizer.hasNext()) {
+                    jsonTokenizer.beginObject();
+                    while (jsonTokenizer.hasNext()) {
+                        jsonTokenizer.nextName();
+                        String tagName = jsonTokenizer.getText().toString();
+                        if (jsonTokenizer.peek() == JsonTokenizer.STRING) {
+                            jsonTokenizer.nextString();
+                            String value = jsonTokenizer.getText().toString();
+                            if (tagName.equals("webTitle")) {
+                                authors.add(value);
+                            }
+                        } else {
+                            jsonTokenizer.skipValue();
+                        }
+                    }
+                    jsonTokenizer.endObject();
+                }
+                jsonTokenizer.endArray();
+                article.authors = authors.toArray(new String[0]);
+            } else if (name.equals("fields")) {
+                jsonTokenizer.beginObject();
+                while (jsonTokenizer.hasNext()) {
+                    jsonTokenizer.nextName();
+                    String fieldName = jsonTokenizer.getText().toString();
+                    jsonTokenizer.nextString();
+                    String value = jsonTokenizer.getText().toString();
+                    if (fieldName.equals("thumbnail")) {
+                        article.thumbnailUrl = value;
+                    }
+                }
+                jsonTokenizer.endObject();
+            } else if (jsonTokenizer.peek() == JsonTokenizer.STRING) {
+                jsonTokenizer.nextString();
+                String value = jsonTokenizer.getText().toString();
+                if (name.equals("id")) {
+                    article.id = value;
+                } else if (name.equals("webTitle")) {
+                    article.title = value;
+                } else if (name.equals("sectionName")) {
+                    article.sectionName = value;
+                } else if (name.equals("webPublicationDate")) {
+                    article.datePublished = value;
+                } else if (name.equals("webUrl")) {
+                    article.url = value;
+                }
+            } else {
+                jsonTokenizer.skipValue();
+            }
+        }
+        jsonTokenizer.endObject();
+        return article;
+    }
+
+    private static String[] buildPages(Random random, int pageCount) {
+        String[] pages = new String[pageCount];
+        for (int pageIndex = 0; pageIndex < pageCount; pageIndex++) {
+            pages[pageIndex] = buildSearchResponse(random, pageIndex + 1, null);
+        }
+        return pages;
+    }
+
+    /**
+     * Returns a content search response of {@link ArticleJsonStreamParserTest#PAGE_SIZE} results
+     * with the properties and field lengths of The Guardian API, and adds what each result should
+     * parse to to the given list, if any.
+     */
+    private static String buildSearchResponse(Random random, int pageIndex, List<EagerArticle> expected) {
+        String[] sections = {"world", "World news", "politics", "Politics", "sport", "Sport", "environment", "Environment", "culture", "Culture"};
+        String[] words = {"climate", "election", "market", "energy", "court", "league", "council", "housing", "budget", "storm", "talks", "ruling", "study"};
+        StringBuilder json = new StringBuilder(PAGE_SIZE * 1000);
+        json.append("{\"response\":{\"status\":\"ok\",\"userTier\":\"developer\",\"total\":48213,\"startIndex\":").append((pageIndex - 1) * PAGE_SIZE + 1)
+                .append(",\"pageSize\":").append(PAGE_SIZE).append(",\"currentPage\":").append(pageIndex)
+                .append(",\"pages\":965,\"orderBy\":\"newest\",\"results\":[");
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            int section = random.nextInt(sections.length / 2) * 2;
+            int result = (pageIndex - 1) * PAGE_SIZE + i;
+            String id = sections[section] + "/2026/oct/" + String.format(Locale.US, "%02d", 1 + result % 28) + "/"
+                    + words[random.nextInt(words.length)] + "-" + words[random.nextInt(words.length)] + "-" + result;
+            StringBuilder title = new StringBuilder();
+            while (title.length() < 60 + random.nextInt(40)) {
+                title.append(title.length() == 0 ? "Headline" : " ").append(words[random.nextInt(words.length)]);
+            }
+            String date = "2026-10-" + String.format(Locale.US, "%02d", 1 + result % 28) + "T08:30:00Z";
+            String url = "https://www.theguardian.com/" + id;
+            String thumbnail = "https://media.guim.co.uk/" + Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong()) + "/0_0_5000_3000/500.jpg";
+            String[] authors = new String[random.nextInt(3)];
+            for (int author = 0; author < authors.length; author++) {
+                authors[author] = "Contributor " + random.nextInt(300);
+            }
+
+            json.append(i > 0 ? "," : "").append("{\"id\":\"").append(id).append("\",\"type\":\"article\",\"sectionId\":\"").append(sections[section])
+                    .append("\",\"sectionName\":\"").append(sections[section + 1]).append("\",\"webPublicationDate\":\"").append(date)
+                    .append("\",\"webTitle\":\"").append(title).append("\",\"webUrl\":\"").append(url)
+                    .append("\",\"apiUrl\":\"https://content.guardianapis.com/").append(id)
+                    .append("\",\"fields\":{\"thumbnail\":\"").append(thumbnail).append("\"},\"tags\":[");
+            for (int author = 0; author < authors.length; author++) {
+                json.append(author > 0 ? "," : "").append("{\"id\":\"profile/contributor\",\"type\":\"contributor\",\"webTitle\":\"").append(authors[author])
+                        .append("\",\"webUrl\":\"https://www.theguardian.com/profile/contributor\",\"apiUrl\":\"https://content.guardianapis.com/profile/contributor\"")
+                        .append(",\"firstName\":\"Contributor\",\"lastName\":\"").append(author).append("\"}");
+            }
+            json.append("],\"isHosted\":false,\"pillarId\":\"pillar/news\",\"pillarName\":\"News\"}");
+
+            if (expected != null) {
+                EagerArticle article = new EagerArticle();
+                article.id = id;
+                article.title = title.toString();
+                article.authors = authors;
+                article.sectionName = sections[section + 1];
+                article.datePublished = date;
+                article.url = url;
+                article.thumbnailUrl = thumbnail;
+                expected.add(article);
+            }
+        }
+        return json.append("]}}").toString();
+    }
+
+    /**
+     * Returns the bytes of heap in use once garbage was collected.
+     */
+    private static long getUsedHeapBytes() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long[] usedBytes = new long[3];
+        for (int i = 0; i < usedBytes.length; i++) {
+            System.gc();
+            Thread.sleep(100);
+            usedBytes[i] = runtime.totalMemory() - runtime.freeMemory();
+        }
+        Arrays.sort(usedBytes);
+        return usedBytes[0];
+    }
+
+    /**
+     * An article listing as kept before packing: every field a decoded {@link String}.
+     */
+    private static class EagerArticle {
+        String id = "";
+        String title = "";
+        String[] authors = new String[]{""};
+        String sectionName = "";
+        String datePublished = "";
+        String url = "";
+        String thumbnailUrl = "";
+    }
+}
@@ -0,0 +1,45 @@
+package com.davidread.theguardiannewsclient;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test for {@link LoadingProfile#select(boolean, boolean, int)}.
+ */
+public class LoadingProfileTest {
+
+    @Test
+    public void withoutConnectionIsOffline() {
+        assertSame(LoadingProfile.OFFLINE, LoadingProfile.select(false, false, 0));
+        assertSame(LoadingProfile.OFFLINE, LoadingProfile.select(false, true, 500));
+        assertSame(LoadingProfile.OFFLINE, LoadingProfile.select(false, false, 100000));
+    }
+
+    @Test
+    public void slowConnectionIsConstrainedWhetherMeteredOrNot() {
+        assertSame(LoadingProfile.CONSTRAINED, LoadingProfile.select(true, false, 1));
+        assertSame(LoadingProfile.CONSTRAINED, LoadingProfile.select(true, true, 1));
+        assertSame(LoadingProfile.CONSTRAINED, LoadingProfile.select(true, false, LoadingProfile.CONSTRAINED_BANDWIDTH_KBPS - 1));
+    }
+
+    @Test
+    public void fastOrUnknownBandwidthDependsOnMetering() {
+        assertSame(LoadingProfile.METERED, LoadingProfile.select(true, true, 0));
+        assertSame(LoadingProfile.METERED, LoadingProfile.select(true, true, LoadingProfile.CONSTRAINED_BANDWIDTH_KBPS));
+        assertSame(LoadingProfile.UNMETERED, LoadingProfile.select(true, false, 0));
+        assertSame(LoadingProfile.UNMETERED, LoadingProfile.select(true, false, LoadingProfile.CONSTRAINED_BANDWIDTH_KBPS));
+    }
+
+    @Test
+    public void profilesLoadLessAsConnectionsGetWorse() {
+        assertFalse(LoadingProfile.UNMETERED.isOffline());
+        assertTrue(LoadingProfile.OFFLINE.isOffline());
+        assertTrue(LoadingProfile.UNMETERED.getPageSize() >= LoadingProfile.METERED.getPageSize());
+        assertTrue(LoadingProfile.METERED.getPageSize() >= LoadingProfile.CONSTRAINED.getPageSize());
+        assertTrue(LoadingProfile.METERED.getPrefetchDistance() <= LoadingProfile.UNMETERED.getPrefetchDistance());
+        assertFalse(LoadingProfile.CONSTRAINED.loadsImages());
+        assertFalse(LoadingProfile.METERED.prefetchesArticleBodies());
+        assertTrue(LoadingProfile.CONSTRAINED.getReadTimeoutMillis() > LoadingProfile.UNMETERED.getReadTimeoutMillis());
+    }
+}
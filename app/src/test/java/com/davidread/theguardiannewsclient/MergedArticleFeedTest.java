@@ -0,0 +1,44 @@
+package com.davidread.theguardiannewsclient;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test for the article budget a {@link MergedArticleFeed} shares between its sections.
+ */
+public class MergedArticleFeedTest {
+
+    @Test
+    public void sectionsAreTrimmedDistinctAndCapped() {
+        assertEquals(Arrays.asList("world", "technology"), MergedArticleFeed.parseSections(" world, technology ,,world"));
+        assertTrue(MergedArticleFeed.parseSections(null).isEmpty());
+
+        StringBuilder sectionsValue = new StringBuilder();
+        for (int i = 0; i < 3 * MergedArticleFeed.MAX_SECTION_COUNT; i++) {
+            sectionsValue.append("section-").append(i).append(',');
+        }
+        List<String> sections = MergedArticleFeed.parseSections(sectionsValue.toString());
+        assertEquals(MergedArticleFeed.MAX_SECTION_COUNT, sections.size());
+        assertEquals("section-0", sections.get(0));
+    }
+
+    @Test
+    public void sectionPagesFitTheBudget() {
+        for (int sectionCount = 1; sectionCount <= MergedArticleFeed.MAX_SECTION_COUNT; sectionCount++) {
+            for (int pageSize : new int[]{20, 30, 50}) {
+                int sectionPageSize = MergedArticleFeed.getSectionPageSize(pageSize, sectionCount);
+                assertTrue(sectionPageSize <= pageSize);
+                assertTrue(sectionPageSize >= Math.min(pageSize, MergedArticleFeed.MIN_SECTION_PAGE_SIZE));
+                assertTrue(sectionCount + " sections of " + sectionPageSize,
+                        2 * sectionCount * sectionPageSize <= MergedArticleFeed.MAX_BUFFERED_ARTICLE_COUNT);
+            }
+        }
+
+        // A single section keeps the page size of the feed.
+        assertEquals(50, MergedArticleFeed.getSectionPageSize(50, 1));
+    }
+}
@@ -0,0 +1,133 @@
+package com.davidread.theguardiannewsclient;
+
+import android.app.Application;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.os.Looper;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowNetworkCapabilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Local unit test for {@link NetworkMonitor}, which switches the capabilities of the active
+ * network of a shadowed {@link ConnectivityManager}, invokes the network callbacks
+ * {@link NetworkMonitor} registered, and checks which {@link LoadingProfile} listeners receive on
+ * the main thread. The plain {@link Application} keeps {@link NewsClientApplication} from
+ * connecting to The Guardian API.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = Application.class)
+public class NetworkMonitorTest {
+
+    private ConnectivityManager connectivityManager;
+    private Network network;
+    private NetworkMonitor networkMonitor;
+    private final List<LoadingProfile> receivedLoadingProfiles = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        Context context = RuntimeEnvironment.getApplication();
+        connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        network = connectivityManager.getActiveNetwork();
+        setCapabilities(NetworkCapabilities.NET_CAPABILITY_INTERNET, NetworkCapabilities.NET_CAPABILITY_NOT_METERED);
+
+        networkMonitor = new NetworkMonitor(context);
+        networkMonitor.addOnLoadingProfileChangedListener(new NetworkMonitor.OnLoadingProfileChangedListener() {
+            @Override
+            public void onLoadingProfileChanged(LoadingProfile loadingProfile) {
+                receivedLoadingProfiles.add(loadingProfile);
+            }
+        });
+    }
+
+    @Test
+    public void startsWithTheProfileOfTheActiveNetwork() {
+        assertSame(LoadingProfile.UNMETERED, networkMonitor.getLoadingProfile());
+        assertFalse(shadowOf(connectivityManager).getNetworkCallbacks().isEmpty());
+    }
+
+    @Test
+    public void listenersReceiveEveryNewProfile() {
+        setCapabilities(NetworkCapabilities.NET_CAPABILITY_INTERNET);
+        changeCapabilities();
+        assertSame(LoadingProfile.METERED, networkMonitor.getLoadingProfile());
+
+        shadowOf(connectivityManager).setDefaultNetworkActive(false);
+        for (ConnectivityManager.NetworkCallback networkCallback : shadowOf(connectivityManager).getNetworkCallbacks()) {
+            networkCallback.onLost(network);
+        }
+        shadowOf(Looper.getMainLooper()).idle();
+        assertSame(LoadingProfile.OFFLINE, networkMonitor.getLoadingProfile());
+
+        shadowOf(connectivityManager).setDefaultNetworkActive(true);
+        setCapabilities(NetworkCapabilities.NET_CAPABILITY_INTERNET, NetworkCapabilities.NET_CAPABILITY_NOT_METERED);
+        for (ConnectivityManager.NetworkCallback networkCallback : shadowOf(connectivityManager).getNetworkCallbacks()) {
+            networkCallback.onAvailable(network);
+        }
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertEquals(Arrays.asList(LoadingProfile.METERED, LoadingProfile.OFFLINE, LoadingProfile.UNMETERED), receivedLoadingProfiles);
+    }
+
+    @Test
+    public void unchangedProfileIsNotDelivered() {
+        changeCapabilities();
+        assertTrue(receivedLoadingProfiles.isEmpty());
+    }
+
+    @Test
+    public void removedListenerReceivesNothing() {
+        List<LoadingProfile> removedListenerLoadingProfiles = new ArrayList<>();
+        NetworkMonitor.OnLoadingProfileChangedListener listener = new NetworkMonitor.OnLoadingProfileChangedListener() {
+            @Override
+            public void onLoadingProfileChanged(LoadingProfile loadingProfile) {
+                removedListenerLoadingProfiles.add(loadingProfile);
+            }
+        };
+        networkMonitor.addOnLoadingProfileChangedListener(listener);
+        networkMonitor.removeOnLoadingProfileChangedListener(listener);
+
+        setCapabilities(NetworkCapabilities.NET_CAPABILITY_INTERNET);
+        changeCapabilities();
+        assertEquals(Arrays.asList(LoadingProfile.METERED), receivedLoadingProfiles);
+        assertTrue(removedListenerLoadingProfiles.isEmpty());
+    }
+
+    /**
+     * Gives the active network of the shadowed {@link ConnectivityManager} exactly the given
+     * capabilities.
+     */
+    private void setCapabilities(int... capabilities) {
+        NetworkCapabilities networkCapabilities = ShadowNetworkCapabilities.newInstance();
+        for (int capability : capabilities) {
+            shadowOf(networkCapabilities).addCapability(capability);
+        }
+        shadowOf(connectivityManager).setNetworkCapabilities(network, networkCapabilities);
+    }
+
+    /**
+     * Reports the current capabilities of the active network to every registered callback and
+     * runs what they posted to the main thread.
+     */
+    private void changeCapabilities() {
+        NetworkCapabilities networkCapabilities = connectivityManager.getNetworkCapabilities(network);
+        for (ConnectivityManager.NetworkCallback networkCallback : shadowOf(connectivityManager).getNetworkCallbacks()) {
+            networkCallback.onCapabilitiesChanged(network, networkCapabilities);
+        }
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+}
@@ -0,0 +1,188 @@
+package com.davidread.theguardiannewsclient;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test for the {@link SearchSuggestionIndex.Trie}, which checks its completions against
+ * a brute force search over the added terms and how much memory 100,000 terms hold. Run with
+ * {@code -Pbenchmark} to also check that looking up completions among them takes under a
+ * millisecond.
+ */
+public class SearchSuggestionIndexTest {
+
+    private static final int TERM_COUNT = 100000;
+    private static final int MAX_SUGGESTION_COUNT = 8;
+
+    /**
+     * long representing the most microseconds the 99th percentile lookup may take.
+     */
+    private static final long MAX_LOOKUP_MICROS = 1000;
+
+    @Test
+    public void completionsAreMatchingTermsByDescendingWeight() {
+        SearchSuggestionIndex.Trie trie = new SearchSuggestionIndex.Trie();
+        trie.add("Climate crisis", 16);
+        trie.add("climate", 1);
+        trie.add("Climbing", 3);
+        trie.add("Cricket", 5);
+        trie.add("CLIMATE CRISIS", 16);
+
+        // Labels keep the case of the term they were first added for, so "climate" reads "Climate".
+        assertEquals(Arrays.asList("Climate crisis", "Climbing", "Climate"), trie.getCompletions("cli", 10));
+        assertEquals(Arrays.asList("Climate crisis", "Climbing"), trie.getCompletions("CLI", 2));
+        assertEquals(Collections.singletonList("Climate crisis"), trie.getCompletions("climate  c", 10));
+        assertEquals(Arrays.asList("Climate crisis", "Cricket", "Climbing", "Climate"), trie.getCompletions("c", 10));
+        assertTrue(trie.getCompletions("cla", 10).isEmpty());
+        assertTrue(trie.getCompletions("climates", 10).isEmpty());
+        assertTrue(trie.getCompletions("", 10).isEmpty());
+    }
+
+    @Test
+    public void termsAreNormalizedAndBlankTermsIgnored() {
+        SearchSuggestionIndex.Trie trie = new SearchSuggestionIndex.Trie();
+        assertTrue(trie.add("  world \t cup ", 1));
+        assertFalse(trie.add("   ", 1));
+        assertFalse(trie.add("football", 0));
+        assertEquals(Collections.singletonList("world cup"), trie.getCompletions("world", 10));
+
+        char[] longTerm = new char[100];
+        Arrays.fill(longTerm, 'a');
+        trie.add(new String(longTerm), 1);
+        assertEquals(64, trie.getCompletions("a", 1).get(0).length());
+    }
+
+    @Test
+    public void matchesBruteForceOverManyTerms() {
+        Random random = new Random(42);
+        List<String> terms = buildTerms(random, 20000);
+        SearchSuggestionIndex.Trie trie = new SearchSuggestionIndex.Trie();
+        Map<String, Integer> weights = new HashMap<>();
+        for (String term : terms) {
+            int weight = 1 + random.nextInt(20);
+            trie.add(term, weight);
+            String key = term.toLowerCase(Locale.US);
+            Integer oldWeight = weights.get(key);
+            weights.put(key, (oldWeight == null ? 0 : oldWeight) + weight);
+        }
+
+        for (int prefixIndex = 0; prefixIndex < 2000; prefixIndex++) {
+            String term = terms.get(random.nextInt(terms.size()));
+            String prefix = term.substring(0, 1 + random.nextInt(Math.min(term.length(), 6)));
+            List<String> completions = trie.getCompletions(prefix, MAX_SUGGESTION_COUNT);
+
+            // Prefixes are trimmed like terms, e.g. a prefix ending with a space.
+            String key = prefix.trim().toLowerCase(Locale.US);
+
+            List<Integer> expectedWeights = new ArrayList<>();
+            for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+                if (entry.getKey().startsWith(key)) {
+                    expectedWeights.add(entry.getValue());
+                }
+            }
+            Collections.sort(expectedWeights, Collections.<Integer>reverseOrder());
+            expectedWeights = expectedWeights.subList(0, Math.min(MAX_SUGGESTION_COUNT, expectedWeights.size()));
+
+            List<Integer> completionWeights = new ArrayList<>();
+            Set<String> completionKeys = new HashSet<>();
+            for (String completion : completions) {
+                String completionKey = completion.toLowerCase(Locale.US);
+                assertTrue(prefix + " -> " + completion, completionKey.startsWith(key));
+                assertTrue(completionKeys.add(completionKey));
+                completionWeights.add(weights.get(completionKey));
+            }
+            assertEquals(prefix, expectedWeights, completionWeights);
+        }
+    }
+
+    @Test
+    public void hundredThousandTermsFitInEightMegabytes() {
+        SearchSuggestionIndex.Trie trie = buildHundredThousandTermTrie();
+        String[] copiedTerms = new String[TERM_COUNT];
+        int[] copiedWeights = new int[TERM_COUNT];
+        trie.copyTerms(copiedTerms, copiedWeights);
+        assertNotNull("The index holds fewer terms than its limit", copiedTerms[TERM_COUNT - 1]);
+        assertTrue(trie.getMemoryBytes() < 8 * 1024 * 1024);
+    }
+
+    @Test
+    public void lookUpAmongHundredThousandTermsUnderAMillisecond() {
+        Assume.assumeTrue(Boolean.getBoolean("benchmark"));
+        SearchSuggestionIndex.Trie trie = buildHundredThousandTermTrie();
+
+        // Look up every one and two letter prefix, which have the largest subtrees.
+        List<String> prefixes = new ArrayList<>();
+        for (char first = 'a'; first <= 'z'; first++) {
+            prefixes.add(String.valueOf(first));
+            for (char second = 'a'; second <= 'z'; second++) {
+                prefixes.add(String.valueOf(first) + second);
+            }
+        }
+        for (String prefix : prefixes) {
+            trie.getCompletions(prefix, MAX_SUGGESTION_COUNT);
+        }
+        long[] lookupNanos = new long[prefixes.size()];
+        for (int prefixIndex = 0; prefixIndex < prefixes.size(); prefixIndex++) {
+            long lookupStartNanos = System.nanoTime();
+            trie.getCompletions(prefixes.get(prefixIndex), MAX_SUGGESTION_COUNT);
+            lookupNanos[prefixIndex] = System.nanoTime() - lookupStartNanos;
+        }
+        Arrays.sort(lookupNanos);
+        long p99LookupNanos = lookupNanos[lookupNanos.length * 99 / 100];
+        assertTrue(String.format(Locale.US, "%d lookups p50 %.1f us p99 %.1f us", lookupNanos.length,
+                lookupNanos[lookupNanos.length / 2] / 1e3, p99LookupNanos / 1e3),
+                p99LookupNanos <= MAX_LOOKUP_MICROS * 1000);
+    }
+
+    /**
+     * Returns a {@link SearchSuggestionIndex.Trie} filled up to its limit of
+     * {@link #TERM_COUNT} terms from twice as many random ones.
+     */
+    private static SearchSuggestionIndex.Trie buildHundredThousandTermTrie() {
+        Random random = new Random(7);
+        List<String> terms = buildTerms(random, TERM_COUNT * 2);
+        SearchSuggestionIndex.Trie trie = new SearchSuggestionIndex.Trie();
+        for (String term : terms) {
+            trie.add(term, 1 + random.nextInt(20));
+        }
+        return trie;
+    }
+
+    /**
+     * Returns the given number of random terms of one to three words, like section and contributor
+     * names and search terms, with random capitalization.
+     */
+    private static List<String> buildTerms(Random random, int count) {
+        List<String> terms = new ArrayList<>(count);
+        StringBuilder termBuilder = new StringBuilder();
+        for (int termIndex = 0; termIndex < count; termIndex++) {
+            termBuilder.setLength(0);
+            int wordCount = 1 + random.nextInt(3);
+            for (int wordIndex = 0; wordIndex < wordCount; wordIndex++) {
+                if (wordIndex > 0) {
+                    termBuilder.append(' ');
+                }
+                int wordLength = 2 + random.nextInt(8);
+                for (int charIndex = 0; charIndex < wordLength; charIndex++) {
+                    char c = (char) ('a' + random.nextInt(26));
+                    termBuilder.append(charIndex == 0 && random.nextBoolean() ? Character.toUpperCase(c) : c);
+                }
+            }
+            terms.add(termBuilder.toString());
+        }
+        return terms;
+    }
+}